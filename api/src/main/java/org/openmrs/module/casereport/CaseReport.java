@@ -11,6 +11,7 @@ package org.openmrs.module.casereport;
 
 import java.io.Serializable;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -37,12 +38,16 @@ public class CaseReport extends BaseOpenmrsData implements Serializable {
 	
 	private Set<CaseReportTrigger> reportTriggers;
 	
-	private String reportForm;
+	//A lazy collection of at most one element since hibernate can't lazily load the optional side of
+	//a one-to-one mapping without bytecode instrumentation
+	private Set<CaseReportFormData> reportFormData;
 	
 	private boolean autoSubmitted = Boolean.FALSE;
 	
 	private Date resolutionDate;
 	
+	private Integer version;
+	
 	public CaseReport() {
 	}
 	
@@ -101,12 +106,45 @@ public class CaseReport extends BaseOpenmrsData implements Serializable {
 		getReportTriggers().add(trigger);
 	}
 	
+	/**
+	 * Gets the report form, it is loaded from the database the first time it is accessed
+	 *
+	 * @return the report form JSON text
+	 */
 	public String getReportForm() {
-		return reportForm;
+		if (reportFormData == null || reportFormData.isEmpty()) {
+			return null;
+		}
+		return reportFormData.iterator().next().getReportForm();
 	}
 	
+	/**
+	 * Sets the report form, if the form of an existing case report is changed, the case report is
+	 * marked as changed too since the form is stored in a separate table, this way the version of
+	 * the case report is incremented and a stale copy of it can't overwrite the form
+	 *
+	 * @param reportForm the report form JSON text
+	 * @should mark an existing case report as changed if the form is changed
+	 * @should not mark an existing case report as changed if the form is the same
+	 */
 	public void setReportForm(String reportForm) {
-		this.reportForm = reportForm;
+		if (reportFormData == null) {
+			reportFormData = new HashSet<>(1);
+		}
+		boolean changed;
+		if (reportFormData.isEmpty()) {
+			changed = reportForm != null;
+			if (changed) {
+				reportFormData.add(new CaseReportFormData(this, reportForm));
+			}
+		} else {
+			CaseReportFormData formData = reportFormData.iterator().next();
+			changed = !StringUtils.equals(formData.getReportForm(), reportForm);
+			formData.setReportForm(reportForm);
+		}
+		if (changed && getId() != null) {
+			setDateChanged(new Date());
+		}
 	}
 	
 	public boolean getAutoSubmitted() {
@@ -125,6 +163,20 @@ public class CaseReport extends BaseOpenmrsData implements Serializable {
 		this.resolutionDate = resolutionDate;
 	}
 	
+	/**
+	 * Gets the version of this case report, it is incremented by hibernate each time the case report
+	 * is updated and is used to detect concurrent updates
+	 *
+	 * @return the version
+	 */
+	public Integer getVersion() {
+		return version;
+	}
+	
+	protected void setVersion(Integer version) {
+		this.version = version;
+	}
+	
 	public boolean isSubmitted() {
 		return getStatus() == Status.SUBMITTED;
 	}
@@ -26,6 +26,7 @@ import org.openmrs.module.reporting.cohort.definition.CohortDefinition;
 import org.openmrs.module.reporting.cohort.definition.SqlCohortDefinition;
 import org.openmrs.module.reporting.definition.DefinitionContext;
 import org.openmrs.module.reporting.evaluation.parameter.Parameter;
+import org.openmrs.scheduler.SchedulerException;
 import org.openmrs.scheduler.SchedulerService;
 import org.openmrs.scheduler.TaskDefinition;
 
@@ -54,13 +55,48 @@ public class CaseReportActivator extends BaseModuleActivator {
 	 * @should save a cohort queries with a name that matches a retired duplicate
 	 * @should load queries and register them with the reporting module
 	 * @should add the case report tasks if they do not exist
+	 * @should add the outbox dispatcher task if it does not exist
+	 * @should add the report form migration task if it does not exist
+	 * @should set the configured report form write codec
 	 * @see ModuleActivator#contextRefreshed()
 	 */
 	public void contextRefreshed() {
+		configureReportFormCodecs();
 		loadQueries();
+		addRepeatingTaskIfNecessary(CaseReportConstants.OUTBOX_DISPATCHER_TASK_NAME,
+		    "casereport.description.outboxDispatcherTask", CaseReportConstants.OUTBOX_DISPATCHER_TASK_CLASS,
+		    CaseReportConstants.OUTBOX_DISPATCHER_TASK_INTERVAL);
+		addRepeatingTaskIfNecessary(CaseReportConstants.REPORT_FORM_MIGRATION_TASK_NAME,
+		    "casereport.description.reportFormMigrationTask", CaseReportConstants.REPORT_FORM_MIGRATION_TASK_CLASS,
+		    CaseReportConstants.REPORT_FORM_MIGRATION_TASK_INTERVAL);
 		log.info("Case Report Module refreshed");
 	}
 	
+	private void configureReportFormCodecs() {
+		for (ReportFormCodec codec : Context.getRegisteredComponents(ReportFormCodec.class)) {
+			ReportFormCodecs.register(codec);
+		}
+		
+		String codecId = Context.getAdministrationService().getGlobalProperty(
+		    CaseReportConstants.GP_REPORT_FORM_CODEC);
+		if (StringUtils.isBlank(codecId)) {
+			return;
+		}
+		
+		codecId = codecId.trim();
+		if (CaseReportConstants.REPORT_FORM_CODEC_NONE.equalsIgnoreCase(codecId)) {
+			ReportFormCodecs.setWriteCodec(null);
+			return;
+		}
+		
+		ReportFormCodec codec = ReportFormCodecs.getCodec(codecId);
+		if (codec == null) {
+			log.warn("No report form codec registered with id " + codecId + ", keeping the current write codec");
+			return;
+		}
+		ReportFormCodecs.setWriteCodec(codec);
+	}
+	
 	private void loadQueries() {
 		log.info("Loading queries...");
 		
@@ -153,6 +189,28 @@ public class CaseReportActivator extends BaseModuleActivator {
 		}
 	}
 	
+	private void addRepeatingTaskIfNecessary(String name, String descriptionCode, String className, long interval) {
+		SchedulerService ss = Context.getSchedulerService();
+		if (ss.getTaskByName(name) != null) {
+			return;
+		}
+		
+		log.info("Creating the " + name + " Task");
+		
+		String description = Context.getMessageSourceService().getMessage(descriptionCode);
+		TaskDefinition td = new TaskDefinition(null, name, description, className);
+		td.setStartOnStartup(true);
+		td.setRepeatInterval(interval);
+		ss.saveTaskDefinition(td);
+		try {
+			//Otherwise it won't run until the next restart
+			ss.scheduleTask(td);
+		}
+		catch (SchedulerException e) {
+			log.warn("Failed to schedule the " + name + " Task", e);
+		}
+	}
+	
 	/**
 	 * @see ModuleActivator#willStart()
 	 */
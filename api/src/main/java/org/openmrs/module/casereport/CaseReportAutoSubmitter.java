@@ -0,0 +1,269 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openmrs.api.APIException;
+import org.openmrs.api.context.Context;
+import org.openmrs.api.context.UserContext;
+import org.openmrs.module.casereport.api.CaseReportService;
+
+/**
+ * Auto submits case reports using a bounded pool of worker threads, the reports are split into
+ * batches and each worker opens its own session, builds the forms for a batch with set based queries
+ * and submits each case report in its own transaction. The reports are passed in by id and are
+ * reloaded by the workers so that no entity is shared across sessions. The number of workers is
+ * specified by the {@link CaseReportConstants#GP_AUTO_SUBMIT_THREAD_COUNT} global property, if the
+ * pool size is 1 or there is only one batch to submit, it is submitted in the calling thread.
+ */
+public class CaseReportAutoSubmitter {
+	
+	protected static final Log log = LogFactory.getLog(CaseReportAutoSubmitter.class);
+	
+	/**
+	 * The maximum number of case reports whose forms are built and submitted together
+	 */
+	private static final int MAX_BATCH_SIZE = 100;
+	
+	private int threadCount;
+	
+	/**
+	 * Creates an auto submitter with the pool size set to the value of the
+	 * {@link CaseReportConstants#GP_AUTO_SUBMIT_THREAD_COUNT} global property
+	 */
+	public CaseReportAutoSubmitter() {
+		this(getConfiguredThreadCount());
+	}
+	
+	/**
+	 * @param threadCount the maximum number of reports to submit in parallel
+	 */
+	public CaseReportAutoSubmitter(int threadCount) {
+		if (threadCount < 1) {
+			throw new APIException("The auto submit thread count must be a positive number");
+		}
+		this.threadCount = threadCount;
+	}
+	
+	/**
+	 * Gets the value of the {@link CaseReportConstants#GP_AUTO_SUBMIT_THREAD_COUNT} global
+	 * property, defaults to {@link CaseReportConstants#DEFAULT_AUTO_SUBMIT_THREAD_COUNT} if it is
+	 * not set or has an invalid value
+	 *
+	 * @return the number of threads
+	 */
+	private static int getConfiguredThreadCount() {
+		String value = Context.getAdministrationService().getGlobalProperty(
+		    CaseReportConstants.GP_AUTO_SUBMIT_THREAD_COUNT);
+		if (StringUtils.isNotBlank(value)) {
+			try {
+				int count = Integer.valueOf(value.trim());
+				if (count > 0) {
+					return count;
+				}
+			}
+			catch (NumberFormatException e) {
+				//ignore and use the default below
+			}
+			log.warn("Invalid value for the " + CaseReportConstants.GP_AUTO_SUBMIT_THREAD_COUNT
+			        + " global property, defaulting to " + CaseReportConstants.DEFAULT_AUTO_SUBMIT_THREAD_COUNT);
+		}
+		return CaseReportConstants.DEFAULT_AUTO_SUBMIT_THREAD_COUNT;
+	}
+	
+	public int getThreadCount() {
+		return threadCount;
+	}
+	
+	/**
+	 * Generates the report forms and submits the case reports with the specified ids, a failure to
+	 * submit one report doesn't stop the others from being submitted.
+	 *
+	 * @param caseReportIds the ids of the case reports to submit
+	 * @return a Summary of the successful and failed submissions
+	 * @should record the failed submissions in the summary
+	 * @should submit the case reports in batches
+	 */
+	public Summary submit(List<Integer> caseReportIds) {
+		Summary summary = new Summary();
+		if (caseReportIds.isEmpty()) {
+			return summary;
+		}
+		
+		//Split the reports evenly among the workers so that they all get a share
+		int batchSize = Math.min(MAX_BATCH_SIZE, (caseReportIds.size() + threadCount - 1) / threadCount);
+		List<List<Integer>> batches = new ArrayList<>();
+		for (int i = 0; i < caseReportIds.size(); i += batchSize) {
+			batches.add(caseReportIds.subList(i, Math.min(i + batchSize, caseReportIds.size())));
+		}
+		
+		if (threadCount == 1 || batches.size() == 1) {
+			for (List<Integer> batch : batches) {
+				try {
+					submit(batch, summary);
+				}
+				catch (Throwable t) {
+					summary.addFailures(batch, t);
+				}
+			}
+			
+			return summary;
+		}
+		
+		final UserContext userContext = Context.getUserContext();
+		int poolSize = Math.min(threadCount, batches.size());
+		ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+		Map<List<Integer>, Future<Summary>> batchFutureMap = new LinkedHashMap<>(batches.size());
+		try {
+			for (final List<Integer> batch : batches) {
+				batchFutureMap.put(batch, executor.submit(new Callable<Summary>() {
+					
+					@Override
+					public Summary call() throws Exception {
+						Summary batchSummary = new Summary();
+						Context.openSession();
+						try {
+							Context.setUserContext(userContext);
+							submit(batch, batchSummary);
+						}
+						finally {
+							Context.closeSession();
+						}
+						return batchSummary;
+					}
+				}));
+			}
+			
+			for (Map.Entry<List<Integer>, Future<Summary>> entry : batchFutureMap.entrySet()) {
+				try {
+					summary.addAll(entry.getValue().get());
+				}
+				catch (ExecutionException e) {
+					summary.addFailures(entry.getKey(), e.getCause());
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new APIException("Interrupted while waiting for case reports to be auto submitted", e);
+				}
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		
+		return summary;
+	}
+	
+	/**
+	 * Generates the report forms for the case reports with the specified ids and submits them, the
+	 * forms are built with a {@link CaseReportFormBatchBuilder} so that the clinical data for the
+	 * whole batch is fetched with a few set based queries, each report is still submitted in its own
+	 * transaction.
+	 *
+	 * @param caseReportIds the ids of the case reports to submit
+	 * @param summary the Summary to add the outcomes to
+	 */
+	private void submit(List<Integer> caseReportIds, Summary summary) {
+		CaseReportService service = Context.getService(CaseReportService.class);
+		List<CaseReport> caseReports = new ArrayList<>(caseReportIds.size());
+		for (Integer id : caseReportIds) {
+			CaseReport caseReport = service.getCaseReport(id);
+			if (caseReport == null) {
+				summary.addFailure(id, new APIException("No case report found with id: " + id));
+			} else {
+				caseReports.add(caseReport);
+			}
+		}
+		if (caseReports.isEmpty()) {
+			return;
+		}
+		
+		CaseReportFormBatchBuilder formBuilder = new CaseReportFormBatchBuilder(caseReports);
+		for (CaseReport caseReport : caseReports) {
+			try {
+				CaseReportForm form = formBuilder.build(caseReport);
+				caseReport.setReportForm(JsonUtil.writeReportForm(form));
+				service.submitCaseReport(caseReport);
+				summary.addSuccess(caseReport.getId());
+			}
+			catch (Throwable t) {
+				summary.addFailure(caseReport.getId(), t);
+			}
+		}
+	}
+	
+	/**
+	 * An instance of this class encapsulates the outcome of auto submitting a list of case reports
+	 */
+	public static class Summary {
+		
+		private List<Integer> submitted = new ArrayList<>();
+		
+		private Map<Integer, Throwable> failed = new LinkedHashMap<>();
+		
+		private void addSuccess(Integer caseReportId) {
+			submitted.add(caseReportId);
+		}
+		
+		private void addFailure(Integer caseReportId, Throwable cause) {
+			log.warn("Failed to auto submit case report with id: " + caseReportId, cause);
+			failed.put(caseReportId, cause);
+		}
+		
+		private void addFailures(List<Integer> caseReportIds, Throwable cause) {
+			for (Integer caseReportId : caseReportIds) {
+				if (!submitted.contains(caseReportId) && !failed.containsKey(caseReportId)) {
+					addFailure(caseReportId, cause);
+				}
+			}
+		}
+		
+		void addAll(Summary other) {
+			submitted.addAll(other.submitted);
+			failed.putAll(other.failed);
+		}
+		
+		/**
+		 * @return the ids of the successfully submitted case reports
+		 */
+		public List<Integer> getSubmitted() {
+			return Collections.unmodifiableList(submitted);
+		}
+		
+		/**
+		 * @return a map of the ids of case reports that failed to be submitted and their causes
+		 */
+		public Map<Integer, Throwable> getFailed() {
+			return Collections.unmodifiableMap(failed);
+		}
+		
+		/**
+		 * @see Object#toString()
+		 */
+		@Override
+		public String toString() {
+			return "Auto submitted " + submitted.size() + " case report(s), " + failed.size() + " failed"
+			        + (failed.isEmpty() ? "" : " " + failed.keySet());
+		}
+	}
+}
@@ -9,14 +9,11 @@
  */
 package org.openmrs.module.casereport;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-
 public class CaseReportConstants {
 	
 	public static final String MODULE_ID = "casereport";
 	
-	public static final DateFormat DATE_FORMATTER = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+	public static final ThreadSafeDateFormat DATE_FORMATTER = new ThreadSafeDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
 	
 	public static final String TRIGGER_PATIENT_DIED = "Patient Died";
 	
@@ -28,6 +25,32 @@ public class CaseReportConstants {
 	
 	public static final String GP_AUTO_SUBMIT_PROVIDER_UUID = MODULE_ID + ".autoSubmitProviderUuid";
 	
+	public static final String GP_AUTO_SUBMIT_THREAD_COUNT = MODULE_ID + ".autoSubmitThreadCount";
+	
+	public static final int DEFAULT_AUTO_SUBMIT_THREAD_COUNT = 4;
+	
+	public static final String GP_LARGE_COHORT_FLUSH_INTERVAL = MODULE_ID + ".largeCohortFlushInterval";
+	
+	public static final String GP_STREAMING_FETCH_SIZE = MODULE_ID + ".streamingCohortFetchSize";
+	
+	public static final String GP_REPORT_FORM_CODEC = MODULE_ID + ".reportFormCodec";
+	
+	public static final String REPORT_FORM_CODEC_NONE = "none";
+	
+	public static final String OUTBOX_DISPATCHER_TASK_NAME = "Case Report Outbox Dispatcher";
+	
+	public static final String OUTBOX_DISPATCHER_TASK_CLASS = "org.openmrs.module.casereport.OutboxDispatcherTask";
+	
+	public static final long OUTBOX_DISPATCHER_TASK_INTERVAL = 60L;
+	
+	public static final String REPORT_FORM_MIGRATION_TASK_NAME = "Case Report Form Migrator";
+	
+	public static final String REPORT_FORM_MIGRATION_TASK_CLASS = "org.openmrs.module.casereport.ReportFormMigrationTask";
+	
+	public static final long REPORT_FORM_MIGRATION_TASK_INTERVAL = 86400L;
+	
+	public static final int REPORT_FORM_MIGRATION_BATCH_SIZE = 500;
+	
 	public static final String PRIV_GET_CASE_REPORTS = "Get Case Reports";
 	
 	public static final String PRIV_MANAGE_CASE_REPORTS = "Manage Case Reports";
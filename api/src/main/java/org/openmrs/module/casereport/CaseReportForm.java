@@ -82,16 +82,52 @@ public class CaseReportForm {
 	
 	private String comments;
 	
+	//The parsed dates are cached so that each is parsed at most once
+	private Date parsedBirthdate;
+	
+	private Date parsedDeathdate;
+	
+	private Date parsedLastVisitDate;
+	
+	//The last visit date value that was parsed, since the value can be changed directly on the UuidAndValue
+	private Object parsedLastVisitDateValue;
+	
 	public CaseReportForm() {
 	}
 	
 	public CaseReportForm(CaseReport caseReport) {
+		this(caseReport, PatientObsSnapshot.load(caseReport.getPatient()));
+	}
+	
+	/**
+	 * Creates a form for the specified case report using the observations in the specified snapshot
+	 *
+	 * @param caseReport the case report
+	 * @param obsSnapshot the snapshot containing the patient's most recent observations
+	 * @should generate the report form from the specified obs snapshot
+	 */
+	public CaseReportForm(CaseReport caseReport, PatientObsSnapshot obsSnapshot) {
+		this(caseReport, obsSnapshot, CaseReportUtil.getActiveArvDrugOrders(caseReport.getPatient(), null), CaseReportUtil
+		        .getLastVisit(caseReport.getPatient()));
+	}
+	
+	/**
+	 * Creates a form for the specified case report using the specified prefetched clinical data
+	 *
+	 * @param caseReport the case report
+	 * @param obsSnapshot the snapshot containing the patient's most recent observations
+	 * @param arvDrugOrders the patient's active ARV drug orders
+	 * @param lastVisit the patient's most recent visit, can be null
+	 */
+	public CaseReportForm(CaseReport caseReport, PatientObsSnapshot obsSnapshot, List<DrugOrder> arvDrugOrders,
+	                      Visit lastVisit) {
 		setReportUuid(caseReport.getUuid());
 		setReportDate(caseReport.getDateCreated());
 		Patient patient = caseReport.getPatient();
 		setGender(patient.getGender());
 		if (patient.getBirthdate() != null) {
 			setBirthdate(DATE_FORMATTER.format(patient.getBirthdate()));
+			parsedBirthdate = patient.getBirthdate();
 		}
 		PersonName name = patient.getPersonName();
 		if (name != null) {
@@ -108,6 +144,7 @@ public class CaseReportForm {
 			}
 			if (patient.getDeathDate() != null) {
 				setDeathdate(DATE_FORMATTER.format(patient.getDeathDate()));
+				parsedDeathdate = patient.getDeathDate();
 			}
 		}
 		PatientIdentifier id = patient.getPatientIdentifier();
@@ -118,30 +155,26 @@ public class CaseReportForm {
 		setIdentifierType(new UuidAndValue(id.getIdentifierType().getUuid(), id.getIdentifierType().getName()));
 		
 		for (CaseReportTrigger tr : caseReport.getReportTriggers()) {
-			getTriggers().add(new DatedUuidAndValue(tr.getUuid(), tr.getName(), DATE_FORMATTER.format(tr.getDateCreated())));
+			getTriggers().add(new DatedUuidAndValue(tr.getUuid(), tr.getName(), tr.getDateCreated()));
 		}
 		
-		List<Obs> mostRecentCd4Counts = CaseReportUtil.getMostRecentCD4counts(patient);
+		List<Obs> mostRecentCd4Counts = obsSnapshot.getMostRecentCD4counts(patient);
 		for (Obs o : mostRecentCd4Counts) {
-			getMostRecentCd4Counts().add(
-			    new DatedUuidAndValue(o.getUuid(), o.getValueNumeric(), DATE_FORMATTER.format(o.getObsDatetime())));
+			getMostRecentCd4Counts().add(new DatedUuidAndValue(o.getUuid(), o.getValueNumeric(), o.getObsDatetime()));
 		}
 		
-		List<Obs> mostRecentHivTests = CaseReportUtil.getMostRecentHIVTests(patient);
+		List<Obs> mostRecentHivTests = obsSnapshot.getMostRecentHIVTests(patient);
 		for (Obs o : mostRecentHivTests) {
 			getMostRecentHivTests().add(
-			    new DatedUuidAndValue(o.getUuid(), o.getValueAsString(Context.getLocale()), DATE_FORMATTER.format(o
-			            .getObsDatetime())));
+			    new DatedUuidAndValue(o.getUuid(), o.getValueAsString(Context.getLocale()), o.getObsDatetime()));
 		}
 		
-		List<Obs> mostRecentViralLoads = CaseReportUtil.getMostRecentViralLoads(patient);
+		List<Obs> mostRecentViralLoads = obsSnapshot.getMostRecentViralLoads(patient);
 		for (Obs o : mostRecentViralLoads) {
-			getMostRecentViralLoads().add(
-			    new DatedUuidAndValue(o.getUuid(), o.getValueNumeric(), DATE_FORMATTER.format(o.getObsDatetime())));
+			getMostRecentViralLoads().add(new DatedUuidAndValue(o.getUuid(), o.getValueNumeric(), o.getObsDatetime()));
 		}
 		
-		List<DrugOrder> arvOrders = CaseReportUtil.getActiveArvDrugOrders(patient, null);
-		for (DrugOrder drugOrder : arvOrders) {
+		for (DrugOrder drugOrder : arvDrugOrders) {
 			String displayName = "";
 			displayName += drugOrder.getConcept().getDisplayString();
 			if (drugOrder.getDrug() != null && StringUtils.isNotBlank(drugOrder.getDrug().getName())) {
@@ -149,25 +182,26 @@ public class CaseReportForm {
 					displayName += (" (" + drugOrder.getDrug().getName() + ")");
 				}
 			}
-			String dateActivated = DATE_FORMATTER.format(drugOrder.getDateActivated());
-			getCurrentHivMedications().add(new DatedUuidAndValue(drugOrder.getDrug().getUuid(), displayName, dateActivated));
+			getCurrentHivMedications().add(
+			    new DatedUuidAndValue(drugOrder.getDrug().getUuid(), displayName, drugOrder.getDateActivated()));
 		}
 		
-		Obs mostRecentWHOStageObs = CaseReportUtil.getMostRecentWHOStage(patient);
+		Obs mostRecentWHOStageObs = obsSnapshot.getMostRecentWHOStage(patient);
 		if (mostRecentWHOStageObs != null) {
 			setCurrentHivWhoStage(new UuidAndValue(mostRecentWHOStageObs.getUuid(),
 			        mostRecentWHOStageObs.getValueAsString(Context.getLocale())));
 		}
 		
-		Obs mostRecentArvStopReasonObs = CaseReportUtil.getMostRecentReasonARVsStopped(patient);
+		Obs mostRecentArvStopReasonObs = obsSnapshot.getMostRecentReasonARVsStopped(patient);
 		if (mostRecentArvStopReasonObs != null) {
 			setMostRecentArvStopReason(new UuidAndValue(mostRecentArvStopReasonObs.getUuid(),
 			        mostRecentArvStopReasonObs.getValueAsString(Context.getLocale())));
 		}
 		
-		Visit visit = CaseReportUtil.getLastVisit(patient);
-		if (visit != null) {
-			setLastVisitDate(new UuidAndValue(visit.getUuid(), DATE_FORMATTER.format(visit.getStartDatetime())));
+		if (lastVisit != null) {
+			setLastVisitDate(new UuidAndValue(lastVisit.getUuid(), DATE_FORMATTER.format(lastVisit.getStartDatetime())));
+			parsedLastVisitDate = lastVisit.getStartDatetime();
+			parsedLastVisitDateValue = getLastVisitDate().getValue();
 		}
 	}
 	
@@ -237,6 +271,24 @@ public class CaseReportForm {
 	
 	public void setBirthdate(String birthdate) {
 		this.birthdate = birthdate;
+		this.parsedBirthdate = null;
+	}
+	
+	/**
+	 * Gets the birthdate as a Date object, it is parsed the first time this method is called and
+	 * the result is cached until the birthdate is changed.
+	 *
+	 * @return the birthdate or null if it is blank
+	 * @throws ParseException if the birthdate can't be parsed
+	 * @should return the parsed birthdate
+	 * @should parse the birthdate again after it is changed
+	 */
+	@JsonIgnore
+	public Date getParsedBirthdate() throws ParseException {
+		if (parsedBirthdate == null && StringUtils.isNotBlank(birthdate)) {
+			parsedBirthdate = DATE_FORMATTER.parse(birthdate);
+		}
+		return parsedBirthdate;
 	}
 	
 	public String getDeathdate() {
@@ -245,6 +297,23 @@ public class CaseReportForm {
 	
 	public void setDeathdate(String deathdate) {
 		this.deathdate = deathdate;
+		this.parsedDeathdate = null;
+	}
+	
+	/**
+	 * Gets the deathdate as a Date object, it is parsed the first time this method is called and
+	 * the result is cached until the deathdate is changed.
+	 *
+	 * @return the deathdate or null if it is blank
+	 * @throws ParseException if the deathdate can't be parsed
+	 * @should return the parsed deathdate
+	 */
+	@JsonIgnore
+	public Date getParsedDeathdate() throws ParseException {
+		if (parsedDeathdate == null && StringUtils.isNotBlank(deathdate)) {
+			parsedDeathdate = DATE_FORMATTER.parse(deathdate);
+		}
+		return parsedDeathdate;
 	}
 	
 	public UuidAndValue getCauseOfDeath() {
@@ -371,6 +440,30 @@ public class CaseReportForm {
 	
 	public void setLastVisitDate(UuidAndValue lastVisitDate) {
 		this.lastVisitDate = lastVisitDate;
+		this.parsedLastVisitDate = null;
+		this.parsedLastVisitDateValue = null;
+	}
+	
+	/**
+	 * Gets the value of the last visit date as a Date object, it is parsed the first time this
+	 * method is called and the result is cached until the last visit date or its value is changed.
+	 *
+	 * @return the last visit date or null if there is none
+	 * @throws ParseException if the value of the last visit date can't be parsed
+	 * @should return the parsed last visit date
+	 * @should parse the last visit date again after its value is changed
+	 */
+	@JsonIgnore
+	public Date getParsedLastVisitDate() throws ParseException {
+		if (lastVisitDate == null || lastVisitDate.getValue() == null
+		        || StringUtils.isBlank(lastVisitDate.getValue().toString())) {
+			return null;
+		}
+		if (parsedLastVisitDate == null || !lastVisitDate.getValue().equals(parsedLastVisitDateValue)) {
+			parsedLastVisitDate = DATE_FORMATTER.parse(lastVisitDate.getValue().toString());
+			parsedLastVisitDateValue = lastVisitDate.getValue();
+		}
+		return parsedLastVisitDate;
 	}
 	
 	public UuidAndValue getSubmitter() {
@@ -422,9 +515,8 @@ public class CaseReportForm {
 				throw new APIException("Date fields are required by the comparator");
 			}
 			try {
-				Date date1 = DATE_FORMATTER.parse(o1.getDate());
-				Date date2 = DATE_FORMATTER.parse(o2.getDate());
-				return date1.compareTo(date2);
+				//The parsed dates are cached by the values so each date is parsed at most once while sorting
+				return o1.toDate().compareTo(o2.toDate());
 			}
 			catch (ParseException e) {
 				throw new APIException(e);
@@ -0,0 +1,100 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openmrs.DrugOrder;
+import org.openmrs.Patient;
+import org.openmrs.Visit;
+import org.openmrs.api.APIException;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.casereport.api.CaseReportService;
+
+/**
+ * Builds the report forms for a batch of case reports, the clinical data for all the patients is
+ * prefetched with set based queries i.e. a single query for the observations, one for the active
+ * drug orders and another for the most recent visits regardless of the number of case reports.
+ * Callers with large numbers of case reports should split them into batches of a reasonable size
+ * since the prefetched data for the entire batch is held in memory.
+ */
+public class CaseReportFormBatchBuilder {
+	
+	private Map<String, CaseReport> caseReports = new LinkedHashMap<>();
+	
+	private PatientObsSnapshot obsSnapshot;
+	
+	private Map<Integer, List<DrugOrder>> patientIdArvDrugOrdersMap;
+	
+	private Map<Integer, Visit> patientIdVisitMap;
+	
+	/**
+	 * @param caseReports the case reports to build the forms for
+	 */
+	public CaseReportFormBatchBuilder(List<CaseReport> caseReports) {
+		List<Patient> patients = new ArrayList<>(caseReports.size());
+		Set<Integer> patientIds = new HashSet<>(caseReports.size());
+		for (CaseReport caseReport : caseReports) {
+			this.caseReports.put(caseReport.getUuid(), caseReport);
+			if (patientIds.add(caseReport.getPatient().getPatientId())) {
+				patients.add(caseReport.getPatient());
+			}
+		}
+		
+		CaseReportService service = Context.getService(CaseReportService.class);
+		obsSnapshot = PatientObsSnapshot.load(patients);
+		patientIdVisitMap = service.getMostRecentVisits(patientIds);
+		
+		patientIdArvDrugOrdersMap = service.getActiveDrugOrders(patientIds, CaseReportUtil.getArvConceptIds(), null);
+	}
+	
+	/**
+	 * Builds the report form for the specified case report from the prefetched data
+	 *
+	 * @param caseReport the case report to build the form for
+	 * @return the report form
+	 * @should build the form from the prefetched data
+	 * @should fail for a case report that is not in the batch
+	 */
+	public CaseReportForm build(CaseReport caseReport) {
+		if (!caseReports.containsKey(caseReport.getUuid())) {
+			throw new APIException(caseReport + " is not in the batch");
+		}
+		
+		Integer patientId = caseReport.getPatient().getPatientId();
+		List<DrugOrder> arvDrugOrders = patientIdArvDrugOrdersMap.get(patientId);
+		if (arvDrugOrders == null) {
+			arvDrugOrders = Collections.emptyList();
+		}
+		
+		return new CaseReportForm(caseReport, obsSnapshot, arvDrugOrders, patientIdVisitMap.get(patientId));
+	}
+	
+	/**
+	 * Builds the report forms for all the case reports in the batch
+	 *
+	 * @return a list of the report forms in the same order as the case reports
+	 * @should build the forms for all the case reports
+	 */
+	public List<CaseReportForm> buildAll() {
+		List<CaseReportForm> forms = new ArrayList<>(caseReports.size());
+		for (CaseReport caseReport : caseReports.values()) {
+			forms.add(build(caseReport));
+		}
+		
+		return forms;
+	}
+}
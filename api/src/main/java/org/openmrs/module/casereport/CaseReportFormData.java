@@ -0,0 +1,79 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import java.io.Serializable;
+
+/**
+ * Holds the report form of a case report, it is stored in a separate table and is lazily loaded so
+ * that the large form text isn't fetched along with case reports that are loaded for listing or
+ * processing, it shares the id of its case report.
+ *
+ * @see CaseReport#getReportForm()
+ */
+public class CaseReportFormData implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private Integer caseReportId;
+	
+	private CaseReport caseReport;
+	
+	private String reportForm;
+	
+	private Integer version;
+	
+	public CaseReportFormData() {
+	}
+	
+	public CaseReportFormData(CaseReport caseReport, String reportForm) {
+		this.caseReport = caseReport;
+		this.reportForm = reportForm;
+	}
+	
+	public Integer getCaseReportId() {
+		return caseReportId;
+	}
+	
+	public void setCaseReportId(Integer caseReportId) {
+		this.caseReportId = caseReportId;
+	}
+	
+	public CaseReport getCaseReport() {
+		return caseReport;
+	}
+	
+	public void setCaseReport(CaseReport caseReport) {
+		this.caseReport = caseReport;
+	}
+	
+	public String getReportForm() {
+		return reportForm;
+	}
+	
+	public void setReportForm(String reportForm) {
+		this.reportForm = reportForm;
+	}
+	
+	/**
+	 * Gets the version of this report form, it is incremented by hibernate each time the form is
+	 * updated and is used to detect concurrent updates since changing the form doesn't update the
+	 * case report
+	 *
+	 * @return the version
+	 */
+	public Integer getVersion() {
+		return version;
+	}
+	
+	protected void setVersion(Integer version) {
+		this.version = version;
+	}
+}
@@ -0,0 +1,144 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.lang.StringUtils;
+import org.openmrs.Person;
+
+/**
+ * A read only summary of a case report that holds only the values displayed in case report lists,
+ * instances are populated with scalar queries so that the report form and the patient objects are
+ * never loaded.
+ */
+public class CaseReportListItem implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private Integer caseReportId;
+	
+	private String uuid;
+	
+	private CaseReport.Status status;
+	
+	private Date dateCreated;
+	
+	private Date resolutionDate;
+	
+	private Integer patientId;
+	
+	private String patientUuid;
+	
+	private String identifier;
+	
+	private String personName;
+	
+	private String gender;
+	
+	private Date birthdate;
+	
+	private Date deathDate;
+	
+	private List<String> triggers = new ArrayList<>();
+	
+	public CaseReportListItem(Integer caseReportId, String uuid, CaseReport.Status status, Date dateCreated,
+	    Date resolutionDate, Integer patientId, String patientUuid, String gender, Date birthdate, Date deathDate) {
+		this.caseReportId = caseReportId;
+		this.uuid = uuid;
+		this.status = status;
+		this.dateCreated = dateCreated;
+		this.resolutionDate = resolutionDate;
+		this.patientId = patientId;
+		this.patientUuid = patientUuid;
+		this.gender = gender;
+		this.birthdate = birthdate;
+		this.deathDate = deathDate;
+	}
+	
+	public Integer getCaseReportId() {
+		return caseReportId;
+	}
+	
+	public String getUuid() {
+		return uuid;
+	}
+	
+	public CaseReport.Status getStatus() {
+		return status;
+	}
+	
+	public Date getDateCreated() {
+		return dateCreated;
+	}
+	
+	public Date getResolutionDate() {
+		return resolutionDate;
+	}
+	
+	public Integer getPatientId() {
+		return patientId;
+	}
+	
+	public String getPatientUuid() {
+		return patientUuid;
+	}
+	
+	public String getIdentifier() {
+		return identifier;
+	}
+	
+	public void setIdentifier(String identifier) {
+		this.identifier = identifier;
+	}
+	
+	public String getPersonName() {
+		return personName;
+	}
+	
+	public void setPersonName(String personName) {
+		this.personName = personName;
+	}
+	
+	public String getGender() {
+		return gender;
+	}
+	
+	public Date getBirthdate() {
+		return birthdate;
+	}
+	
+	/**
+	 * Calculates the age of the patient the same way as {@link Person#getAge()}
+	 *
+	 * @return the age or null if the birthdate is not set
+	 */
+	public Integer getAge() {
+		Person person = new Person();
+		person.setBirthdate(birthdate);
+		person.setDeathDate(deathDate);
+		return person.getAge();
+	}
+	
+	public List<String> getTriggers() {
+		return triggers;
+	}
+	
+	/**
+	 * @see Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "CaseReport for " + getPersonName() + ", Trigger(s): " + StringUtils.join(triggers, ", ");
+	}
+}
@@ -38,6 +38,8 @@ public class CaseReportTrigger extends BaseOpenmrsObject implements Auditable, S
 	
 	private Date dateCreated;
 	
+	private boolean submitted;
+	
 	public CaseReportTrigger() {
 	}
 	
@@ -69,6 +71,20 @@ public class CaseReportTrigger extends BaseOpenmrsObject implements Auditable, S
 		this.caseReport = caseReport;
 	}
 	
+	/**
+	 * Returns true if the trigger was kept in the report form when the case report it belongs to was
+	 * submitted, triggers removed from the form by the reviewer are never flagged.
+	 * 
+	 * @return true if the trigger was submitted otherwise false
+	 */
+	public boolean getSubmitted() {
+		return submitted;
+	}
+	
+	public void setSubmitted(boolean submitted) {
+		this.submitted = submitted;
+	}
+	
 	@Override
 	public Integer getId() {
 		return getCaseReportTriggerId();
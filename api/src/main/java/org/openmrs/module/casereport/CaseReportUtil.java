@@ -12,29 +12,29 @@ package org.openmrs.module.casereport;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.time.DateUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.codehaus.jackson.map.ObjectMapper;
+import org.hibernate.StaleStateException;
 import org.openmrs.Cohort;
 import org.openmrs.Concept;
 import org.openmrs.DrugOrder;
 import org.openmrs.Obs;
-import org.openmrs.Order;
-import org.openmrs.OrderType;
 import org.openmrs.Patient;
 import org.openmrs.Person;
 import org.openmrs.Visit;
 import org.openmrs.api.APIException;
-import org.openmrs.api.OrderService;
-import org.openmrs.api.PatientService;
 import org.openmrs.api.context.Context;
 import org.openmrs.module.casereport.api.CaseReportService;
 import org.openmrs.module.reporting.cohort.definition.SqlCohortDefinition;
@@ -43,14 +43,30 @@ import org.openmrs.module.reporting.evaluation.EvaluationContext;
 import org.openmrs.module.reporting.evaluation.EvaluationException;
 import org.openmrs.module.reporting.evaluation.parameter.Parameter;
 import org.openmrs.scheduler.TaskDefinition;
-import org.openmrs.util.OpenmrsUtil;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 public class CaseReportUtil {
 	
 	protected static final Log log = LogFactory.getLog(CaseReportUtil.class);
 	
-	private static Concept getCeilConceptByCode(String code) {
-		Concept concept = Context.getConceptService().getConceptByMapping(code, CaseReportConstants.SOURCE_CIEL_HL7_CODE);
+	/**
+	 * The number of cohort members to process at a time when creating case reports
+	 */
+	private static final int PATIENT_BATCH_SIZE = 1000;
+	
+	/**
+	 * Locks used to ensure that only one run of each trigger is in progress at a time
+	 */
+	private static final ConcurrentMap<String, Lock> triggerLocks = new ConcurrentHashMap<>();
+	
+	/**
+	 * The maximum number of times to try saving a chunk of case reports that conflicts with
+	 * concurrent updates
+	 */
+	private static final int MAX_SAVE_ATTEMPTS = 3;
+	
+	static Concept getCeilConceptByCode(String code) {
+		Concept concept = ConceptMappingCache.getConcept(code, CaseReportConstants.SOURCE_CIEL_HL7_CODE);
 		if (concept == null) {
 			throw new APIException(
 			        "Failed to find concept with mapping " + CaseReportConstants.SOURCE_CIEL_HL7_CODE + ":" + code);
@@ -134,20 +150,31 @@ public class CaseReportUtil {
 	 * @should get the active ARV drug orders for the specified patient
 	 */
 	public static List<DrugOrder> getActiveArvDrugOrders(Patient patient, Date asOfDate) {
-		Concept arvMedset = getCeilConceptByCode(CaseReportConstants.CIEL_CODE_ARV_MED_SET);
-		OrderService os = Context.getOrderService();
-		OrderType orderType = os.getOrderTypeByUuid(OrderType.DRUG_ORDER_TYPE_UUID);
-		List<Order> orders = os.getActiveOrders(patient, orderType, null, asOfDate);
-		List<DrugOrder> arvDrugOrders = new ArrayList<>();
-		for (Order order : orders) {
-			DrugOrder drugOrder = (DrugOrder) order;
-			if (arvMedset.getSetMembers().contains(order.getConcept())) {
-				arvDrugOrders.add(drugOrder);
-			}
+		if (patient == null) {
+			throw new APIException("Patient cannot be null");
+		}
+		
+		List<DrugOrder> arvDrugOrders = Context.getService(CaseReportService.class)
+		        .getActiveDrugOrders(Collections.singletonList(patient.getPatientId()), getArvConceptIds(), asOfDate)
+		        .get(patient.getPatientId());
+		if (arvDrugOrders == null) {
+			return new ArrayList<>();
 		}
 		return arvDrugOrders;
 	}
 	
+	/**
+	 * Gets the ids of the members of the CIEL ARV medication set, the ids are cached until the
+	 * concept dictionary changes
+	 *
+	 * @return an immutable set of concept ids
+	 * @should return the ids of the members of the ARV medication set
+	 */
+	public static Set<Integer> getArvConceptIds() {
+		return ConceptMappingCache.getSetMemberIds(CaseReportConstants.CIEL_CODE_ARV_MED_SET,
+		    CaseReportConstants.SOURCE_CIEL_HL7_CODE);
+	}
+	
 	/**
 	 * Gets the most recent observation for the reason why the specified patient stopped taking ARVs.
 	 *
@@ -172,19 +199,7 @@ public class CaseReportUtil {
 	 * @should return the last visit for the specified patient
 	 */
 	public static Visit getLastVisit(Patient patient) {
-		final List<Visit> visits = Context.getVisitService().getVisitsByPatient(patient, true, false);
-		Collections.sort(visits, Collections.reverseOrder(new Comparator<Visit>() {
-			
-			@Override
-			public int compare(Visit v1, Visit v2) {
-				return OpenmrsUtil.compare(v1.getStartDatetime(), v2.getStartDatetime());
-			}
-		}));
-		
-		if (visits.isEmpty()) {
-			return null;
-		}
-		return visits.get(0);
+		return Context.getService(CaseReportService.class).getMostRecentVisit(patient);
 	}
 	
 	public static boolean collContainsItemWithValue(Collection<? extends UuidAndValue> coll, String value) {
@@ -211,7 +226,7 @@ public class CaseReportUtil {
 		}
 		String source = sourceAndCode[0];
 		String code = sourceAndCode[1];
-		Concept concept = Context.getConceptService().getConceptByMapping(code, source);
+		Concept concept = ConceptMappingCache.getConcept(code, source);
 		if (concept == null && failIfNotFound) {
 			throw new APIException("Failed to find concept with mapping: " + mappingString);
 		}
@@ -227,7 +242,7 @@ public class CaseReportUtil {
 	 * @return the concept
 	 */
 	public static Concept getConceptByMapping(String code, String source) {
-		Concept concept = Context.getConceptService().getConceptByMapping(code, source);
+		Concept concept = ConceptMappingCache.getConcept(code, source);
 		if (concept == null) {
 			throw new APIException("No concept found with a mapping to source: " + source + " and code: " + code);
 		}
@@ -270,20 +285,34 @@ public class CaseReportUtil {
 	
 	/**
 	 * Runs the SQL cohort query with the specified name and creates a case report for each matched
-	 * patient of none exists
+	 * patient of none exists. The progress of each run is recorded in the trigger's
+	 * {@link TriggerCheckpoint} after each chunk of patients, if a run fails, the next one resumes it
+	 * from the patient after the last processed one. The last execution time of a new run is the
+	 * earlier of the checkpoint's high-water mark and the task's last execution time so that the
+	 * changes since a failed run are never skipped.
+	 * <p>
+	 * Tasks for different triggers run in parallel, only runs of the same trigger are serialized.
+	 * The queue items of the patients in each chunk are read and saved while holding the patients'
+	 * {@link PatientQueueLocks} so that triggers matching the same patient don't create duplicate
+	 * queue items.
 	 *
 	 * @param taskDefinition the scheduler taskDefinition inside which the trigger is being run
 	 * @throws APIException
 	 * @throws EvaluationException
 	 * @should fail if no sql cohort query matches the specified trigger name
 	 * @should create case reports for the matched patients
+	 * @should create case reports for the matched patients in large cohort mode
+	 * @should create case reports for the matched patients in streaming mode
 	 * @should set the last execution time in the evaluation context
 	 * @should add a new trigger to an existing queue item for the patient
 	 * @should not create a duplicate trigger for the same patient
 	 * @should set the concept mappings in the evaluation context
 	 * @should fail for a task where the last execution time cannot be resolved
+	 * @should use the high-water mark of the checkpoint as the last execution time
+	 * @should resume a failed run after the last processed patient
+	 * @should complete the run in the checkpoint
 	 */
-	public synchronized static void executeTask(TaskDefinition taskDefinition) throws APIException, EvaluationException {
+	public static void executeTask(TaskDefinition taskDefinition) throws APIException, EvaluationException {
 		if (taskDefinition == null) {
 			throw new APIException("TaskDefinition can't be null");
 		}
@@ -293,26 +322,61 @@ public class CaseReportUtil {
 			throw new APIException(taskDefinition.getName() + " task doesn't have a "
 			        + CaseReportConstants.TRIGGER_NAME_TASK_PROPERTY + " property");
 		}
+		
+		Lock triggerLock = getTriggerLock(triggerName);
+		triggerLock.lock();
+		try {
+			evaluateTrigger(taskDefinition, triggerName);
+		}
+		finally {
+			triggerLock.unlock();
+		}
+	}
+	
+	private static Lock getTriggerLock(String triggerName) {
+		Lock lock = triggerLocks.get(triggerName);
+		if (lock == null) {
+			Lock newLock = new ReentrantLock();
+			lock = triggerLocks.putIfAbsent(triggerName, newLock);
+			if (lock == null) {
+				lock = newLock;
+			}
+		}
+		
+		return lock;
+	}
+	
+	private static void evaluateTrigger(TaskDefinition taskDefinition, String triggerName) throws EvaluationException {
 		SqlCohortDefinition definition = getSqlCohortDefinition(triggerName);
 		if (definition == null) {
 			throw new APIException("No sql cohort query was found that matches the name: " + triggerName);
 		}
-		EvaluationContext evaluationContext = new EvaluationContext();
+		CaseReportService caseReportService = Context.getService(CaseReportService.class);
+		TriggerCheckpoint checkpoint = caseReportService.getTriggerCheckpoint(triggerName);
+		if (checkpoint == null) {
+			checkpoint = new TriggerCheckpoint(triggerName);
+		}
+		
 		Map<String, Object> params = new HashMap<>();
+		Date lastExecutionTime = null;
 		if (definition.getParameter(CaseReportConstants.LAST_EXECUTION_TIME) != null) {
-			Date lastExecutionTime = taskDefinition.getLastExecutionTime();
-			if (lastExecutionTime == null && taskDefinition.getRepeatInterval() != null
-			        && taskDefinition.getRepeatInterval() > 0) {
-				//TODO add a unit test for this
-				//default to now minus repeat interval
-				lastExecutionTime = DateUtils.addSeconds(new Date(), -taskDefinition.getRepeatInterval().intValue());
+			if (checkpoint.isRunInProgress()) {
+				lastExecutionTime = checkpoint.getRunLastExecutionTime();
 			}
 			if (lastExecutionTime == null) {
-				throw new APIException("Failed to resolve the value for the last execution time");
+				lastExecutionTime = resolveLastExecutionTime(taskDefinition, checkpoint);
 			}
 			params.put(CaseReportConstants.LAST_EXECUTION_TIME, lastExecutionTime);
 		}
 		
+		if (checkpoint.isRunInProgress()) {
+			log.info("Resuming run " + checkpoint.getRunId() + " of the trigger " + triggerName
+			        + " after the patient with id " + checkpoint.getLastPatientId());
+		} else {
+			checkpoint.startRun(lastExecutionTime);
+			caseReportService.saveTriggerCheckpoint(checkpoint);
+		}
+		
 		if (definition.getParameters() != null) {
 			for (Parameter p : definition.getParameters()) {
 				if (p.getName().startsWith(CaseReportConstants.CIEL_MAPPING_PREFIX)) {
@@ -322,47 +386,250 @@ public class CaseReportUtil {
 			}
 		}
 		
-		evaluationContext.setParameterValues(params);
-		Cohort cohort = (Cohort) DefinitionContext.evaluate(definition, evaluationContext);
+		boolean autoSubmit = false;
+		if ("true".equals(taskDefinition.getProperty(CaseReportConstants.AUTO_SUBMIT_TASK_PROPERTY))) {
+			autoSubmit = true;
+		}
 		
-		PatientService ps = Context.getPatientService();
-		CaseReportService caseReportService = Context.getService(CaseReportService.class);
-		List<CaseReport> autoSubmitReports = new ArrayList<>(cohort.getMemberIds().size());
-		for (Integer patientId : cohort.getMemberIds()) {
-			Patient patient = ps.getPatient(patientId);
-			if (patient == null) {
-				throw new APIException("No patient found with patientId: " + patientId);
+		//In large cohort mode, the session is flushed and cleared after each batch of patients so that
+		//the first level cache doesn't grow with the cohort size
+		Integer flushInterval = getPositiveIntGlobalProperty(CaseReportConstants.GP_LARGE_COHORT_FLUSH_INTERVAL);
+		int batchSize = flushInterval != null ? flushInterval : PATIENT_BATCH_SIZE;
+		CaseReportAutoSubmitter.Summary summary = new CaseReportAutoSubmitter.Summary();
+		//The patients are processed in ascending order of their ids so that a failed run can be
+		//resumed after the last processed one, the checkpoint of each chunk is saved in the same
+		//transaction as the chunk's case reports
+		Integer fetchSize = getPositiveIntGlobalProperty(CaseReportConstants.GP_STREAMING_FETCH_SIZE);
+		if (fetchSize != null) {
+			//In streaming mode, the ids are read from a database cursor a chunk at a time instead
+			//of evaluating the entire cohort into memory
+			PatientIdCursor cursor = caseReportService.getCohortMemberIdCursor(definition, params, fetchSize, batchSize);
+			try {
+				List<Integer> patientIds;
+				while (!(patientIds = cursor.nextChunk()).isEmpty()) {
+					checkpoint = processPatients(patientIds, checkpoint, autoSubmit, flushInterval != null, summary);
+				}
 			}
-			
-			boolean autoSubmit = false;
-			if ("true".equals(taskDefinition.getProperty(CaseReportConstants.AUTO_SUBMIT_TASK_PROPERTY))) {
-				autoSubmit = true;
+			finally {
+				cursor.close();
 			}
-			CaseReport caseReport = createReportIfNecessary(patient, autoSubmit, triggerName);
-			if (caseReport != null) {
-				//We can't auto submit an existing report because the surveillance officer needs
-				//to take a look at the other triggers to be included in the existing report
-				if (caseReport.getId() == null && autoSubmit) {
-					caseReport.setAutoSubmitted(true);
-					autoSubmitReports.add(caseReport);
-				}
-				caseReportService.saveCaseReport(caseReport);
-			} else {
-				log.debug(patient + " already has an item in the queue with the trigger " + triggerName);
+		} else {
+			EvaluationContext evaluationContext = new EvaluationContext();
+			evaluationContext.setParameterValues(params);
+			Cohort cohort = (Cohort) DefinitionContext.evaluate(definition, evaluationContext);
+			List<Integer> memberIds = new ArrayList<>(cohort.getMemberIds());
+			Collections.sort(memberIds);
+			for (int i = 0; i < memberIds.size(); i += batchSize) {
+				List<Integer> patientIds = memberIds.subList(i, Math.min(i + batchSize, memberIds.size()));
+				checkpoint = processPatients(patientIds, checkpoint, autoSubmit, flushInterval != null, summary);
 			}
 		}
+		checkpoint.completeRun();
+		caseReportService.saveTriggerCheckpoint(checkpoint);
 		
-		for (CaseReport caseReport : autoSubmitReports) {
-			//TODO reports should be auto submitted in parallel
+		if (log.isDebugEnabled() || !summary.getFailed().isEmpty()) {
+			log.info(taskDefinition.getName() + ": " + summary);
+		}
+	}
+	
+	/**
+	 * Creates the case reports for the specified chunk of patients that were not processed by the
+	 * current run of the trigger in the checkpoint and records the last patient as processed in the
+	 * checkpoint in the same transaction, the new reports are auto submitted if necessary only after
+	 * that transaction is committed. If the auto submission is interrupted, the reports are left in
+	 * the queue and are never created again by a resumed run.
+	 *
+	 * @param patientIds the ids of the patients in ascending order
+	 * @param checkpoint the trigger's checkpoint
+	 * @param autoSubmit specifies if the new case reports should be auto submitted
+	 * @param clearSession specifies if the hibernate session should be flushed and cleared
+	 * @param summary the summary to which to add the outcome of the auto submissions
+	 * @return the saved checkpoint
+	 */
+	private static TriggerCheckpoint processPatients(List<Integer> patientIds, TriggerCheckpoint checkpoint,
+	                                                 boolean autoSubmit, boolean clearSession,
+	                                                 CaseReportAutoSubmitter.Summary summary) {
+		List<Integer> unprocessedIds = new ArrayList<>(patientIds.size());
+		for (Integer patientId : patientIds) {
+			if (checkpoint.getLastPatientId() == null || patientId > checkpoint.getLastPatientId()) {
+				unprocessedIds.add(patientId);
+			}
+		}
+		if (unprocessedIds.isEmpty()) {
+			return checkpoint;
+		}
+		
+		checkpoint.markProcessed(unprocessedIds.get(unprocessedIds.size() - 1));
+		List<Integer> caseReportIds = createReportsIfNecessary(unprocessedIds, autoSubmit, checkpoint);
+		if (!caseReportIds.isEmpty()) {
+			//the reports and the checkpoint are committed, so the workers' sessions can load them
+			summary.addAll(new CaseReportAutoSubmitter().submit(caseReportIds));
+		}
+		if (clearSession) {
+			Context.flushSession();
+			Context.clearSession();
+		}
+		
+		return checkpoint;
+	}
+	
+	/**
+	 * Resolves the value of the last execution time parameter for a new run of a trigger, it is the
+	 * earlier of the high-water mark of the trigger's checkpoint and the task's last execution time,
+	 * if neither is set, it defaults to now minus the task's repeat interval.
+	 *
+	 * @param taskDefinition the task inside which the trigger is being run
+	 * @param checkpoint the trigger's checkpoint
+	 * @return the last execution time
+	 */
+	private static Date resolveLastExecutionTime(TaskDefinition taskDefinition, TriggerCheckpoint checkpoint) {
+		Date lastExecutionTime = taskDefinition.getLastExecutionTime();
+		Date highWaterMark = checkpoint.getHighWaterMark();
+		if (lastExecutionTime == null || (highWaterMark != null && highWaterMark.before(lastExecutionTime))) {
+			lastExecutionTime = highWaterMark;
+		}
+		if (lastExecutionTime == null && taskDefinition.getRepeatInterval() != null
+		        && taskDefinition.getRepeatInterval() > 0) {
+			//TODO add a unit test for this
+			//default to now minus repeat interval
+			lastExecutionTime = DateUtils.addSeconds(new Date(), -taskDefinition.getRepeatInterval().intValue());
+		}
+		if (lastExecutionTime == null) {
+			throw new APIException("Failed to resolve the value for the last execution time");
+		}
+		
+		return lastExecutionTime;
+	}
+	
+	/**
+	 * Creates or updates the case reports for the patients with the specified ids in bulk, the
+	 * patients and their existing queue items are fetched with a single query each, then the new
+	 * reports and the updated existing ones are saved in a single transaction along with the
+	 * trigger's checkpoint.
+	 *
+	 * @param patientIds the ids of the patients to create case reports for
+	 * @param autoSubmit specifies if the new case reports should be marked as auto submitted
+	 * @param checkpoint the checkpoint of the trigger to add
+	 * @return the ids of the saved case reports that are to be auto submitted
+	 */
+	private static List<Integer> createReportsIfNecessary(Collection<Integer> patientIds, boolean autoSubmit,
+	                                                         TriggerCheckpoint checkpoint) {
+		
+		String triggerName = checkpoint.getTriggerName();
+		for (int attempt = 1;; attempt++) {
 			try {
-				CaseReportForm form = new CaseReportForm(caseReport);
-				caseReport.setReportForm(new ObjectMapper().writeValueAsString(form));
-				caseReportService.submitCaseReport(caseReport);
+				return createOrUpdateReports(patientIds, autoSubmit, checkpoint);
+			}
+			catch (RuntimeException e) {
+				if (attempt >= MAX_SAVE_ATTEMPTS || !isConcurrentUpdate(e)) {
+					throw e;
+				}
+				log.warn("Some of the case reports of the patients were updated concurrently while adding the trigger "
+				        + triggerName + ", retrying");
+				//The session's copies of the queue items are stale, discard them so that the next
+				//attempt reloads the latest versions and merges the trigger into them
+				Context.clearSession();
 			}
-			catch (Throwable t) {
-				log.warn("Failed to auto submit " + caseReport, t);
+		}
+	}
+	
+	/**
+	 * Checks if the specified exception or any of its causes was thrown because of an optimistic
+	 * locking failure
+	 *
+	 * @param e the exception to check
+	 * @return true if the exception was caused by a concurrent update otherwise false
+	 */
+	private static boolean isConcurrentUpdate(Throwable e) {
+		for (Throwable t = e; t != null; t = t.getCause()) {
+			if (t instanceof StaleStateException || t instanceof OptimisticLockingFailureException) {
+				return true;
 			}
 		}
+		
+		return false;
+	}
+	
+	/**
+	 * Does the actual work for {@link #createReportsIfNecessary(Collection, boolean, TriggerCheckpoint)},
+	 * the patients' existing queue items are read and the trigger is added to them if necessary
+	 */
+	private static List<Integer> createOrUpdateReports(Collection<Integer> patientIds, boolean autoSubmit,
+	                                                   TriggerCheckpoint checkpoint) {
+		
+		String triggerName = checkpoint.getTriggerName();
+		List<CaseReport> autoSubmitReports = new ArrayList<>();
+		//The patients' existing queue items are read and the changes are committed before the locks
+		//are released so that another trigger matching the same patients sees them
+		List<Lock> locks = PatientQueueLocks.lock(patientIds);
+		try {
+			CaseReportService caseReportService = Context.getService(CaseReportService.class);
+			Map<Integer, Patient> idPatientMap = new HashMap<>(patientIds.size());
+			for (Patient patient : Context.getPatientSetService().getPatients(patientIds)) {
+				idPatientMap.put(patient.getPatientId(), patient);
+			}
+			Map<Integer, CaseReport> patientIdCaseReportMap = caseReportService.getCaseReportsByPatientIds(patientIds);
+			
+			List<CaseReport> caseReports = new ArrayList<>(patientIds.size());
+			for (Integer patientId : patientIds) {
+				Patient patient = idPatientMap.get(patientId);
+				if (patient == null) {
+					throw new APIException("No patient found with patientId: " + patientId);
+				}
+				
+				CaseReport caseReport = createReportIfNecessary(patient, patientIdCaseReportMap.get(patientId), autoSubmit,
+				    triggerName);
+				if (caseReport != null) {
+					//We can't auto submit an existing report because the surveillance officer needs
+					//to take a look at the other triggers to be included in the existing report
+					if (caseReport.getId() == null && autoSubmit) {
+						caseReport.setAutoSubmitted(true);
+						autoSubmitReports.add(caseReport);
+					}
+					caseReports.add(caseReport);
+				} else {
+					log.debug(patient + " already has an item in the queue with the trigger " + triggerName);
+				}
+			}
+			
+			caseReportService.saveCaseReports(caseReports, checkpoint);
+		}
+		finally {
+			PatientQueueLocks.unlock(locks);
+		}
+		
+		List<Integer> caseReportIds = new ArrayList<>(autoSubmitReports.size());
+		for (CaseReport caseReport : autoSubmitReports) {
+			caseReportIds.add(caseReport.getId());
+		}
+		
+		return caseReportIds;
+	}
+	
+	/**
+	 * Gets the value of the global property with the specified name as a positive integer, this is
+	 * used for the {@link CaseReportConstants#GP_LARGE_COHORT_FLUSH_INTERVAL} and
+	 * {@link CaseReportConstants#GP_STREAMING_FETCH_SIZE} global properties
+	 *
+	 * @param propertyName the name of the global property
+	 * @return the value or null if it is not set or is invalid
+	 */
+	private static Integer getPositiveIntGlobalProperty(String propertyName) {
+		String value = Context.getAdministrationService().getGlobalProperty(propertyName);
+		if (StringUtils.isBlank(value)) {
+			return null;
+		}
+		try {
+			Integer intValue = Integer.valueOf(value.trim());
+			if (intValue > 0) {
+				return intValue;
+			}
+		}
+		catch (NumberFormatException e) {
+			//ignore and log below
+		}
+		log.warn("Ignoring invalid value for the " + propertyName + " global property: " + value);
+		return null;
 	}
 	
 	/**
@@ -377,8 +644,23 @@ public class CaseReportUtil {
 	 * @return the created trigger or none was created or if all the triggers are duplicates
 	 */
 	public static CaseReport createReportIfNecessary(Patient patient, boolean createNew, String... triggerNames) {
-		CaseReport caseReport;
 		CaseReport existingCR = Context.getService(CaseReportService.class).getCaseReportByPatient(patient);
+		return createReportIfNecessary(patient, existingCR, createNew, triggerNames);
+	}
+	
+	/**
+	 * Same as {@link #createReportIfNecessary(Patient, boolean, String...)} except that the existing
+	 * queue item of the patient is passed in instead of being looked up from the database.
+	 *
+	 * @param patient the patient to create a case report for
+	 * @param existingCR the existing queue item for the patient or null if none exists
+	 * @param createNew Specifies if a new case report MUST be created
+	 * @param triggerNames the triggers to add
+	 * @return the created trigger or none was created or if all the triggers are duplicates
+	 */
+	private static CaseReport createReportIfNecessary(Patient patient, CaseReport existingCR, boolean createNew,
+	                                                  String... triggerNames) {
+		CaseReport caseReport;
 		if (createNew || existingCR == null) {
 			caseReport = new CaseReport();
 			caseReport.setPatient(patient);
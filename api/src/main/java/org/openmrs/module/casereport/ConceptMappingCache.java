@@ -0,0 +1,129 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openmrs.Concept;
+import org.openmrs.api.APIException;
+import org.openmrs.api.ConceptService;
+import org.openmrs.api.context.Context;
+
+/**
+ * Caches the ids of the concepts resolved by concept source and code so that repeatedly looking up
+ * the same concepts when generating case report forms doesn't query the concept dictionary each
+ * time, a cache hit is resolved by loading the concept by its primary key. The ids of the members
+ * of concept sets can also be cached for fast membership checks. Only ids are cached to avoid
+ * holding on to detached concept objects. The cache is cleared by
+ * {@link ConceptMappingCacheAdvice} whenever a concept, reference term or concept source is saved,
+ * retired or purged, and again after the surrounding transaction completes. A value that was being
+ * looked up when the cache was cleared isn't cached since it could be stale.
+ */
+public final class ConceptMappingCache {
+	
+	private static final Map<String, Integer> conceptIds = new ConcurrentHashMap<>();
+	
+	private static final Map<String, Set<Integer>> setMemberIds = new ConcurrentHashMap<>();
+	
+	//Incremented each time the cache is cleared so that values looked up before are discarded
+	private static final AtomicLong generation = new AtomicLong();
+	
+	private ConceptMappingCache() {
+	}
+	
+	/**
+	 * Gets the concept with a mapping to the specified source and code
+	 *
+	 * @param code the code to match
+	 * @param source the name or hl7 code of the concept source to match
+	 * @return the matched concept or null if none is found
+	 * @should return the concept with a mapping to the specified source and code
+	 * @should not query the mappings again for a cached concept
+	 * @should return null if no concept is found
+	 * @should look up the mapping again after the cache is cleared
+	 */
+	public static Concept getConcept(String code, String source) {
+		ConceptService cs = Context.getConceptService();
+		String key = source + CaseReportConstants.CONCEPT_MAPPING_SEPARATOR + code;
+		long expectedGeneration = generation.get();
+		Integer conceptId = conceptIds.get(key);
+		if (conceptId != null) {
+			Concept concept = cs.getConcept(conceptId);
+			if (concept != null) {
+				return concept;
+			}
+			//The concept was deleted without notifying us
+			conceptIds.remove(key);
+		}
+		
+		Concept concept = cs.getConceptByMapping(code, source);
+		if (concept != null) {
+			putIfNotCleared(conceptIds, key, concept.getConceptId(), expectedGeneration);
+		}
+		
+		return concept;
+	}
+	
+	/**
+	 * Gets the ids of the set members of the concept with a mapping to the specified source and code
+	 *
+	 * @param code the code to match
+	 * @param source the name or hl7 code of the concept source to match
+	 * @return an immutable set of concept ids
+	 * @throws APIException if no concept is found
+	 * @should return the ids of the set members of the concept
+	 * @should return the cached ids until the cache is cleared
+	 */
+	public static Set<Integer> getSetMemberIds(String code, String source) {
+		String key = source + CaseReportConstants.CONCEPT_MAPPING_SEPARATOR + code;
+		Set<Integer> memberIds = setMemberIds.get(key);
+		if (memberIds == null) {
+			long expectedGeneration = generation.get();
+			Concept concept = getConcept(code, source);
+			if (concept == null) {
+				throw new APIException("No concept found with a mapping to source: " + source + " and code: " + code);
+			}
+			Set<Integer> ids = new HashSet<>();
+			for (Concept member : concept.getSetMembers()) {
+				ids.add(member.getConceptId());
+			}
+			memberIds = Collections.unmodifiableSet(ids);
+			putIfNotCleared(setMemberIds, key, memberIds, expectedGeneration);
+		}
+		
+		return memberIds;
+	}
+	
+	private static <V> void putIfNotCleared(Map<String, V> cache, String key, V value, long expectedGeneration) {
+		synchronized (ConceptMappingCache.class) {
+			if (expectedGeneration == generation.get()) {
+				cache.put(key, value);
+			}
+		}
+	}
+	
+	/**
+	 * Removes all the cached concept ids, values that are being looked up at the time aren't cached
+	 *
+	 * @should not cache a value that was looked up before the cache was cleared
+	 */
+	public static void clear() {
+		synchronized (ConceptMappingCache.class) {
+			generation.incrementAndGet();
+			conceptIds.clear();
+			setMemberIds.clear();
+		}
+	}
+}
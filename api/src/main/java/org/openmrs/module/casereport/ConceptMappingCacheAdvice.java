@@ -0,0 +1,64 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.aop.AfterReturningAdvice;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Clears the {@link ConceptMappingCache} after any ConceptService method that can change the concept
+ * a mapping resolves to or the members of a concept set, i.e. saving, retiring or purging a concept,
+ * a reference term or a concept source. The whole cache is cleared because a single change can affect several mappings and such
+ * changes are rare compared to the lookups. The cache is cleared immediately and again after the
+ * surrounding transaction completes so that a value looked up by another thread before the change
+ * is committed isn't kept.
+ */
+public class ConceptMappingCacheAdvice implements AfterReturningAdvice {
+	
+	private static final Log log = LogFactory.getLog(ConceptMappingCacheAdvice.class);
+	
+	private static final Set<String> METHOD_NAMES = new HashSet<>(Arrays.asList("saveConcept", "retireConcept",
+	    "unretireConcept", "purgeConcept", "saveConceptReferenceTerm", "retireConceptReferenceTerm",
+	    "unretireConceptReferenceTerm", "purgeConceptReferenceTerm", "saveConceptSource", "retireConceptSource",
+	    "unretireConceptSource", "purgeConceptSource"));
+	
+	/**
+	 * @see AfterReturningAdvice#afterReturning(Object, Method, Object[], Object)
+	 * @should clear the cache when a concept is saved
+	 * @should clear the cache again after the transaction completes
+	 * @should not clear the cache for other methods
+	 */
+	@Override
+	public void afterReturning(Object returnValue, Method method, Object[] args, Object target) throws Throwable {
+		if (METHOD_NAMES.contains(method.getName())) {
+			if (log.isDebugEnabled()) {
+				log.debug("Clearing the concept mapping cache after a call to ConceptService." + method.getName());
+			}
+			ConceptMappingCache.clear();
+			if (TransactionSynchronizationManager.isSynchronizationActive()) {
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+					
+					@Override
+					public void afterCompletion(int status) {
+						ConceptMappingCache.clear();
+					}
+				});
+			}
+		}
+	}
+}
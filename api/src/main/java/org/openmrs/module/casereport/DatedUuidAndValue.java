@@ -9,6 +9,11 @@
  */
 package org.openmrs.module.casereport;
 
+import java.text.ParseException;
+import java.util.Date;
+
+import org.apache.commons.lang.StringUtils;
+
 /**
  * A subclass of UuidAndValue that has date field associated to the domain object, the value of the
  * date field should be the formatted string version.
@@ -17,6 +22,9 @@ public class DatedUuidAndValue extends UuidAndValue {
 	
 	private String date;
 	
+	//The parsed date is cached so that it is parsed at most once
+	private Date parsedDate;
+	
 	public DatedUuidAndValue() {
 	}
 	
@@ -30,11 +38,39 @@ public class DatedUuidAndValue extends UuidAndValue {
 		this.date = date;
 	}
 	
+	/**
+	 * Creates an instance with the date field set to the formatted version of the specified date
+	 * which is also kept so that it never needs to be parsed
+	 */
+	public DatedUuidAndValue(String uuid, Object value, Date date) {
+		super(uuid, value);
+		this.date = CaseReportConstants.DATE_FORMATTER.format(date);
+		this.parsedDate = date;
+	}
+	
 	public String getDate() {
 		return date;
 	}
 	
 	public void setDate(String date) {
 		this.date = date;
+		this.parsedDate = null;
+	}
+	
+	/**
+	 * Gets the value of the date field as a Date object, it is parsed the first time this method is
+	 * called and the result is reused for subsequent calls
+	 *
+	 * @return the date or null if the date field is blank
+	 * @throws ParseException if the date field can't be parsed
+	 * @should return the parsed date
+	 * @should return null if the date is blank
+	 * @should parse the date again after it is changed
+	 */
+	public Date toDate() throws ParseException {
+		if (parsedDate == null && StringUtils.isNotBlank(date)) {
+			parsedDate = CaseReportConstants.DATE_FORMATTER.parse(date);
+		}
+		return parsedDate;
 	}
 }
@@ -0,0 +1,76 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * A {@link ReportFormCodec} that gzips the UTF-8 bytes of the JSON text and encodes the result in
+ * base64 so that it can be stored in a text column, the field names, dates and uuids that are
+ * repeated in a form compress well.
+ */
+public class GzipReportFormCodec implements ReportFormCodec {
+	
+	public static final String ID = "gz1";
+	
+	private static final String ENCODING = "UTF-8";
+	
+	private static final String BASE64_ENCODING = "US-ASCII";
+	
+	/**
+	 * @see ReportFormCodec#getId()
+	 */
+	@Override
+	public String getId() {
+		return ID;
+	}
+	
+	/**
+	 * @see ReportFormCodec#encode(String)
+	 * @should encode the json text
+	 */
+	@Override
+	public String encode(String json) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(json.length() / 4);
+		GZIPOutputStream gzipOut = new GZIPOutputStream(out);
+		try {
+			gzipOut.write(json.getBytes(ENCODING));
+		}
+		finally {
+			gzipOut.close();
+		}
+		
+		//Not chunked so that no line breaks are added
+		return new String(Base64.encodeBase64(out.toByteArray()), BASE64_ENCODING);
+	}
+	
+	/**
+	 * @see ReportFormCodec#decode(String)
+	 * @should decode the encoded text
+	 */
+	@Override
+	public String decode(String encoded) throws IOException {
+		GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(Base64.decodeBase64(encoded
+		        .getBytes(BASE64_ENCODING))));
+		try {
+			return IOUtils.toString(in, ENCODING);
+		}
+		finally {
+			in.close();
+		}
+	}
+}
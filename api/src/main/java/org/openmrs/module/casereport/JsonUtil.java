@@ -0,0 +1,58 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import java.io.IOException;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.ObjectReader;
+import org.codehaus.jackson.map.ObjectWriter;
+
+/**
+ * Converts case report forms to and from JSON using a single module wide ObjectMapper so that its
+ * serializer and deserializer caches are built once and reused. An ObjectMapper is thread safe
+ * once configured and the reader and writer instances are immutable, therefore they can be shared
+ * by all threads.
+ */
+public final class JsonUtil {
+	
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	
+	private static final ObjectReader FORM_READER = MAPPER.reader(CaseReportForm.class);
+	
+	private static final ObjectWriter FORM_WRITER = MAPPER.writerWithType(CaseReportForm.class);
+	
+	private JsonUtil() {
+	}
+	
+	/**
+	 * Parses the specified JSON text into a case report form
+	 *
+	 * @param json the JSON text to parse
+	 * @return the CaseReportForm object
+	 * @throws IOException
+	 * @should parse the json into a case report form
+	 */
+	public static CaseReportForm readReportForm(String json) throws IOException {
+		return FORM_READER.readValue(json);
+	}
+	
+	/**
+	 * Serializes the specified case report form to JSON
+	 *
+	 * @param form the case report form to serialize
+	 * @return the JSON text
+	 * @throws IOException
+	 * @should serialize the case report form to json
+	 */
+	public static String writeReportForm(CaseReportForm form) throws IOException {
+		return FORM_WRITER.writeValueAsString(form);
+	}
+}
@@ -0,0 +1,200 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import org.openmrs.BaseOpenmrsObject;
+import org.openmrs.api.APIException;
+
+/**
+ * An instance of this class represents a submitted case report whose document is yet to be or was
+ * delivered to the HIE, entries are added in the same transaction as the submission and are
+ * delivered later by a background dispatcher. An entry that fails to be delivered after the
+ * maximum number of attempts is moved to the dead letter state where it stays until it is requeued.
+ */
+public class OutboxEntry extends BaseOpenmrsObject implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private Integer outboxEntryId;
+	
+	private CaseReport caseReport;
+	
+	private Status status = Status.PENDING;
+	
+	private int attemptCount;
+	
+	private Date nextAttemptDate;
+	
+	private String lastError;
+	
+	private Date dateCreated;
+	
+	private Date dateSent;
+	
+	public OutboxEntry() {
+	}
+	
+	public OutboxEntry(CaseReport caseReport) {
+		this.caseReport = caseReport;
+		this.dateCreated = new Date();
+		this.nextAttemptDate = dateCreated;
+	}
+	
+	public enum Status {
+		PENDING, SENT, DEAD_LETTER
+	}
+	
+	@Override
+	public Integer getId() {
+		return getOutboxEntryId();
+	}
+	
+	@Override
+	public void setId(Integer id) {
+		setOutboxEntryId(id);
+	}
+	
+	public Integer getOutboxEntryId() {
+		return outboxEntryId;
+	}
+	
+	public void setOutboxEntryId(Integer outboxEntryId) {
+		this.outboxEntryId = outboxEntryId;
+	}
+	
+	public CaseReport getCaseReport() {
+		return caseReport;
+	}
+	
+	public void setCaseReport(CaseReport caseReport) {
+		this.caseReport = caseReport;
+	}
+	
+	public Status getStatus() {
+		return status;
+	}
+	
+	protected void setStatus(Status status) {
+		this.status = status;
+	}
+	
+	public int getAttemptCount() {
+		return attemptCount;
+	}
+	
+	protected void setAttemptCount(int attemptCount) {
+		this.attemptCount = attemptCount;
+	}
+	
+	public Date getNextAttemptDate() {
+		return nextAttemptDate;
+	}
+	
+	protected void setNextAttemptDate(Date nextAttemptDate) {
+		this.nextAttemptDate = nextAttemptDate;
+	}
+	
+	public String getLastError() {
+		return lastError;
+	}
+	
+	protected void setLastError(String lastError) {
+		this.lastError = lastError;
+	}
+	
+	public Date getDateCreated() {
+		return dateCreated;
+	}
+	
+	protected void setDateCreated(Date dateCreated) {
+		this.dateCreated = dateCreated;
+	}
+	
+	public Date getDateSent() {
+		return dateSent;
+	}
+	
+	protected void setDateSent(Date dateSent) {
+		this.dateSent = dateSent;
+	}
+	
+	public boolean isPending() {
+		return getStatus() == Status.PENDING;
+	}
+	
+	public boolean isDeadLetter() {
+		return getStatus() == Status.DEAD_LETTER;
+	}
+	
+	/**
+	 * Marks this entry as successfully delivered
+	 */
+	public void markSent() {
+		status = Status.SENT;
+		dateSent = new Date();
+		nextAttemptDate = null;
+		lastError = null;
+	}
+	
+	/**
+	 * Records a failed delivery attempt, the next attempt is scheduled after a delay that doubles with
+	 * each failed attempt up to the specified maximum delay, if the maximum number of attempts is
+	 * reached the entry is moved to the dead letter state.
+	 *
+	 * @param error the error message
+	 * @param maxAttempts the maximum number of delivery attempts
+	 * @param initialDelay the delay in milliseconds before the first retry
+	 * @param maxDelay the maximum delay in milliseconds between attempts
+	 * @should schedule the next attempt with exponential backoff
+	 * @should move the entry to the dead letter state when the maximum attempts is reached
+	 */
+	public void markFailed(String error, int maxAttempts, long initialDelay, long maxDelay) {
+		attemptCount++;
+		lastError = error;
+		if (attemptCount >= maxAttempts) {
+			status = Status.DEAD_LETTER;
+			nextAttemptDate = null;
+			return;
+		}
+		
+		long delay = initialDelay;
+		for (int i = 1; i < attemptCount && delay < maxDelay; i++) {
+			delay *= 2;
+		}
+		nextAttemptDate = new Date(System.currentTimeMillis() + Math.min(delay, maxDelay));
+	}
+	
+	/**
+	 * Moves a dead letter entry back to the pending state so that it is delivered by the next run
+	 * of the dispatcher
+	 *
+	 * @should requeue a dead letter entry
+	 * @should fail for an entry that is not a dead letter
+	 */
+	public void requeue() {
+		if (!isDeadLetter()) {
+			throw new APIException("Only dead letter outbox entries can be requeued");
+		}
+		status = Status.PENDING;
+		attemptCount = 0;
+		nextAttemptDate = new Date();
+	}
+	
+	/**
+	 * @see Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "OutboxEntry #" + getId() + " (" + getStatus() + ") for " + getCaseReport();
+	}
+}
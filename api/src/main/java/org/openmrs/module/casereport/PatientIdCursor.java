@@ -0,0 +1,34 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import java.util.List;
+
+/**
+ * A forward only cursor over the ids of the patients matched by a cohort query, the ids are read
+ * from the database in chunks so that the entire cohort is never held in memory. Instances hold
+ * open database resources and MUST be closed after use.
+ */
+public interface PatientIdCursor {
+	
+	/**
+	 * Reads the next chunk of patient ids, the ids are returned in ascending order without
+	 * duplicates
+	 *
+	 * @return the patient ids or an empty list if the cursor is exhausted
+	 */
+	List<Integer> nextChunk();
+	
+	/**
+	 * Releases the database resources held by this cursor
+	 */
+	void close();
+	
+}
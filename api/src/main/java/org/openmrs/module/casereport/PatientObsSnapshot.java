@@ -0,0 +1,163 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openmrs.Concept;
+import org.openmrs.Obs;
+import org.openmrs.Patient;
+import org.openmrs.api.APIException;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.casereport.api.CaseReportService;
+
+/**
+ * A snapshot of the most recent observations needed to build a {@link CaseReportForm} for one or
+ * more patients. Only the most recent observations for each patient and concept are loaded, see
+ * {@link CaseReportService#getMostRecentObs(Collection, Map)}
+ */
+public class PatientObsSnapshot {
+	
+	private static final int MOST_RECENT_COUNT = 3;
+	
+	private Concept cd4Count;
+	
+	private Concept hivTest;
+	
+	private Concept viralLoad;
+	
+	private Concept whoStage;
+	
+	private Concept reasonArvsStopped;
+	
+	private Map<Integer, Map<Integer, List<Obs>>> patientIdConceptIdObsMap = new HashMap<>();
+	
+	private PatientObsSnapshot() {
+		cd4Count = CaseReportUtil.getCeilConceptByCode(CaseReportConstants.CIEL_CODE_CD4_COUNT);
+		hivTest = CaseReportUtil.getCeilConceptByCode(CaseReportConstants.CIEL_CODE_HIV_TEST);
+		viralLoad = CaseReportUtil.getCeilConceptByCode(CaseReportConstants.CIEL_CODE_VIRAL_LOAD);
+		whoStage = CaseReportUtil.getCeilConceptByCode(CaseReportConstants.CIEL_CODE_WHO_STAGE);
+		reasonArvsStopped = CaseReportUtil.getCeilConceptByCode(CaseReportConstants.CIEL_CODE_REASON_FOR_STOPPING_ARVS);
+	}
+	
+	/**
+	 * Loads the snapshot for the specified patient
+	 *
+	 * @param patient the patient to load the observations for
+	 * @return the snapshot
+	 */
+	public static PatientObsSnapshot load(Patient patient) {
+		if (patient == null) {
+			throw new APIException("Patient cannot be null");
+		}
+		return load(Collections.singletonList(patient));
+	}
+	
+	/**
+	 * Loads the snapshot for the specified patients, the older observations are never loaded
+	 *
+	 * @param patients the patients to load the observations for
+	 * @return the snapshot
+	 * @should load the most recent obs for each patient in bulk
+	 * @should return empty results for a patient with no obs
+	 */
+	public static PatientObsSnapshot load(Collection<Patient> patients) {
+		PatientObsSnapshot snapshot = new PatientObsSnapshot();
+		if (patients.isEmpty()) {
+			return snapshot;
+		}
+		
+		Map<Integer, Integer> conceptIdLimits = new HashMap<>();
+		conceptIdLimits.put(snapshot.cd4Count.getConceptId(), MOST_RECENT_COUNT);
+		conceptIdLimits.put(snapshot.hivTest.getConceptId(), MOST_RECENT_COUNT);
+		conceptIdLimits.put(snapshot.viralLoad.getConceptId(), MOST_RECENT_COUNT);
+		conceptIdLimits.put(snapshot.whoStage.getConceptId(), 1);
+		conceptIdLimits.put(snapshot.reasonArvsStopped.getConceptId(), 1);
+		
+		List<Integer> patientIds = new ArrayList<>(patients.size());
+		for (Patient patient : patients) {
+			patientIds.add(patient.getPatientId());
+		}
+		List<Obs> mostRecentObs = Context.getService(CaseReportService.class).getMostRecentObs(patientIds,
+		    conceptIdLimits);
+		
+		//The obs are ordered with the most recent first and are already limited for each patient and concept
+		for (Obs obs : mostRecentObs) {
+			Integer patientId = obs.getPersonId();
+			Integer conceptId = obs.getConcept().getConceptId();
+			Map<Integer, List<Obs>> conceptIdObsMap = snapshot.patientIdConceptIdObsMap.get(patientId);
+			if (conceptIdObsMap == null) {
+				conceptIdObsMap = new HashMap<>();
+				snapshot.patientIdConceptIdObsMap.put(patientId, conceptIdObsMap);
+			}
+			List<Obs> obsList = conceptIdObsMap.get(conceptId);
+			if (obsList == null) {
+				obsList = new ArrayList<>();
+				conceptIdObsMap.put(conceptId, obsList);
+			}
+			obsList.add(obs);
+		}
+		
+		return snapshot;
+	}
+	
+	private List<Obs> getObs(Patient patient, Concept concept) {
+		Map<Integer, List<Obs>> conceptIdObsMap = patientIdConceptIdObsMap.get(patient.getPatientId());
+		if (conceptIdObsMap == null || !conceptIdObsMap.containsKey(concept.getConceptId())) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(conceptIdObsMap.get(concept.getConceptId()));
+	}
+	
+	private Obs getFirstObs(Patient patient, Concept concept) {
+		List<Obs> obsList = getObs(patient, concept);
+		return obsList.isEmpty() ? null : obsList.get(0);
+	}
+	
+	/**
+	 * @see CaseReportUtil#getMostRecentCD4counts(Patient)
+	 */
+	public List<Obs> getMostRecentCD4counts(Patient patient) {
+		return getObs(patient, cd4Count);
+	}
+	
+	/**
+	 * @see CaseReportUtil#getMostRecentHIVTests(Patient)
+	 */
+	public List<Obs> getMostRecentHIVTests(Patient patient) {
+		return getObs(patient, hivTest);
+	}
+	
+	/**
+	 * @see CaseReportUtil#getMostRecentViralLoads(Patient)
+	 */
+	public List<Obs> getMostRecentViralLoads(Patient patient) {
+		return getObs(patient, viralLoad);
+	}
+	
+	/**
+	 * @see CaseReportUtil#getMostRecentWHOStage(Patient)
+	 */
+	public Obs getMostRecentWHOStage(Patient patient) {
+		return getFirstObs(patient, whoStage);
+	}
+	
+	/**
+	 * @see CaseReportUtil#getMostRecentReasonARVsStopped(Patient)
+	 */
+	public Obs getMostRecentReasonARVsStopped(Patient patient) {
+		return getFirstObs(patient, reasonArvsStopped);
+	}
+}
@@ -0,0 +1,118 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per patient locks that guard the queue items of patients so that triggers running in parallel
+ * never create duplicate case reports for the same patient. A lock only exists while some thread
+ * holds or is waiting for it, this way triggers processing chunks of different patients never
+ * block each other, only those that matched the same patients are serialized. The locks are
+ * acquired in ascending order of the patient ids so that threads locking overlapping sets of
+ * patients can't deadlock.
+ */
+final class PatientQueueLocks {
+	
+	//Guarded by itself
+	private static final Map<Integer, PatientLock> locks = new HashMap<>();
+	
+	private PatientQueueLocks() {
+	}
+	
+	/**
+	 * Acquires the locks for the patients with the specified ids, blocking until all of them are
+	 * acquired
+	 *
+	 * @param patientIds the patient ids
+	 * @return the acquired locks, they should be passed to {@link #unlock(List)}
+	 * @should acquire the locks for the specified patients
+	 * @should not block a thread locking other patients
+	 * @should block a thread locking any of the same patients until they are unlocked
+	 */
+	static List<Lock> lock(Collection<Integer> patientIds) {
+		SortedSet<Integer> sortedIds = new TreeSet<>(patientIds);
+		List<Lock> acquired = new ArrayList<>(sortedIds.size());
+		try {
+			for (Integer patientId : sortedIds) {
+				PatientLock lock;
+				synchronized (locks) {
+					lock = locks.get(patientId);
+					if (lock == null) {
+						lock = new PatientLock(patientId);
+						locks.put(patientId, lock);
+					}
+					//Counted before waiting so that the lock isn't discarded while it is awaited
+					lock.users++;
+				}
+				try {
+					lock.lock();
+				}
+				catch (RuntimeException e) {
+					release(lock);
+					throw e;
+				}
+				acquired.add(lock);
+			}
+		}
+		catch (RuntimeException e) {
+			unlock(acquired);
+			throw e;
+		}
+		
+		return acquired;
+	}
+	
+	/**
+	 * Releases the specified locks in the reverse order of their acquisition
+	 *
+	 * @param locks the locks to release
+	 * @should release the specified locks
+	 */
+	static void unlock(List<Lock> locks) {
+		List<Lock> reversed = new ArrayList<>(locks);
+		Collections.reverse(reversed);
+		for (Lock lock : reversed) {
+			lock.unlock();
+			release((PatientLock) lock);
+		}
+	}
+	
+	private static void release(PatientLock lock) {
+		synchronized (locks) {
+			if (--lock.users == 0) {
+				locks.remove(lock.patientId);
+			}
+		}
+	}
+	
+	private static class PatientLock extends ReentrantLock {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final Integer patientId;
+		
+		//The number of threads holding or waiting for this lock
+		private int users;
+		
+		PatientLock(Integer patientId) {
+			this.patientId = patientId;
+		}
+	}
+}
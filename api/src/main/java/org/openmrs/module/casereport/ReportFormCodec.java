@@ -0,0 +1,50 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import java.io.IOException;
+
+/**
+ * Encodes the JSON text of case report forms into a more compact representation before it is
+ * stored in the database and decodes it back when it is read. Each codec has a unique id which is
+ * written in the header of the stored values so that values written with any registered codec can
+ * still be read after the codec used for writing is changed, the id MUST therefore change whenever
+ * the encoding produced by a codec changes.
+ *
+ * @see ReportFormCodecs
+ */
+public interface ReportFormCodec {
+	
+	/**
+	 * Gets the unique id of this codec, it must not contain the
+	 * {@link ReportFormCodecs#HEADER_SEPARATOR}
+	 *
+	 * @return the id
+	 */
+	String getId();
+	
+	/**
+	 * Encodes the specified JSON text
+	 *
+	 * @param json the JSON text to encode
+	 * @return the encoded text without the header
+	 * @throws IOException
+	 */
+	String encode(String json) throws IOException;
+	
+	/**
+	 * Decodes the specified text that was encoded by this codec
+	 *
+	 * @param encoded the encoded text without the header
+	 * @return the JSON text
+	 * @throws IOException
+	 */
+	String decode(String encoded) throws IOException;
+}
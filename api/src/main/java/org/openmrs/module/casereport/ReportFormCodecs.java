@@ -0,0 +1,147 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang.StringUtils;
+import org.openmrs.api.APIException;
+
+/**
+ * Keeps track of the registered {@link ReportFormCodec}s and converts the JSON text of case report
+ * forms to and from the values stored in the database. An encoded value starts with a header made
+ * up of the {@link #HEADER_PREFIX}, the id of the codec that encoded it and the
+ * {@link #HEADER_SEPARATOR}, e.g. #gz1:H4sIAAAAAAAAAK...; a value without a header is plain JSON
+ * text which is what older versions of the module stored and is returned as is when read. By
+ * default values are written with the {@link GzipReportFormCodec}, setting the write codec to null
+ * writes plain JSON text.
+ */
+public final class ReportFormCodecs {
+	
+	public static final String HEADER_PREFIX = "#";
+	
+	public static final String HEADER_SEPARATOR = ":";
+	
+	private static final Map<String, ReportFormCodec> codecs = new ConcurrentHashMap<>();
+	
+	private static volatile ReportFormCodec writeCodec;
+	
+	static {
+		setWriteCodec(new GzipReportFormCodec());
+	}
+	
+	private ReportFormCodecs() {
+	}
+	
+	/**
+	 * Registers the specified codec so that values encoded with it can be decoded, a codec that was
+	 * previously registered with the same id is replaced.
+	 *
+	 * @param codec the codec to register
+	 */
+	public static void register(ReportFormCodec codec) {
+		String id = codec.getId();
+		if (StringUtils.isBlank(id) || id.contains(HEADER_SEPARATOR)) {
+			throw new APIException("Invalid report form codec id: " + id);
+		}
+		codecs.put(id, codec);
+	}
+	
+	/**
+	 * Gets the registered codec with the specified id
+	 *
+	 * @param id the id to match
+	 * @return the codec or null if none is registered with the id
+	 */
+	public static ReportFormCodec getCodec(String id) {
+		return codecs.get(id);
+	}
+	
+	/**
+	 * Gets the codec used to encode the values that are written
+	 *
+	 * @return the codec or null if plain JSON text is written
+	 */
+	public static ReportFormCodec getWriteCodec() {
+		return writeCodec;
+	}
+	
+	/**
+	 * Sets the codec to use to encode the values that are written, the codec is also registered
+	 *
+	 * @param codec the codec to set, null to write plain JSON text
+	 */
+	public static void setWriteCodec(ReportFormCodec codec) {
+		if (codec != null) {
+			register(codec);
+		}
+		writeCodec = codec;
+	}
+	
+	/**
+	 * Checks if the specified stored value was encoded by a codec
+	 *
+	 * @param value the value to check
+	 * @return true if the value has a header otherwise false
+	 */
+	public static boolean isEncoded(String value) {
+		return value != null && value.startsWith(HEADER_PREFIX);
+	}
+	
+	/**
+	 * Encodes the specified JSON text with the write codec and prefixes the result with the header,
+	 * values that are already encoded are returned as they are.
+	 *
+	 * @param json the JSON text to encode
+	 * @return the value to store
+	 * @throws IOException
+	 * @should encode the json text and add the header
+	 * @should return plain json if there is no write codec
+	 * @should return an already encoded value as is
+	 */
+	public static String encode(String json) throws IOException {
+		ReportFormCodec codec = writeCodec;
+		if (json == null || codec == null || isEncoded(json)) {
+			return json;
+		}
+		
+		return HEADER_PREFIX + codec.getId() + HEADER_SEPARATOR + codec.encode(json);
+	}
+	
+	/**
+	 * Decodes the specified stored value to JSON text with the codec whose id is in its header
+	 *
+	 * @param value the stored value to decode
+	 * @return the JSON text
+	 * @throws IOException
+	 * @should decode a value encoded by a registered codec
+	 * @should return a legacy plain json value as is
+	 * @should fail for a value encoded by an unknown codec
+	 */
+	public static String decode(String value) throws IOException {
+		if (!isEncoded(value)) {
+			return value;
+		}
+		
+		int separatorIndex = value.indexOf(HEADER_SEPARATOR, HEADER_PREFIX.length());
+		if (separatorIndex < 0) {
+			throw new APIException("Invalid report form header");
+		}
+		String id = value.substring(HEADER_PREFIX.length(), separatorIndex);
+		ReportFormCodec codec = codecs.get(id);
+		if (codec == null) {
+			throw new APIException("No report form codec registered with id: " + id);
+		}
+		
+		return codec.decode(value.substring(separatorIndex + HEADER_SEPARATOR.length()));
+	}
+}
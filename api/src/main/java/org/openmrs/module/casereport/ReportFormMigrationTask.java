@@ -0,0 +1,64 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.casereport.api.CaseReportService;
+import org.openmrs.scheduler.tasks.AbstractTask;
+
+/**
+ * An instance of this task rewrites the report forms that are still stored as plain JSON text with
+ * the current write codec in batches, each batch is rewritten in its own transaction so that the
+ * rows are never locked for long and the task keeps going until there are no more report forms left
+ * to rewrite.
+ *
+ * @see ReportFormCodecs
+ */
+public class ReportFormMigrationTask extends AbstractTask {
+	
+	protected Log log = LogFactory.getLog(getClass());
+	
+	/**
+	 * @see AbstractTask#execute()
+	 */
+	@Override
+	public void execute() {
+		if (!isExecuting) {
+			if (log.isDebugEnabled()) {
+				log.debug("Executing report form migration task...");
+			}
+			
+			startExecuting();
+			
+			try {
+				CaseReportService service = Context.getService(CaseReportService.class);
+				int batchSize = CaseReportConstants.REPORT_FORM_MIGRATION_BATCH_SIZE;
+				int total = 0;
+				int count;
+				do {
+					count = service.encodeLegacyReportForms(batchSize);
+					total += count;
+				} while (count == batchSize);
+				
+				if (log.isDebugEnabled()) {
+					log.debug("Report form migration task rewrote " + total + " report form(s)");
+				}
+			}
+			catch (Exception e) {
+				log.error("Error while running report form migration task: ", e);
+			}
+			finally {
+				stopExecuting();
+			}
+		}
+	}
+}
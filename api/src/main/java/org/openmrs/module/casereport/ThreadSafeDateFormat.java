@@ -0,0 +1,71 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * A thread safe alternative to a shared {@link SimpleDateFormat} which isn't safe for use by
+ * multiple threads, each thread lazily gets its own SimpleDateFormat instance for the pattern which
+ * it reuses for all subsequent calls so that no formatter is created per call.
+ */
+public final class ThreadSafeDateFormat {
+	
+	private final String pattern;
+	
+	private final ThreadLocal<DateFormat> formats = new ThreadLocal<DateFormat>() {
+		
+		@Override
+		protected DateFormat initialValue() {
+			return new SimpleDateFormat(pattern);
+		}
+	};
+	
+	/**
+	 * @param pattern the pattern describing the date and time format
+	 * @see SimpleDateFormat#SimpleDateFormat(String)
+	 */
+	public ThreadSafeDateFormat(String pattern) {
+		//Fail fast for an invalid pattern
+		new SimpleDateFormat(pattern);
+		this.pattern = pattern;
+	}
+	
+	public String getPattern() {
+		return pattern;
+	}
+	
+	/**
+	 * Formats the specified date
+	 *
+	 * @param date the date to format
+	 * @return the formatted date string
+	 * @should format the date
+	 * @should be safe for use by multiple threads
+	 */
+	public String format(Date date) {
+		return formats.get().format(date);
+	}
+	
+	/**
+	 * Parses the specified date string
+	 *
+	 * @param source the date string to parse
+	 * @return the parsed date
+	 * @throws ParseException if the string can't be parsed
+	 * @should parse the date string
+	 */
+	public Date parse(String source) throws ParseException {
+		return formats.get().parse(source);
+	}
+}
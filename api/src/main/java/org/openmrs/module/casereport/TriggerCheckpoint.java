@@ -0,0 +1,174 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.UUID;
+
+import org.openmrs.BaseOpenmrsObject;
+import org.openmrs.api.APIException;
+
+/**
+ * An instance of this class records the progress of the evaluation of a trigger. The high-water mark
+ * is the date when the last completed run started, it is used as the value of the
+ * {@link CaseReportConstants#LAST_EXECUTION_TIME} parameter of the next run. While a run is in
+ * progress, the id of the last processed patient is recorded after each chunk of patients so that
+ * a run that fails can be resumed from where it stopped by the next one.
+ */
+public class TriggerCheckpoint extends BaseOpenmrsObject implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private Integer triggerCheckpointId;
+	
+	private String triggerName;
+	
+	private Date highWaterMark;
+	
+	private String runId;
+	
+	private Date runStartDate;
+	
+	private Date runLastExecutionTime;
+	
+	private Integer lastPatientId;
+	
+	public TriggerCheckpoint() {
+	}
+	
+	public TriggerCheckpoint(String triggerName) {
+		this.triggerName = triggerName;
+	}
+	
+	@Override
+	public Integer getId() {
+		return getTriggerCheckpointId();
+	}
+	
+	@Override
+	public void setId(Integer id) {
+		setTriggerCheckpointId(id);
+	}
+	
+	public Integer getTriggerCheckpointId() {
+		return triggerCheckpointId;
+	}
+	
+	public void setTriggerCheckpointId(Integer triggerCheckpointId) {
+		this.triggerCheckpointId = triggerCheckpointId;
+	}
+	
+	public String getTriggerName() {
+		return triggerName;
+	}
+	
+	public void setTriggerName(String triggerName) {
+		this.triggerName = triggerName;
+	}
+	
+	public Date getHighWaterMark() {
+		return highWaterMark;
+	}
+	
+	protected void setHighWaterMark(Date highWaterMark) {
+		this.highWaterMark = highWaterMark;
+	}
+	
+	public String getRunId() {
+		return runId;
+	}
+	
+	protected void setRunId(String runId) {
+		this.runId = runId;
+	}
+	
+	public Date getRunStartDate() {
+		return runStartDate;
+	}
+	
+	protected void setRunStartDate(Date runStartDate) {
+		this.runStartDate = runStartDate;
+	}
+	
+	public Date getRunLastExecutionTime() {
+		return runLastExecutionTime;
+	}
+	
+	protected void setRunLastExecutionTime(Date runLastExecutionTime) {
+		this.runLastExecutionTime = runLastExecutionTime;
+	}
+	
+	public Integer getLastPatientId() {
+		return lastPatientId;
+	}
+	
+	protected void setLastPatientId(Integer lastPatientId) {
+		this.lastPatientId = lastPatientId;
+	}
+	
+	public boolean isRunInProgress() {
+		return getRunId() != null;
+	}
+	
+	/**
+	 * Starts a new run
+	 *
+	 * @param lastExecutionTime the value of the last execution time parameter for the run, can be null
+	 * @should start a new run
+	 * @should fail if a run is already in progress
+	 */
+	public void startRun(Date lastExecutionTime) {
+		if (isRunInProgress()) {
+			throw new APIException("Run " + runId + " of the trigger " + triggerName + " is still in progress");
+		}
+		runId = UUID.randomUUID().toString();
+		runStartDate = new Date();
+		runLastExecutionTime = lastExecutionTime;
+		lastPatientId = null;
+	}
+	
+	/**
+	 * Records the id of the last patient processed by the current run, patients are processed in
+	 * ascending order of their ids
+	 *
+	 * @param patientId the patient id
+	 */
+	public void markProcessed(Integer patientId) {
+		if (!isRunInProgress()) {
+			throw new APIException("No run of the trigger " + triggerName + " is in progress");
+		}
+		lastPatientId = patientId;
+	}
+	
+	/**
+	 * Completes the current run, the high-water mark is moved to the start date of the run
+	 *
+	 * @should complete the current run and move the high-water mark
+	 */
+	public void completeRun() {
+		if (!isRunInProgress()) {
+			throw new APIException("No run of the trigger " + triggerName + " is in progress");
+		}
+		highWaterMark = runStartDate;
+		runId = null;
+		runStartDate = null;
+		runLastExecutionTime = null;
+		lastPatientId = null;
+	}
+	
+	/**
+	 * @see Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "TriggerCheckpoint for " + getTriggerName() + (isRunInProgress() ? " (run " + getRunId() + ")" : "");
+	}
+}
@@ -0,0 +1,129 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport.api;
+
+import java.util.Date;
+
+import org.openmrs.Patient;
+import org.openmrs.module.casereport.CaseReport.Status;
+
+/**
+ * Holds the filters to apply when searching for case reports, the filters that are not set are
+ * ignored and the ones that are set are combined so that a case report has to match all of them.
+ */
+public class CaseReportSearchCriteria {
+	
+	private Patient patient;
+	
+	private String patientQuery;
+	
+	private String triggerName;
+	
+	private Date fromDateCreated;
+	
+	private Date toDateCreated;
+	
+	private Date fromResolutionDate;
+	
+	private Date toResolutionDate;
+	
+	private Status[] statuses;
+	
+	private boolean includeVoided;
+	
+	public CaseReportSearchCriteria() {
+	}
+	
+	public CaseReportSearchCriteria(Patient patient, boolean includeVoided, Status... statuses) {
+		this.patient = patient;
+		this.includeVoided = includeVoided;
+		this.statuses = statuses;
+	}
+	
+	public Patient getPatient() {
+		return patient;
+	}
+	
+	public void setPatient(Patient patient) {
+		this.patient = patient;
+	}
+	
+	/**
+	 * @return the text that the names or identifiers of the patients of the case reports should
+	 *         start with
+	 */
+	public String getPatientQuery() {
+		return patientQuery;
+	}
+	
+	public void setPatientQuery(String patientQuery) {
+		this.patientQuery = patientQuery;
+	}
+	
+	/**
+	 * @return the text that the name of at least one of the triggers of the case reports should
+	 *         contain
+	 */
+	public String getTriggerName() {
+		return triggerName;
+	}
+	
+	public void setTriggerName(String triggerName) {
+		this.triggerName = triggerName;
+	}
+	
+	public Date getFromDateCreated() {
+		return fromDateCreated;
+	}
+	
+	public void setFromDateCreated(Date fromDateCreated) {
+		this.fromDateCreated = fromDateCreated;
+	}
+	
+	public Date getToDateCreated() {
+		return toDateCreated;
+	}
+	
+	public void setToDateCreated(Date toDateCreated) {
+		this.toDateCreated = toDateCreated;
+	}
+	
+	public Date getFromResolutionDate() {
+		return fromResolutionDate;
+	}
+	
+	public void setFromResolutionDate(Date fromResolutionDate) {
+		this.fromResolutionDate = fromResolutionDate;
+	}
+	
+	public Date getToResolutionDate() {
+		return toResolutionDate;
+	}
+	
+	public void setToResolutionDate(Date toResolutionDate) {
+		this.toResolutionDate = toResolutionDate;
+	}
+	
+	public Status[] getStatuses() {
+		return statuses;
+	}
+	
+	public void setStatuses(Status... statuses) {
+		this.statuses = statuses;
+	}
+	
+	public boolean getIncludeVoided() {
+		return includeVoided;
+	}
+	
+	public void setIncludeVoided(boolean includeVoided) {
+		this.includeVoided = includeVoided;
+	}
+}
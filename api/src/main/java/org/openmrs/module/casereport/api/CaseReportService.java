@@ -9,14 +9,26 @@
  */
 package org.openmrs.module.casereport.api;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
+import org.openmrs.DrugOrder;
+import org.openmrs.Obs;
 import org.openmrs.Patient;
+import org.openmrs.Visit;
 import org.openmrs.annotation.Authorized;
 import org.openmrs.api.OpenmrsService;
 import org.openmrs.module.casereport.CaseReport;
 import org.openmrs.module.casereport.CaseReportConstants;
+import org.openmrs.module.casereport.CaseReportListItem;
+import org.openmrs.module.casereport.OutboxEntry;
+import org.openmrs.module.casereport.PatientIdCursor;
 import org.openmrs.module.casereport.Trigger;
+import org.openmrs.module.casereport.TriggerCheckpoint;
+import org.openmrs.module.reporting.cohort.definition.SqlCohortDefinition;
+import org.openmrs.util.PrivilegeConstants;
 
 /**
  * Contains methods for processing CRUD operations related to case reports
@@ -29,6 +41,7 @@ public interface CaseReportService extends OpenmrsService {
 	 * @param caseReportId the id to match against
 	 * @return the case report that matches the specified id
 	 * @should return the case report that matches the specified id
+	 * @should not load the report form until it is accessed
 	 */
 	@Authorized(CaseReportConstants.PRIV_GET_CASE_REPORTS)
 	CaseReport getCaseReport(Integer caseReportId);
@@ -53,6 +66,20 @@ public interface CaseReportService extends OpenmrsService {
 	@Authorized(CaseReportConstants.PRIV_GET_CASE_REPORTS)
 	CaseReport getCaseReportByPatient(Patient patient);
 	
+	/**
+	 * Gets the non voided case reports that are not yet submitted nor dismissed for the patients
+	 * with the specified patient ids, the triggers of the returned case reports are fetched
+	 * alongside them. This is the bulk version of {@link #getCaseReportByPatient(Patient)}
+	 *
+	 * @param patientIds the patient ids to match against
+	 * @return a map of patient ids and their case reports, patients with no case report are not
+	 *         included
+	 * @should return the case reports for the patients with the specified ids
+	 * @should return an empty map if no patient id is specified
+	 */
+	@Authorized(CaseReportConstants.PRIV_GET_CASE_REPORTS)
+	Map<Integer, CaseReport> getCaseReportsByPatientIds(Collection<Integer> patientIds);
+	
 	/**
 	 * Gets all non voided case reports from the database that are not yet submitted nor dismissed
 	 * ordered by date created. Basically it fetches the case report queue with the earliest coming
@@ -79,16 +106,128 @@ public interface CaseReportService extends OpenmrsService {
 	List<CaseReport> getCaseReports(Patient patient, boolean includeVoided, String orderBy, Boolean asc,
 	                                CaseReport.Status... statuses);
 	
+	/**
+	 * Gets a page of the case reports from the database that match the specified arguments, the
+	 * paging is done by the database so that only the case reports in the page are loaded.
+	 *
+	 * @param patient the patient to match against
+	 * @param includeVoided specifies whether voided reports should be included
+	 * @param orderBy The property to use for sorting the results
+	 * @param asc The ordering to use, true implies ascending otherwise descending
+	 * @param firstResult the index of the first case report to return
+	 * @param maxResults the maximum number of case reports to return
+	 * @param statuses specifies the statuses of the reports to match against
+	 * @return the case reports in the page
+	 * @should return the specified page of case reports
+	 * @should sort the case reports by the specified property
+	 */
+	@Authorized(CaseReportConstants.PRIV_GET_CASE_REPORTS)
+	List<CaseReport> getCaseReports(Patient patient, boolean includeVoided, String orderBy, Boolean asc,
+	                                Integer firstResult, Integer maxResults, CaseReport.Status... statuses);
+	
+	/**
+	 * Gets the number of case reports in the database that match the specified arguments
+	 *
+	 * @param patient the patient to match against
+	 * @param includeVoided specifies whether voided reports should be included
+	 * @param statuses specifies the statuses of the reports to match against
+	 * @return the number of matching case reports
+	 * @should return the number of matching case reports
+	 */
+	@Authorized(CaseReportConstants.PRIV_GET_CASE_REPORTS)
+	long getCaseReportCount(Patient patient, boolean includeVoided, CaseReport.Status... statuses);
+	
+	/**
+	 * Gets a page of the case reports from the database that match the specified search criteria,
+	 * the filtering and paging are done by the database so that only the case reports in the page
+	 * are loaded.
+	 *
+	 * @param searchCriteria the search criteria to match against
+	 * @param orderBy The property to use for sorting the results
+	 * @param asc The ordering to use, true implies ascending otherwise descending
+	 * @param firstResult the index of the first case report to return
+	 * @param maxResults the maximum number of case reports to return
+	 * @return the case reports in the page
+	 * @should return the case reports for the patients with a matching name
+	 * @should return the case reports for the patients with a matching identifier
+	 * @should return the case reports with a trigger with a matching name
+	 * @should return the case reports created in the specified date range
+	 * @should return the case reports resolved in the specified date range
+	 * @should return each matching case report once
+	 */
+	@Authorized(CaseReportConstants.PRIV_GET_CASE_REPORTS)
+	List<CaseReport> getCaseReports(CaseReportSearchCriteria searchCriteria, String orderBy, Boolean asc,
+	                                Integer firstResult, Integer maxResults);
+	
+	/**
+	 * Gets the number of case reports in the database that match the specified search criteria
+	 *
+	 * @param searchCriteria the search criteria to match against
+	 * @return the number of matching case reports
+	 * @should return the number of case reports that match the search criteria
+	 */
+	@Authorized(CaseReportConstants.PRIV_GET_CASE_REPORTS)
+	long getCaseReportCount(CaseReportSearchCriteria searchCriteria);
+	
+	/**
+	 * Gets a page of lightweight summaries of the case reports that match the specified search
+	 * criteria, the summaries are read with scalar queries so that the report forms and the
+	 * patients aren't loaded, this is meant for displaying lists of case reports.
+	 *
+	 * @param searchCriteria the search criteria to match against
+	 * @param orderBy The property to use for sorting the results
+	 * @param asc The ordering to use, true implies ascending otherwise descending
+	 * @param firstResult the index of the first case report to return
+	 * @param maxResults the maximum number of case reports to return
+	 * @return the case report summaries in the page
+	 * @should return summaries of the case reports that match the search criteria
+	 * @should include the patient details and trigger names
+	 * @should include only the submitted triggers of a submitted case report
+	 * @should include the triggers in the report form of a case report submitted before the triggers
+	 *         were flagged
+	 */
+	@Authorized(CaseReportConstants.PRIV_GET_CASE_REPORTS)
+	List<CaseReportListItem> getCaseReportListItems(CaseReportSearchCriteria searchCriteria, String orderBy,
+	                                                Boolean asc, Integer firstResult, Integer maxResults);
+	
 	/**
 	 * Saves a case report to the database.
 	 * 
 	 * @param caseReport the case report to save
 	 * @return the saved case report
 	 * @should return the saved case report
+	 * @should increment the version of an updated case report
+	 * @should fail for a case report that was updated by another transaction
+	 * @should fail for a draft whose report form was updated by another transaction
+	 * @should increment the version of a case report when only its report form is changed
+	 * @should save the report form in a separate table
 	 */
 	@Authorized(CaseReportConstants.PRIV_MANAGE_CASE_REPORTS)
 	CaseReport saveCaseReport(CaseReport caseReport);
 	
+	/**
+	 * Saves the specified case reports to the database in a single transaction.
+	 *
+	 * @param caseReports the case reports to save
+	 * @return the saved case reports
+	 * @should save the specified case reports
+	 */
+	@Authorized(CaseReportConstants.PRIV_MANAGE_CASE_REPORTS)
+	List<CaseReport> saveCaseReports(List<CaseReport> caseReports);
+	
+	/**
+	 * Saves the specified case reports and the evaluation checkpoint of the trigger that matched
+	 * their patients in a single transaction, so the checkpoint never records patients as processed
+	 * without their case reports being saved and vice versa.
+	 *
+	 * @param caseReports the case reports to save
+	 * @param checkpoint the checkpoint to save
+	 * @return the saved case reports
+	 * @should save the case reports and the checkpoint
+	 */
+	@Authorized(CaseReportConstants.PRIV_MANAGE_CASE_REPORTS)
+	List<CaseReport> saveCaseReports(List<CaseReport> caseReports, TriggerCheckpoint checkpoint);
+	
 	/**
 	 * Marks the specified case report as submitted in the database. If the submitter details are
 	 * not set in the report form, they will default to the logged in user
@@ -103,6 +242,7 @@ public interface CaseReportService extends OpenmrsService {
 	 * @should fail if the case report is already dismissed
 	 * @should submit the specified case report
 	 * @should call the registered submit event listeners
+	 * @should flag only the triggers in the report form as submitted
 	 * @should fail if no concept is linked to the trigger
 	 * @should fail if the linked concept is not mapped to ciel
 	 * @should fail for a query with an invalid concept mapping
@@ -164,4 +304,180 @@ public interface CaseReportService extends OpenmrsService {
 	 */
 	@Authorized(CaseReportConstants.PRIV_GET_TRIGGERS)
 	List<Trigger> getTriggers();
+	
+	/**
+	 * Gets the outbox entry that matches the specified id
+	 *
+	 * @param outboxEntryId the id to match against
+	 * @return the outbox entry that matches the specified id
+	 * @should return the outbox entry that matches the specified id
+	 */
+	@Authorized(CaseReportConstants.PRIV_GET_CASE_REPORTS)
+	OutboxEntry getOutboxEntry(Integer outboxEntryId);
+	
+	/**
+	 * Gets the outbox entry that matches the specified uuid
+	 *
+	 * @param uuid the uuid to match against
+	 * @return the outbox entry that matches the specified uuid
+	 * @should return the outbox entry that matches the specified uuid
+	 */
+	@Authorized(CaseReportConstants.PRIV_GET_CASE_REPORTS)
+	OutboxEntry getOutboxEntryByUuid(String uuid);
+	
+	/**
+	 * Gets the outbox entries with the specified statuses ordered by date created with the earliest
+	 * coming first, all entries are returned if no status is specified
+	 *
+	 * @param statuses the statuses to match against
+	 * @return a list of outbox entries
+	 * @should return the outbox entries with the specified statuses
+	 */
+	@Authorized(CaseReportConstants.PRIV_GET_CASE_REPORTS)
+	List<OutboxEntry> getOutboxEntries(OutboxEntry.Status... statuses);
+	
+	/**
+	 * Gets the pending outbox entries whose next delivery attempt is due as of the specified date,
+	 * the entries are sorted by id so that a caller can page through them by passing the id of the
+	 * last entry of the previous page as the afterOutboxEntryId argument.
+	 *
+	 * @param asOfDate the date to match against
+	 * @param afterOutboxEntryId if specified only entries with greater ids are returned
+	 * @param maxResults the maximum number of entries to return
+	 * @return a list of due outbox entries
+	 * @should return the pending outbox entries that are due
+	 * @should only return the entries with ids greater than the specified id
+	 */
+	@Authorized(CaseReportConstants.PRIV_GET_CASE_REPORTS)
+	List<OutboxEntry> getDueOutboxEntries(Date asOfDate, Integer afterOutboxEntryId, Integer maxResults);
+	
+	/**
+	 * Saves an outbox entry to the database
+	 *
+	 * @param outboxEntry the outbox entry to save
+	 * @return the saved outbox entry
+	 * @should save the specified outbox entry
+	 */
+	@Authorized(CaseReportConstants.PRIV_MANAGE_CASE_REPORTS)
+	OutboxEntry saveOutboxEntry(OutboxEntry outboxEntry);
+	
+	/**
+	 * Gets the evaluation checkpoint of the trigger with the specified name
+	 *
+	 * @param triggerName the name of the trigger to match against
+	 * @return the checkpoint or null if the trigger has never been evaluated
+	 * @should return the checkpoint for the specified trigger
+	 * @should return null if the trigger has no checkpoint
+	 */
+	@Authorized(CaseReportConstants.PRIV_GET_TRIGGERS)
+	TriggerCheckpoint getTriggerCheckpoint(String triggerName);
+	
+	/**
+	 * Saves a trigger evaluation checkpoint to the database
+	 *
+	 * @param checkpoint the checkpoint to save
+	 * @return the saved checkpoint
+	 * @should save the specified checkpoint
+	 */
+	@Authorized(CaseReportConstants.PRIV_MANAGE_CASE_REPORTS)
+	TriggerCheckpoint saveTriggerCheckpoint(TriggerCheckpoint checkpoint);
+	
+	/**
+	 * Rewrites the report forms of a batch of case reports that are still stored as plain JSON text
+	 * with the current write codec, the rows are updated with bulk statements so that the case
+	 * reports aren't loaded, a form that is rewritten by another transaction in the meantime is left
+	 * as is.
+	 *
+	 * @param batchSize the maximum number of report forms to rewrite
+	 * @return the number of rewritten report forms, 0 if there is no write codec
+	 * @should encode the plain json report forms
+	 * @should not rewrite more than the batch size
+	 * @should do nothing if there is no write codec
+	 */
+	@Authorized(CaseReportConstants.PRIV_MANAGE_CASE_REPORTS)
+	int encodeLegacyReportForms(int batchSize);
+	
+	/**
+	 * Gets the most recent non voided visit for the specified patient without loading the patient's
+	 * other visits, if the patient has multiple visits with the same latest start date, the one with
+	 * the highest id is returned.
+	 *
+	 * @param patient the patient to match against
+	 * @return the most recent visit or null if the patient has none
+	 * @should return the most recent visit for the patient
+	 * @should return null if the patient has no visit
+	 */
+	@Authorized(PrivilegeConstants.VIEW_VISITS)
+	Visit getMostRecentVisit(Patient patient);
+	
+	/**
+	 * Gets the most recent non voided visit for each of the patients with the specified ids with a
+	 * single query, this is the bulk version of {@link #getMostRecentVisit(Patient)}
+	 *
+	 * @param patientIds the patient ids to match against
+	 * @return a map of patient ids and their most recent visits, patients with no visit are not
+	 *         included
+	 * @should return the most recent visit for each patient
+	 * @should return an empty map if no patient id is specified
+	 */
+	@Authorized(PrivilegeConstants.VIEW_VISITS)
+	Map<Integer, Visit> getMostRecentVisits(Collection<Integer> patientIds);
+	
+	/**
+	 * Gets the drug orders that are active as of the specified date for the patients with the
+	 * specified ids with a single query, this is the bulk version of
+	 * {@link org.openmrs.api.OrderService#getActiveOrders} for drug orders. The orders can be
+	 * filtered by their concepts in the query so that other orders are never loaded.
+	 *
+	 * @param patientIds the patient ids to match against
+	 * @param conceptIds the ids of the concepts of the orders to match, if null all drug orders are
+	 *            matched
+	 * @param asOfDate the date to match against, defaults to the current date
+	 * @return a map of patient ids and their active drug orders, patients with no active drug order
+	 *         are not included
+	 * @should return the active drug orders for each patient
+	 * @should return an empty map if no patient id is specified
+	 * @should only return the drug orders for the specified concepts
+	 * @should return an empty map if the specified concept ids are empty
+	 */
+	@Authorized(PrivilegeConstants.VIEW_ORDERS)
+	Map<Integer, List<DrugOrder>> getActiveDrugOrders(Collection<Integer> patientIds, Collection<Integer> conceptIds,
+	                                                  Date asOfDate);
+	
+	/**
+	 * Gets the most recent non voided obs of the specified concepts for the patients with the
+	 * specified ids, at most the specified number of obs is returned for each patient and concept.
+	 * Only the ids of the older obs are read, so that they are never loaded.
+	 *
+	 * @param patientIds the patient ids to match against
+	 * @param conceptIdLimits a map of the ids of the concepts to match and the maximum number of obs
+	 *            to return for each patient
+	 * @return the obs, those of each patient are ordered by obs datetime with the most recent first
+	 * @should return the most recent obs for each patient and concept
+	 * @should not return more obs than the limit for each patient and concept
+	 * @should return an empty list if no patient id is specified
+	 */
+	@Authorized(PrivilegeConstants.VIEW_OBS)
+	List<Obs> getMostRecentObs(Collection<Integer> patientIds, Map<Integer, Integer> conceptIdLimits);
+	
+	/**
+	 * Opens a forward only cursor over the ids of the patients matched by the query of the specified
+	 * sql cohort definition, the ids are fetched from the database in batches of the specified fetch
+	 * size and are returned in ascending order in chunks of the specified size so that the entire
+	 * cohort is never held in memory. The query is evaluated once on a dedicated connection which
+	 * the cursor holds until it is closed, so transactions can be committed between chunks. The
+	 * returned cursor MUST be closed by the caller.
+	 *
+	 * @param definition the sql cohort definition to evaluate
+	 * @param parameterValues the values of the named parameters in the query
+	 * @param fetchSize the number of rows to fetch from the database at a time
+	 * @param chunkSize the number of patient ids in each chunk
+	 * @return the PatientIdCursor
+	 * @should return the ids of the matched patients in ascending order in chunks
+	 * @should not return duplicate patient ids
+	 * @should fail if a parameter value is missing
+	 */
+	@Authorized(CaseReportConstants.PRIV_GET_TRIGGERS)
+	PatientIdCursor getCohortMemberIdCursor(SqlCohortDefinition definition, Map<String, Object> parameterValues,
+	                                        int fetchSize, int chunkSize);
 }
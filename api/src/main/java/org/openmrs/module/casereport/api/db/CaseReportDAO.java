@@ -9,10 +9,21 @@
  */
 package org.openmrs.module.casereport.api.db;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
+import org.openmrs.DrugOrder;
+import org.openmrs.Obs;
 import org.openmrs.Patient;
+import org.openmrs.Visit;
 import org.openmrs.module.casereport.CaseReport;
+import org.openmrs.module.casereport.CaseReportListItem;
+import org.openmrs.module.casereport.OutboxEntry;
+import org.openmrs.module.casereport.PatientIdCursor;
+import org.openmrs.module.casereport.TriggerCheckpoint;
+import org.openmrs.module.casereport.api.CaseReportSearchCriteria;
 import org.openmrs.module.casereport.api.CaseReportService;
 
 /**
@@ -27,5 +38,45 @@ public interface CaseReportDAO {
 	List<CaseReport> getCaseReports(Patient patient, boolean includeVoided, String orderBy, Boolean asc,
 	                                CaseReport.Status... statuses);
 	
+	List<CaseReport> getCaseReports(CaseReportSearchCriteria searchCriteria, String orderBy, Boolean asc,
+	                                Integer firstResult, Integer maxResults);
+	
+	long getCaseReportCount(CaseReportSearchCriteria searchCriteria);
+	
+	List<CaseReportListItem> getCaseReportListItems(CaseReportSearchCriteria searchCriteria, String orderBy, Boolean asc,
+	                                                Integer firstResult, Integer maxResults);
+	
+	List<CaseReport> getCaseReportsByPatientIds(Collection<Integer> patientIds, boolean includeVoided,
+	                                            CaseReport.Status... statuses);
+	
 	CaseReport saveCaseReport(CaseReport caseReport);
+	
+	List<CaseReport> saveCaseReports(List<CaseReport> caseReports);
+	
+	OutboxEntry getOutboxEntry(Integer outboxEntryId);
+	
+	OutboxEntry getOutboxEntryByUuid(String uuid);
+	
+	List<OutboxEntry> getOutboxEntries(OutboxEntry.Status... statuses);
+	
+	List<OutboxEntry> getDueOutboxEntries(Date asOfDate, Integer afterOutboxEntryId, Integer maxResults);
+	
+	OutboxEntry saveOutboxEntry(OutboxEntry outboxEntry);
+	
+	TriggerCheckpoint getTriggerCheckpoint(String triggerName);
+	
+	TriggerCheckpoint saveTriggerCheckpoint(TriggerCheckpoint checkpoint);
+	
+	int encodeLegacyReportForms(int batchSize);
+	
+	Visit getMostRecentVisit(Patient patient);
+	
+	List<Visit> getMostRecentVisits(Collection<Integer> patientIds);
+	
+	List<DrugOrder> getActiveDrugOrders(Collection<Integer> patientIds, Collection<Integer> conceptIds, Date asOfDate);
+	
+	List<Obs> getMostRecentObs(Collection<Integer> patientIds, Map<Integer, Integer> conceptIdLimits);
+	
+	PatientIdCursor getPatientIdCursor(String sqlQuery, Map<String, Object> parameterValues, int fetchSize,
+	                                   int chunkSize);
 }
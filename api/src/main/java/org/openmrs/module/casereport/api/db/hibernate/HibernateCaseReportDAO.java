@@ -11,19 +11,55 @@ package org.openmrs.module.casereport.api.db.hibernate;
 
 import static org.openmrs.module.casereport.CaseReport.Status;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.hibernate.Criteria;
+import org.hibernate.FetchMode;
+import org.hibernate.Query;
+import org.hibernate.SQLQuery;
+import org.hibernate.ScrollMode;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.MatchMode;
 import org.hibernate.criterion.Order;
+import org.hibernate.criterion.ProjectionList;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.criterion.Subqueries;
+import org.hibernate.transform.DistinctRootEntityResultTransformer;
+import org.openmrs.DrugOrder;
+import org.openmrs.Obs;
 import org.openmrs.Patient;
+import org.openmrs.PatientIdentifier;
+import org.openmrs.PersonName;
+import org.openmrs.Visit;
+import org.openmrs.api.APIException;
 import org.openmrs.module.casereport.CaseReport;
+import org.openmrs.module.casereport.CaseReportForm;
+import org.openmrs.module.casereport.CaseReportListItem;
+import org.openmrs.module.casereport.CaseReportTrigger;
+import org.openmrs.module.casereport.DatedUuidAndValue;
+import org.openmrs.module.casereport.JsonUtil;
+import org.openmrs.module.casereport.OutboxEntry;
+import org.openmrs.module.casereport.PatientIdCursor;
+import org.openmrs.module.casereport.ReportFormCodecs;
+import org.openmrs.module.casereport.TriggerCheckpoint;
+import org.openmrs.module.casereport.api.CaseReportSearchCriteria;
 import org.openmrs.module.casereport.api.db.CaseReportDAO;
 
 /**
@@ -33,6 +69,11 @@ public class HibernateCaseReportDAO implements CaseReportDAO {
 	
 	protected final Log log = LogFactory.getLog(this.getClass());
 	
+	/**
+	 * The maximum number of values to include in a single IN clause of a query
+	 */
+	private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+	
 	private SessionFactory sessionFactory;
 	
 	/**
@@ -77,25 +118,309 @@ public class HibernateCaseReportDAO implements CaseReportDAO {
 	public List<CaseReport> getCaseReports(Patient patient, boolean includeVoided, String orderBy, Boolean asc,
 	                                       Status... statuses) {
 		
-		Criteria criteria = getCurrentSession().createCriteria(CaseReport.class);
-		if (patient != null) {
-			criteria.add(Restrictions.eq("patient", patient));
+		return getCaseReports(new CaseReportSearchCriteria(patient, includeVoided, statuses), orderBy, asc, null, null);
+	}
+	
+	/**
+	 * @see CaseReportDAO#getCaseReports(CaseReportSearchCriteria, String, Boolean, Integer, Integer)
+	 */
+	@Override
+	public List<CaseReport> getCaseReports(CaseReportSearchCriteria searchCriteria, String orderBy, Boolean asc,
+	                                       Integer firstResult, Integer maxResults) {
+		
+		Criteria criteria = createCaseReportCriteria(searchCriteria);
+		addOrderAndPaging(criteria, orderBy, asc, firstResult, maxResults);
+		
+		return criteria.list();
+	}
+	
+	/**
+	 * @see CaseReportDAO#getCaseReportListItems(CaseReportSearchCriteria, String, Boolean, Integer,
+	 *      Integer)
+	 */
+	@Override
+	public List<CaseReportListItem> getCaseReportListItems(CaseReportSearchCriteria searchCriteria, String orderBy,
+	                                                       Boolean asc, Integer firstResult, Integer maxResults) {
+		
+		Criteria criteria = createCaseReportCriteria(searchCriteria);
+		criteria.createAlias("patient", "p");
+		ProjectionList projections = Projections.projectionList();
+		projections.add(Projections.property("caseReportId"));
+		projections.add(Projections.property("uuid"));
+		projections.add(Projections.property("status"));
+		projections.add(Projections.property("dateCreated"));
+		projections.add(Projections.property("resolutionDate"));
+		projections.add(Projections.property("patient.id"));
+		projections.add(Projections.property("p.uuid"));
+		projections.add(Projections.property("p.gender"));
+		projections.add(Projections.property("p.birthdate"));
+		projections.add(Projections.property("p.deathDate"));
+		criteria.setProjection(projections);
+		addOrderAndPaging(criteria, orderBy, asc, firstResult, maxResults);
+		
+		List<CaseReportListItem> items = new ArrayList<>();
+		Map<Integer, CaseReportListItem> idItemMap = new HashMap<>();
+		Set<Integer> patientIds = new HashSet<>();
+		for (Object[] row : (List<Object[]>) criteria.list()) {
+			CaseReportListItem item = new CaseReportListItem((Integer) row[0], (String) row[1], (Status) row[2],
+			        (Date) row[3], (Date) row[4], (Integer) row[5], (String) row[6], (String) row[7], (Date) row[8],
+			        (Date) row[9]);
+			items.add(item);
+			idItemMap.put(item.getCaseReportId(), item);
+			patientIds.add(item.getPatientId());
 		}
 		
-		if (ArrayUtils.isNotEmpty(statuses)) {
-			criteria.add(Restrictions.in("status", statuses));
+		if (items.isEmpty()) {
+			return items;
 		}
 		
-		if (!includeVoided) {
-			criteria.add(Restrictions.eq("voided", false));
+		Map<Integer, String> patientIdNameMap = getPreferredNames(patientIds);
+		Map<Integer, String> patientIdIdentifierMap = getPreferredIdentifiers(patientIds);
+		for (CaseReportListItem item : items) {
+			item.setPersonName(patientIdNameMap.get(item.getPatientId()));
+			item.setIdentifier(patientIdIdentifierMap.get(item.getPatientId()));
 		}
 		
+		//The officer can remove triggers from the form before submitting it, so only the triggers that
+		//were flagged as submitted are listed for a submitted case report
+		Map<Integer, List<String>> idSubmittedTriggersMap = new HashMap<>();
+		List<Integer> ids = new ArrayList<>(idItemMap.keySet());
+		for (int i = 0; i < ids.size(); i += IN_CLAUSE_CHUNK_SIZE) {
+			Query query = getCurrentSession().createQuery(
+			    "select t.caseReport.id, t.name, t.submitted from CaseReportTrigger t where t.caseReport.id in "
+			            + "(:caseReportIds) order by t.caseReportTriggerId");
+			query.setParameterList("caseReportIds", ids.subList(i, Math.min(i + IN_CLAUSE_CHUNK_SIZE, ids.size())));
+			for (Object[] row : (List<Object[]>) query.list()) {
+				idItemMap.get(row[0]).getTriggers().add((String) row[1]);
+				if ((Boolean) row[2]) {
+					List<String> submittedTriggers = idSubmittedTriggersMap.get(row[0]);
+					if (submittedTriggers == null) {
+						submittedTriggers = new ArrayList<>();
+						idSubmittedTriggersMap.put((Integer) row[0], submittedTriggers);
+					}
+					submittedTriggers.add((String) row[1]);
+				}
+			}
+		}
+		
+		List<Integer> legacyIds = new ArrayList<>();
+		for (CaseReportListItem item : items) {
+			if (item.getStatus() == Status.SUBMITTED) {
+				List<String> submittedTriggers = idSubmittedTriggersMap.get(item.getCaseReportId());
+				if (submittedTriggers != null) {
+					item.getTriggers().clear();
+					item.getTriggers().addAll(submittedTriggers);
+				} else {
+					legacyIds.add(item.getCaseReportId());
+				}
+			}
+		}
+		
+		setSubmittedTriggersFromReportForms(legacyIds, idItemMap);
+		
+		return items;
+	}
+	
+	/**
+	 * Replaces the triggers of the items of the case reports that were submitted before the
+	 * submitted triggers were flagged with the triggers in their report forms, the triggers of an
+	 * item whose case report has no report form are left as they are.
+	 */
+	private void setSubmittedTriggersFromReportForms(List<Integer> caseReportIds,
+	                                                 Map<Integer, CaseReportListItem> idItemMap) {
+		for (int i = 0; i < caseReportIds.size(); i += IN_CLAUSE_CHUNK_SIZE) {
+			Query query = getCurrentSession().createQuery(
+			    "select f.caseReportId, f.reportForm from CaseReportFormData f where f.reportForm is not null and "
+			            + "f.caseReportId in (:caseReportIds)");
+			query.setParameterList("caseReportIds",
+			    caseReportIds.subList(i, Math.min(i + IN_CLAUSE_CHUNK_SIZE, caseReportIds.size())));
+			for (Object[] row : (List<Object[]>) query.list()) {
+				CaseReportForm form;
+				try {
+					form = JsonUtil.readReportForm((String) row[1]);
+				}
+				catch (IOException e) {
+					throw new APIException("Failed to parse the report form of case report with id: " + row[0], e);
+				}
+				
+				List<String> triggers = idItemMap.get(row[0]).getTriggers();
+				triggers.clear();
+				for (DatedUuidAndValue trigger : form.getTriggers()) {
+					triggers.add((String) trigger.getValue());
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Gets the full names of the preferred names of the patients with the specified ids, the names
+	 * are read with a scalar query so that the patients aren't loaded.
+	 */
+	private Map<Integer, String> getPreferredNames(Collection<Integer> patientIds) {
+		Map<Integer, String> patientIdNameMap = new HashMap<>();
+		List<Integer> ids = new ArrayList<>(patientIds);
+		for (int i = 0; i < ids.size(); i += IN_CLAUSE_CHUNK_SIZE) {
+			Query query = getCurrentSession().createQuery(
+			    "select pn.person.id, pn.prefix, pn.givenName, pn.middleName, pn.familyNamePrefix, "
+			            + "pn.familyName, pn.familyName2, pn.familyNameSuffix, pn.degree from PersonName pn "
+			            + "where pn.person.id in (:patientIds) and pn.voided = false "
+			            + "order by pn.preferred desc, pn.personNameId");
+			query.setParameterList("patientIds", ids.subList(i, Math.min(i + IN_CLAUSE_CHUNK_SIZE, ids.size())));
+			for (Object[] row : (List<Object[]>) query.list()) {
+				if (!patientIdNameMap.containsKey(row[0])) {
+					PersonName name = new PersonName((String) row[2], (String) row[3], (String) row[5]);
+					name.setPrefix((String) row[1]);
+					name.setFamilyNamePrefix((String) row[4]);
+					name.setFamilyName2((String) row[6]);
+					name.setFamilyNameSuffix((String) row[7]);
+					name.setDegree((String) row[8]);
+					patientIdNameMap.put((Integer) row[0], name.getFullName());
+				}
+			}
+		}
+		
+		return patientIdNameMap;
+	}
+	
+	/**
+	 * Gets the preferred identifiers of the patients with the specified ids
+	 */
+	private Map<Integer, String> getPreferredIdentifiers(Collection<Integer> patientIds) {
+		Map<Integer, String> patientIdIdentifierMap = new HashMap<>();
+		List<Integer> ids = new ArrayList<>(patientIds);
+		for (int i = 0; i < ids.size(); i += IN_CLAUSE_CHUNK_SIZE) {
+			Query query = getCurrentSession().createQuery(
+			    "select pi.patient.id, pi.identifier from PatientIdentifier pi where pi.patient.id in (:patientIds) "
+			            + "and pi.voided = false order by pi.preferred desc, pi.patientIdentifierId");
+			query.setParameterList("patientIds", ids.subList(i, Math.min(i + IN_CLAUSE_CHUNK_SIZE, ids.size())));
+			for (Object[] row : (List<Object[]>) query.list()) {
+				if (!patientIdIdentifierMap.containsKey(row[0])) {
+					patientIdIdentifierMap.put((Integer) row[0], (String) row[1]);
+				}
+			}
+		}
+		
+		return patientIdIdentifierMap;
+	}
+	
+	private void addOrderAndPaging(Criteria criteria, String orderBy, Boolean asc, Integer firstResult,
+	                               Integer maxResults) {
 		if (StringUtils.isNotBlank(orderBy) && asc != null) {
 			Order order = asc ? Order.asc(orderBy) : Order.desc(orderBy);
 			criteria.addOrder(order);
 		}
 		
-		return criteria.list();
+		if (firstResult != null || maxResults != null) {
+			//Sort by id last so that the pages are stable when the sort property has duplicate values
+			criteria.addOrder(Order.asc("caseReportId"));
+			if (firstResult != null) {
+				criteria.setFirstResult(firstResult);
+			}
+			if (maxResults != null) {
+				criteria.setMaxResults(maxResults);
+			}
+		}
+	}
+	
+	/**
+	 * @see CaseReportDAO#getCaseReportCount(CaseReportSearchCriteria)
+	 */
+	@Override
+	public long getCaseReportCount(CaseReportSearchCriteria searchCriteria) {
+		Criteria criteria = createCaseReportCriteria(searchCriteria);
+		criteria.setProjection(Projections.rowCount());
+		
+		return ((Number) criteria.uniqueResult()).longValue();
+	}
+	
+	/**
+	 * Creates the criteria for the case reports that match the specified search criteria, the
+	 * patient and trigger filters are applied with sub queries instead of joins so that each case
+	 * report is returned once and the database can page the results.
+	 */
+	private Criteria createCaseReportCriteria(CaseReportSearchCriteria searchCriteria) {
+		Criteria criteria = getCurrentSession().createCriteria(CaseReport.class);
+		if (searchCriteria.getPatient() != null) {
+			criteria.add(Restrictions.eq("patient", searchCriteria.getPatient()));
+		}
+		
+		if (StringUtils.isNotBlank(searchCriteria.getPatientQuery())) {
+			String query = searchCriteria.getPatientQuery().trim();
+			DetachedCriteria names = DetachedCriteria.forClass(PersonName.class);
+			names.add(Restrictions.eq("voided", false));
+			for (String word : StringUtils.split(query)) {
+				names.add(Restrictions.or(Restrictions.ilike("givenName", word, MatchMode.START), Restrictions.or(
+				    Restrictions.ilike("middleName", word, MatchMode.START),
+				    Restrictions.ilike("familyName", word, MatchMode.START))));
+			}
+			names.setProjection(Projections.property("person.id"));
+			
+			DetachedCriteria identifiers = DetachedCriteria.forClass(PatientIdentifier.class);
+			identifiers.add(Restrictions.eq("voided", false));
+			identifiers.add(Restrictions.ilike("identifier", query, MatchMode.START));
+			identifiers.setProjection(Projections.property("patient.id"));
+			
+			criteria.add(Restrictions.or(Subqueries.propertyIn("patient.id", names),
+			    Subqueries.propertyIn("patient.id", identifiers)));
+		}
+		
+		if (StringUtils.isNotBlank(searchCriteria.getTriggerName())) {
+			DetachedCriteria triggers = DetachedCriteria.forClass(CaseReportTrigger.class);
+			triggers.add(Restrictions.ilike("name", searchCriteria.getTriggerName().trim(), MatchMode.ANYWHERE));
+			triggers.setProjection(Projections.property("caseReport.id"));
+			criteria.add(Subqueries.propertyIn("caseReportId", triggers));
+		}
+		
+		if (searchCriteria.getFromDateCreated() != null) {
+			criteria.add(Restrictions.ge("dateCreated", searchCriteria.getFromDateCreated()));
+		}
+		if (searchCriteria.getToDateCreated() != null) {
+			criteria.add(Restrictions.le("dateCreated", searchCriteria.getToDateCreated()));
+		}
+		if (searchCriteria.getFromResolutionDate() != null) {
+			criteria.add(Restrictions.ge("resolutionDate", searchCriteria.getFromResolutionDate()));
+		}
+		if (searchCriteria.getToResolutionDate() != null) {
+			criteria.add(Restrictions.le("resolutionDate", searchCriteria.getToResolutionDate()));
+		}
+		
+		if (ArrayUtils.isNotEmpty(searchCriteria.getStatuses())) {
+			criteria.add(Restrictions.in("status", searchCriteria.getStatuses()));
+		}
+		
+		if (!searchCriteria.getIncludeVoided()) {
+			criteria.add(Restrictions.eq("voided", false));
+		}
+		
+		return criteria;
+	}
+	
+	/**
+	 * @see CaseReportDAO#getCaseReportsByPatientIds(Collection, boolean, Status...)
+	 */
+	@Override
+	public List<CaseReport> getCaseReportsByPatientIds(Collection<Integer> patientIds, boolean includeVoided,
+	                                                   Status... statuses) {
+		
+		List<CaseReport> caseReports = new ArrayList<>();
+		List<Integer> ids = new ArrayList<>(patientIds);
+		for (int i = 0; i < ids.size(); i += IN_CLAUSE_CHUNK_SIZE) {
+			List<Integer> chunk = ids.subList(i, Math.min(i + IN_CLAUSE_CHUNK_SIZE, ids.size()));
+			Criteria criteria = getCurrentSession().createCriteria(CaseReport.class);
+			criteria.add(Restrictions.in("patient.id", chunk));
+			if (ArrayUtils.isNotEmpty(statuses)) {
+				criteria.add(Restrictions.in("status", statuses));
+			}
+			if (!includeVoided) {
+				criteria.add(Restrictions.eq("voided", false));
+			}
+			//Fetch the triggers in the same query since the callers typically need to inspect them
+			criteria.setFetchMode("reportTriggers", FetchMode.JOIN);
+			criteria.setResultTransformer(DistinctRootEntityResultTransformer.INSTANCE);
+			caseReports.addAll(criteria.list());
+		}
+		
+		return caseReports;
 	}
 	
 	/**
@@ -106,4 +431,275 @@ public class HibernateCaseReportDAO implements CaseReportDAO {
 		getCurrentSession().saveOrUpdate(caseReport);
 		return caseReport;
 	}
+	
+	/**
+	 * @see CaseReportDAO#saveCaseReports(List)
+	 */
+	@Override
+	public List<CaseReport> saveCaseReports(List<CaseReport> caseReports) {
+		Session session = getCurrentSession();
+		for (CaseReport caseReport : caseReports) {
+			session.saveOrUpdate(caseReport);
+		}
+		return caseReports;
+	}
+	
+	/**
+	 * @see CaseReportDAO#getOutboxEntry(Integer)
+	 */
+	@Override
+	public OutboxEntry getOutboxEntry(Integer outboxEntryId) {
+		return (OutboxEntry) getCurrentSession().get(OutboxEntry.class, outboxEntryId);
+	}
+	
+	/**
+	 * @see CaseReportDAO#getOutboxEntryByUuid(String)
+	 */
+	@Override
+	public OutboxEntry getOutboxEntryByUuid(String uuid) {
+		return (OutboxEntry) getCurrentSession().createCriteria(OutboxEntry.class).add(Restrictions.eq("uuid", uuid))
+		        .uniqueResult();
+	}
+	
+	/**
+	 * @see CaseReportDAO#getOutboxEntries(OutboxEntry.Status...)
+	 */
+	@Override
+	public List<OutboxEntry> getOutboxEntries(OutboxEntry.Status... statuses) {
+		Criteria criteria = getCurrentSession().createCriteria(OutboxEntry.class);
+		if (ArrayUtils.isNotEmpty(statuses)) {
+			criteria.add(Restrictions.in("status", statuses));
+		}
+		criteria.addOrder(Order.asc("dateCreated"));
+		
+		return criteria.list();
+	}
+	
+	/**
+	 * @see CaseReportDAO#getDueOutboxEntries(Date, Integer, Integer)
+	 */
+	@Override
+	public List<OutboxEntry> getDueOutboxEntries(Date asOfDate, Integer afterOutboxEntryId, Integer maxResults) {
+		Criteria criteria = getCurrentSession().createCriteria(OutboxEntry.class);
+		criteria.setFetchMode("caseReport", FetchMode.JOIN);
+		criteria.add(Restrictions.eq("status", OutboxEntry.Status.PENDING));
+		criteria.add(Restrictions.le("nextAttemptDate", asOfDate));
+		if (afterOutboxEntryId != null) {
+			criteria.add(Restrictions.gt("outboxEntryId", afterOutboxEntryId));
+		}
+		criteria.addOrder(Order.asc("outboxEntryId"));
+		if (maxResults != null) {
+			criteria.setMaxResults(maxResults);
+		}
+		
+		return criteria.list();
+	}
+	
+	/**
+	 * @see CaseReportDAO#saveOutboxEntry(OutboxEntry)
+	 */
+	@Override
+	public OutboxEntry saveOutboxEntry(OutboxEntry outboxEntry) {
+		getCurrentSession().saveOrUpdate(outboxEntry);
+		return outboxEntry;
+	}
+	
+	/**
+	 * @see CaseReportDAO#getTriggerCheckpoint(String)
+	 */
+	@Override
+	public TriggerCheckpoint getTriggerCheckpoint(String triggerName) {
+		return (TriggerCheckpoint) getCurrentSession().createCriteria(TriggerCheckpoint.class)
+		        .add(Restrictions.eq("triggerName", triggerName)).uniqueResult();
+	}
+	
+	/**
+	 * @see CaseReportDAO#saveTriggerCheckpoint(TriggerCheckpoint)
+	 */
+	@Override
+	public TriggerCheckpoint saveTriggerCheckpoint(TriggerCheckpoint checkpoint) {
+		getCurrentSession().saveOrUpdate(checkpoint);
+		return checkpoint;
+	}
+	
+	/**
+	 * @see CaseReportDAO#encodeLegacyReportForms(int)
+	 */
+	@Override
+	public int encodeLegacyReportForms(int batchSize) {
+		//The prefix is inlined since a parameter would be bound with the report form type
+		String legacyRestriction = "reportForm not like '" + ReportFormCodecs.HEADER_PREFIX + "%'";
+		List<Object[]> rows = getCurrentSession().createQuery(
+		    "select f.caseReportId, f.reportForm from CaseReportFormData f where f.reportForm is not null and f."
+		            + legacyRestriction + " order by f.caseReportId").setMaxResults(batchSize).list();
+		
+		int count = 0;
+		for (Object[] row : rows) {
+			String encoded;
+			try {
+				encoded = ReportFormCodecs.encode((String) row[1]);
+			}
+			catch (IOException e) {
+				throw new APIException("Failed to encode the report form of case report with id: " + row[0], e);
+			}
+			
+			//A form that was rewritten by another transaction in the meantime is already encoded
+			count += getCurrentSession()
+			        .createQuery(
+			            "update CaseReportFormData set reportForm = :reportForm where caseReportId = :id and "
+			                    + legacyRestriction).setString("reportForm", encoded).setInteger("id", (Integer) row[0])
+			        .executeUpdate();
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * @see CaseReportDAO#getMostRecentVisit(Patient)
+	 */
+	@Override
+	public Visit getMostRecentVisit(Patient patient) {
+		Criteria criteria = getCurrentSession().createCriteria(Visit.class);
+		criteria.add(Restrictions.eq("patient", patient));
+		criteria.add(Restrictions.eq("voided", false));
+		criteria.addOrder(Order.desc("startDatetime"));
+		criteria.addOrder(Order.desc("visitId"));
+		criteria.setMaxResults(1);
+		
+		return (Visit) criteria.uniqueResult();
+	}
+	
+	/**
+	 * @see CaseReportDAO#getMostRecentVisits(Collection)
+	 */
+	@Override
+	public List<Visit> getMostRecentVisits(Collection<Integer> patientIds) {
+		List<Visit> visits = new ArrayList<>();
+		List<Integer> ids = new ArrayList<>(patientIds);
+		for (int i = 0; i < ids.size(); i += IN_CLAUSE_CHUNK_SIZE) {
+			List<Integer> chunk = ids.subList(i, Math.min(i + IN_CLAUSE_CHUNK_SIZE, ids.size()));
+			Query query = getCurrentSession().createQuery(
+			    "select v from Visit v where v.patient.id in (:patientIds) and v.voided = false and v.startDatetime = "
+			            + "(select max(v2.startDatetime) from Visit v2 where v2.patient = v.patient and v2.voided = false) "
+			            + "order by v.visitId desc");
+			query.setParameterList("patientIds", chunk);
+			visits.addAll(query.list());
+		}
+		
+		return visits;
+	}
+	
+	/**
+	 * @see CaseReportDAO#getMostRecentObs(Collection, Map)
+	 */
+	@Override
+	public List<Obs> getMostRecentObs(Collection<Integer> patientIds, Map<Integer, Integer> conceptIdLimits) {
+		List<Obs> obs = new ArrayList<>();
+		List<Integer> ids = new ArrayList<>(patientIds);
+		for (int i = 0; i < ids.size(); i += IN_CLAUSE_CHUNK_SIZE) {
+			List<Integer> chunk = ids.subList(i, Math.min(i + IN_CLAUSE_CHUNK_SIZE, ids.size()));
+			//The ids are read with a scalar query so that only the obs that are kept get loaded
+			Query query = getCurrentSession().createQuery(
+			    "select o.obsId, o.person.id, o.concept.id from Obs o where o.person.id in (:patientIds) and "
+			            + "o.concept.id in (:conceptIds) and o.voided = false order by o.obsDatetime desc, o.obsId desc");
+			query.setParameterList("patientIds", chunk);
+			query.setParameterList("conceptIds", conceptIdLimits.keySet());
+			
+			List<Integer> obsIds = new ArrayList<>();
+			Map<String, Integer> patientConceptCountMap = new HashMap<>();
+			for (Object[] row : (List<Object[]>) query.list()) {
+				String key = row[1] + "-" + row[2];
+				Integer count = patientConceptCountMap.get(key);
+				count = count == null ? 1 : count + 1;
+				patientConceptCountMap.put(key, count);
+				if (count <= conceptIdLimits.get(row[2])) {
+					obsIds.add((Integer) row[0]);
+				}
+			}
+			
+			Map<Integer, Obs> idObsMap = new HashMap<>();
+			for (int j = 0; j < obsIds.size(); j += IN_CLAUSE_CHUNK_SIZE) {
+				Query obsQuery = getCurrentSession().createQuery("select o from Obs o where o.obsId in (:obsIds)");
+				obsQuery.setParameterList("obsIds", obsIds.subList(j, Math.min(j + IN_CLAUSE_CHUNK_SIZE, obsIds.size())));
+				for (Obs o : (List<Obs>) obsQuery.list()) {
+					idObsMap.put(o.getObsId(), o);
+				}
+			}
+			//Keep the order of the ids which are already sorted with the most recent first
+			for (Integer obsId : obsIds) {
+				obs.add(idObsMap.get(obsId));
+			}
+		}
+		
+		return obs;
+	}
+	
+	/**
+	 * @see CaseReportDAO#getActiveDrugOrders(Collection, Collection, Date)
+	 */
+	@Override
+	public List<DrugOrder> getActiveDrugOrders(Collection<Integer> patientIds, Collection<Integer> conceptIds,
+	                                           Date asOfDate) {
+		if (asOfDate == null) {
+			asOfDate = new Date();
+		}
+		
+		List<DrugOrder> drugOrders = new ArrayList<>();
+		List<Integer> ids = new ArrayList<>(patientIds);
+		for (int i = 0; i < ids.size(); i += IN_CLAUSE_CHUNK_SIZE) {
+			List<Integer> chunk = ids.subList(i, Math.min(i + IN_CLAUSE_CHUNK_SIZE, ids.size()));
+			Criteria criteria = getCurrentSession().createCriteria(DrugOrder.class);
+			criteria.add(Restrictions.in("patient.id", chunk));
+			if (conceptIds != null) {
+				criteria.add(Restrictions.in("concept.id", conceptIds));
+			}
+			criteria.add(Restrictions.eq("voided", false));
+			criteria.add(Restrictions.ne("action", org.openmrs.Order.Action.DISCONTINUE));
+			criteria.add(Restrictions.le("dateActivated", asOfDate));
+			criteria.add(Restrictions.or(Restrictions.isNull("dateStopped"), Restrictions.gt("dateStopped", asOfDate)));
+			criteria.add(Restrictions.or(Restrictions.isNull("autoExpireDate"),
+			    Restrictions.gt("autoExpireDate", asOfDate)));
+			criteria.addOrder(Order.asc("dateActivated"));
+			drugOrders.addAll(criteria.list());
+		}
+		
+		return drugOrders;
+	}
+	
+	/**
+	 * @see CaseReportDAO#getPatientIdCursor(String, Map, int, int)
+	 */
+	@Override
+	public PatientIdCursor getPatientIdCursor(String sqlQuery, Map<String, Object> parameterValues, int fetchSize,
+	                                          int chunkSize) {
+		String sql = StringUtils.removeEnd(sqlQuery.trim(), ";");
+		//The cursor is read on a dedicated session with its own connection which is held open for
+		//the entire run, so that the chunks can be processed and committed in separate transactions
+		//by the current session without releasing the connection the cursor is reading from
+		StatelessSession session = sessionFactory.openStatelessSession();
+		try {
+			Transaction tx = session.beginTransaction();
+			//The ids are sorted by the database so that the matched patients can be processed in
+			//ascending order without loading them all first
+			SQLQuery query = session.createSQLQuery("select * from (" + sql + ") cohort_query order by 1");
+			for (String name : query.getNamedParameters()) {
+				if (parameterValues == null || !parameterValues.containsKey(name)) {
+					throw new APIException("No value was provided for the parameter: " + name);
+				}
+				Object value = parameterValues.get(name);
+				if (value instanceof Collection) {
+					query.setParameterList(name, (Collection) value);
+				} else {
+					query.setParameter(name, value);
+				}
+			}
+			query.setFetchSize(fetchSize);
+			
+			return new HibernatePatientIdCursor(session, tx, query.scroll(ScrollMode.FORWARD_ONLY), chunkSize);
+		}
+		catch (RuntimeException e) {
+			session.close();
+			throw e;
+		}
+	}
 }
@@ -0,0 +1,81 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport.api.db.hibernate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.ScrollableResults;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.openmrs.module.casereport.PatientIdCursor;
+
+/**
+ * {@link PatientIdCursor} implementation backed by forward only hibernate {@link ScrollableResults}
+ * read on a dedicated stateless session, the session and its connection are owned by the cursor
+ * and are released when it is closed.
+ */
+class HibernatePatientIdCursor implements PatientIdCursor {
+	
+	private StatelessSession session;
+	
+	private Transaction tx;
+	
+	private ScrollableResults results;
+	
+	private int chunkSize;
+	
+	private Integer previousId;
+	
+	HibernatePatientIdCursor(StatelessSession session, Transaction tx, ScrollableResults results, int chunkSize) {
+		this.session = session;
+		this.tx = tx;
+		this.results = results;
+		this.chunkSize = chunkSize;
+	}
+	
+	/**
+	 * @see PatientIdCursor#nextChunk()
+	 */
+	@Override
+	public List<Integer> nextChunk() {
+		List<Integer> patientIds = new ArrayList<>(chunkSize);
+		while (patientIds.size() < chunkSize && results.next()) {
+			Object value = results.get(0);
+			if (value == null) {
+				continue;
+			}
+			Integer patientId = ((Number) value).intValue();
+			//The rows are sorted so duplicates are always adjacent
+			if (!patientId.equals(previousId)) {
+				patientIds.add(patientId);
+				previousId = patientId;
+			}
+		}
+		
+		return patientIds;
+	}
+	
+	/**
+	 * @see PatientIdCursor#close()
+	 */
+	@Override
+	public void close() {
+		try {
+			results.close();
+			//Nothing was written, the transaction is only ended so that the connection is released
+			//in a clean state
+			tx.rollback();
+		}
+		finally {
+			session.close();
+		}
+	}
+}
@@ -16,30 +16,42 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.codehaus.jackson.map.ObjectMapper;
 import org.openmrs.Concept;
+import org.openmrs.DrugOrder;
+import org.openmrs.Obs;
 import org.openmrs.Patient;
 import org.openmrs.Provider;
 import org.openmrs.User;
+import org.openmrs.Visit;
 import org.openmrs.api.APIException;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.impl.BaseOpenmrsService;
 import org.openmrs.module.casereport.CaseReport;
 import org.openmrs.module.casereport.CaseReportConstants;
 import org.openmrs.module.casereport.CaseReportForm;
+import org.openmrs.module.casereport.CaseReportListItem;
 import org.openmrs.module.casereport.CaseReportTask;
 import org.openmrs.module.casereport.CaseReportTrigger;
 import org.openmrs.module.casereport.CaseReportUtil;
+import org.openmrs.module.casereport.JsonUtil;
+import org.openmrs.module.casereport.OutboxEntry;
+import org.openmrs.module.casereport.PatientIdCursor;
+import org.openmrs.module.casereport.ReportFormCodecs;
 import org.openmrs.module.casereport.Trigger;
+import org.openmrs.module.casereport.TriggerCheckpoint;
 import org.openmrs.module.casereport.UuidAndValue;
+import org.openmrs.module.casereport.api.CaseReportSearchCriteria;
 import org.openmrs.module.casereport.api.CaseReportService;
 import org.openmrs.module.casereport.api.CaseReportSubmittedEvent;
 import org.openmrs.module.casereport.api.db.CaseReportDAO;
+import org.openmrs.module.reporting.cohort.definition.SqlCohortDefinition;
 import org.openmrs.scheduler.TaskDefinition;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
@@ -55,8 +67,6 @@ public class CaseReportServiceImpl extends BaseOpenmrsService implements CaseRep
 	
 	private CaseReportDAO dao;
 	
-	private ObjectMapper mapper = null;
-	
 	private List<Trigger> triggers = null;
 	
 	@Autowired
@@ -69,13 +79,6 @@ public class CaseReportServiceImpl extends BaseOpenmrsService implements CaseRep
 		this.dao = dao;
 	}
 	
-	private ObjectMapper getObjectMapper() {
-		if (mapper == null) {
-			mapper = new ObjectMapper();
-		}
-		return mapper;
-	}
-	
 	private void setProperty(CaseReport caseReport, String propertyName, Object value) {
 		
 		Boolean isAccessible = null;
@@ -132,6 +135,26 @@ public class CaseReportServiceImpl extends BaseOpenmrsService implements CaseRep
 		return caseReports.get(0);
 	}
 	
+	/**
+	 * @see CaseReportService#getCaseReportsByPatientIds(Collection)
+	 */
+	@Override
+	public Map<Integer, CaseReport> getCaseReportsByPatientIds(Collection<Integer> patientIds) throws APIException {
+		Map<Integer, CaseReport> patientIdCaseReportMap = new HashMap<>();
+		if (patientIds == null || patientIds.isEmpty()) {
+			return patientIdCaseReportMap;
+		}
+		
+		for (CaseReport caseReport : dao.getCaseReportsByPatientIds(patientIds, false, getQueueStatuses())) {
+			Integer patientId = caseReport.getPatient().getPatientId();
+			if (patientIdCaseReportMap.put(patientId, caseReport) != null) {
+				throw new APIException("Found multiple case reports that match the patient with id:" + patientId);
+			}
+		}
+		
+		return patientIdCaseReportMap;
+	}
+	
 	/**
 	 * @See CaseReportService#getCaseReports()
 	 */
@@ -150,6 +173,53 @@ public class CaseReportServiceImpl extends BaseOpenmrsService implements CaseRep
 		return dao.getCaseReports(patient, includeVoided, orderBy, asc, statuses);
 	}
 	
+	/**
+	 * @see CaseReportService#getCaseReports(Patient, boolean, String, Boolean, Integer, Integer,
+	 *      Status...)
+	 */
+	@Override
+	public List<CaseReport> getCaseReports(Patient patient, boolean includeVoided, String orderBy, Boolean asc,
+	                                       Integer firstResult, Integer maxResults, Status... statuses) {
+		return dao.getCaseReports(new CaseReportSearchCriteria(patient, includeVoided, statuses), orderBy, asc,
+		    firstResult, maxResults);
+	}
+	
+	/**
+	 * @see CaseReportService#getCaseReportCount(Patient, boolean, Status...)
+	 */
+	@Override
+	public long getCaseReportCount(Patient patient, boolean includeVoided, Status... statuses) {
+		return dao.getCaseReportCount(new CaseReportSearchCriteria(patient, includeVoided, statuses));
+	}
+	
+	/**
+	 * @see CaseReportService#getCaseReports(CaseReportSearchCriteria, String, Boolean, Integer,
+	 *      Integer)
+	 */
+	@Override
+	public List<CaseReport> getCaseReports(CaseReportSearchCriteria searchCriteria, String orderBy, Boolean asc,
+	                                       Integer firstResult, Integer maxResults) {
+		return dao.getCaseReports(searchCriteria, orderBy, asc, firstResult, maxResults);
+	}
+	
+	/**
+	 * @see CaseReportService#getCaseReportCount(CaseReportSearchCriteria)
+	 */
+	@Override
+	public long getCaseReportCount(CaseReportSearchCriteria searchCriteria) {
+		return dao.getCaseReportCount(searchCriteria);
+	}
+	
+	/**
+	 * @see CaseReportService#getCaseReportListItems(CaseReportSearchCriteria, String, Boolean,
+	 *      Integer, Integer)
+	 */
+	@Override
+	public List<CaseReportListItem> getCaseReportListItems(CaseReportSearchCriteria searchCriteria, String orderBy,
+	                                                       Boolean asc, Integer firstResult, Integer maxResults) {
+		return dao.getCaseReportListItems(searchCriteria, orderBy, asc, firstResult, maxResults);
+	}
+	
 	/**
 	 * @See CaseReportService#saveCaseReport(CaseReport)
 	 */
@@ -159,6 +229,27 @@ public class CaseReportServiceImpl extends BaseOpenmrsService implements CaseRep
 		return dao.saveCaseReport(caseReport);
 	}
 	
+	/**
+	 * @See CaseReportService#saveCaseReports(List)
+	 */
+	@Override
+	@Transactional
+	public List<CaseReport> saveCaseReports(List<CaseReport> caseReports) throws APIException {
+		return dao.saveCaseReports(caseReports);
+	}
+	
+	/**
+	 * @See CaseReportService#saveCaseReports(List, TriggerCheckpoint)
+	 */
+	@Override
+	@Transactional
+	public List<CaseReport> saveCaseReports(List<CaseReport> caseReports, TriggerCheckpoint checkpoint)
+	    throws APIException {
+		dao.saveCaseReports(caseReports);
+		dao.saveTriggerCheckpoint(checkpoint);
+		return caseReports;
+	}
+	
 	/**
 	 * @See CaseReportService#submitCaseReport(CaseReport,List, User)
 	 */
@@ -203,7 +294,7 @@ public class CaseReportServiceImpl extends BaseOpenmrsService implements CaseRep
 		
 		CaseReportForm form;
 		try {
-			form = getObjectMapper().readValue(caseReport.getReportForm(), CaseReportForm.class);
+			form = JsonUtil.readReportForm(caseReport.getReportForm());
 			form.setReportUuid(caseReport.getUuid());
 			form.setReportDate(caseReport.getDateCreated());
 		}
@@ -211,6 +302,10 @@ public class CaseReportServiceImpl extends BaseOpenmrsService implements CaseRep
 			throw new APIException("Failed to parse case report form data", e);
 		}
 		
+		for (CaseReportTrigger crt : caseReport.getReportTriggers()) {
+			crt.setSubmitted(CaseReportUtil.collContainsItemWithValue(form.getTriggers(), crt.getName()));
+		}
+		
 		Provider provider;
 		if (caseReport.getAutoSubmitted()) {
 			String uuid = Context.getAdministrationService().getGlobalProperty(
@@ -247,7 +342,7 @@ public class CaseReportServiceImpl extends BaseOpenmrsService implements CaseRep
 		setProperty(caseReport, "resolutionDate", new Date());
 		
 		try {
-			caseReport.setReportForm(getObjectMapper().writeValueAsString(form));
+			caseReport.setReportForm(JsonUtil.writeReportForm(form));
 		}
 		catch (IOException e) {
 			throw new APIException("Failed to serialize case report form data", e);
@@ -322,6 +417,159 @@ public class CaseReportServiceImpl extends BaseOpenmrsService implements CaseRep
 		return triggers;
 	}
 	
+	/**
+	 * @see CaseReportService#getOutboxEntry(Integer)
+	 */
+	@Override
+	public OutboxEntry getOutboxEntry(Integer outboxEntryId) throws APIException {
+		return dao.getOutboxEntry(outboxEntryId);
+	}
+	
+	/**
+	 * @see CaseReportService#getOutboxEntryByUuid(String)
+	 */
+	@Override
+	public OutboxEntry getOutboxEntryByUuid(String uuid) throws APIException {
+		return dao.getOutboxEntryByUuid(uuid);
+	}
+	
+	/**
+	 * @see CaseReportService#getOutboxEntries(OutboxEntry.Status...)
+	 */
+	@Override
+	public List<OutboxEntry> getOutboxEntries(OutboxEntry.Status... statuses) throws APIException {
+		return dao.getOutboxEntries(statuses);
+	}
+	
+	/**
+	 * @see CaseReportService#getDueOutboxEntries(Date, Integer, Integer)
+	 */
+	@Override
+	public List<OutboxEntry> getDueOutboxEntries(Date asOfDate, Integer afterOutboxEntryId, Integer maxResults)
+	    throws APIException {
+		return dao.getDueOutboxEntries(asOfDate, afterOutboxEntryId, maxResults);
+	}
+	
+	/**
+	 * @see CaseReportService#saveOutboxEntry(OutboxEntry)
+	 */
+	@Override
+	@Transactional
+	public OutboxEntry saveOutboxEntry(OutboxEntry outboxEntry) throws APIException {
+		return dao.saveOutboxEntry(outboxEntry);
+	}
+	
+	/**
+	 * @see CaseReportService#getTriggerCheckpoint(String)
+	 */
+	@Override
+	public TriggerCheckpoint getTriggerCheckpoint(String triggerName) throws APIException {
+		return dao.getTriggerCheckpoint(triggerName);
+	}
+	
+	/**
+	 * @see CaseReportService#saveTriggerCheckpoint(TriggerCheckpoint)
+	 */
+	@Override
+	@Transactional
+	public TriggerCheckpoint saveTriggerCheckpoint(TriggerCheckpoint checkpoint) throws APIException {
+		return dao.saveTriggerCheckpoint(checkpoint);
+	}
+	
+	/**
+	 * @see CaseReportService#encodeLegacyReportForms(int)
+	 */
+	@Override
+	@Transactional
+	public int encodeLegacyReportForms(int batchSize) throws APIException {
+		if (ReportFormCodecs.getWriteCodec() == null) {
+			return 0;
+		}
+		return dao.encodeLegacyReportForms(batchSize);
+	}
+	
+	/**
+	 * @see CaseReportService#getMostRecentVisit(Patient)
+	 */
+	@Override
+	public Visit getMostRecentVisit(Patient patient) throws APIException {
+		if (patient == null) {
+			throw new APIException("Patient cannot be null");
+		}
+		return dao.getMostRecentVisit(patient);
+	}
+	
+	/**
+	 * @see CaseReportService#getMostRecentVisits(Collection)
+	 */
+	@Override
+	public Map<Integer, Visit> getMostRecentVisits(Collection<Integer> patientIds) throws APIException {
+		Map<Integer, Visit> patientIdVisitMap = new HashMap<>();
+		if (patientIds == null || patientIds.isEmpty()) {
+			return patientIdVisitMap;
+		}
+		
+		//The visits are ordered by id in descending order, so the one with the highest id wins for ties
+		for (Visit visit : dao.getMostRecentVisits(patientIds)) {
+			Integer patientId = visit.getPatient().getPatientId();
+			if (!patientIdVisitMap.containsKey(patientId)) {
+				patientIdVisitMap.put(patientId, visit);
+			}
+		}
+		
+		return patientIdVisitMap;
+	}
+	
+	/**
+	 * @see CaseReportService#getActiveDrugOrders(Collection, Collection, Date)
+	 */
+	@Override
+	public Map<Integer, List<DrugOrder>> getActiveDrugOrders(Collection<Integer> patientIds,
+	                                                         Collection<Integer> conceptIds, Date asOfDate)
+	        throws APIException {
+		Map<Integer, List<DrugOrder>> patientIdDrugOrdersMap = new HashMap<>();
+		if (patientIds == null || patientIds.isEmpty() || (conceptIds != null && conceptIds.isEmpty())) {
+			return patientIdDrugOrdersMap;
+		}
+		
+		for (DrugOrder drugOrder : dao.getActiveDrugOrders(patientIds, conceptIds, asOfDate)) {
+			Integer patientId = drugOrder.getPatient().getPatientId();
+			List<DrugOrder> drugOrders = patientIdDrugOrdersMap.get(patientId);
+			if (drugOrders == null) {
+				drugOrders = new ArrayList<>();
+				patientIdDrugOrdersMap.put(patientId, drugOrders);
+			}
+			drugOrders.add(drugOrder);
+		}
+		
+		return patientIdDrugOrdersMap;
+	}
+	
+	/**
+	 * @see CaseReportService#getMostRecentObs(Collection, Map)
+	 */
+	@Override
+	public List<Obs> getMostRecentObs(Collection<Integer> patientIds, Map<Integer, Integer> conceptIdLimits)
+	        throws APIException {
+		if (patientIds == null || patientIds.isEmpty() || conceptIdLimits == null || conceptIdLimits.isEmpty()) {
+			return new ArrayList<>();
+		}
+		return dao.getMostRecentObs(patientIds, conceptIdLimits);
+	}
+	
+	/**
+	 * @see CaseReportService#getCohortMemberIdCursor(SqlCohortDefinition, Map, int, int)
+	 */
+	@Override
+	public PatientIdCursor getCohortMemberIdCursor(SqlCohortDefinition definition, Map<String, Object> parameterValues,
+	                                               int fetchSize, int chunkSize) throws APIException {
+		if (definition == null || StringUtils.isBlank(definition.getQuery())) {
+			throw new APIException("A sql cohort definition with a query is required");
+		}
+		
+		return dao.getPatientIdCursor(definition.getQuery(), parameterValues, fetchSize, chunkSize);
+	}
+	
 	private List<TaskDefinition> getCaseReportTaskDefinitions() {
 		List<TaskDefinition> taskDefinitions = new ArrayList<TaskDefinition>();
 		Collection<TaskDefinition> taskDefs = Context.getSchedulerService().getRegisteredTasks();
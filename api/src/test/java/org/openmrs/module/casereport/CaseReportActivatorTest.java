@@ -33,6 +33,7 @@ import org.openmrs.ConceptMapType;
 import org.openmrs.ConceptName;
 import org.openmrs.ConceptReferenceTerm;
 import org.openmrs.ConceptSource;
+import org.openmrs.GlobalProperty;
 import org.openmrs.api.APIException;
 import org.openmrs.api.ConceptService;
 import org.openmrs.api.context.Context;
@@ -64,6 +65,7 @@ public class CaseReportActivatorTest extends BaseModuleContextSensitiveTest {
 	public void cleanup() {
 		//reset
 		loader.setPathPattern(DemoSqlCohortQueryLoader.DEFAULT_PATTERN);
+		ReportFormCodecs.setWriteCodec(new GzipReportFormCodec());
 	}
 	
 	private void addConceptsWithCielMapping(String... codes) {
@@ -285,4 +287,55 @@ public class CaseReportActivatorTest extends BaseModuleContextSensitiveTest {
 		}
 		
 	}
+	
+	/**
+	 * @see CaseReportActivator#contextRefreshed()
+	 * @verifies add the outbox dispatcher task if it does not exist
+	 */
+	@Test
+	public void contextRefreshed_shouldAddTheOutboxDispatcherTaskIfItDoesNotExist() throws Exception {
+		SchedulerService ss = Context.getSchedulerService();
+		assertNull(ss.getTaskByName(CaseReportConstants.OUTBOX_DISPATCHER_TASK_NAME));
+		addConceptsWithCielMapping("162188", "159");
+		
+		activator.contextRefreshed();
+		TaskDefinition td = ss.getTaskByName(CaseReportConstants.OUTBOX_DISPATCHER_TASK_NAME);
+		assertNotNull(td);
+		assertEquals(CaseReportConstants.OUTBOX_DISPATCHER_TASK_CLASS, td.getTaskClass());
+		assertEquals(CaseReportConstants.OUTBOX_DISPATCHER_TASK_INTERVAL, td.getRepeatInterval().longValue());
+		assertTrue(td.getStartOnStartup());
+	}
+	
+	/**
+	 * @see CaseReportActivator#contextRefreshed()
+	 * @verifies add the report form migration task if it does not exist
+	 */
+	@Test
+	public void contextRefreshed_shouldAddTheReportFormMigrationTaskIfItDoesNotExist() throws Exception {
+		SchedulerService ss = Context.getSchedulerService();
+		assertNull(ss.getTaskByName(CaseReportConstants.REPORT_FORM_MIGRATION_TASK_NAME));
+		addConceptsWithCielMapping("162188", "159");
+		
+		activator.contextRefreshed();
+		TaskDefinition td = ss.getTaskByName(CaseReportConstants.REPORT_FORM_MIGRATION_TASK_NAME);
+		assertNotNull(td);
+		assertEquals(CaseReportConstants.REPORT_FORM_MIGRATION_TASK_CLASS, td.getTaskClass());
+		assertEquals(CaseReportConstants.REPORT_FORM_MIGRATION_TASK_INTERVAL, td.getRepeatInterval().longValue());
+		assertTrue(td.getStartOnStartup());
+	}
+	
+	/**
+	 * @see CaseReportActivator#contextRefreshed()
+	 * @verifies set the configured report form write codec
+	 */
+	@Test
+	public void contextRefreshed_shouldSetTheConfiguredReportFormWriteCodec() throws Exception {
+		assertEquals(GzipReportFormCodec.ID, ReportFormCodecs.getWriteCodec().getId());
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(CaseReportConstants.GP_REPORT_FORM_CODEC, CaseReportConstants.REPORT_FORM_CODEC_NONE));
+		addConceptsWithCielMapping("162188", "159");
+		
+		activator.contextRefreshed();
+		assertNull(ReportFormCodecs.getWriteCodec());
+	}
 }
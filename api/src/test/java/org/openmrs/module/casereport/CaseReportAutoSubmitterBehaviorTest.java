@@ -0,0 +1,71 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+import org.openmrs.api.APIException;
+import org.openmrs.api.PatientService;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.casereport.api.CaseReportService;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.NotTransactional;
+
+/**
+ * Contains the tests for {@link CaseReportAutoSubmitter} that need the test data to be committed
+ * since the worker threads read it in their own sessions.
+ */
+public class CaseReportAutoSubmitterBehaviorTest extends BaseModuleContextSensitiveTest {
+	
+	@Autowired
+	private CaseReportService service;
+	
+	@Autowired
+	private PatientService patientService;
+	
+	@After
+	public void cleanup() throws Exception {
+		deleteAllData();
+	}
+	
+	@Test
+	@NotTransactional
+	public void submit_shouldSubmitAllTheCaseReportsAndRecordAllTheFailuresWhenUsingMultipleThreads()
+	    throws Exception {
+		executeDataSet("moduleTestData-initial.xml");
+		executeDataSet("moduleTestData-other.xml");
+		getConnection().commit();
+		CaseReport cr1 = new CaseReport(patientService.getPatient(7), "New HIV Case");
+		CaseReport cr2 = new CaseReport(patientService.getPatient(8), "New HIV Case");
+		service.saveCaseReports(Arrays.asList(cr1, cr2));
+		final Integer nonExistentId = 9999;
+		List<Integer> submittedIds = Arrays.asList(1, cr1.getId(), cr2.getId());
+		
+		//The ids are split into 2 batches which are submitted by different workers
+		CaseReportAutoSubmitter.Summary summary = new CaseReportAutoSubmitter(2).submit(Arrays.asList(1, cr1.getId(),
+		    cr2.getId(), nonExistentId));
+		
+		assertEquals(3, summary.getSubmitted().size());
+		assertTrue(summary.getSubmitted().containsAll(submittedIds));
+		assertEquals(1, summary.getFailed().size());
+		assertTrue(summary.getFailed().get(nonExistentId) instanceof APIException);
+		Context.clearSession();
+		for (Integer id : submittedIds) {
+			assertTrue(service.getCaseReport(id).isSubmitted());
+		}
+	}
+}
@@ -0,0 +1,73 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.Test;
+import org.openmrs.api.APIException;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.casereport.api.CaseReportService;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+
+public class CaseReportAutoSubmitterTest extends BaseModuleContextSensitiveTest {
+	
+	private static final String XML_DATASET = "moduleTestData-initial.xml";
+	
+	/**
+	 * @see CaseReportAutoSubmitter#submit(java.util.List)
+	 * @verifies record the failed submissions in the summary
+	 */
+	@Test
+	public void submit_shouldRecordTheFailedSubmissionsInTheSummary() throws Exception {
+		executeDataSet(XML_DATASET);
+		final Integer nonExistentId = 9999;
+		
+		CaseReportAutoSubmitter.Summary summary = new CaseReportAutoSubmitter(1).submit(Arrays.asList(nonExistentId));
+		
+		assertTrue(summary.getSubmitted().isEmpty());
+		assertEquals(1, summary.getFailed().size());
+		assertTrue(summary.getFailed().get(nonExistentId) instanceof APIException);
+	}
+	
+	/**
+	 * @see CaseReportAutoSubmitter#submit(java.util.List)
+	 * @verifies submit the case reports in batches
+	 */
+	@Test
+	public void submit_shouldSubmitTheCaseReportsInBatches() throws Exception {
+		executeDataSet(XML_DATASET);
+		executeDataSet("moduleTestData-other.xml");
+		final Integer nonExistentId = 9999;
+		
+		CaseReportAutoSubmitter.Summary summary = new CaseReportAutoSubmitter(1).submit(Arrays.asList(1, nonExistentId));
+		
+		assertEquals(Arrays.asList(1), summary.getSubmitted());
+		assertEquals(1, summary.getFailed().size());
+		assertTrue(summary.getFailed().get(nonExistentId) instanceof APIException);
+		CaseReport caseReport = Context.getService(CaseReportService.class).getCaseReport(1);
+		assertTrue(caseReport.isSubmitted());
+		CaseReportForm form = new ObjectMapper().readValue(caseReport.getReportForm(), CaseReportForm.class);
+		assertEquals(3, form.getMostRecentViralLoads().size());
+		assertEquals(2, form.getCurrentHivMedications().size());
+	}
+	
+	/**
+	 * @see CaseReportAutoSubmitter#CaseReportAutoSubmitter(int)
+	 */
+	@Test(expected = APIException.class)
+	public void CaseReportAutoSubmitter_shouldFailForANonPositiveThreadCount() throws Exception {
+		new CaseReportAutoSubmitter(0);
+	}
+}
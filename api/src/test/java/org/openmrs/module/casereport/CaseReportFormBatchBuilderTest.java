@@ -0,0 +1,96 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.api.APIException;
+import org.openmrs.module.casereport.api.CaseReportService;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class CaseReportFormBatchBuilderTest extends BaseModuleContextSensitiveTest {
+	
+	@Autowired
+	private CaseReportService service;
+	
+	@Before
+	public void setup() throws Exception {
+		executeDataSet("moduleTestData-initial.xml");
+		executeDataSet("moduleTestData-other.xml");
+	}
+	
+	/**
+	 * @see CaseReportFormBatchBuilder#build(CaseReport)
+	 * @verifies build the form from the prefetched data
+	 */
+	@Test
+	public void build_shouldBuildTheFormFromThePrefetchedData() throws Exception {
+		CaseReport caseReport = service.getCaseReport(1);
+		CaseReportFormBatchBuilder builder = new CaseReportFormBatchBuilder(Arrays.asList(caseReport,
+		    service.getCaseReport(4)));
+		
+		CaseReportForm form = builder.build(caseReport);
+		
+		CaseReportForm expected = new CaseReportForm(caseReport);
+		assertEquals(expected.getReportUuid(), form.getReportUuid());
+		assertEquals(expected.getPatientIdentifier().getValue(), form.getPatientIdentifier().getValue());
+		assertEquals(3, form.getMostRecentViralLoads().size());
+		assertEquals(expected.getMostRecentViralLoad().getUuid(), form.getMostRecentViralLoad().getUuid());
+		assertEquals(expected.getMostRecentCd4Count().getUuid(), form.getMostRecentCd4Count().getUuid());
+		assertEquals(expected.getMostRecentHivTest().getUuid(), form.getMostRecentHivTest().getUuid());
+		assertEquals(expected.getCurrentHivWhoStage().getUuid(), form.getCurrentHivWhoStage().getUuid());
+		assertEquals(expected.getMostRecentArvStopReason().getUuid(), form.getMostRecentArvStopReason().getUuid());
+		assertEquals(2, form.getCurrentHivMedications().size());
+		assertEquals(expected.getCurrentHivMedications().size(), form.getCurrentHivMedications().size());
+		for (DatedUuidAndValue medication : expected.getCurrentHivMedications()) {
+			assertTrue(CaseReportUtil.collContainsItemWithValue(form.getCurrentHivMedications(), medication.getValue()
+			        .toString()));
+		}
+		assertEquals(expected.getLastVisitDate().getUuid(), form.getLastVisitDate().getUuid());
+	}
+	
+	/**
+	 * @see CaseReportFormBatchBuilder#build(CaseReport)
+	 * @verifies fail for a case report that is not in the batch
+	 */
+	@Test(expected = APIException.class)
+	public void build_shouldFailForACaseReportThatIsNotInTheBatch() throws Exception {
+		CaseReportFormBatchBuilder builder = new CaseReportFormBatchBuilder(Collections.singletonList(service
+		        .getCaseReport(1)));
+		builder.build(service.getCaseReport(4));
+	}
+	
+	/**
+	 * @see CaseReportFormBatchBuilder#buildAll()
+	 * @verifies build the forms for all the case reports
+	 */
+	@Test
+	public void buildAll_shouldBuildTheFormsForAllTheCaseReports() throws Exception {
+		List<CaseReport> caseReports = Arrays.asList(service.getCaseReport(1), service.getCaseReport(4));
+		
+		List<CaseReportForm> forms = new CaseReportFormBatchBuilder(caseReports).buildAll();
+		
+		assertEquals(2, forms.size());
+		assertEquals(caseReports.get(0).getUuid(), forms.get(0).getReportUuid());
+		assertEquals(3, forms.get(0).getMostRecentViralLoads().size());
+		assertEquals(caseReports.get(1).getUuid(), forms.get(1).getReportUuid());
+		assertTrue(forms.get(1).getMostRecentViralLoads().isEmpty());
+		assertNull(forms.get(1).getCurrentHivWhoStage());
+	}
+}
@@ -14,6 +14,7 @@ import static junit.framework.Assert.assertNotNull;
 import static junit.framework.Assert.assertTrue;
 import static org.junit.Assert.assertNull;
 
+import java.util.Arrays;
 import java.util.Date;
 
 import org.junit.Test;
@@ -27,6 +28,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 public class CaseReportFormTest extends BaseModuleContextSensitiveTest {
 	
+	private static final String DATE = "2016-04-01T00:01:00.000-0400";
+	
+	private static final String OTHER_DATE = "2016-05-01T00:01:00.000-0400";
+	
 	@Autowired
 	private CaseReportService service;
 	
@@ -79,4 +84,90 @@ public class CaseReportFormTest extends BaseModuleContextSensitiveTest {
 		assertEquals(patient.getCauseOfDeath().getUuid(), reportForm.getCauseOfDeath().getUuid());
 		assertEquals(patient.getCauseOfDeath().getName().getName(), reportForm.getCauseOfDeath().getValue());
 	}
+	
+	/**
+	 * @see CaseReportForm#CaseReportForm(CaseReport,PatientObsSnapshot)
+	 * @verifies generate the report form from the specified obs snapshot
+	 */
+	@Test
+	public void shouldGenerateTheReportFormFromTheSpecifiedObsSnapshot() throws Exception {
+		executeDataSet("moduleTestData-initial.xml");
+		executeDataSet("moduleTestData-other.xml");
+		PatientService ps = Context.getPatientService();
+		CaseReport caseReport = service.getCaseReport(1);
+		PatientObsSnapshot snapshot = PatientObsSnapshot.load(Arrays.asList(caseReport.getPatient(), ps.getPatient(7)));
+		
+		CaseReportForm reportForm = new CaseReportForm(caseReport, snapshot);
+		
+		assertEquals(3, reportForm.getMostRecentViralLoads().size());
+		assertEquals(3, reportForm.getMostRecentCd4Counts().size());
+		assertEquals(3, reportForm.getMostRecentHivTests().size());
+		assertEquals("77fb7f47-b80a-4056-9285-bd798be13c63", reportForm.getMostRecentViralLoad().getUuid());
+		assertEquals("7dfb7f47-c80a-4056-9285-bd767be13c63", reportForm.getMostRecentCd4Count().getUuid());
+		assertEquals("4afb7f47-d80a-4056-9285-bd767be13c63", reportForm.getMostRecentHivTest().getUuid());
+		assertEquals("WHO HIV stage 2", reportForm.getCurrentHivWhoStage().getValue());
+		assertEquals("Regimen failure", reportForm.getMostRecentArvStopReason().getValue());
+	}
+	
+	/**
+	 * @see CaseReportForm#getParsedBirthdate()
+	 * @verifies return the parsed birthdate
+	 */
+	@Test
+	public void getParsedBirthdate_shouldReturnTheParsedBirthdate() throws Exception {
+		CaseReportForm form = new CaseReportForm();
+		form.setBirthdate(DATE);
+		assertEquals(CaseReportConstants.DATE_FORMATTER.parse(DATE), form.getParsedBirthdate());
+		assertTrue(form.getParsedBirthdate() == form.getParsedBirthdate());
+	}
+	
+	/**
+	 * @see CaseReportForm#getParsedBirthdate()
+	 * @verifies parse the birthdate again after it is changed
+	 */
+	@Test
+	public void getParsedBirthdate_shouldParseTheBirthdateAgainAfterItIsChanged() throws Exception {
+		CaseReportForm form = new CaseReportForm();
+		form.setBirthdate(DATE);
+		form.getParsedBirthdate();
+		form.setBirthdate(OTHER_DATE);
+		assertEquals(CaseReportConstants.DATE_FORMATTER.parse(OTHER_DATE), form.getParsedBirthdate());
+	}
+	
+	/**
+	 * @see CaseReportForm#getParsedDeathdate()
+	 * @verifies return the parsed deathdate
+	 */
+	@Test
+	public void getParsedDeathdate_shouldReturnTheParsedDeathdate() throws Exception {
+		CaseReportForm form = new CaseReportForm();
+		assertNull(form.getParsedDeathdate());
+		form.setDeathdate(DATE);
+		assertEquals(CaseReportConstants.DATE_FORMATTER.parse(DATE), form.getParsedDeathdate());
+	}
+	
+	/**
+	 * @see CaseReportForm#getParsedLastVisitDate()
+	 * @verifies return the parsed last visit date
+	 */
+	@Test
+	public void getParsedLastVisitDate_shouldReturnTheParsedLastVisitDate() throws Exception {
+		CaseReportForm form = new CaseReportForm();
+		assertNull(form.getParsedLastVisitDate());
+		form.setLastVisitDate(new UuidAndValue("some-uuid", DATE));
+		assertEquals(CaseReportConstants.DATE_FORMATTER.parse(DATE), form.getParsedLastVisitDate());
+	}
+	
+	/**
+	 * @see CaseReportForm#getParsedLastVisitDate()
+	 * @verifies parse the last visit date again after its value is changed
+	 */
+	@Test
+	public void getParsedLastVisitDate_shouldParseTheLastVisitDateAgainAfterItsValueIsChanged() throws Exception {
+		CaseReportForm form = new CaseReportForm();
+		form.setLastVisitDate(new UuidAndValue("some-uuid", DATE));
+		form.getParsedLastVisitDate();
+		form.getLastVisitDate().setValue(OTHER_DATE);
+		assertEquals(CaseReportConstants.DATE_FORMATTER.parse(OTHER_DATE), form.getParsedLastVisitDate());
+	}
 }
@@ -0,0 +1,54 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class CaseReportTest {
+	
+	/**
+	 * @see CaseReport#setReportForm(String)
+	 * @verifies mark an existing case report as changed if the form is changed
+	 */
+	@Test
+	public void setReportForm_shouldMarkAnExistingCaseReportAsChangedIfTheFormIsChanged() throws Exception {
+		CaseReport caseReport = new CaseReport();
+		caseReport.setId(1);
+		caseReport.setReportForm("{\"fullName\":\"Horatio Hornblower\"}");
+		assertNotNull(caseReport.getDateChanged());
+		caseReport.setDateChanged(null);
+		
+		caseReport.setReportForm("{\"fullName\":\"Horatio Test Hornblower\"}");
+		
+		assertNotNull(caseReport.getDateChanged());
+		assertEquals("{\"fullName\":\"Horatio Test Hornblower\"}", caseReport.getReportForm());
+	}
+	
+	/**
+	 * @see CaseReport#setReportForm(String)
+	 * @verifies not mark an existing case report as changed if the form is the same
+	 */
+	@Test
+	public void setReportForm_shouldNotMarkAnExistingCaseReportAsChangedIfTheFormIsTheSame() throws Exception {
+		final String form = "{\"fullName\":\"Horatio Hornblower\"}";
+		CaseReport caseReport = new CaseReport();
+		caseReport.setId(1);
+		caseReport.setReportForm(form);
+		caseReport.setDateChanged(null);
+		
+		caseReport.setReportForm(form);
+		
+		assertNull(caseReport.getDateChanged());
+	}
+}
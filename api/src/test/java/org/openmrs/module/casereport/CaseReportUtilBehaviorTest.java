@@ -9,15 +9,21 @@
  */
 package org.openmrs.module.casereport;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
 import java.util.ArrayList;
 import java.util.List;
 
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.openmrs.GlobalProperty;
 import org.openmrs.api.APIException;
+import org.openmrs.api.AdministrationService;
 import org.openmrs.api.PatientService;
 import org.openmrs.api.context.Context;
 import org.openmrs.module.casereport.api.CaseReportService;
@@ -39,6 +45,11 @@ public class CaseReportUtilBehaviorTest extends BaseModuleContextSensitiveTest {
 	@Autowired
 	private SchedulerService schedulerService;
 	
+	@After
+	public void cleanup() throws Exception {
+		deleteAllData();
+	}
+	
 	@Test
 	@NotTransactional
     @Ignore
@@ -85,4 +96,80 @@ public class CaseReportUtilBehaviorTest extends BaseModuleContextSensitiveTest {
 		Assert.assertEquals(++originalCount, service.getCaseReports().size());
 	}
 	
+	@Test
+	@NotTransactional
+	@Ignore
+	public void executeTask_shouldNotCreateMultipleCaseReportsForTheSamePatientWhenDifferentTriggersRunInParallel()
+	    throws Exception {
+		executeDataSet("moduleTestData-initial.xml");
+		final int pId = 7;
+		final String[] names = { "New HIV Case", "HIV Patient Died" };
+		for (String name : names) {
+			SqlCohortDefinition def = CaseReportUtil.getSqlCohortDefinition(name);
+			def.setQuery("select patient_id from patient where patient_id =" + pId);
+			DefinitionContext.saveDefinition(def);
+		}
+		assertNull(service.getCaseReportByPatient(patientService.getPatient(pId)));
+		int originalCount = service.getCaseReports().size();
+		List<Thread> threads = new ArrayList<>();
+		for (final String name : names) {
+			threads.add(new Thread(new Runnable() {
+				
+				@Override
+				public void run() {
+					try {
+						Context.openSession();
+						Context.authenticate("admin", "test");
+						CaseReportUtil.executeTask(schedulerService.getTaskByName(name));
+					}
+					catch (Exception e) {
+						throw new APIException(e);
+					}
+					finally {
+						Context.closeSession();
+					}
+				}
+				
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		
+		Assert.assertEquals(++originalCount, service.getCaseReports().size());
+		Assert.assertEquals(2, service.getCaseReportByPatient(patientService.getPatient(pId)).getReportTriggers().size());
+	}
+	
+	@Test
+	@NotTransactional
+	public void executeTask_shouldProcessAllTheChunksInStreamingModeWhenEachChunkIsCommitted() throws Exception {
+		executeDataSet("moduleTestData-initial.xml");
+		getConnection().commit();
+		final String name = "New HIV Case";
+		Integer[] patientIds = { 7, 8 };
+		SqlCohortDefinition def = CaseReportUtil.getSqlCohortDefinition(name);
+		def.setQuery("select patient_id from patient where patient_id in (" + patientIds[0] + "," + patientIds[1] + ")");
+		DefinitionContext.saveDefinition(def);
+		AdministrationService as = Context.getAdministrationService();
+		as.saveGlobalProperty(new GlobalProperty(CaseReportConstants.GP_STREAMING_FETCH_SIZE, "1"));
+		as.saveGlobalProperty(new GlobalProperty(CaseReportConstants.GP_LARGE_COHORT_FLUSH_INTERVAL, "1"));
+		int originalCount = service.getCaseReports().size();
+		
+		//Each patient is in its own chunk whose case report and checkpoint are committed before the
+		//next chunk is read
+		CaseReportUtil.executeTask(schedulerService.getTaskByName(name));
+		
+		Context.clearSession();
+		assertEquals(originalCount + 2, service.getCaseReports().size());
+		for (Integer patientId : patientIds) {
+			CaseReport caseReport = service.getCaseReportByPatient(patientService.getPatient(patientId));
+			assertNotNull(caseReport);
+			assertEquals(name, caseReport.getReportTriggers().iterator().next().getName());
+		}
+		assertFalse(service.getTriggerCheckpoint(name).isRunInProgress());
+	}
+	
 }
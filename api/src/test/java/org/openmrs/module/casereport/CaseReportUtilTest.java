@@ -18,8 +18,10 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 
 import org.codehaus.jackson.map.ObjectMapper;
 import org.junit.Rule;
@@ -122,6 +124,19 @@ public class CaseReportUtilTest extends BaseModuleContextSensitiveTest {
 		assertEquals(8014, hivTests.get(2).getId().intValue());
 	}
 	
+	/**
+	 * @see CaseReportUtil#getArvConceptIds()
+	 * @verifies return the ids of the members of the ARV medication set
+	 */
+	@Test
+	public void getArvConceptIds_shouldReturnTheIdsOfTheMembersOfTheARVMedicationSet() throws Exception {
+		executeDataSet(XML_DATASET);
+		executeDataSet(XML_OTHER_DATASET);
+		Set<Integer> ids = CaseReportUtil.getArvConceptIds();
+		assertEquals(5, ids.size());
+		assertTrue(ids.containsAll(Arrays.asList(1006, 1007, 1009, 1010, 1011)));
+	}
+	
 	/**
 	 * @see CaseReportUtil#getMostRecentWHOStage(Patient)
 	 * @verifies return the most recent WHO stage observation
@@ -346,6 +361,59 @@ public class CaseReportUtilTest extends BaseModuleContextSensitiveTest {
 		assertEquals(name, caseReport2.getReportTriggers().iterator().next().getName());
 	}
 	
+	/**
+	 * @see CaseReportUtil#executeTask(TaskDefinition)
+	 * @verifies create case reports for the matched patients in large cohort mode
+	 */
+	@Test
+	public void executeTask_shouldCreateCaseReportsForTheMatchedPatientsInLargeCohortMode() throws Exception {
+		executeDataSet(XML_DATASET);
+		final String name = "New HIV Case";
+		Integer[] patientIds = { 7, 8 };
+		SqlCohortDefinition def = CaseReportUtil.getSqlCohortDefinition(name);
+		def.setQuery("select patient_id from patient where patient_id in (" + patientIds[0] + "," + patientIds[1] + ")");
+		DefinitionContext.saveDefinition(def);
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(CaseReportConstants.GP_LARGE_COHORT_FLUSH_INTERVAL, "1"));
+		int originalCount = service.getCaseReports().size();
+		
+		CaseReportUtil.executeTask(schedulerService.getTaskByName(name));
+		
+		assertEquals(originalCount + 2, service.getCaseReports().size());
+		for (Integer patientId : patientIds) {
+			CaseReport caseReport = service.getCaseReportByPatient(patientService.getPatient(patientId));
+			assertNotNull(caseReport);
+			assertEquals(name, caseReport.getReportTriggers().iterator().next().getName());
+		}
+	}
+	
+	/**
+	 * @see CaseReportUtil#executeTask(TaskDefinition)
+	 * @verifies create case reports for the matched patients in streaming mode
+	 */
+	@Test
+	public void executeTask_shouldCreateCaseReportsForTheMatchedPatientsInStreamingMode() throws Exception {
+		executeDataSet(XML_DATASET);
+		final String name = "New HIV Case";
+		Integer[] patientIds = { 7, 8 };
+		SqlCohortDefinition def = CaseReportUtil.getSqlCohortDefinition(name);
+		def.setQuery("select patient_id from patient where patient_id in (" + patientIds[0] + "," + patientIds[1] + ")");
+		DefinitionContext.saveDefinition(def);
+		AdministrationService as = Context.getAdministrationService();
+		as.saveGlobalProperty(new GlobalProperty(CaseReportConstants.GP_STREAMING_FETCH_SIZE, "1"));
+		as.saveGlobalProperty(new GlobalProperty(CaseReportConstants.GP_LARGE_COHORT_FLUSH_INTERVAL, "1"));
+		int originalCount = service.getCaseReports().size();
+		
+		CaseReportUtil.executeTask(schedulerService.getTaskByName(name));
+		
+		assertEquals(originalCount + 2, service.getCaseReports().size());
+		for (Integer patientId : patientIds) {
+			CaseReport caseReport = service.getCaseReportByPatient(patientService.getPatient(patientId));
+			assertNotNull(caseReport);
+			assertEquals(name, caseReport.getReportTriggers().iterator().next().getName());
+		}
+	}
+	
 	/**
 	 * @see CaseReportUtil#executeTask(TaskDefinition)
 	 * @verifies set the last execution time in the evaluation context
@@ -377,6 +445,79 @@ public class CaseReportUtilTest extends BaseModuleContextSensitiveTest {
 		assertNull(service.getCaseReportByPatient(patientService.getPatient(patientIds[1])));
 	}
 	
+	/**
+	 * @see CaseReportUtil#executeTask(TaskDefinition)
+	 * @verifies use the high-water mark of the checkpoint as the last execution time
+	 */
+	@Test
+	public void executeTask_shouldUseTheHighWaterMarkOfTheCheckpointAsTheLastExecutionTime() throws Exception {
+		final String name = "some cohort query";
+		Integer[] patientIds = { 7, 8 };
+		CaseReportUtilTest.createTestSqlCohortDefinition(name, "select patient_id from patient where patient_id in ("
+		        + patientIds[0] + "," + patientIds[1] + ") and date_changed > :" + CaseReportConstants.LAST_EXECUTION_TIME,
+		    false, new Parameter(CaseReportConstants.LAST_EXECUTION_TIME, null, Date.class));
+		TriggerCheckpoint checkpoint = new TriggerCheckpoint(name);
+		checkpoint.setHighWaterMark(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse("2008-08-18 12:24:34"));
+		service.saveTriggerCheckpoint(checkpoint);
+		int originalCount = service.getCaseReports().size();
+		
+		TaskDefinition taskDefinition = new TaskDefinition();
+		taskDefinition.setProperty(CaseReportConstants.TRIGGER_NAME_TASK_PROPERTY, name);
+		taskDefinition.setLastExecutionTime(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse("2008-08-18 12:25:57"));
+		CaseReportUtil.executeTask(taskDefinition);
+		
+		assertEquals(originalCount + 1, service.getCaseReports().size());
+		assertNotNull(service.getCaseReportByPatient(patientService.getPatient(patientIds[0])));
+		assertNull(service.getCaseReportByPatient(patientService.getPatient(patientIds[1])));
+	}
+	
+	/**
+	 * @see CaseReportUtil#executeTask(TaskDefinition)
+	 * @verifies resume a failed run after the last processed patient
+	 */
+	@Test
+	public void executeTask_shouldResumeAFailedRunAfterTheLastProcessedPatient() throws Exception {
+		executeDataSet(XML_DATASET);
+		final String name = "New HIV Case";
+		Integer[] patientIds = { 7, 8 };
+		SqlCohortDefinition def = CaseReportUtil.getSqlCohortDefinition(name);
+		def.setQuery("select patient_id from patient where patient_id in (" + patientIds[0] + "," + patientIds[1] + ")");
+		DefinitionContext.saveDefinition(def);
+		TriggerCheckpoint checkpoint = new TriggerCheckpoint(name);
+		checkpoint.startRun(null);
+		checkpoint.markProcessed(patientIds[0]);
+		service.saveTriggerCheckpoint(checkpoint);
+		int originalCount = service.getCaseReports().size();
+		
+		CaseReportUtil.executeTask(schedulerService.getTaskByName(name));
+		
+		assertEquals(originalCount + 1, service.getCaseReports().size());
+		assertNull(service.getCaseReportByPatient(patientService.getPatient(patientIds[0])));
+		assertNotNull(service.getCaseReportByPatient(patientService.getPatient(patientIds[1])));
+	}
+	
+	/**
+	 * @see CaseReportUtil#executeTask(TaskDefinition)
+	 * @verifies complete the run in the checkpoint
+	 */
+	@Test
+	public void executeTask_shouldCompleteTheRunInTheCheckpoint() throws Exception {
+		executeDataSet(XML_DATASET);
+		final String name = "New HIV Case";
+		SqlCohortDefinition def = CaseReportUtil.getSqlCohortDefinition(name);
+		def.setQuery("select patient_id from patient where patient_id in (7,8)");
+		DefinitionContext.saveDefinition(def);
+		assertNull(service.getTriggerCheckpoint(name));
+		
+		CaseReportUtil.executeTask(schedulerService.getTaskByName(name));
+		
+		TriggerCheckpoint checkpoint = service.getTriggerCheckpoint(name);
+		assertNotNull(checkpoint);
+		assertFalse(checkpoint.isRunInProgress());
+		assertNotNull(checkpoint.getHighWaterMark());
+		assertNull(checkpoint.getLastPatientId());
+	}
+	
 	/**
 	 * @see CaseReportUtil#executeTask(TaskDefinition)
 	 * @verifies add a new trigger to an existing queue item for the patient
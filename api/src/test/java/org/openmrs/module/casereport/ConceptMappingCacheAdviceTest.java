@@ -0,0 +1,108 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.Concept;
+import org.openmrs.api.ConceptService;
+import org.openmrs.api.context.Context;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class ConceptMappingCacheAdviceTest extends BaseModuleContextSensitiveTest {
+	
+	private static final String XML_DATASET = "moduleTestData-initial.xml";
+	
+	private static final String CODE = "162188";
+	
+	private ConceptMappingCacheAdvice advice = new ConceptMappingCacheAdvice();
+	
+	@Before
+	public void setup() throws Exception {
+		ConceptMappingCache.clear();
+		executeDataSet(XML_DATASET);
+		//Cache the concept and then remove its mapping so that we can tell if the cache was cleared
+		ConceptMappingCache.getConcept(CODE, CaseReportConstants.SOURCE_CIEL_HL7_CODE);
+		Context.getAdministrationService().executeSQL(
+		    "delete from concept_reference_map where concept_map_id = 500", false);
+		Context.clearSession();
+	}
+	
+	@After
+	public void cleanup() {
+		ConceptMappingCache.clear();
+	}
+	
+	/**
+	 * @see ConceptMappingCacheAdvice#afterReturning(Object,Method,Object[],Object)
+	 * @verifies clear the cache when a concept is saved
+	 */
+	@Test
+	public void afterReturning_shouldClearTheCacheWhenAConceptIsSaved() throws Throwable {
+		ConceptService cs = Context.getConceptService();
+		Method method = ConceptService.class.getMethod("saveConcept", Concept.class);
+		
+		advice.afterReturning(null, method, new Object[] { cs.getConcept(100) }, cs);
+		
+		assertNull(ConceptMappingCache.getConcept(CODE, CaseReportConstants.SOURCE_CIEL_HL7_CODE));
+	}
+	
+	/**
+	 * @see ConceptMappingCacheAdvice#afterReturning(Object,Method,Object[],Object)
+	 * @verifies clear the cache again after the transaction completes
+	 */
+	@Test
+	public void afterReturning_shouldClearTheCacheAgainAfterTheTransactionCompletes() throws Throwable {
+		ConceptService cs = Context.getConceptService();
+		Method method = ConceptService.class.getMethod("saveConcept", Concept.class);
+		List<TransactionSynchronization> existing = TransactionSynchronizationManager.getSynchronizations();
+		
+		advice.afterReturning(null, method, new Object[] { cs.getConcept(100) }, cs);
+		
+		List<TransactionSynchronization> registered = new ArrayList<>(
+		        TransactionSynchronizationManager.getSynchronizations());
+		registered.removeAll(existing);
+		assertEquals(1, registered.size());
+		//Another thread caches a mapping before the change is committed
+		final String code = "159";
+		assertNotNull(ConceptMappingCache.getConcept(code, CaseReportConstants.SOURCE_CIEL_HL7_CODE));
+		Context.getAdministrationService().executeSQL(
+		    "delete from concept_reference_map where concept_map_id = 501", false);
+		Context.clearSession();
+		registered.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+		assertNull(ConceptMappingCache.getConcept(code, CaseReportConstants.SOURCE_CIEL_HL7_CODE));
+	}
+	
+	/**
+	 * @see ConceptMappingCacheAdvice#afterReturning(Object,Method,Object[],Object)
+	 * @verifies not clear the cache for other methods
+	 */
+	@Test
+	public void afterReturning_shouldNotClearTheCacheForOtherMethods() throws Throwable {
+		ConceptService cs = Context.getConceptService();
+		Method method = ConceptService.class.getMethod("getConcept", Integer.class);
+		
+		advice.afterReturning(null, method, new Object[] { 100 }, cs);
+		
+		Concept concept = ConceptMappingCache.getConcept(CODE, CaseReportConstants.SOURCE_CIEL_HL7_CODE);
+		assertEquals(100, concept.getConceptId().intValue());
+	}
+}
@@ -0,0 +1,166 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.Concept;
+import org.openmrs.api.ConceptService;
+import org.openmrs.api.context.Context;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.aop.AfterReturningAdvice;
+
+public class ConceptMappingCacheTest extends BaseModuleContextSensitiveTest {
+	
+	private static final String XML_DATASET = "moduleTestData-initial.xml";
+	
+	private static final String XML_OTHER_DATASET = "moduleTestData-other.xml";
+	
+	private static final String CODE = "162188";
+	
+	@Before
+	public void setup() throws Exception {
+		ConceptMappingCache.clear();
+		executeDataSet(XML_DATASET);
+	}
+	
+	@After
+	public void cleanup() {
+		ConceptMappingCache.clear();
+	}
+	
+	private void deleteMapping() {
+		Context.getAdministrationService().executeSQL(
+		    "delete from concept_reference_map where concept_map_id = 500", false);
+		Context.clearSession();
+	}
+	
+	/**
+	 * @see ConceptMappingCache#getConcept(String,String)
+	 * @verifies return the concept with a mapping to the specified source and code
+	 */
+	@Test
+	public void getConcept_shouldReturnTheConceptWithAMappingToTheSpecifiedSourceAndCode() throws Exception {
+		Concept concept = ConceptMappingCache.getConcept(CODE, CaseReportConstants.SOURCE_CIEL_HL7_CODE);
+		assertEquals(100, concept.getConceptId().intValue());
+	}
+	
+	/**
+	 * @see ConceptMappingCache#getConcept(String,String)
+	 * @verifies not query the mappings again for a cached concept
+	 */
+	@Test
+	public void getConcept_shouldNotQueryTheMappingsAgainForACachedConcept() throws Exception {
+		ConceptMappingCache.getConcept(CODE, CaseReportConstants.SOURCE_CIEL_HL7_CODE);
+		deleteMapping();
+		assertNull(Context.getConceptService().getConceptByMapping(CODE, CaseReportConstants.SOURCE_CIEL_HL7_CODE));
+		
+		Concept concept = ConceptMappingCache.getConcept(CODE, CaseReportConstants.SOURCE_CIEL_HL7_CODE);
+		assertEquals(100, concept.getConceptId().intValue());
+	}
+	
+	/**
+	 * @see ConceptMappingCache#getConcept(String,String)
+	 * @verifies return null if no concept is found
+	 */
+	@Test
+	public void getConcept_shouldReturnNullIfNoConceptIsFound() throws Exception {
+		assertNull(ConceptMappingCache.getConcept("9999999", CaseReportConstants.SOURCE_CIEL_HL7_CODE));
+	}
+	
+	/**
+	 * @see ConceptMappingCache#getSetMemberIds(String,String)
+	 * @verifies return the ids of the set members of the concept
+	 */
+	@Test
+	public void getSetMemberIds_shouldReturnTheIdsOfTheSetMembersOfTheConcept() throws Exception {
+		executeDataSet(XML_OTHER_DATASET);
+		
+		Set<Integer> ids = ConceptMappingCache.getSetMemberIds(CaseReportConstants.CIEL_CODE_ARV_MED_SET,
+		    CaseReportConstants.SOURCE_CIEL_HL7_CODE);
+		
+		assertEquals(new HashSet<>(Arrays.asList(1006, 1007, 1009, 1010, 1011)), ids);
+	}
+	
+	/**
+	 * @see ConceptMappingCache#getSetMemberIds(String,String)
+	 * @verifies return the cached ids until the cache is cleared
+	 */
+	@Test
+	public void getSetMemberIds_shouldReturnTheCachedIdsUntilTheCacheIsCleared() throws Exception {
+		executeDataSet(XML_OTHER_DATASET);
+		ConceptMappingCache.getSetMemberIds(CaseReportConstants.CIEL_CODE_ARV_MED_SET,
+		    CaseReportConstants.SOURCE_CIEL_HL7_CODE);
+		Context.getAdministrationService().executeSQL("delete from concept_set where concept_set_id = 104", false);
+		Context.clearSession();
+		
+		assertTrue(ConceptMappingCache.getSetMemberIds(CaseReportConstants.CIEL_CODE_ARV_MED_SET,
+		    CaseReportConstants.SOURCE_CIEL_HL7_CODE).contains(1011));
+		
+		ConceptMappingCache.clear();
+		
+		assertFalse(ConceptMappingCache.getSetMemberIds(CaseReportConstants.CIEL_CODE_ARV_MED_SET,
+		    CaseReportConstants.SOURCE_CIEL_HL7_CODE).contains(1011));
+	}
+	
+	/**
+	 * @see ConceptMappingCache#getConcept(String,String)
+	 * @verifies look up the mapping again after the cache is cleared
+	 */
+	@Test
+	public void getConcept_shouldLookUpTheMappingAgainAfterTheCacheIsCleared() throws Exception {
+		ConceptMappingCache.getConcept(CODE, CaseReportConstants.SOURCE_CIEL_HL7_CODE);
+		deleteMapping();
+		
+		ConceptMappingCache.clear();
+		
+		assertNull(ConceptMappingCache.getConcept(CODE, CaseReportConstants.SOURCE_CIEL_HL7_CODE));
+	}
+	
+	/**
+	 * @see ConceptMappingCache#clear()
+	 * @verifies not cache a value that was looked up before the cache was cleared
+	 */
+	@Test
+	public void clear_shouldNotCacheAValueThatWasLookedUpBeforeTheCacheWasCleared() throws Exception {
+		//Clears the cache after the mapping is looked up but before the concept id is cached
+		AfterReturningAdvice clearingAdvice = new AfterReturningAdvice() {
+			
+			@Override
+			public void afterReturning(Object returnValue, Method method, Object[] args, Object target) {
+				if ("getConceptByMapping".equals(method.getName())) {
+					ConceptMappingCache.clear();
+				}
+			}
+		};
+		Context.addAdvice(ConceptService.class, clearingAdvice);
+		try {
+			assertNotNull(ConceptMappingCache.getConcept(CODE, CaseReportConstants.SOURCE_CIEL_HL7_CODE));
+		}
+		finally {
+			Context.removeAdvice(ConceptService.class, clearingAdvice);
+		}
+		deleteMapping();
+		
+		assertNull(ConceptMappingCache.getConcept(CODE, CaseReportConstants.SOURCE_CIEL_HL7_CODE));
+	}
+}
@@ -0,0 +1,52 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class DatedUuidAndValueTest {
+	
+	private static final String DATE = "2016-04-01T00:01:00.000-0400";
+	
+	/**
+	 * @see DatedUuidAndValue#toDate()
+	 * @verifies return the parsed date
+	 */
+	@Test
+	public void toDate_shouldReturnTheParsedDate() throws Exception {
+		DatedUuidAndValue value = new DatedUuidAndValue("some-uuid", "New HIV Case", DATE);
+		assertEquals(CaseReportConstants.DATE_FORMATTER.parse(DATE), value.toDate());
+	}
+	
+	/**
+	 * @see DatedUuidAndValue#toDate()
+	 * @verifies return null if the date is blank
+	 */
+	@Test
+	public void toDate_shouldReturnNullIfTheDateIsBlank() throws Exception {
+		assertNull(new DatedUuidAndValue("some-uuid", "New HIV Case", " ").toDate());
+	}
+	
+	/**
+	 * @see DatedUuidAndValue#toDate()
+	 * @verifies parse the date again after it is changed
+	 */
+	@Test
+	public void toDate_shouldParseTheDateAgainAfterItIsChanged() throws Exception {
+		DatedUuidAndValue value = new DatedUuidAndValue("some-uuid", "New HIV Case", DATE);
+		value.toDate();
+		final String newDate = "2016-05-01T00:01:00.000-0400";
+		value.setDate(newDate);
+		assertEquals(CaseReportConstants.DATE_FORMATTER.parse(newDate), value.toDate());
+	}
+}
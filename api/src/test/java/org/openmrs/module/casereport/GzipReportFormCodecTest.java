@@ -0,0 +1,45 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class GzipReportFormCodecTest {
+	
+	private static final String JSON = "{\"fullName\":\"Horatio Hornblower\",\"triggers\":[{\"uuid\":\"some-uuid\","
+	        + "\"value\":\"New HIV Case\",\"date\":\"2016-04-01T00:01:00.000-0400\"}]}";
+	
+	private GzipReportFormCodec codec = new GzipReportFormCodec();
+	
+	/**
+	 * @see GzipReportFormCodec#encode(String)
+	 * @verifies encode the json text
+	 */
+	@Test
+	public void encode_shouldEncodeTheJsonText() throws Exception {
+		String encoded = codec.encode(JSON);
+		assertFalse(JSON.equals(encoded));
+		assertFalse(encoded.contains("\n"));
+		assertTrue(encoded.matches("[A-Za-z0-9+/=]+"));
+	}
+	
+	/**
+	 * @see GzipReportFormCodec#decode(String)
+	 * @verifies decode the encoded text
+	 */
+	@Test
+	public void decode_shouldDecodeTheEncodedText() throws Exception {
+		assertEquals(JSON, codec.decode(codec.encode(JSON)));
+	}
+}
@@ -0,0 +1,57 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class JsonUtilTest {
+	
+	/**
+	 * @see JsonUtil#readReportForm(String)
+	 * @verifies parse the json into a case report form
+	 */
+	@Test
+	public void readReportForm_shouldParseTheJsonIntoACaseReportForm() throws Exception {
+		final String json = "{\"fullName\":\"Horatio Hornblower\",\"gender\":\"M\",\"triggers\":[{\"uuid\":\"some-uuid\","
+		        + "\"value\":\"New HIV Case\",\"date\":\"2016-04-01T00:01:00.000-0400\"}]}";
+		CaseReportForm form = JsonUtil.readReportForm(json);
+		assertEquals("Horatio Hornblower", form.getFullName());
+		assertEquals("M", form.getGender());
+		assertEquals(1, form.getTriggers().size());
+		assertEquals("some-uuid", form.getTriggers().get(0).getUuid());
+		assertEquals("New HIV Case", form.getTriggers().get(0).getValue());
+		assertEquals("2016-04-01T00:01:00.000-0400", form.getTriggers().get(0).getDate());
+	}
+	
+	/**
+	 * @see JsonUtil#writeReportForm(CaseReportForm)
+	 * @verifies serialize the case report form to json
+	 */
+	@Test
+	public void writeReportForm_shouldSerializeTheCaseReportFormToJson() throws Exception {
+		CaseReportForm form = new CaseReportForm();
+		form.setGivenName("Horatio");
+		form.setFamilyName("Hornblower");
+		form.setTriggers(Arrays.asList(new DatedUuidAndValue("some-uuid", "New HIV Case",
+		        "2016-04-01T00:01:00.000-0400")));
+		
+		String json = JsonUtil.writeReportForm(form);
+		assertTrue(json.contains("\"givenName\":\"Horatio\""));
+		CaseReportForm parsed = JsonUtil.readReportForm(json);
+		assertEquals("Horatio", parsed.getGivenName());
+		assertEquals("Hornblower", parsed.getFamilyName());
+		assertEquals("New HIV Case", parsed.getTriggers().get(0).getValue());
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ * 
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.openmrs.api.APIException;
+
+public class OutboxEntryTest {
+	
+	private static final long INITIAL_DELAY = 60000L;
+	
+	private static final long MAX_DELAY = 600000L;
+	
+	/**
+	 * @see OutboxEntry#markFailed(String, int, long, long)
+	 * @verifies schedule the next attempt with exponential backoff
+	 */
+	@Test
+	public void markFailed_shouldScheduleTheNextAttemptWithExponentialBackoff() throws Exception {
+		OutboxEntry entry = new OutboxEntry(new CaseReport());
+		long[] expectedDelays = { INITIAL_DELAY, 2 * INITIAL_DELAY, 4 * INITIAL_DELAY, 8 * INITIAL_DELAY, MAX_DELAY };
+		for (int i = 0; i < expectedDelays.length; i++) {
+			long before = System.currentTimeMillis();
+			entry.markFailed("error " + i, 10, INITIAL_DELAY, MAX_DELAY);
+			long delay = entry.getNextAttemptDate().getTime() - before;
+			assertTrue(entry.isPending());
+			assertEquals(i + 1, entry.getAttemptCount());
+			assertEquals("error " + i, entry.getLastError());
+			assertTrue(delay >= expectedDelays[i] && delay < expectedDelays[i] + 1000);
+		}
+	}
+	
+	/**
+	 * @see OutboxEntry#markFailed(String, int, long, long)
+	 * @verifies move the entry to the dead letter state when the maximum attempts is reached
+	 */
+	@Test
+	public void markFailed_shouldMoveTheEntryToTheDeadLetterStateWhenTheMaximumAttemptsIsReached() throws Exception {
+		OutboxEntry entry = new OutboxEntry(new CaseReport());
+		entry.markFailed("error", 2, INITIAL_DELAY, MAX_DELAY);
+		assertTrue(entry.isPending());
+		entry.markFailed("error", 2, INITIAL_DELAY, MAX_DELAY);
+		assertTrue(entry.isDeadLetter());
+		assertNull(entry.getNextAttemptDate());
+	}
+	
+	/**
+	 * @see OutboxEntry#requeue()
+	 * @verifies requeue a dead letter entry
+	 */
+	@Test
+	public void requeue_shouldRequeueADeadLetterEntry() throws Exception {
+		OutboxEntry entry = new OutboxEntry(new CaseReport());
+		entry.markFailed("error", 1, INITIAL_DELAY, MAX_DELAY);
+		assertTrue(entry.isDeadLetter());
+		
+		entry.requeue();
+		
+		assertTrue(entry.isPending());
+		assertEquals(0, entry.getAttemptCount());
+		assertTrue(entry.getNextAttemptDate() != null);
+	}
+	
+	/**
+	 * @see OutboxEntry#requeue()
+	 * @verifies fail for an entry that is not a dead letter
+	 */
+	@Test(expected = APIException.class)
+	public void requeue_shouldFailForAnEntryThatIsNotADeadLetter() throws Exception {
+		new OutboxEntry(new CaseReport()).requeue();
+	}
+}
@@ -0,0 +1,86 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.Patient;
+import org.openmrs.api.PatientService;
+import org.openmrs.api.context.Context;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+
+public class PatientObsSnapshotTest extends BaseModuleContextSensitiveTest {
+	
+	@Before
+	public void setup() throws Exception {
+		executeDataSet("moduleTestData-initial.xml");
+		executeDataSet("moduleTestData-other.xml");
+	}
+	
+	/**
+	 * @see PatientObsSnapshot#load(Collection)
+	 * @verifies load the most recent obs for each patient in bulk
+	 */
+	@Test
+	public void load_shouldLoadTheMostRecentObsForEachPatientInBulk() throws Exception {
+		PatientService ps = Context.getPatientService();
+		Patient patient = ps.getPatient(2);
+		Patient otherPatient = ps.getPatient(7);
+		
+		PatientObsSnapshot snapshot = PatientObsSnapshot.load(Arrays.asList(patient, otherPatient));
+		
+		assertEquals(3, snapshot.getMostRecentViralLoads(patient).size());
+		assertEquals("77fb7f47-b80a-4056-9285-bd798be13c63", snapshot.getMostRecentViralLoads(patient).get(0).getUuid());
+		assertEquals(3, snapshot.getMostRecentCD4counts(patient).size());
+		assertEquals("7dfb7f47-c80a-4056-9285-bd767be13c63", snapshot.getMostRecentCD4counts(patient).get(0).getUuid());
+		assertEquals(3, snapshot.getMostRecentHIVTests(patient).size());
+		assertEquals("7bfb7f47-e80a-4056-9285-bd767be13c63", snapshot.getMostRecentWHOStage(patient).getUuid());
+		assertEquals("7ffb7f47-f80a-4056-9285-bd767be13c63", snapshot.getMostRecentReasonARVsStopped(patient).getUuid());
+		
+		assertEquals(1, snapshot.getMostRecentViralLoads(otherPatient).size());
+		assertEquals("33fb7f47-b80a-4056-9285-bd798be13c63", snapshot.getMostRecentViralLoads(otherPatient).get(0)
+		        .getUuid());
+		assertEquals(1, snapshot.getMostRecentCD4counts(otherPatient).size());
+		assertEquals("8ffb7f47-c80a-4056-9285-bd767be13c63", snapshot.getMostRecentCD4counts(otherPatient).get(0)
+		        .getUuid());
+		assertEquals("7dfb7f47-e80a-4056-9285-bd767be13c63", snapshot.getMostRecentWHOStage(otherPatient).getUuid());
+		assertEquals("7bfb7f47-f80a-4056-9285-bd767be13c63", snapshot.getMostRecentReasonARVsStopped(otherPatient)
+		        .getUuid());
+		
+		//Should match the results of the individual queries
+		assertEquals(CaseReportUtil.getMostRecentViralLoads(patient), snapshot.getMostRecentViralLoads(patient));
+		assertEquals(CaseReportUtil.getMostRecentCD4counts(patient), snapshot.getMostRecentCD4counts(patient));
+		assertEquals(CaseReportUtil.getMostRecentHIVTests(patient), snapshot.getMostRecentHIVTests(patient));
+	}
+	
+	/**
+	 * @see PatientObsSnapshot#load(Collection)
+	 * @verifies return empty results for a patient with no obs
+	 */
+	@Test
+	public void load_shouldReturnEmptyResultsForAPatientWithNoObs() throws Exception {
+		Patient patient = Context.getPatientService().getPatient(6);
+		
+		PatientObsSnapshot snapshot = PatientObsSnapshot.load(patient);
+		
+		assertTrue(snapshot.getMostRecentViralLoads(patient).isEmpty());
+		assertTrue(snapshot.getMostRecentCD4counts(patient).isEmpty());
+		assertTrue(snapshot.getMostRecentHIVTests(patient).isEmpty());
+		assertNull(snapshot.getMostRecentWHOStage(patient));
+		assertNull(snapshot.getMostRecentReasonARVsStopped(patient));
+	}
+}
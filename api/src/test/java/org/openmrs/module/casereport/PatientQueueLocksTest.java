@@ -0,0 +1,149 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import org.junit.Test;
+
+public class PatientQueueLocksTest {
+	
+	private static boolean tryLockInAnotherThread(final Lock lock) throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			return executor.submit(new Callable<Boolean>() {
+				
+				@Override
+				public Boolean call() throws Exception {
+					boolean acquired = lock.tryLock();
+					if (acquired) {
+						lock.unlock();
+					}
+					return acquired;
+				}
+			}).get();
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+	
+	private static List<Integer> range(int from, int count) {
+		List<Integer> ids = new ArrayList<>(count);
+		for (int i = from; i < from + count; i++) {
+			ids.add(i);
+		}
+		return ids;
+	}
+	
+	private static Future<Boolean> lockAndUnlockInAnotherThread(ExecutorService executor,
+	                                                            final List<Integer> patientIds) {
+		return executor.submit(new Callable<Boolean>() {
+			
+			@Override
+			public Boolean call() throws Exception {
+				PatientQueueLocks.unlock(PatientQueueLocks.lock(patientIds));
+				return true;
+			}
+		});
+	}
+	
+	/**
+	 * @see PatientQueueLocks#lock(java.util.Collection)
+	 * @verifies acquire the locks for the specified patients
+	 */
+	@Test
+	public void lock_shouldAcquireTheLocksForTheSpecifiedPatients() throws Exception {
+		List<Lock> locks = PatientQueueLocks.lock(Arrays.asList(7, 2, 7));
+		try {
+			assertEquals(2, locks.size());
+			for (Lock lock : locks) {
+				assertFalse(tryLockInAnotherThread(lock));
+			}
+		}
+		finally {
+			PatientQueueLocks.unlock(locks);
+		}
+	}
+	
+	/**
+	 * @see PatientQueueLocks#unlock(List)
+	 * @verifies release the specified locks
+	 */
+	@Test
+	public void unlock_shouldReleaseTheSpecifiedLocks() throws Exception {
+		List<Lock> locks = PatientQueueLocks.lock(Arrays.asList(2, 7));
+		
+		PatientQueueLocks.unlock(locks);
+		
+		for (Lock lock : locks) {
+			assertTrue(tryLockInAnotherThread(lock));
+		}
+	}
+	
+	/**
+	 * @see PatientQueueLocks#lock(java.util.Collection)
+	 * @verifies not block a thread locking other patients
+	 */
+	@Test
+	public void lock_shouldNotBlockAThreadLockingOtherPatients() throws Exception {
+		//Chunks of the size used when processing triggers, the second trigger's chunk is locked
+		//while the first trigger is still holding its own
+		final int chunkSize = 1000;
+		List<Lock> locks = PatientQueueLocks.lock(range(1, chunkSize));
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Boolean> otherTrigger = lockAndUnlockInAnotherThread(executor, range(chunkSize + 1, chunkSize));
+			assertTrue(otherTrigger.get(10, TimeUnit.SECONDS));
+		}
+		finally {
+			PatientQueueLocks.unlock(locks);
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * @see PatientQueueLocks#lock(java.util.Collection)
+	 * @verifies block a thread locking any of the same patients until they are unlocked
+	 */
+	@Test
+	public void lock_shouldBlockAThreadLockingAnyOfTheSamePatientsUntilTheyAreUnlocked() throws Exception {
+		List<Lock> locks = PatientQueueLocks.lock(Arrays.asList(5, 10));
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Boolean> otherTrigger = lockAndUnlockInAnotherThread(executor, Arrays.asList(10, 20));
+			Thread.sleep(200);
+			assertFalse(otherTrigger.isDone());
+			
+			PatientQueueLocks.unlock(locks);
+			locks = null;
+			
+			assertTrue(otherTrigger.get(10, TimeUnit.SECONDS));
+		}
+		finally {
+			if (locks != null) {
+				PatientQueueLocks.unlock(locks);
+			}
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,98 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.openmrs.api.APIException;
+
+public class ReportFormCodecsTest {
+	
+	private static final String JSON = "{\"fullName\":\"Horatio Hornblower\"}";
+	
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+	
+	@After
+	public void cleanup() {
+		//reset
+		ReportFormCodecs.setWriteCodec(new GzipReportFormCodec());
+	}
+	
+	/**
+	 * @see ReportFormCodecs#encode(String)
+	 * @verifies encode the json text and add the header
+	 */
+	@Test
+	public void encode_shouldEncodeTheJsonTextAndAddTheHeader() throws Exception {
+		GzipReportFormCodec codec = new GzipReportFormCodec();
+		String expected = ReportFormCodecs.HEADER_PREFIX + GzipReportFormCodec.ID + ReportFormCodecs.HEADER_SEPARATOR
+		        + codec.encode(JSON);
+		assertEquals(expected, ReportFormCodecs.encode(JSON));
+	}
+	
+	/**
+	 * @see ReportFormCodecs#encode(String)
+	 * @verifies return plain json if there is no write codec
+	 */
+	@Test
+	public void encode_shouldReturnPlainJsonIfThereIsNoWriteCodec() throws Exception {
+		ReportFormCodecs.setWriteCodec(null);
+		assertSame(JSON, ReportFormCodecs.encode(JSON));
+	}
+	
+	/**
+	 * @see ReportFormCodecs#encode(String)
+	 * @verifies return an already encoded value as is
+	 */
+	@Test
+	public void encode_shouldReturnAnAlreadyEncodedValueAsIs() throws Exception {
+		String encoded = ReportFormCodecs.encode(JSON);
+		assertSame(encoded, ReportFormCodecs.encode(encoded));
+	}
+	
+	/**
+	 * @see ReportFormCodecs#decode(String)
+	 * @verifies decode a value encoded by a registered codec
+	 */
+	@Test
+	public void decode_shouldDecodeAValueEncodedByARegisteredCodec() throws Exception {
+		String encoded = ReportFormCodecs.encode(JSON);
+		//Values written with a codec can still be read after the write codec is changed
+		ReportFormCodecs.setWriteCodec(null);
+		assertEquals(JSON, ReportFormCodecs.decode(encoded));
+	}
+	
+	/**
+	 * @see ReportFormCodecs#decode(String)
+	 * @verifies return a legacy plain json value as is
+	 */
+	@Test
+	public void decode_shouldReturnALegacyPlainJsonValueAsIs() throws Exception {
+		assertSame(JSON, ReportFormCodecs.decode(JSON));
+	}
+	
+	/**
+	 * @see ReportFormCodecs#decode(String)
+	 * @verifies fail for a value encoded by an unknown codec
+	 */
+	@Test
+	public void decode_shouldFailForAValueEncodedByAnUnknownCodec() throws Exception {
+		expectedException.expect(APIException.class);
+		expectedException.expectMessage(equalTo("No report form codec registered with id: unknown"));
+		ReportFormCodecs.decode(ReportFormCodecs.HEADER_PREFIX + "unknown" + ReportFormCodecs.HEADER_SEPARATOR + "abc");
+	}
+}
@@ -0,0 +1,97 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Compares the latency and the bytes allocated per case report form round trip when a new
+ * ObjectMapper is created for each call against using the shared reader and writer in
+ * {@link JsonUtil}. It is ignored by default since it only logs the numbers, the number of
+ * iterations can be set with the casereport.benchmark.iterations system property.
+ */
+@Ignore
+public class ReportFormJsonBenchmarkTest {
+	
+	private static final Log log = LogFactory.getLog(ReportFormJsonBenchmarkTest.class);
+	
+	private static final int ITERATIONS = Integer.getInteger("casereport.benchmark.iterations", 20000);
+	
+	private static final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory
+	        .getThreadMXBean();
+	
+	private interface RoundTrip {
+		
+		CaseReportForm run(CaseReportForm form) throws Exception;
+	}
+	
+	private static CaseReportForm createForm() {
+		CaseReportForm form = new CaseReportForm();
+		form.setGivenName("Horatio");
+		form.setFamilyName("Hornblower");
+		form.setFullName("Horatio Hornblower");
+		form.setGender("M");
+		List<DatedUuidAndValue> triggers = new ArrayList<>();
+		triggers.add(new DatedUuidAndValue("e2ae8c56-3f54-4e27-bb45-5c1e7d3f21a1", "New HIV Case",
+		        "2016-04-01T00:01:00.000-0400"));
+		triggers.add(new DatedUuidAndValue("a7dd1ae1-4b3c-4e43-b96f-6a4d0f3c6f27", "HIV Switched To Second Line",
+		        "2016-04-02T00:01:00.000-0400"));
+		form.setTriggers(triggers);
+		return form;
+	}
+	
+	private void measure(String label, RoundTrip roundTrip) throws Exception {
+		CaseReportForm form = createForm();
+		//warm up
+		for (int i = 0; i < ITERATIONS; i++) {
+			roundTrip.run(form);
+		}
+		
+		long threadId = Thread.currentThread().getId();
+		long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			roundTrip.run(form);
+		}
+		long elapsed = System.nanoTime() - start;
+		long allocated = threadBean.getThreadAllocatedBytes(threadId) - startBytes;
+		
+		log.info(String.format("%s: %.2f us and %d bytes allocated per round trip", label, elapsed
+		        / (ITERATIONS * 1000.0), allocated / ITERATIONS));
+	}
+	
+	@Test
+	public void benchmarkTheReportFormRoundTrip() throws Exception {
+		measure("new mapper per call", new RoundTrip() {
+			
+			@Override
+			public CaseReportForm run(CaseReportForm form) throws Exception {
+				String json = new ObjectMapper().writeValueAsString(form);
+				return new ObjectMapper().readValue(json, CaseReportForm.class);
+			}
+		});
+		
+		measure("shared reader and writer", new RoundTrip() {
+			
+			@Override
+			public CaseReportForm run(CaseReportForm form) throws Exception {
+				return JsonUtil.readReportForm(JsonUtil.writeReportForm(form));
+			}
+		});
+	}
+}
@@ -0,0 +1,89 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import static org.junit.Assert.assertEquals;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class ThreadSafeDateFormatTest {
+	
+	private static final String PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
+	
+	private ThreadSafeDateFormat dateFormat = new ThreadSafeDateFormat(PATTERN);
+	
+	/**
+	 * @see ThreadSafeDateFormat#format(Date)
+	 * @verifies format the date
+	 */
+	@Test
+	public void format_shouldFormatTheDate() throws Exception {
+		Date date = new Date();
+		assertEquals(new SimpleDateFormat(PATTERN).format(date), dateFormat.format(date));
+	}
+	
+	/**
+	 * @see ThreadSafeDateFormat#parse(String)
+	 * @verifies parse the date string
+	 */
+	@Test
+	public void parse_shouldParseTheDateString() throws Exception {
+		final String dateString = "2016-04-01T00:01:00.000-0400";
+		assertEquals(new SimpleDateFormat(PATTERN).parse(dateString), dateFormat.parse(dateString));
+	}
+	
+	/**
+	 * @see ThreadSafeDateFormat#format(Date)
+	 * @verifies be safe for use by multiple threads
+	 */
+	@Test
+	public void format_shouldBeSafeForUseByMultipleThreads() throws Exception {
+		final int threadCount = 4;
+		final int iterations = 1000;
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			List<Future<Integer>> futures = new ArrayList<>(threadCount);
+			for (int i = 0; i < threadCount; i++) {
+				final Date date = new Date(System.currentTimeMillis() - i * 86400000L * 365);
+				final String expected = new SimpleDateFormat(PATTERN).format(date);
+				futures.add(executor.submit(new Callable<Integer>() {
+					
+					@Override
+					public Integer call() throws Exception {
+						int mismatches = 0;
+						for (int j = 0; j < iterations; j++) {
+							String formatted = dateFormat.format(date);
+							if (!expected.equals(formatted) || !date.equals(dateFormat.parse(formatted))) {
+								mismatches++;
+							}
+						}
+						return mismatches;
+					}
+				}));
+			}
+			
+			for (Future<Integer> future : futures) {
+				assertEquals(0, future.get().intValue());
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,73 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+
+import org.junit.Test;
+import org.openmrs.api.APIException;
+
+public class TriggerCheckpointTest {
+	
+	/**
+	 * @see TriggerCheckpoint#startRun(Date)
+	 * @verifies start a new run
+	 */
+	@Test
+	public void startRun_shouldStartANewRun() throws Exception {
+		TriggerCheckpoint checkpoint = new TriggerCheckpoint("some trigger");
+		Date lastExecutionTime = new Date();
+		
+		checkpoint.startRun(lastExecutionTime);
+		
+		assertTrue(checkpoint.isRunInProgress());
+		assertNotNull(checkpoint.getRunId());
+		assertNotNull(checkpoint.getRunStartDate());
+		assertEquals(lastExecutionTime, checkpoint.getRunLastExecutionTime());
+		assertNull(checkpoint.getLastPatientId());
+	}
+	
+	/**
+	 * @see TriggerCheckpoint#startRun(Date)
+	 * @verifies fail if a run is already in progress
+	 */
+	@Test(expected = APIException.class)
+	public void startRun_shouldFailIfARunIsAlreadyInProgress() throws Exception {
+		TriggerCheckpoint checkpoint = new TriggerCheckpoint("some trigger");
+		checkpoint.startRun(null);
+		checkpoint.startRun(null);
+	}
+	
+	/**
+	 * @see TriggerCheckpoint#completeRun()
+	 * @verifies complete the current run and move the high-water mark
+	 */
+	@Test
+	public void completeRun_shouldCompleteTheCurrentRunAndMoveTheHighWaterMark() throws Exception {
+		TriggerCheckpoint checkpoint = new TriggerCheckpoint("some trigger");
+		checkpoint.startRun(null);
+		Date runStartDate = checkpoint.getRunStartDate();
+		checkpoint.markProcessed(10);
+		assertEquals(10, checkpoint.getLastPatientId().intValue());
+		
+		checkpoint.completeRun();
+		
+		assertFalse(checkpoint.isRunInProgress());
+		assertEquals(runStartDate, checkpoint.getHighWaterMark());
+		assertNull(checkpoint.getRunStartDate());
+		assertNull(checkpoint.getLastPatientId());
+	}
+}
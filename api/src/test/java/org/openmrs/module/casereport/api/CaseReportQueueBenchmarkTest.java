@@ -0,0 +1,95 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport.api;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+
+/**
+ * Measures the latency of the queue and submitted case report list queries against a large
+ * casereport_case_report table before and after adding the indexes created by the liquibase
+ * changesets. It is ignored by default because populating the table takes a while, the number of
+ * rows can be set with the casereport.benchmark.rows system property and defaults to 1 million.
+ */
+@Ignore
+public class CaseReportQueueBenchmarkTest extends BaseModuleContextSensitiveTest {
+	
+	private static final Log log = LogFactory.getLog(CaseReportQueueBenchmarkTest.class);
+	
+	private static final int ROWS = Integer.getInteger("casereport.benchmark.rows", 1000000);
+	
+	private static final int ITERATIONS = 20;
+	
+	private static final String QUEUE_QUERY = "select case_report_id from casereport_case_report where status in "
+	        + "('NEW', 'DRAFT') and voided = false order by date_created limit 50";
+	
+	private static final String SUBMITTED_QUERY = "select case_report_id from casereport_case_report where status = "
+	        + "'SUBMITTED' order by resolution_date desc limit 50";
+	
+	private static final String PATIENT_QUERY = "select case_report_id from casereport_case_report where patient_id = 7 "
+	        + "and status in ('NEW', 'DRAFT') and voided = false";
+	
+	private static final String[] INDEXES = {
+	        "create index case_report_status_voided_created on casereport_case_report (status, voided, date_created)",
+	        "create index case_report_patient_status_voided on casereport_case_report (patient_id, status, voided)",
+	        "create index case_report_status_resolution_date on casereport_case_report (status, resolution_date)" };
+	
+	private void populate() {
+		//uses H2's system_range table function to generate the rows in a single statement
+		executeSQL("insert into casereport_case_report (case_report_id, version, patient_id, status, auto_submitted, "
+		        + "resolution_date, creator, date_created, voided, uuid) select 1000 + x, 0, "
+		        + "casewhen(mod(x, 4) = 0, 2, casewhen(mod(x, 4) = 1, 6, casewhen(mod(x, 4) = 2, 7, 8))), "
+		        + "casewhen(mod(x, 10) < 3, 'NEW', casewhen(mod(x, 10) < 4, 'DRAFT', "
+		        + "casewhen(mod(x, 10) < 9, 'SUBMITTED', 'DISMISSED'))), false, "
+		        + "casewhen(mod(x, 10) < 4, null, dateadd('SECOND', x, timestamp '2016-01-01 00:00:00')), 1, "
+		        + "dateadd('SECOND', x, timestamp '2016-01-01 00:00:00'), mod(x, 50) = 0, random_uuid() "
+		        + "from system_range(1, " + ROWS + ")", false);
+	}
+	
+	private Map<String, Double> measure() {
+		Map<String, Double> results = new LinkedHashMap<>();
+		results.put("queue", measure(QUEUE_QUERY));
+		results.put("submitted", measure(SUBMITTED_QUERY));
+		results.put("patient", measure(PATIENT_QUERY));
+		return results;
+	}
+	
+	private double measure(String query) {
+		//warm up
+		executeSQL(query, true);
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			executeSQL(query, true);
+		}
+		
+		return (System.nanoTime() - start) / (ITERATIONS * 1000000.0);
+	}
+	
+	@Test
+	public void benchmarkTheQueueQueries() throws Exception {
+		populate();
+		Map<String, Double> before = measure();
+		for (String index : INDEXES) {
+			executeSQL(index, false);
+		}
+		Map<String, Double> after = measure();
+		
+		for (Map.Entry<String, Double> entry : before.entrySet()) {
+			log.info(String.format("%s list with %d rows: %.2f ms without indexes, %.2f ms with indexes",
+			    entry.getKey(), ROWS, entry.getValue(), after.get(entry.getKey())));
+		}
+	}
+}
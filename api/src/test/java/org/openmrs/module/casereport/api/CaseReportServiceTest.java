@@ -17,27 +17,54 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.openmrs.module.casereport.CaseReport.Status;
 
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang3.reflect.FieldUtils;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.hamcrest.CoreMatchers;
+import org.hibernate.Hibernate;
+import org.hibernate.StaleObjectStateException;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.openmrs.DrugOrder;
 import org.openmrs.GlobalProperty;
+import org.openmrs.Obs;
+import org.openmrs.Order;
+import org.openmrs.OrderType;
 import org.openmrs.Patient;
 import org.openmrs.Provider;
+import org.openmrs.Visit;
 import org.openmrs.api.APIException;
+import org.openmrs.api.OrderService;
 import org.openmrs.api.PatientService;
 import org.openmrs.api.context.Context;
 import org.openmrs.module.casereport.CaseReport;
 import org.openmrs.module.casereport.CaseReportConstants;
 import org.openmrs.module.casereport.CaseReportForm;
+import org.openmrs.module.casereport.CaseReportListItem;
 import org.openmrs.module.casereport.CaseReportTrigger;
+import org.openmrs.module.casereport.CaseReportUtil;
+import org.openmrs.module.casereport.DatedUuidAndValue;
 import org.openmrs.module.casereport.DemoListener;
+import org.openmrs.module.casereport.GzipReportFormCodec;
+import org.openmrs.module.casereport.OutboxEntry;
+import org.openmrs.module.casereport.PatientIdCursor;
+import org.openmrs.module.casereport.ReportFormCodec;
+import org.openmrs.module.casereport.ReportFormCodecs;
+import org.openmrs.module.casereport.TriggerCheckpoint;
+import org.openmrs.module.reporting.cohort.definition.SqlCohortDefinition;
 import org.openmrs.scheduler.SchedulerService;
 import org.openmrs.scheduler.TaskDefinition;
 import org.openmrs.test.BaseModuleContextSensitiveTest;
@@ -87,6 +114,20 @@ public class CaseReportServiceTest extends BaseModuleContextSensitiveTest {
 		assertEquals("New HIV Case", it.next().getName());
 	}
 	
+	/**
+	 * @see CaseReportService#getCaseReport(Integer)
+	 * @verifies not load the report form until it is accessed
+	 */
+	@Test
+	public void getCaseReport_shouldNotLoadTheReportFormUntilItIsAccessed() throws Exception {
+		CaseReport report = service.getCaseReport(2);
+		Object reportFormData = FieldUtils.readField(report, "reportFormData", true);
+		assertFalse(Hibernate.isInitialized(reportFormData));
+		
+		assertEquals("{\"fullName\":\"Horatio Hornblower\"}", report.getReportForm());
+		assertTrue(Hibernate.isInitialized(reportFormData));
+	}
+	
 	/**
 	 * @see CaseReportService#getCaseReportByUuid(String)
 	 * @verifies return the case report that matches the specified uuid
@@ -109,6 +150,29 @@ public class CaseReportServiceTest extends BaseModuleContextSensitiveTest {
 		assertEquals(1, caseReport.getId().intValue());
 	}
 	
+	/**
+	 * @see CaseReportService#getCaseReportsByPatientIds(java.util.Collection)
+	 * @verifies return the case reports for the patients with the specified ids
+	 */
+	@Test
+	public void getCaseReportsByPatientIds_shouldReturnTheCaseReportsForThePatientsWithTheSpecifiedIds()
+	    throws Exception {
+		Map<Integer, CaseReport> patientIdCaseReportMap = service.getCaseReportsByPatientIds(Arrays.asList(2, 6, 7, 8));
+		assertEquals(2, patientIdCaseReportMap.size());
+		assertEquals(1, patientIdCaseReportMap.get(2).getId().intValue());
+		assertEquals(4, patientIdCaseReportMap.get(6).getId().intValue());
+		assertEquals(2, patientIdCaseReportMap.get(2).getReportTriggers().size());
+	}
+	
+	/**
+	 * @see CaseReportService#getCaseReportsByPatientIds(java.util.Collection)
+	 * @verifies return an empty map if no patient id is specified
+	 */
+	@Test
+	public void getCaseReportsByPatientIds_shouldReturnAnEmptyMapIfNoPatientIdIsSpecified() throws Exception {
+		assertTrue(service.getCaseReportsByPatientIds(Collections.<Integer> emptyList()).isEmpty());
+	}
+	
 	/**
 	 * @see CaseReportService#getCaseReports()
 	 * @verifies return all non voided case reports in the database
@@ -215,6 +279,258 @@ public class CaseReportServiceTest extends BaseModuleContextSensitiveTest {
 		
 	}
 	
+	/**
+	 * @see CaseReportService#getCaseReports(Patient, boolean, String, Boolean, Integer, Integer,
+	 *      Status...)
+	 * @verifies return the specified page of case reports
+	 */
+	@Test
+	public void getCaseReports_shouldReturnTheSpecifiedPageOfCaseReports() throws Exception {
+		List<CaseReport> reports = service.getCaseReports(null, false, "dateCreated", true, 1, 1, Status.NEW,
+		    Status.DRAFT);
+		assertEquals(1, reports.size());
+		assertEquals(4, reports.get(0).getId().intValue());
+		
+		reports = service.getCaseReports(null, false, "dateCreated", true, 1, 5, Status.NEW, Status.DRAFT);
+		assertEquals(2, reports.size());
+		assertEquals(4, reports.get(0).getId().intValue());
+		assertEquals(2, reports.get(1).getId().intValue());
+	}
+	
+	/**
+	 * @see CaseReportService#getCaseReports(Patient, boolean, String, Boolean, Integer, Integer,
+	 *      Status...)
+	 * @verifies sort the case reports by the specified property
+	 */
+	@Test
+	public void getCaseReports_shouldSortTheCaseReportsByTheSpecifiedProperty() throws Exception {
+		List<CaseReport> reports = service.getCaseReports(null, false, "dateCreated", false, 0, 10, Status.NEW,
+		    Status.DRAFT);
+		assertEquals(3, reports.size());
+		assertEquals(2, reports.get(0).getId().intValue());
+		assertEquals(4, reports.get(1).getId().intValue());
+		assertEquals(1, reports.get(2).getId().intValue());
+	}
+	
+	/**
+	 * @see CaseReportService#getCaseReportCount(Patient, boolean, Status...)
+	 * @verifies return the number of matching case reports
+	 */
+	@Test
+	public void getCaseReportCount_shouldReturnTheNumberOfMatchingCaseReports() throws Exception {
+		assertEquals(3, service.getCaseReportCount(null, false, Status.NEW, Status.DRAFT));
+		assertEquals(5, service.getCaseReportCount(null, true, Status.NEW, Status.DRAFT));
+		assertEquals(2, service.getCaseReportCount(patientService.getPatient(2), true));
+	}
+	
+	/**
+	 * @see CaseReportService#getCaseReports(CaseReportSearchCriteria, String, Boolean, Integer,
+	 *      Integer)
+	 * @verifies return the case reports for the patients with a matching name
+	 */
+	@Test
+	public void getCaseReports_shouldReturnTheCaseReportsForThePatientsWithAMatchingName() throws Exception {
+		CaseReportSearchCriteria criteria = new CaseReportSearchCriteria(null, false, Status.SUBMITTED);
+		criteria.setPatientQuery("coll cheb");
+		List<CaseReport> reports = service.getCaseReports(criteria, "resolutionDate", true, 0, 10);
+		assertEquals(2, reports.size());
+		assertEquals(5, reports.get(0).getId().intValue());
+		assertEquals(8, reports.get(1).getId().intValue());
+		
+		criteria.setPatientQuery("coll hornb");
+		assertEquals(0, service.getCaseReports(criteria, "resolutionDate", true, 0, 10).size());
+	}
+	
+	/**
+	 * @see CaseReportService#getCaseReports(CaseReportSearchCriteria, String, Boolean, Integer,
+	 *      Integer)
+	 * @verifies return the case reports for the patients with a matching identifier
+	 */
+	@Test
+	public void getCaseReports_shouldReturnTheCaseReportsForThePatientsWithAMatchingIdentifier() throws Exception {
+		CaseReportSearchCriteria criteria = new CaseReportSearchCriteria(null, false, Status.NEW, Status.DRAFT);
+		criteria.setPatientQuery("101-6");
+		List<CaseReport> reports = service.getCaseReports(criteria, "dateCreated", true, 0, 10);
+		assertEquals(1, reports.size());
+		assertEquals(1, reports.get(0).getId().intValue());
+	}
+	
+	/**
+	 * @see CaseReportService#getCaseReports(CaseReportSearchCriteria, String, Boolean, Integer,
+	 *      Integer)
+	 * @verifies return the case reports with a trigger with a matching name
+	 */
+	@Test
+	public void getCaseReports_shouldReturnTheCaseReportsWithATriggerWithAMatchingName() throws Exception {
+		CaseReportSearchCriteria criteria = new CaseReportSearchCriteria(null, false, Status.NEW, Status.DRAFT);
+		criteria.setTriggerName("follow");
+		List<CaseReport> reports = service.getCaseReports(criteria, "dateCreated", true, 0, 10);
+		assertEquals(1, reports.size());
+		assertEquals(4, reports.get(0).getId().intValue());
+	}
+	
+	/**
+	 * @see CaseReportService#getCaseReports(CaseReportSearchCriteria, String, Boolean, Integer,
+	 *      Integer)
+	 * @verifies return the case reports created in the specified date range
+	 */
+	@Test
+	public void getCaseReports_shouldReturnTheCaseReportsCreatedInTheSpecifiedDateRange() throws Exception {
+		CaseReportSearchCriteria criteria = new CaseReportSearchCriteria(null, false, Status.NEW, Status.DRAFT);
+		SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+		criteria.setFromDateCreated(formatter.parse("2016-03-31 00:00:00"));
+		criteria.setToDateCreated(formatter.parse("2016-03-31 23:59:59"));
+		List<CaseReport> reports = service.getCaseReports(criteria, "dateCreated", true, 0, 10);
+		assertEquals(1, reports.size());
+		assertEquals(4, reports.get(0).getId().intValue());
+	}
+	
+	/**
+	 * @see CaseReportService#getCaseReports(CaseReportSearchCriteria, String, Boolean, Integer,
+	 *      Integer)
+	 * @verifies return the case reports resolved in the specified date range
+	 */
+	@Test
+	public void getCaseReports_shouldReturnTheCaseReportsResolvedInTheSpecifiedDateRange() throws Exception {
+		CaseReportSearchCriteria criteria = new CaseReportSearchCriteria(null, false, Status.SUBMITTED);
+		SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+		criteria.setFromResolutionDate(formatter.parse("2016-04-01 00:12:00"));
+		criteria.setToResolutionDate(formatter.parse("2016-04-01 23:59:59"));
+		List<CaseReport> reports = service.getCaseReports(criteria, "resolutionDate", true, 0, 10);
+		assertEquals(1, reports.size());
+		assertEquals(8, reports.get(0).getId().intValue());
+	}
+	
+	/**
+	 * @see CaseReportService#getCaseReports(CaseReportSearchCriteria, String, Boolean, Integer,
+	 *      Integer)
+	 * @verifies return each matching case report once
+	 */
+	@Test
+	public void getCaseReports_shouldReturnEachMatchingCaseReportOnce() throws Exception {
+		CaseReportSearchCriteria criteria = new CaseReportSearchCriteria(null, false, Status.NEW, Status.DRAFT);
+		//Case report 1 has 2 triggers with names that match
+		criteria.setTriggerName("HIV");
+		List<CaseReport> reports = service.getCaseReports(criteria, "dateCreated", true, 0, 10);
+		assertEquals(2, reports.size());
+		assertEquals(1, reports.get(0).getId().intValue());
+		assertEquals(2, reports.get(1).getId().intValue());
+	}
+	
+	/**
+	 * @see CaseReportService#getCaseReportCount(CaseReportSearchCriteria)
+	 * @verifies return the number of case reports that match the search criteria
+	 */
+	@Test
+	public void getCaseReportCount_shouldReturnTheNumberOfCaseReportsThatMatchTheSearchCriteria() throws Exception {
+		CaseReportSearchCriteria criteria = new CaseReportSearchCriteria(null, false, Status.NEW, Status.DRAFT);
+		criteria.setTriggerName("HIV");
+		assertEquals(2, service.getCaseReportCount(criteria));
+		
+		criteria.setIncludeVoided(true);
+		assertEquals(4, service.getCaseReportCount(criteria));
+	}
+	
+	/**
+	 * @see CaseReportService#getCaseReportListItems(CaseReportSearchCriteria, String, Boolean,
+	 *      Integer, Integer)
+	 * @verifies return summaries of the case reports that match the search criteria
+	 */
+	@Test
+	public void getCaseReportListItems_shouldReturnSummariesOfTheCaseReportsThatMatchTheSearchCriteria()
+	    throws Exception {
+		CaseReportSearchCriteria criteria = new CaseReportSearchCriteria(null, false, Status.SUBMITTED);
+		List<CaseReportListItem> items = service.getCaseReportListItems(criteria, "resolutionDate", false, 0, 10);
+		List<CaseReport> reports = service.getCaseReports(criteria, "resolutionDate", false, 0, 10);
+		assertEquals(2, items.size());
+		assertEquals(reports.size(), items.size());
+		for (int i = 0; i < reports.size(); i++) {
+			assertEquals(reports.get(i).getUuid(), items.get(i).getUuid());
+		}
+		
+		items = service.getCaseReportListItems(criteria, "resolutionDate", false, 1, 10);
+		assertEquals(1, items.size());
+		assertEquals(5, items.get(0).getCaseReportId().intValue());
+	}
+	
+	/**
+	 * @see CaseReportService#getCaseReportListItems(CaseReportSearchCriteria, String, Boolean,
+	 *      Integer, Integer)
+	 * @verifies include the patient details and trigger names
+	 */
+	@Test
+	public void getCaseReportListItems_shouldIncludeThePatientDetailsAndTriggerNames() throws Exception {
+		CaseReportSearchCriteria criteria = new CaseReportSearchCriteria(patientService.getPatient(2), false,
+		        Status.NEW);
+		List<CaseReportListItem> items = service.getCaseReportListItems(criteria, null, null, null, null);
+		assertEquals(1, items.size());
+		CaseReportListItem item = items.get(0);
+		CaseReport caseReport = service.getCaseReport(1);
+		Patient patient = caseReport.getPatient();
+		assertEquals(caseReport.getUuid(), item.getUuid());
+		assertEquals(Status.NEW, item.getStatus());
+		assertEquals(patient.getUuid(), item.getPatientUuid());
+		assertEquals(patient.getPatientIdentifier().getIdentifier(), item.getIdentifier());
+		assertEquals(patient.getPersonName().getFullName(), item.getPersonName());
+		assertEquals(patient.getGender(), item.getGender());
+		assertEquals(patient.getAge(), item.getAge());
+		assertEquals(Arrays.asList("HIV Switched To Second Line", "New HIV Case"), item.getTriggers());
+	}
+	
+	/**
+	 * @see CaseReportService#getCaseReportListItems(CaseReportSearchCriteria, String, Boolean,
+	 *      Integer, Integer)
+	 * @verifies include only the submitted triggers of a submitted case report
+	 */
+	@Test
+	public void getCaseReportListItems_shouldIncludeOnlyTheSubmittedTriggersOfASubmittedCaseReport() throws Exception {
+		executeDataSet(XML_OTHER_DATASET);
+		CaseReport cr = service.getCaseReport(1);
+		CaseReportForm form = new CaseReportForm(cr);
+		DatedUuidAndValue removedTrigger = null;
+		for (DatedUuidAndValue trigger : form.getTriggers()) {
+			if ("New HIV Case".equals(trigger.getValue())) {
+				removedTrigger = trigger;
+			}
+		}
+		form.getTriggers().remove(removedTrigger);
+		cr.setReportForm(new ObjectMapper().writeValueAsString(form));
+		service.submitCaseReport(cr);
+		
+		CaseReportSearchCriteria criteria = new CaseReportSearchCriteria(cr.getPatient(), false, Status.SUBMITTED);
+		CaseReportListItem item = null;
+		for (CaseReportListItem i : service.getCaseReportListItems(criteria, null, null, null, null)) {
+			if (cr.getId().equals(i.getCaseReportId())) {
+				item = i;
+			}
+		}
+		assertEquals(Arrays.asList("HIV Switched To Second Line"), item.getTriggers());
+	}
+	
+	/**
+	 * @see CaseReportService#getCaseReportListItems(CaseReportSearchCriteria, String, Boolean,
+	 *      Integer, Integer)
+	 * @verifies include the triggers in the report form of a case report submitted before the
+	 *           triggers were flagged
+	 */
+	@Test
+	public void getCaseReportListItems_shouldIncludeTheTriggersInTheReportFormOfACaseReportSubmittedBeforeTheTriggersWereFlagged()
+	    throws Exception {
+		executeDataSet(XML_OTHER_DATASET);
+		CaseReport cr = service.getCaseReport(200);
+		assertEquals(3, cr.getReportTriggers().size());
+		CaseReportSearchCriteria criteria = new CaseReportSearchCriteria(cr.getPatient(), false, Status.SUBMITTED);
+		CaseReportListItem item = null;
+		for (CaseReportListItem i : service.getCaseReportListItems(criteria, null, null, null, null)) {
+			if (cr.getId().equals(i.getCaseReportId())) {
+				item = i;
+			}
+		}
+		assertEquals(2, item.getTriggers().size());
+		assertTrue(item.getTriggers().contains("Some Unique Trigger"));
+		assertTrue(item.getTriggers().contains("Some weird trigger"));
+	}
+	
 	/**
 	 * @see CaseReportService#saveCaseReport(CaseReport)
 	 * @verifies return the saved case report
@@ -228,6 +544,130 @@ public class CaseReportServiceTest extends BaseModuleContextSensitiveTest {
 		assertEquals(++originalCount, service.getCaseReports().size());
 	}
 	
+	/**
+	 * @see CaseReportService#saveCaseReport(CaseReport)
+	 * @verifies increment the version of an updated case report
+	 */
+	@Test
+	public void saveCaseReport_shouldIncrementTheVersionOfAnUpdatedCaseReport() throws Exception {
+		CaseReport cr = service.getCaseReport(1);
+		assertEquals(0, cr.getVersion().intValue());
+		cr.setReportForm("{}");
+		
+		service.saveCaseReport(cr);
+		Context.flushSession();
+		
+		assertEquals(1, cr.getVersion().intValue());
+	}
+	
+	/**
+	 * @see CaseReportService#saveCaseReport(CaseReport)
+	 * @verifies fail for a case report that was updated by another transaction
+	 */
+	@Test
+	public void saveCaseReport_shouldFailForACaseReportThatWasUpdatedByAnotherTransaction() throws Exception {
+		CaseReport cr = service.getCaseReport(1);
+		executeSQL("update casereport_case_report set version = 1 where case_report_id = 1", false);
+		cr.setReportForm("{}");
+		service.saveCaseReport(cr);
+		expectedException.expect(StaleObjectStateException.class);
+		
+		Context.flushSession();
+	}
+	
+	/**
+	 * @see CaseReportService#saveCaseReport(CaseReport)
+	 * @verifies increment the version of a case report when only its report form is changed
+	 */
+	@Test
+	public void saveCaseReport_shouldIncrementTheVersionOfACaseReportWhenOnlyItsReportFormIsChanged()
+	    throws Exception {
+		CaseReport cr = service.getCaseReport(2);
+		assertNotNull(cr.getReportForm());
+		assertEquals(0, cr.getVersion().intValue());
+		cr.setReportForm("{\"fullName\":\"Horatio Test Hornblower\"}");
+		
+		service.saveCaseReport(cr);
+		Context.flushSession();
+		
+		assertEquals(1, cr.getVersion().intValue());
+	}
+	
+	/**
+	 * @see CaseReportService#saveCaseReport(CaseReport)
+	 * @verifies fail for a draft whose report form was updated by another transaction
+	 */
+	@Test
+	public void saveCaseReport_shouldFailForADraftWhoseReportFormWasUpdatedByAnotherTransaction() throws Exception {
+		CaseReport cr = service.getCaseReport(2);
+		assertEquals(Status.DRAFT, cr.getStatus());
+		assertNotNull(cr.getReportForm());
+		//Only the form is updated by the other transaction, the case report's version is unchanged
+		executeSQL("update casereport_case_report_form set version = 1 where case_report_id = 2", false);
+		cr.setReportForm("{\"fullName\":\"Horatio Test Hornblower\"}");
+		service.saveCaseReport(cr);
+		expectedException.expect(StaleObjectStateException.class);
+		
+		Context.flushSession();
+	}
+	
+	/**
+	 * @see CaseReportService#saveCaseReport(CaseReport)
+	 * @verifies save the report form in a separate table
+	 */
+	@Test
+	public void saveCaseReport_shouldSaveTheReportFormInASeparateTable() throws Exception {
+		final String json = "{\"fullName\":\"Collet Test Chebaskwony\"}";
+		CaseReport cr = new CaseReport(patientService.getPatient(7), "HIV Switched To Second Line");
+		cr.setReportForm(json);
+		service.saveCaseReport(cr);
+		Context.flushSession();
+		
+		assertTrue(ReportFormCodecs.isEncoded(getStoredReportForm(cr.getId())));
+		Context.clearSession();
+		assertEquals(json, service.getCaseReport(cr.getId()).getReportForm());
+	}
+	
+	/**
+	 * @see CaseReportService#saveCaseReports(List)
+	 * @verifies save the specified case reports
+	 */
+	@Test
+	public void saveCaseReports_shouldSaveTheSpecifiedCaseReports() throws Exception {
+		int originalCount = service.getCaseReports().size();
+		CaseReport cr1 = new CaseReport(patientService.getPatient(7), "HIV Switched To Second Line");
+		CaseReport cr2 = new CaseReport(patientService.getPatient(8), "HIV Switched To Second Line");
+		service.saveCaseReports(Arrays.asList(cr1, cr2));
+		assertNotNull(cr1.getId());
+		assertNotNull(cr2.getId());
+		assertEquals(originalCount + 2, service.getCaseReports().size());
+	}
+	
+	/**
+	 * @see CaseReportService#saveCaseReports(List,TriggerCheckpoint)
+	 * @verifies save the case reports and the checkpoint
+	 */
+	@Test
+	public void saveCaseReports_shouldSaveTheCaseReportsAndTheCheckpoint() throws Exception {
+		int originalCount = service.getCaseReports().size();
+		final String trigger = "HIV Switched To Second Line";
+		TriggerCheckpoint checkpoint = new TriggerCheckpoint(trigger);
+		checkpoint.startRun(new Date());
+		checkpoint.markProcessed(8);
+		CaseReport cr1 = new CaseReport(patientService.getPatient(7), trigger);
+		CaseReport cr2 = new CaseReport(patientService.getPatient(8), trigger);
+		
+		service.saveCaseReports(Arrays.asList(cr1, cr2), checkpoint);
+		
+		assertNotNull(cr1.getId());
+		assertNotNull(cr2.getId());
+		assertNotNull(checkpoint.getId());
+		assertEquals(originalCount + 2, service.getCaseReports().size());
+		Context.flushSession();
+		Context.clearSession();
+		assertEquals(8, service.getTriggerCheckpoint(trigger).getLastPatientId().intValue());
+	}
+	
 	/**
 	 * @see CaseReportService#submitCaseReport(CaseReport)
 	 * @verifies fail if the case report is null
@@ -310,6 +750,31 @@ public class CaseReportServiceTest extends BaseModuleContextSensitiveTest {
 		assertEquals(expectedUuid, listener.getReportUuid());
 	}
 	
+	/**
+	 * @see CaseReportService#submitCaseReport(CaseReport)
+	 * @verifies flag only the triggers in the report form as submitted
+	 */
+	@Test
+	public void submitCaseReport_shouldFlagOnlyTheTriggersInTheReportFormAsSubmitted() throws Exception {
+		executeDataSet(XML_OTHER_DATASET);
+		CaseReport cr = service.getCaseReport(1);
+		CaseReportForm form = new CaseReportForm(cr);
+		DatedUuidAndValue removedTrigger = null;
+		for (DatedUuidAndValue trigger : form.getTriggers()) {
+			if ("New HIV Case".equals(trigger.getValue())) {
+				removedTrigger = trigger;
+			}
+		}
+		form.getTriggers().remove(removedTrigger);
+		cr.setReportForm(new ObjectMapper().writeValueAsString(form));
+		
+		service.submitCaseReport(cr);
+		assertEquals(2, cr.getReportTriggers().size());
+		for (CaseReportTrigger crt : cr.getReportTriggers()) {
+			assertEquals(!"New HIV Case".equals(crt.getName()), crt.getSubmitted());
+		}
+	}
+	
 	/**
 	 * @see CaseReportService#submitCaseReport(CaseReport)
 	 * @verifies fail if the case report is voided
@@ -564,4 +1029,392 @@ public class CaseReportServiceTest extends BaseModuleContextSensitiveTest {
 	public void getTriggers_shouldReturnAllTheTriggers() throws Exception {
 		assertEquals(4, service.getTriggers().size());
 	}
+	
+	/**
+	 * @see CaseReportService#getOutboxEntry(Integer)
+	 * @verifies return the outbox entry that matches the specified id
+	 */
+	@Test
+	public void getOutboxEntry_shouldReturnTheOutboxEntryThatMatchesTheSpecifiedId() throws Exception {
+		OutboxEntry entry = service.getOutboxEntry(1);
+		assertEquals("0a8ddc1d-7c5f-4e2e-9e0e-2f4b3c6a1b01", entry.getUuid());
+	}
+	
+	/**
+	 * @see CaseReportService#getOutboxEntryByUuid(String)
+	 * @verifies return the outbox entry that matches the specified uuid
+	 */
+	@Test
+	public void getOutboxEntryByUuid_shouldReturnTheOutboxEntryThatMatchesTheSpecifiedUuid() throws Exception {
+		OutboxEntry entry = service.getOutboxEntryByUuid("0a8ddc1d-7c5f-4e2e-9e0e-2f4b3c6a1b03");
+		assertEquals(3, entry.getId().intValue());
+	}
+	
+	/**
+	 * @see CaseReportService#getOutboxEntries(OutboxEntry.Status...)
+	 * @verifies return the outbox entries with the specified statuses
+	 */
+	@Test
+	public void getOutboxEntries_shouldReturnTheOutboxEntriesWithTheSpecifiedStatuses() throws Exception {
+		assertEquals(4, service.getOutboxEntries().size());
+		List<OutboxEntry> entries = service.getOutboxEntries(OutboxEntry.Status.DEAD_LETTER);
+		assertEquals(1, entries.size());
+		assertEquals(3, entries.get(0).getId().intValue());
+	}
+	
+	/**
+	 * @see CaseReportService#getDueOutboxEntries(Date, Integer, Integer)
+	 * @verifies return the pending outbox entries that are due
+	 */
+	@Test
+	public void getDueOutboxEntries_shouldReturnThePendingOutboxEntriesThatAreDue() throws Exception {
+		List<OutboxEntry> entries = service.getDueOutboxEntries(new Date(), null, null);
+		assertEquals(1, entries.size());
+		assertEquals(1, entries.get(0).getId().intValue());
+	}
+	
+	/**
+	 * @see CaseReportService#getDueOutboxEntries(Date, Integer, Integer)
+	 * @verifies only return the entries with ids greater than the specified id
+	 */
+	@Test
+	public void getDueOutboxEntries_shouldOnlyReturnTheEntriesWithIdsGreaterThanTheSpecifiedId() throws Exception {
+		OutboxEntry newEntry = service.saveOutboxEntry(new OutboxEntry(service.getCaseReport(8)));
+		List<OutboxEntry> entries = service.getDueOutboxEntries(new Date(), null, null);
+		assertEquals(2, entries.size());
+		assertEquals(1, entries.get(0).getId().intValue());
+		assertEquals(newEntry, entries.get(1));
+		
+		entries = service.getDueOutboxEntries(new Date(), 1, null);
+		assertEquals(1, entries.size());
+		assertEquals(newEntry, entries.get(0));
+		
+		assertTrue(service.getDueOutboxEntries(new Date(), newEntry.getId(), null).isEmpty());
+	}
+	
+	/**
+	 * @see CaseReportService#saveOutboxEntry(OutboxEntry)
+	 * @verifies save the specified outbox entry
+	 */
+	@Test
+	public void saveOutboxEntry_shouldSaveTheSpecifiedOutboxEntry() throws Exception {
+		int originalCount = service.getOutboxEntries().size();
+		OutboxEntry entry = new OutboxEntry(service.getCaseReport(8));
+		service.saveOutboxEntry(entry);
+		assertNotNull(entry.getId());
+		assertEquals(++originalCount, service.getOutboxEntries().size());
+		assertTrue(entry.isPending());
+	}
+	
+	/**
+	 * @see CaseReportService#getTriggerCheckpoint(String)
+	 * @verifies return the checkpoint for the specified trigger
+	 */
+	@Test
+	public void getTriggerCheckpoint_shouldReturnTheCheckpointForTheSpecifiedTrigger() throws Exception {
+		TriggerCheckpoint checkpoint = service.getTriggerCheckpoint("Test Trigger");
+		assertEquals(1, checkpoint.getId().intValue());
+		assertNotNull(checkpoint.getHighWaterMark());
+		assertFalse(checkpoint.isRunInProgress());
+	}
+	
+	/**
+	 * @see CaseReportService#getTriggerCheckpoint(String)
+	 * @verifies return null if the trigger has no checkpoint
+	 */
+	@Test
+	public void getTriggerCheckpoint_shouldReturnNullIfTheTriggerHasNoCheckpoint() throws Exception {
+		assertNull(service.getTriggerCheckpoint("New HIV Case"));
+	}
+	
+	/**
+	 * @see CaseReportService#saveTriggerCheckpoint(TriggerCheckpoint)
+	 * @verifies save the specified checkpoint
+	 */
+	@Test
+	public void saveTriggerCheckpoint_shouldSaveTheSpecifiedCheckpoint() throws Exception {
+		TriggerCheckpoint checkpoint = new TriggerCheckpoint("New HIV Case");
+		checkpoint.startRun(new Date());
+		
+		service.saveTriggerCheckpoint(checkpoint);
+		
+		assertNotNull(checkpoint.getId());
+		assertEquals(checkpoint.getRunId(), service.getTriggerCheckpoint("New HIV Case").getRunId());
+	}
+	
+	/**
+	 * @see CaseReportService#getMostRecentVisit(Patient)
+	 * @verifies return the most recent visit for the patient
+	 */
+	@Test
+	public void getMostRecentVisit_shouldReturnTheMostRecentVisitForThePatient() throws Exception {
+		executeDataSet(XML_OTHER_DATASET);
+		Patient patient = Context.getPatientService().getPatient(2);
+		
+		Visit visit = service.getMostRecentVisit(patient);
+		
+		assertEquals(101, visit.getId().intValue());
+	}
+	
+	/**
+	 * @see CaseReportService#getMostRecentVisit(Patient)
+	 * @verifies return null if the patient has no visit
+	 */
+	@Test
+	public void getMostRecentVisit_shouldReturnNullIfThePatientHasNoVisit() throws Exception {
+		Patient patient = Context.getPatientService().getPatient(2);
+		for (Visit visit : Context.getVisitService().getVisitsByPatient(patient, true, false)) {
+			Context.getVisitService().voidVisit(visit, "testing");
+		}
+		
+		assertNull(service.getMostRecentVisit(patient));
+	}
+	
+	/**
+	 * @see CaseReportService#getMostRecentVisits(java.util.Collection)
+	 * @verifies return the most recent visit for each patient
+	 */
+	@Test
+	public void getMostRecentVisits_shouldReturnTheMostRecentVisitForEachPatient() throws Exception {
+		executeDataSet(XML_OTHER_DATASET);
+		PatientService ps = Context.getPatientService();
+		
+		Map<Integer, Visit> patientIdVisitMap = service.getMostRecentVisits(Arrays.asList(2, 7));
+		
+		assertEquals("3e5d5d48-6b78-11e0-93c3-18a905e044dc", patientIdVisitMap.get(2).getUuid());
+		assertEquals(CaseReportUtil.getLastVisit(ps.getPatient(7)), patientIdVisitMap.get(7));
+	}
+	
+	/**
+	 * @see CaseReportService#getMostRecentVisits(java.util.Collection)
+	 * @verifies return an empty map if no patient id is specified
+	 */
+	@Test
+	public void getMostRecentVisits_shouldReturnAnEmptyMapIfNoPatientIdIsSpecified() throws Exception {
+		assertTrue(service.getMostRecentVisits(Collections.<Integer> emptyList()).isEmpty());
+	}
+	
+	/**
+	 * @see CaseReportService#getActiveDrugOrders(java.util.Collection, java.util.Collection, Date)
+	 * @verifies return the active drug orders for each patient
+	 */
+	@Test
+	public void getActiveDrugOrders_shouldReturnTheActiveDrugOrdersForEachPatient() throws Exception {
+		executeDataSet(XML_OTHER_DATASET);
+		PatientService ps = Context.getPatientService();
+		OrderService os = Context.getOrderService();
+		OrderType drugOrderType = os.getOrderTypeByUuid(OrderType.DRUG_ORDER_TYPE_UUID);
+		
+		Map<Integer, List<DrugOrder>> patientIdDrugOrdersMap = service.getActiveDrugOrders(Arrays.asList(2, 7), null,
+		    null);
+		
+		for (Integer patientId : Arrays.asList(2, 7)) {
+			List<Order> expected = os.getActiveOrders(ps.getPatient(patientId), drugOrderType, null, null);
+			assertFalse(expected.isEmpty());
+			assertEquals(new HashSet<>(expected), new HashSet<Order>(patientIdDrugOrdersMap.get(patientId)));
+		}
+	}
+	
+	/**
+	 * @see CaseReportService#getActiveDrugOrders(java.util.Collection, java.util.Collection, Date)
+	 * @verifies return an empty map if no patient id is specified
+	 */
+	@Test
+	public void getActiveDrugOrders_shouldReturnAnEmptyMapIfNoPatientIdIsSpecified() throws Exception {
+		assertTrue(service.getActiveDrugOrders(Collections.<Integer> emptyList(), null, null).isEmpty());
+	}
+	
+	/**
+	 * @see CaseReportService#getActiveDrugOrders(java.util.Collection, java.util.Collection, Date)
+	 * @verifies only return the drug orders for the specified concepts
+	 */
+	@Test
+	public void getActiveDrugOrders_shouldOnlyReturnTheDrugOrdersForTheSpecifiedConcepts() throws Exception {
+		executeDataSet(XML_OTHER_DATASET);
+		
+		Map<Integer, List<DrugOrder>> patientIdDrugOrdersMap = service.getActiveDrugOrders(Arrays.asList(2, 7),
+		    Arrays.asList(1007, 1011), null);
+		
+		assertEquals(2, patientIdDrugOrdersMap.size());
+		assertEquals(1, patientIdDrugOrdersMap.get(2).size());
+		assertEquals(10001, patientIdDrugOrdersMap.get(2).get(0).getId().intValue());
+		assertEquals(1, patientIdDrugOrdersMap.get(7).size());
+		assertEquals(10006, patientIdDrugOrdersMap.get(7).get(0).getId().intValue());
+	}
+	
+	/**
+	 * @see CaseReportService#getActiveDrugOrders(java.util.Collection, java.util.Collection, Date)
+	 * @verifies return an empty map if the specified concept ids are empty
+	 */
+	@Test
+	public void getActiveDrugOrders_shouldReturnAnEmptyMapIfTheSpecifiedConceptIdsAreEmpty() throws Exception {
+		executeDataSet(XML_OTHER_DATASET);
+		assertTrue(service.getActiveDrugOrders(Arrays.asList(2, 7), Collections.<Integer> emptyList(), null).isEmpty());
+	}
+	
+	/**
+	 * @see CaseReportService#getMostRecentObs(java.util.Collection, Map)
+	 * @verifies return the most recent obs for each patient and concept
+	 */
+	@Test
+	public void getMostRecentObs_shouldReturnTheMostRecentObsForEachPatientAndConcept() throws Exception {
+		executeDataSet(XML_OTHER_DATASET);
+		Map<Integer, Integer> conceptIdLimits = new HashMap<>();
+		conceptIdLimits.put(1000, 3);
+		
+		List<Obs> obs = service.getMostRecentObs(Arrays.asList(2, 7), conceptIdLimits);
+		
+		List<Integer> patient2ObsIds = new ArrayList<>();
+		List<Integer> patient7ObsIds = new ArrayList<>();
+		for (Obs o : obs) {
+			assertEquals(1000, o.getConcept().getConceptId().intValue());
+			assertFalse(o.isVoided());
+			if (o.getPersonId() == 2) {
+				patient2ObsIds.add(o.getObsId());
+			} else if (o.getPersonId() == 7) {
+				patient7ObsIds.add(o.getObsId());
+			}
+		}
+		assertEquals(Arrays.asList(8003, 8001, 8000), patient2ObsIds);
+		assertEquals(Arrays.asList(8006), patient7ObsIds);
+	}
+	
+	/**
+	 * @see CaseReportService#getMostRecentObs(java.util.Collection, Map)
+	 * @verifies not return more obs than the limit for each patient and concept
+	 */
+	@Test
+	public void getMostRecentObs_shouldNotReturnMoreObsThanTheLimitForEachPatientAndConcept() throws Exception {
+		executeDataSet(XML_OTHER_DATASET);
+		Map<Integer, Integer> conceptIdLimits = new HashMap<>();
+		conceptIdLimits.put(1000, 1);
+		
+		List<Obs> obs = service.getMostRecentObs(Arrays.asList(2), conceptIdLimits);
+		
+		assertEquals(1, obs.size());
+		assertEquals(8003, obs.get(0).getObsId().intValue());
+	}
+	
+	/**
+	 * @see CaseReportService#getMostRecentObs(java.util.Collection, Map)
+	 * @verifies return an empty list if no patient id is specified
+	 */
+	@Test
+	public void getMostRecentObs_shouldReturnAnEmptyListIfNoPatientIdIsSpecified() throws Exception {
+		Map<Integer, Integer> conceptIdLimits = new HashMap<>();
+		conceptIdLimits.put(1000, 3);
+		assertTrue(service.getMostRecentObs(Collections.<Integer> emptyList(), conceptIdLimits).isEmpty());
+	}
+	
+	/**
+	 * @see CaseReportService#getCohortMemberIdCursor(SqlCohortDefinition, Map, int, int)
+	 * @verifies return the ids of the matched patients in ascending order in chunks
+	 */
+	@Test
+	public void getCohortMemberIdCursor_shouldReturnTheIdsOfTheMatchedPatientsInAscendingOrderInChunks()
+	    throws Exception {
+		SqlCohortDefinition definition = new SqlCohortDefinition(
+		        "select patient_id from patient where patient_id in (8, 2, 7, 6)");
+		
+		PatientIdCursor cursor = service.getCohortMemberIdCursor(definition, new HashMap<String, Object>(), 10, 3);
+		try {
+			assertEquals(Arrays.asList(2, 6, 7), cursor.nextChunk());
+			assertEquals(Arrays.asList(8), cursor.nextChunk());
+			assertTrue(cursor.nextChunk().isEmpty());
+		}
+		finally {
+			cursor.close();
+		}
+	}
+	
+	/**
+	 * @see CaseReportService#getCohortMemberIdCursor(SqlCohortDefinition, Map, int, int)
+	 * @verifies not return duplicate patient ids
+	 */
+	@Test
+	public void getCohortMemberIdCursor_shouldNotReturnDuplicatePatientIds() throws Exception {
+		SqlCohortDefinition definition = new SqlCohortDefinition("select patient_id from patient where patient_id = 7 "
+		        + "union all select patient_id from patient where patient_id in (7, 8)");
+		
+		PatientIdCursor cursor = service.getCohortMemberIdCursor(definition, new HashMap<String, Object>(), 10, 10);
+		try {
+			assertEquals(Arrays.asList(7, 8), cursor.nextChunk());
+		}
+		finally {
+			cursor.close();
+		}
+	}
+	
+	/**
+	 * @see CaseReportService#getCohortMemberIdCursor(SqlCohortDefinition, Map, int, int)
+	 * @verifies fail if a parameter value is missing
+	 */
+	@Test
+	public void getCohortMemberIdCursor_shouldFailIfAParameterValueIsMissing() throws Exception {
+		SqlCohortDefinition definition = new SqlCohortDefinition("select patient_id from patient where date_changed > :"
+		        + CaseReportConstants.LAST_EXECUTION_TIME);
+		expectedException.expect(APIException.class);
+		expectedException.expectMessage(equalTo("No value was provided for the parameter: "
+		        + CaseReportConstants.LAST_EXECUTION_TIME));
+		
+		service.getCohortMemberIdCursor(definition, new HashMap<String, Object>(), 10, 10);
+	}
+	
+	private String getStoredReportForm(Integer caseReportId) {
+		List<List<Object>> rows = Context.getAdministrationService().executeSQL(
+		    "select report_form from casereport_case_report_form where case_report_id = " + caseReportId, true);
+		return (String) rows.get(0).get(0);
+	}
+	
+	/**
+	 * @see CaseReportService#encodeLegacyReportForms(int)
+	 * @verifies encode the plain json report forms
+	 */
+	@Test
+	public void encodeLegacyReportForms_shouldEncodeThePlainJsonReportForms() throws Exception {
+		final String json = "{\"fullName\":\"Horatio Hornblower\"}";
+		assertEquals(json, getStoredReportForm(2));
+		
+		assertEquals(1, service.encodeLegacyReportForms(10));
+		String stored = getStoredReportForm(2);
+		assertTrue(stored.startsWith(ReportFormCodecs.HEADER_PREFIX + GzipReportFormCodec.ID
+		        + ReportFormCodecs.HEADER_SEPARATOR));
+		Context.clearSession();
+		assertEquals(json, service.getCaseReport(2).getReportForm());
+	}
+	
+	/**
+	 * @see CaseReportService#encodeLegacyReportForms(int)
+	 * @verifies not rewrite more than the batch size
+	 */
+	@Test
+	public void encodeLegacyReportForms_shouldNotRewriteMoreThanTheBatchSize() throws Exception {
+		executeDataSet(XML_OTHER_DATASET);
+		assertEquals(1, service.encodeLegacyReportForms(1));
+		assertTrue(ReportFormCodecs.isEncoded(getStoredReportForm(2)));
+		assertFalse(ReportFormCodecs.isEncoded(getStoredReportForm(200)));
+		assertFalse(ReportFormCodecs.isEncoded(getStoredReportForm(201)));
+		
+		assertEquals(2, service.encodeLegacyReportForms(10));
+		assertTrue(ReportFormCodecs.isEncoded(getStoredReportForm(200)));
+		assertTrue(ReportFormCodecs.isEncoded(getStoredReportForm(201)));
+		assertEquals(0, service.encodeLegacyReportForms(10));
+	}
+	
+	/**
+	 * @see CaseReportService#encodeLegacyReportForms(int)
+	 * @verifies do nothing if there is no write codec
+	 */
+	@Test
+	public void encodeLegacyReportForms_shouldDoNothingIfThereIsNoWriteCodec() throws Exception {
+		ReportFormCodec writeCodec = ReportFormCodecs.getWriteCodec();
+		ReportFormCodecs.setWriteCodec(null);
+		try {
+			assertEquals(0, service.encodeLegacyReportForms(10));
+			assertFalse(ReportFormCodecs.isEncoded(getStoredReportForm(2)));
+		}
+		finally {
+			ReportFormCodecs.setWriteCodec(writeCodec);
+		}
+	}
 }
@@ -15,8 +15,6 @@ import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.openmrs.api.AdministrationService;
-import org.openmrs.api.context.Context;
 import org.springframework.ws.client.WebServiceClientException;
 import org.springframework.ws.client.WebServiceIOException;
 import org.springframework.ws.client.support.interceptor.ClientInterceptorAdapter;
@@ -42,9 +40,9 @@ public class AuthenticatingInterceptor extends ClientInterceptorAdapter {
 		
 		TransportContext context = TransportContextHolder.getTransportContext();
 		HttpUrlConnection connection = (HttpUrlConnection) context.getConnection();
-		AdministrationService as = Context.getAdministrationService();
-		String username = as.getGlobalProperty(DocumentConstants.GP_OPENHIM_CLIENT_ID);
-		String password = as.getGlobalProperty(DocumentConstants.GP_OPENHIM_CLIENT_PASSWORD);
+		DocumentConfig config = DocumentConfig.get();
+		String username = config.getOpenHIMClientId();
+		String password = config.getOpenHIMClientPassword();
 		
 		if (StringUtils.isNotBlank(username) && StringUtils.isNotBlank(password)) {
 			try {
@@ -218,7 +218,7 @@ public final class ClinicalDocumentGenerator {
 		patient.setAdministrativeGenderCode(gender);
 		if (form.getBirthdate() != null) {
 			Calendar calendar = Calendar.getInstance();
-			calendar.setTime(CaseReportConstants.DATE_FORMATTER.parse(form.getBirthdate()));
+			calendar.setTime(form.getParsedBirthdate());
 			patient.setBirthTime(calendar);
 		}
 		PatientRole patientRole = new PatientRole();
@@ -323,10 +323,9 @@ public final class ClinicalDocumentGenerator {
 		}
 		if (form.getLastVisitDate() != null) {
 			CD<String> question = createCielCD(CaseReportConstants.CIEL_CODE_DATE_OF_LAST_VISIT);
-			UuidAndValue uValue = form.getLastVisitDate();
-			Date visitDate = CaseReportConstants.DATE_FORMATTER.parse(uValue.getValue().toString());
+			Date visitDate = form.getParsedLastVisitDate();
 			TS visitDateTS = DocumentUtil.createTS(visitDate);
-			entries.add(createObservationEntry(question, visitDateTS, uValue.getValue().toString()));
+			entries.add(createObservationEntry(question, visitDateTS, visitDate));
 		}
 		if (form.getMostRecentCd4Count() != null) {
 			Entry e = createEntryFromCielQuestionCodeAndObsWithNumericValue(CaseReportConstants.CIEL_CODE_CD4_COUNT,
@@ -365,7 +364,7 @@ public final class ClinicalDocumentGenerator {
 		//TODO REAL should be the correct datatype however the shr's cdahandler doesn't support it
 		//but the only numerical concepts are cd4 count and viral load which are always integers anyway
 		return createObservationEntry(question, new INT(Double.valueOf(numericObsValue.getValue().toString()).intValue()),
-		    numericObsValue.getDate());
+		    numericObsValue.toDate());
 	}
 	
 	/**
@@ -387,16 +386,15 @@ public final class ClinicalDocumentGenerator {
 			throw new APIException("Failed to find Obs with uuid:" + codedObsValue.getUuid());
 		}
 		
-		DatedUuidAndValue dValue;
+		Date obsDatetime;
 		if (DatedUuidAndValue.class.isAssignableFrom(codedObsValue.getClass())) {
-			dValue = (DatedUuidAndValue) codedObsValue;
+			obsDatetime = ((DatedUuidAndValue) codedObsValue).toDate();
 		} else {
-			dValue = new DatedUuidAndValue(codedObsValue);
-			dValue.setDate(CaseReportConstants.DATE_FORMATTER.format(obs.getObsDatetime()));
+			obsDatetime = obs.getObsDatetime();
 		}
-		String name = dValue.getValue().toString();
+		String name = codedObsValue.getValue().toString();
 		
-		return createEntryFromCielQuestionCodeAndCodedValue(cielQuestionCode, obs.getValueCoded(), dValue.getDate(), name);
+		return createEntryFromCielQuestionCodeAndCodedValue(cielQuestionCode, obs.getValueCoded(), obsDatetime, name);
 	}
 	
 	/**
@@ -404,14 +402,13 @@ public final class ClinicalDocumentGenerator {
 	 * 
 	 * @param cielQuestionCode the question code from the CIEL dictionary
 	 * @param value the observation's coded value
-	 * @param obsDatetime the date of occurrence of the observation as a string
+	 * @param obsDatetime the date of occurrence of the observation
 	 * @param originalTextValue the serialized text value
 	 * @return an Entry object
-	 * @throws ParseException
-	 * @see #createObservationEntry(CD, ANY, String)
+	 * @see #createObservationEntry(CD, ANY, Date)
 	 */
-	private Entry createEntryFromCielQuestionCodeAndCodedValue(String cielQuestionCode, Concept value, String obsDatetime,
-	                                                           String originalTextValue) throws ParseException {
+	private Entry createEntryFromCielQuestionCodeAndCodedValue(String cielQuestionCode, Concept value, Date obsDatetime,
+	                                                           String originalTextValue) {
 		
 		CD<String> question = createCielCD(cielQuestionCode);
 		CD<String> val = createCD(value, originalTextValue);
@@ -423,17 +420,12 @@ public final class ClinicalDocumentGenerator {
 	 * 
 	 * @param obsQuestion the CD instance of the observation's question
 	 * @param obsValue the ANY instance of the observation's value
-	 * @param obsDatetimeStr the date of occurrence of the observation as a string
+	 * @param obsDate the date of occurrence of the observation, can be null
 	 * @return an Entry Object
 	 * @see #createObservation(CD, ANY, Date, ActStatus)
-	 * @throws ParseException
 	 */
-	private Entry createObservationEntry(CD<String> obsQuestion, ANY obsValue, String obsDatetimeStr) throws ParseException {
+	private Entry createObservationEntry(CD<String> obsQuestion, ANY obsValue, Date obsDate) {
 		
-		Date obsDate = null;
-		if (StringUtils.isNotBlank(obsDatetimeStr)) {
-			obsDate = CaseReportConstants.DATE_FORMATTER.parse(obsDatetimeStr);
-		}
 		Observation observation = createObservation(obsQuestion, obsValue, obsDate, ActStatus.Completed);
 		
 		return new Entry(x_ActRelationshipEntry.DRIV, null, observation);
@@ -457,7 +449,7 @@ public final class ClinicalDocumentGenerator {
 			        + form.getMostRecentArvStopReason().getValue());
 		}
 		if (form.getLastVisitDate() != null) {
-			String dateStr = DocumentUtil.getDisplayDate(form.getLastVisitDate().getValue().toString());
+			String dateStr = DocumentUtil.getDisplayDate(form.getParsedLastVisitDate());
 			rootListNode.addElement(ELEMENT_ITEM, DocumentConstants.LABEL_LAST_VISIT_DATE + dateStr);
 		}
 		if (form.getMostRecentCd4Count() != null) {
@@ -485,7 +477,7 @@ public final class ClinicalDocumentGenerator {
 	 */
 	private void addDatedValueToListNode(StructDocElementNode listNode, DatedUuidAndValue datedValue, String label)
 	    throws ParseException {
-		String dateStr = DocumentUtil.getDisplayDate(datedValue.getDate());
+		String dateStr = DocumentUtil.getDisplayDate(datedValue.toDate());
 		listNode.addElement(ELEMENT_ITEM, label + datedValue.getValue() + " (" + dateStr + ")");
 	}
 	
@@ -509,20 +501,20 @@ public final class ClinicalDocumentGenerator {
 		
 		//Include death information if the patient is dead
 		if (form.getDead()) {
-			String deathDateStr = null;
+			Date deathDate = null;
 			List<UuidAndValue> deathInfoList = new ArrayList<>();
 			deathInfoList.add(new UuidAndValue(null, DocumentConstants.TEXT_CODE_HEALTH_STATUS + ": "
 			        + DocumentConstants.TEXT_DEAD));
 			
 			if (form.getDeathdate() != null) {
-				deathDateStr = form.getDeathdate();
+				deathDate = form.getParsedDeathdate();
 			} else {
 				//TODO since the code below really is estimating, it would be nice to send an Obs that says so
 				//CIEL(1544 - Date of death estimated) as the question concept with a value of true
 				//If one of the triggers in the report is Patient Died, default to trigger creation date
 				for (DatedUuidAndValue datedUuidAndValue : form.getTriggers()) {
 					if (CaseReportConstants.TRIGGER_PATIENT_DIED.equals(datedUuidAndValue.getValue().toString())) {
-						deathDateStr = datedUuidAndValue.getDate();
+						deathDate = datedUuidAndValue.toDate();
 						break;
 					}
 				}
@@ -530,14 +522,14 @@ public final class ClinicalDocumentGenerator {
 				//created which is the CaseReport queue item creation date
 			}
 			
-			if (deathDateStr != null) {
-				String date = DocumentUtil.getDisplayDate(deathDateStr);
+			if (deathDate != null) {
+				String date = DocumentUtil.getDisplayDate(deathDate);
 				deathInfoList.add(new UuidAndValue(null, DocumentConstants.LABEL_DATE_OF_DEATH + date));
 			}
 			
 			CD<String> heathStatusQuestion = createCielCD(DocumentConstants.CIEL_CODE_HEALTH_STATUS);
 			CD<String> deadValue = createCielCD(DocumentConstants.CIEL_CODE_DEAD);
-			entries.add(createObservationEntry(heathStatusQuestion, deadValue, deathDateStr));
+			entries.add(createObservationEntry(heathStatusQuestion, deadValue, deathDate));
 			
 			if (form.getCauseOfDeath() != null) {
 				String cause = form.getCauseOfDeath().getValue().toString();
@@ -545,7 +537,7 @@ public final class ClinicalDocumentGenerator {
 				CD<String> question = createCDFromGP(DocumentConstants.GP_CONCEPT_MAPPING_CAUSE_OF_DEATH);
 				Concept concept = Context.getConceptService().getConceptByUuid(form.getCauseOfDeath().getUuid());
 				CD<String> value = createCD(concept, cause);
-				entries.add(createObservationEntry(question, value, deathDateStr));
+				entries.add(createObservationEntry(question, value, deathDate));
 			}
 			
 			addNestedListToRootNode(rootListNode, DocumentConstants.LABEL_DEATH_INFO, deathInfoList);
@@ -616,7 +608,7 @@ public final class ClinicalDocumentGenerator {
 			}
 			String code = StringUtils.split(conceptMap, CaseReportConstants.CONCEPT_MAPPING_SEPARATOR)[1];
 			CD<String> value = createCielCD(code);
-			entries.add(createObservationEntry(question, value, trigger.getDate()));
+			entries.add(createObservationEntry(question, value, trigger.toDate()));
 		}
 		
 		return entries;
@@ -640,7 +632,7 @@ public final class ClinicalDocumentGenerator {
 				        + " was deleted.");
 			}
 			Entry e = createEntryFromCielQuestionCodeAndCodedValue(CaseReportConstants.CIEL_CODE_CURRENT_ARVS,
-			    drug.getConcept(), med.getDate(), name);
+			    drug.getConcept(), med.toDate(), name);
 			entries.add(e);
 		}
 		
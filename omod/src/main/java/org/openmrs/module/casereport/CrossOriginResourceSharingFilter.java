@@ -22,7 +22,6 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.openmrs.api.context.Context;
 import org.springframework.stereotype.Controller;
 
 /**
@@ -51,8 +50,7 @@ public class CrossOriginResourceSharingFilter implements Filter {
 			log.debug("In Cors filter...");
 		}
 		HttpServletRequest request = (HttpServletRequest) servletRequest;
-		String gpValue = Context.getAdministrationService().getGlobalProperty(CaseReportWebConstants.GP_ENABLE_CORS);
-		if (Boolean.valueOf(gpValue)) {
+		if (DocumentConfig.get().isCorsEnabled()) {
 			if (log.isDebugEnabled()) {
 				log.debug("Cors is enabled");
 			}
@@ -0,0 +1,253 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openmrs.GlobalProperty;
+import org.openmrs.api.APIException;
+import org.openmrs.api.context.Context;
+
+/**
+ * An immutable snapshot of the values of the module's global properties used when generating and
+ * sending documents, values that need parsing are parsed once when the snapshot is created. The
+ * current snapshot is loaded with a single query the first time it is requested and is discarded by
+ * {@link DocumentConfigListener} whenever any of the module's global properties is changed or
+ * deleted so that the next request loads a fresh one.
+ */
+public final class DocumentConfig {
+	
+	private static final Log log = LogFactory.getLog(DocumentConfig.class);
+	
+	private static volatile DocumentConfig instance;
+	
+	//Incremented each time the snapshot is cleared so that a snapshot that was being loaded
+	//at the time isn't cached since it could contain stale values
+	private static final AtomicLong generation = new AtomicLong();
+	
+	private Map<String, String> values;
+	
+	private Map<String, String> idMappings;
+	
+	private Map<String, ReferenceTerm> referenceTerms = new HashMap<>();
+	
+	private int outboxWorkerCount;
+	
+	private int outboxMaxAttempts;
+	
+	private int outboxSubmissionSize;
+	
+	private boolean corsEnabled;
+	
+	private DocumentConfig(Map<String, String> values) {
+		this.values = values;
+		this.idMappings = parseIdMappings(values.get(DocumentConstants.GP_ID_MAPPINGS));
+		for (Map.Entry<String, String> entry : values.entrySet()) {
+			String[] fields = StringUtils.split(entry.getValue(), ":");
+			if (fields != null && fields.length == 4) {
+				referenceTerms.put(entry.getKey(), new ReferenceTerm(fields[0], fields[1], fields[2], fields[3]));
+			}
+		}
+		this.outboxWorkerCount = parsePositiveInt(DocumentConstants.GP_OUTBOX_WORKER_COUNT,
+		    DocumentConstants.DEFAULT_OUTBOX_WORKER_COUNT);
+		this.outboxMaxAttempts = parsePositiveInt(DocumentConstants.GP_OUTBOX_MAX_ATTEMPTS,
+		    DocumentConstants.DEFAULT_OUTBOX_MAX_ATTEMPTS);
+		this.outboxSubmissionSize = parsePositiveInt(DocumentConstants.GP_OUTBOX_SUBMISSION_SIZE,
+		    DocumentConstants.DEFAULT_OUTBOX_SUBMISSION_SIZE);
+		this.corsEnabled = Boolean.valueOf(values.get(CaseReportWebConstants.GP_ENABLE_CORS));
+	}
+	
+	/**
+	 * Gets the current snapshot, loading it if necessary
+	 *
+	 * @return the DocumentConfig object
+	 * @should reload the values after the snapshot is cleared
+	 */
+	public static DocumentConfig get() {
+		DocumentConfig config = instance;
+		if (config == null) {
+			long expectedGeneration = generation.get();
+			config = load();
+			synchronized (DocumentConfig.class) {
+				if (expectedGeneration == generation.get()) {
+					instance = config;
+				}
+			}
+		}
+		
+		return config;
+	}
+	
+	/**
+	 * Discards the current snapshot so that the next call to {@link #get()} loads a fresh one
+	 */
+	public static void clear() {
+		synchronized (DocumentConfig.class) {
+			generation.incrementAndGet();
+			instance = null;
+		}
+	}
+	
+	private static DocumentConfig load() {
+		if (log.isDebugEnabled()) {
+			log.debug("Loading the case report document global properties");
+		}
+		
+		List<GlobalProperty> gps = Context.getAdministrationService().getGlobalPropertiesByPrefix(
+		    DocumentConstants.GP_PREFIX);
+		Map<String, String> values = new HashMap<>(gps.size());
+		for (GlobalProperty gp : gps) {
+			values.put(gp.getProperty(), gp.getPropertyValue());
+		}
+		
+		return new DocumentConfig(values);
+	}
+	
+	private static Map<String, String> parseIdMappings(String mappingsStr) {
+		if (StringUtils.isBlank(mappingsStr)) {
+			return null;
+		}
+		
+		Map<String, String> mappings = new HashMap<>();
+		for (String mapping : StringUtils.split(mappingsStr, CaseReportConstants.CHAR_COMMA)) {
+			String[] localIdAndHieId = StringUtils.split(mapping, CaseReportConstants.CHAR_COLON);
+			if (localIdAndHieId.length < 2) {
+				log.warn("Ignoring invalid identifier type mapping: " + mapping);
+				continue;
+			}
+			String idTypeUuid = localIdAndHieId[0].trim().toLowerCase();
+			//The first mapping wins for duplicates
+			if (!mappings.containsKey(idTypeUuid)) {
+				mappings.put(idTypeUuid, localIdAndHieId[1].trim());
+			}
+		}
+		
+		return Collections.unmodifiableMap(mappings);
+	}
+	
+	private int parsePositiveInt(String propertyName, int defaultValue) {
+		String value = values.get(propertyName);
+		if (StringUtils.isNotBlank(value)) {
+			try {
+				int intValue = Integer.valueOf(value.trim());
+				if (intValue > 0) {
+					return intValue;
+				}
+			}
+			catch (NumberFormatException e) {
+				//ignore and use the default below
+			}
+			log.warn("Invalid value for the " + propertyName + " global property, defaulting to " + defaultValue);
+		}
+		return defaultValue;
+	}
+	
+	/**
+	 * Gets the value of the global property with the specified name
+	 *
+	 * @param propertyName the global property name
+	 * @return the value or null if it is not set
+	 */
+	public String getGlobalProperty(String propertyName) {
+		return values.get(propertyName);
+	}
+	
+	public String getOrganisationOID() {
+		return values.get(DocumentConstants.GP_ORG_ID);
+	}
+	
+	public String getOrganisationExtension() {
+		return values.get(DocumentConstants.GP_ORG_EXT);
+	}
+	
+	public String getOrganisationName() {
+		return values.get(DocumentConstants.GP_ORG_NAME);
+	}
+	
+	public String getConfidentialityCode() {
+		return values.get(DocumentConstants.GP_CONFIDENTIALITY_CODE);
+	}
+	
+	public String getPatientIdFormat() {
+		return values.get(DocumentConstants.GP_PATIENT_ID_FORMAT);
+	}
+	
+	public String getOpenHIMUrl() {
+		return values.get(DocumentConstants.GP_OPENHIM_URL);
+	}
+	
+	public String getOpenHIMClientId() {
+		return values.get(DocumentConstants.GP_OPENHIM_CLIENT_ID);
+	}
+	
+	public String getOpenHIMClientPassword() {
+		return values.get(DocumentConstants.GP_OPENHIM_CLIENT_PASSWORD);
+	}
+	
+	public int getOutboxWorkerCount() {
+		return outboxWorkerCount;
+	}
+	
+	public int getOutboxMaxAttempts() {
+		return outboxMaxAttempts;
+	}
+	
+	public int getOutboxSubmissionSize() {
+		return outboxSubmissionSize;
+	}
+	
+	public boolean isCorsEnabled() {
+		return corsEnabled;
+	}
+	
+	/**
+	 * Gets the reference term for the value of the specified global property name
+	 *
+	 * @param propertyName the name of the global property to match
+	 * @return a ReferenceTerm object
+	 */
+	public ReferenceTerm getReferenceTerm(String propertyName) {
+		ReferenceTerm term = referenceTerms.get(propertyName);
+		if (term == null) {
+			if (StringUtils.isBlank(values.get(propertyName))) {
+				throw new APIException(propertyName + " global property value is required");
+			}
+			throw new APIException("Invalid value for the " + propertyName + " global property");
+		}
+		
+		return term;
+	}
+	
+	/**
+	 * Gets the HIE identifier mapped to the patient identifier type with the specified uuid
+	 *
+	 * @param idTypeUuid the uuid of the patient identifier type
+	 * @return the OID of mapped HIE identifier
+	 */
+	public String getMappedHieIdentifier(String idTypeUuid) {
+		if (idMappings == null) {
+			throw new APIException(DocumentConstants.GP_ID_MAPPINGS + " global property value needs to be set");
+		}
+		
+		String hieId = idMappings.get(idTypeUuid.toLowerCase());
+		if (hieId == null) {
+			throw new APIException("No HIE identifier mapped to identifier type with uuid: " + idTypeUuid);
+		}
+		
+		return hieId;
+	}
+}
@@ -27,6 +27,25 @@ public final class DocumentConstants {
 	
 	public static final String GP_ID_MAPPINGS = MODULE_ID + ".identifierTypeMappings";
 	
+	public static final String GP_OUTBOX_WORKER_COUNT = MODULE_ID + ".outboxWorkerCount";
+	
+	public static final String GP_OUTBOX_MAX_ATTEMPTS = MODULE_ID + ".outboxMaxAttempts";
+	
+	public static final String GP_OUTBOX_SUBMISSION_SIZE = MODULE_ID + ".outboxSubmissionSize";
+	
+	public static final int DEFAULT_OUTBOX_WORKER_COUNT = 2;
+	
+	public static final int DEFAULT_OUTBOX_MAX_ATTEMPTS = 10;
+	
+	public static final int DEFAULT_OUTBOX_SUBMISSION_SIZE = 1;
+	
+	//The delay before the first retry, it doubles with each failed attempt up to the max delay
+	public static final long OUTBOX_INITIAL_RETRY_DELAY = 60000L;
+	
+	public static final long OUTBOX_MAX_RETRY_DELAY = 86400000L;
+	
+	public static final int OUTBOX_BATCH_SIZE = 100;
+	
 	public static final String OID_PREFIX = "2.25.";
 	
 	public static final String CONFIDENTIALITY_N = "N";
@@ -51,13 +70,17 @@ public final class DocumentConstants {
 	
 	public static final String XDS_ASSOCIATION = "Association";
 	
-	public static final String XDS_DOC_ID = "Document1";
+	public static final String XDS_DOC_ID_PREFIX = "Document";
+	
+	public static final String XDS_DOC_ID = XDS_DOC_ID_PREFIX + "1";
 	
 	public static final String XDS_SUBSET_ID = "SubSet1";
 	
 	public static final String XDS_CLASSIFICATION_ID = "Class1";
 	
-	public static final String XDS_ASSOCIATION_ID = "Assoc1";
+	public static final String XDS_ASSOCIATION_ID_PREFIX = "Assoc";
+	
+	public static final String XDS_ASSOCIATION_ID = XDS_ASSOCIATION_ID_PREFIX + "1";
 	
 	public static final String XDS_SLOT_CODING_SCHEME = "codingScheme";
 	
@@ -0,0 +1,295 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+
+import org.apache.xml.serializer.OutputPropertiesFactory;
+import org.marc.everest.formatters.xml.datatypes.r1.DatatypeFormatter;
+import org.marc.everest.formatters.xml.datatypes.r1.R1FormatterCompatibilityMode;
+import org.marc.everest.formatters.xml.its1.XmlIts1Formatter;
+import org.openmrs.api.APIException;
+import org.openmrs.api.context.Context;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.oxm.jaxb.Jaxb2Marshaller;
+import org.springframework.stereotype.Component;
+
+/**
+ * Provides the formatters, marshallers and parsers used to generate, send and display the case
+ * report documents. Setting these up involves a lot of reflection and they aren't safe for use by
+ * multiple threads, so they are kept in bounded pools from which a caller borrows an instance and
+ * releases it when done instead of creating new ones per document. The pools are owned by this
+ * bean and are discarded along with it when the spring context is refreshed or the module is
+ * stopped, this way no long lived thread holds on to instances loaded by the module's class loader.
+ */
+@Component(DocumentFormatters.BEAN_NAME)
+public class DocumentFormatters implements DisposableBean {
+	
+	public static final String BEAN_NAME = "casereport-documentFormatters";
+	
+	public static final String MARSHALLER_BEAN_NAME = "casereport-marshaller";
+	
+	//The maximum number of idle instances kept in each pool, more instances are created when
+	//several threads need them at the same time but only this many are kept when released
+	protected static final int MAX_IDLE = 8;
+	
+	@Autowired
+	@Qualifier(MARSHALLER_BEAN_NAME)
+	private Jaxb2Marshaller jaxb2Marshaller;
+	
+	private final Pool<XmlIts1Formatter> cdaFormatters = new Pool<XmlIts1Formatter>() {
+		
+		@Override
+		protected XmlIts1Formatter create() {
+			XmlIts1Formatter fmtr = new XmlIts1Formatter();
+			//This instructs the XML ITS1 Formatter we want to use CDA datatypes
+			fmtr.getGraphAides().add(new DatatypeFormatter(R1FormatterCompatibilityMode.ClinicalDocumentArchitecture));
+			return fmtr;
+		}
+	};
+	
+	private final Pool<Marshaller> xdsMarshallers = new Pool<Marshaller>() {
+		
+		@Override
+		protected Marshaller create() {
+			try {
+				return jaxb2Marshaller.getJaxbContext().createMarshaller();
+			}
+			catch (JAXBException e) {
+				throw new APIException("Failed to create the XDS marshaller", e);
+			}
+		}
+	};
+	
+	private final Pool<Unmarshaller> xdsUnmarshallers = new Pool<Unmarshaller>() {
+		
+		@Override
+		protected Unmarshaller create() {
+			try {
+				return jaxb2Marshaller.getJaxbContext().createUnmarshaller();
+			}
+			catch (JAXBException e) {
+				throw new APIException("Failed to create the XDS unmarshaller", e);
+			}
+		}
+	};
+	
+	private final Pool<DocumentBuilder> documentBuilders = new Pool<DocumentBuilder>() {
+		
+		@Override
+		protected DocumentBuilder create() {
+			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+			factory.setNamespaceAware(true);
+			try {
+				return factory.newDocumentBuilder();
+			}
+			catch (ParserConfigurationException e) {
+				throw new APIException("Failed to create the document builder", e);
+			}
+		}
+		
+		@Override
+		protected void reset(DocumentBuilder builder) {
+			builder.reset();
+		}
+	};
+	
+	//Not reset since that would discard the output properties
+	private final Pool<Transformer> prettyPrinters = new Pool<Transformer>() {
+		
+		@Override
+		protected Transformer create() {
+			try {
+				Transformer transformer = TransformerFactory.newInstance().newTransformer();
+				transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+				transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+				transformer.setOutputProperty(OutputPropertiesFactory.S_KEY_INDENT_AMOUNT, "2");
+				transformer.setOutputProperty(OutputKeys.ENCODING, DocumentConstants.ENCODING);
+				return transformer;
+			}
+			catch (TransformerConfigurationException e) {
+				throw new APIException("Failed to create the transformer", e);
+			}
+		}
+	};
+	
+	private final Pool<Transformer> identityTransformers = new Pool<Transformer>() {
+		
+		@Override
+		protected Transformer create() {
+			try {
+				return TransformerFactory.newInstance().newTransformer();
+			}
+			catch (TransformerConfigurationException e) {
+				throw new APIException("Failed to create the transformer", e);
+			}
+		}
+		
+		@Override
+		protected void reset(Transformer transformer) {
+			transformer.reset();
+		}
+	};
+	
+	/**
+	 * Convenience method to look up the DocumentFormatters bean of the current spring context
+	 *
+	 * @return the DocumentFormatters bean
+	 */
+	public static DocumentFormatters getInstance() {
+		return Context.getRegisteredComponent(BEAN_NAME, DocumentFormatters.class);
+	}
+	
+	/**
+	 * Gets the pool of XML ITS1 formatters that are set up to use CDA datatypes
+	 *
+	 * @return the pool
+	 */
+	public Pool<XmlIts1Formatter> getCdaFormatters() {
+		return cdaFormatters;
+	}
+	
+	/**
+	 * Gets the pool of JAXB marshallers for the XDS provide and register requests
+	 *
+	 * @return the pool
+	 */
+	public Pool<Marshaller> getXdsMarshallers() {
+		return xdsMarshallers;
+	}
+	
+	/**
+	 * Gets the pool of JAXB unmarshallers for the XDS provide and register requests
+	 *
+	 * @return the pool
+	 */
+	public Pool<Unmarshaller> getXdsUnmarshallers() {
+		return xdsUnmarshallers;
+	}
+	
+	/**
+	 * Gets the pool of namespace aware document builders, they are reset when borrowed
+	 *
+	 * @return the pool
+	 */
+	public Pool<DocumentBuilder> getDocumentBuilders() {
+		return documentBuilders;
+	}
+	
+	/**
+	 * Gets the pool of transformers that indent their output and omit the XML declaration
+	 *
+	 * @return the pool
+	 */
+	public Pool<Transformer> getPrettyPrinters() {
+		return prettyPrinters;
+	}
+	
+	/**
+	 * Gets the pool of transformers that copy their source to their result as is, they are reset
+	 * when borrowed
+	 *
+	 * @return the pool
+	 */
+	public Pool<Transformer> getIdentityTransformers() {
+		return identityTransformers;
+	}
+	
+	/**
+	 * Discards the idle instances in all the pools
+	 *
+	 * @see DisposableBean#destroy()
+	 * @should discard the idle instances
+	 */
+	@Override
+	public void destroy() {
+		cdaFormatters.clear();
+		xdsMarshallers.clear();
+		xdsUnmarshallers.clear();
+		documentBuilders.clear();
+		prettyPrinters.clear();
+		identityTransformers.clear();
+	}
+	
+	/**
+	 * A bounded pool of objects that aren't safe for use by multiple threads, an instance is
+	 * borrowed by a single thread at a time and MUST be released in a finally block once the
+	 * thread is done with it.
+	 *
+	 * @param <T> the type of the pooled objects
+	 */
+	public abstract static class Pool<T> {
+		
+		private final BlockingQueue<T> idle = new ArrayBlockingQueue<>(MAX_IDLE);
+		
+		/**
+		 * Gets an idle instance from the pool, a new one is created if there is none
+		 *
+		 * @return the instance
+		 * @should return a released instance
+		 * @should create a new instance if there is no idle one
+		 */
+		public T borrow() {
+			T instance = idle.poll();
+			if (instance == null) {
+				return create();
+			}
+			
+			reset(instance);
+			return instance;
+		}
+		
+		/**
+		 * Returns the specified instance to the pool, it is discarded if the pool is full
+		 *
+		 * @param instance the instance to release
+		 * @should not keep more than the maximum number of idle instances
+		 */
+		public void release(T instance) {
+			if (instance != null) {
+				idle.offer(instance);
+			}
+		}
+		
+		void clear() {
+			idle.clear();
+		}
+		
+		/**
+		 * Creates a new instance
+		 *
+		 * @return the new instance
+		 */
+		protected abstract T create();
+		
+		/**
+		 * Resets the state of an idle instance before it is borrowed again, the default
+		 * implementation does nothing
+		 *
+		 * @param instance the instance to reset
+		 */
+		protected void reset(T instance) {
+		}
+	}
+}
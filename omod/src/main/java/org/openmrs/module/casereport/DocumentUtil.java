@@ -14,9 +14,7 @@ import java.io.IOException;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.file.Paths;
-import java.text.DateFormat;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
@@ -41,7 +39,7 @@ public class DocumentUtil {
 	private static final BigInteger DECIMAL_REP_COUNT = BigInteger.ONE.shiftLeft(128);
 	
 	//Formatter used to print dates in text sections that are human readable
-	public static final DateFormat DATE_FORMATTER = new SimpleDateFormat("dd-MMM-yyyy h a zzz");
+	public static final ThreadSafeDateFormat DATE_FORMATTER = new ThreadSafeDateFormat("dd-MMM-yyyy h a zzz");
 	
 	private static final HashMap<String, String> codeLocalizedStringMap = new HashMap();
 	
@@ -51,9 +49,6 @@ public class DocumentUtil {
 		codeLocalizedStringMap.put(DocumentConstants.CONFIDENTIALITY_V, "Very restricted");
 	}
 	
-	//TODO Move all GPs to a Config class with a cache, it should be implemented as GlobalPropertyListener 
-	// so that it can refresh its cache whenever the property values change or are deleted
-	
 	/**
 	 * Gets the code and name mapping for confidentiality levels
 	 * 
@@ -99,7 +94,16 @@ public class DocumentUtil {
 	 * @throws ParseException
 	 */
 	public static String getDisplayDate(String dateString) throws ParseException {
-		Date date = CaseReportConstants.DATE_FORMATTER.parse(dateString);
+		return getDisplayDate(CaseReportConstants.DATE_FORMATTER.parse(dateString));
+	}
+	
+	/**
+	 * Formats the specified date to a human readable format
+	 * 
+	 * @param date the date to format
+	 * @return a human readable date
+	 */
+	public static String getDisplayDate(Date date) {
 		return DATE_FORMATTER.format(date);
 	}
 	
@@ -109,7 +113,7 @@ public class DocumentUtil {
 	 * @return the organisation's OID
 	 */
 	public static String getOrganisationOID() {
-		return getGlobalProperty(DocumentConstants.GP_ORG_ID);
+		return DocumentConfig.get().getOrganisationOID();
 	}
 	
 	/**
@@ -118,7 +122,7 @@ public class DocumentUtil {
 	 * @return the organisation's extension
 	 */
 	public static String getOrganisationExtension() {
-		return getGlobalProperty(DocumentConstants.GP_ORG_EXT);
+		return DocumentConfig.get().getOrganisationExtension();
 	}
 	
 	/**
@@ -127,7 +131,7 @@ public class DocumentUtil {
 	 * @return the organisation's name
 	 */
 	public static String getOrganisationName() {
-		return getGlobalProperty(DocumentConstants.GP_ORG_NAME);
+		return DocumentConfig.get().getOrganisationName();
 	}
 	
 	/**
@@ -136,7 +140,7 @@ public class DocumentUtil {
 	 * @return the confidentiality code
 	 */
 	public static String getConfidentialityCode() {
-		return getGlobalProperty(DocumentConstants.GP_CONFIDENTIALITY_CODE);
+		return DocumentConfig.get().getConfidentialityCode();
 	}
 	
 	/**
@@ -145,17 +149,7 @@ public class DocumentUtil {
 	 * @return the patient id format
 	 */
 	public static String getPatientIdFormat() {
-		return getGlobalProperty(DocumentConstants.GP_PATIENT_ID_FORMAT);
-	}
-	
-	/**
-	 * Convenience method that gets the value of the specified global property name
-	 * 
-	 * @param propertyName the global property name
-	 * @return the global property value
-	 */
-	private static String getGlobalProperty(String propertyName) {
-		return Context.getAdministrationService().getGlobalProperty(propertyName);
+		return DocumentConfig.get().getPatientIdFormat();
 	}
 	
 	/**
@@ -246,17 +240,7 @@ public class DocumentUtil {
 	 * @return a ReferenceTerm object
 	 */
 	public static ReferenceTerm getReferenceTerm(String globalPropertyName) {
-		String mapping = getGlobalProperty(globalPropertyName);
-		if (StringUtils.isBlank(mapping)) {
-			throw new APIException(globalPropertyName + " global property value is required");
-		}
-		
-		String[] fields = StringUtils.split(mapping, ":");
-		if (fields.length != 4) {
-			throw new APIException("Invalid value for the " + globalPropertyName + " global property");
-		}
-		
-		return new ReferenceTerm(fields[0], fields[1], fields[2], fields[3]);
+		return DocumentConfig.get().getReferenceTerm(globalPropertyName);
 	}
 	
 	/**
@@ -265,20 +249,7 @@ public class DocumentUtil {
 	 * @return the OID of mapped HIE identifier
 	 */
 	public static String getMappedHieIdentifier(String idTypeUuid) {
-		String mappingsStr = Context.getAdministrationService().getGlobalProperty(DocumentConstants.GP_ID_MAPPINGS);
-		if (StringUtils.isBlank(mappingsStr)) {
-			throw new APIException(DocumentConstants.GP_ID_MAPPINGS + " global property value needs to be set");
-		}
-		
-		String[] mappings = StringUtils.split(mappingsStr, CaseReportConstants.CHAR_COMMA);
-		for (String mapping : mappings) {
-			String[] localIdAndHieId = StringUtils.split(mapping, CaseReportConstants.CHAR_COLON);
-			if (idTypeUuid.equalsIgnoreCase(localIdAndHieId[0].trim())) {
-				return localIdAndHieId[1].trim();
-			}
-		}
-		
-		throw new APIException("No HIE identifier mapped to identifier type with uuid: " + idTypeUuid);
+		return DocumentConfig.get().getMappedHieIdentifier(idTypeUuid);
 	}
 	
 }
@@ -0,0 +1,347 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ * 
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.stream.StreamSource;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang3.SystemUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.dcm4chee.xds2.common.XDSConstants;
+import org.dcm4chee.xds2.infoset.ihe.ObjectFactory;
+import org.dcm4chee.xds2.infoset.ihe.ProvideAndRegisterDocumentSetRequestType;
+import org.dcm4chee.xds2.infoset.rim.RegistryError;
+import org.dcm4chee.xds2.infoset.rim.RegistryResponseType;
+import org.openmrs.api.APIException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.client.core.WebServiceMessageCallback;
+import org.springframework.ws.client.core.WebServiceMessageExtractor;
+import org.springframework.ws.client.core.WebServiceTemplate;
+
+/**
+ * An instance of this class generates the CDA message for a submitted case report, saves a copy of
+ * it to the file system and sends it to the HIE
+ */
+@Component
+public class HealthInfoExchangeSender {
+	
+	protected final Log log = LogFactory.getLog(this.getClass());
+	
+	private ObjectFactory objectFactory = new ObjectFactory();
+	
+	@Autowired
+	private WebServiceTemplate webServiceTemplate;
+	
+	@Autowired
+	private WebServiceMessageCallback messageCallback;
+	
+	@Autowired
+	private DocumentFormatters formatters;
+	
+	private WebServiceMessageExtractor<Object> responseExtractor = new WebServiceMessageExtractor<Object>() {
+		
+		@Override
+		public Object extractData(WebServiceMessage message) throws IOException, TransformerException {
+			Unmarshaller unmarshaller = formatters.getXdsUnmarshallers().borrow();
+			try {
+				return unmarshaller.unmarshal(message.getPayloadSource());
+			}
+			catch (JAXBException e) {
+				throw new APIException("Failed to read the registry response", e);
+			}
+			finally {
+				formatters.getXdsUnmarshallers().release(unmarshaller);
+			}
+		}
+	};
+	
+	/**
+	 * Generates the document for the specified case report, saves a copy of it to the file system
+	 * and submits it to the HIE
+	 *
+	 * @param caseReport the submitted case report
+	 * @should submit the document successfully to the configured url
+	 * @should send the same request that is saved to the file system
+	 * @should fail for a response that is not a success
+	 */
+	public void send(CaseReport caseReport) {
+		SubmissionResult result = send(Collections.singletonList(caseReport));
+		if (!result.isSuccess()) {
+			throw new APIException(result.getError());
+		}
+	}
+	
+	/**
+	 * Generates the documents for the specified case reports and submits them to the HIE in a
+	 * single provide and register request, the case reports must all belong to the same patient
+	 * since they are submitted in one submission set. A copy of each report's document is saved to
+	 * the file system. The errors in the registry response are mapped back to the case reports whose
+	 * documents they reference by entry id, unique id or report uuid, when there is only one case
+	 * report all the errors are mapped to it.
+	 *
+	 * @param caseReports the submitted case reports
+	 * @return the SubmissionResult
+	 * @should submit the documents in a single request
+	 * @should map the registry errors to the case reports whose documents they reference
+	 */
+	public SubmissionResult send(List<CaseReport> caseReports) {
+		
+		try {
+			List<CaseReportForm> forms = new ArrayList<>(caseReports.size());
+			for (CaseReport caseReport : caseReports) {
+				CaseReportForm form = JsonUtil.readReportForm(caseReport.getReportForm());
+				form.setReportUuid(caseReport.getUuid());
+				form.setReportDate(caseReport.getDateCreated());
+				forms.add(form);
+			}
+			ProvideAndRegisterDocumentSetRequestType docRequest = new ProvideAndRegisterDocGenerator(forms).generate();
+			JAXBElement rootElement = objectFactory.createProvideAndRegisterDocumentSetRequest(docRequest);
+			
+			if (log.isDebugEnabled()) {
+				log.debug("Saving Case report document(s) to the file system.....");
+			}
+			
+			//The request is marshalled once, the same bytes are sent and archived for a single report
+			byte[] payload = marshal(rootElement);
+			int position = 1;
+			for (CaseReport caseReport : caseReports) {
+				byte[] docBytes = payload;
+				if (caseReports.size() > 1) {
+					String documentId = ProvideAndRegisterDocGenerator.getDocumentId(position);
+					docBytes = marshal(objectFactory.createProvideAndRegisterDocumentSetRequest(ProvideAndRegisterDocGenerator
+					        .extractDocumentRequest(docRequest, documentId)));
+				}
+				File docFile = DocumentUtil.getSubmittedCaseReportFile(caseReport);
+				FileUtils.writeByteArrayToFile(docFile, docBytes);
+				position++;
+			}
+			
+			if (log.isDebugEnabled()) {
+				log.debug("Case report document(s) successfully saved to the file system");
+			}
+			
+			if (log.isDebugEnabled()) {
+				log.debug("Sending " + caseReports.size() + " Case report document(s).....");
+			}
+			
+			String url = DocumentConfig.get().getOpenHIMUrl();
+			PayloadCallback payloadCallback = new PayloadCallback(payload, messageCallback,
+			        formatters.getIdentityTransformers());
+			Object response = webServiceTemplate.sendAndReceive(url, payloadCallback, responseExtractor);
+			RegistryResponseType regResp = ((JAXBElement<RegistryResponseType>) response).getValue();
+			if (!XDSConstants.XDS_B_STATUS_SUCCESS.equals(regResp.getStatus())) {
+				return createFailureResult(caseReports, regResp);
+			}
+			
+			if (log.isDebugEnabled()) {
+				log.debug("Case report document(s) successfully sent");
+			}
+			
+			return new SubmissionResult(null, Collections.<CaseReport, String> emptyMap());
+		}
+		catch (Exception e) {
+			
+			log.warn("An error occurred while submitting case report document(s) to the HIE");
+			
+			APIException rethrow;
+			if (e instanceof APIException) {
+				rethrow = (APIException) e;
+			} else {
+				rethrow = new APIException(e);
+			}
+			
+			throw rethrow;
+		}
+	}
+	
+	/**
+	 * Marshals the specified provide and register request element
+	 *
+	 * @param element the element to marshal
+	 * @return the marshalled bytes
+	 * @throws JAXBException
+	 */
+	private byte[] marshal(JAXBElement element) throws JAXBException {
+		//Each CDA document is ~8KB and is base64 encoded in the request
+		ByteArrayOutputStream out = new ByteArrayOutputStream(16384);
+		Marshaller marshaller = formatters.getXdsMarshallers().borrow();
+		try {
+			marshaller.marshal(element, out);
+		}
+		finally {
+			formatters.getXdsMarshallers().release(marshaller);
+		}
+		
+		return out.toByteArray();
+	}
+	
+	/**
+	 * Creates a SubmissionResult for a registry response that is not a success
+	 *
+	 * @param caseReports the submitted case reports in the order their documents were generated
+	 * @param regResp the RegistryResponseType object
+	 * @return the SubmissionResult
+	 */
+	private SubmissionResult createFailureResult(List<CaseReport> caseReports, RegistryResponseType regResp) {
+		List<RegistryError> errors = new ArrayList<>();
+		if (regResp.getRegistryErrorList() != null && regResp.getRegistryErrorList().getRegistryError() != null) {
+			errors.addAll(regResp.getRegistryErrorList().getRegistryError());
+		}
+		
+		StringBuilder sb = new StringBuilder();
+		for (RegistryError re : errors) {
+			sb.append(formatError(re));
+		}
+		
+		Map<CaseReport, String> rejected = new LinkedHashMap<>();
+		if (caseReports.size() == 1) {
+			rejected.put(caseReports.get(0), sb.toString());
+		} else {
+			int position = 1;
+			for (CaseReport caseReport : caseReports) {
+				List<Pattern> patterns = new ArrayList<>(3);
+				patterns.add(createReferencePattern(ProvideAndRegisterDocGenerator.getDocumentId(position++)));
+				patterns.add(createReferencePattern(ProvideAndRegisterDocGenerator.getDocumentUniqueId(caseReport
+				        .getUuid())));
+				patterns.add(createReferencePattern(caseReport.getUuid()));
+				StringBuilder reportErrors = new StringBuilder();
+				for (RegistryError re : errors) {
+					for (Pattern pattern : patterns) {
+						if ((re.getLocation() != null && pattern.matcher(re.getLocation()).find())
+						        || (re.getCodeContext() != null && pattern.matcher(re.getCodeContext()).find())) {
+							reportErrors.append(formatError(re));
+							break;
+						}
+					}
+				}
+				if (reportErrors.length() > 0) {
+					rejected.put(caseReport, reportErrors.toString());
+				}
+			}
+		}
+		
+		return new SubmissionResult(sb.toString(), rejected);
+	}
+	
+	/**
+	 * Creates a pattern that matches the specified id in an error message or location but not as
+	 * part of a longer id e.g. Document1 shouldn't match Document12
+	 *
+	 * @param id the id to match
+	 * @return the Pattern object
+	 */
+	private Pattern createReferencePattern(String id) {
+		return Pattern.compile("(?<![\\w.])" + Pattern.quote(id) + "(?!\\w|\\.\\w)");
+	}
+	
+	private String formatError(RegistryError re) {
+		return "Severity: "
+		        + (StringUtils.isNotBlank(re.getSeverity()) ? re.getSeverity().substring(
+		            re.getSeverity().lastIndexOf(":") + 1) : "?") + ", Code: "
+		        + (StringUtils.isNotBlank(re.getErrorCode()) ? re.getErrorCode() : "?") + ", Message: "
+		        + (StringUtils.isNotBlank(re.getCodeContext()) ? re.getCodeContext() : "?") + SystemUtils.LINE_SEPARATOR;
+	}
+	
+	/**
+	 * Writes an already marshalled request to the payload of the outgoing message and then invokes
+	 * the delegate callback, this is what {@link WebServiceTemplate#marshalSendAndReceive} does
+	 * except that the request isn't marshalled again.
+	 */
+	private static class PayloadCallback implements WebServiceMessageCallback {
+		
+		private byte[] payload;
+		
+		private WebServiceMessageCallback delegate;
+		
+		private DocumentFormatters.Pool<Transformer> transformers;
+		
+		PayloadCallback(byte[] payload, WebServiceMessageCallback delegate,
+		    DocumentFormatters.Pool<Transformer> transformers) {
+			this.payload = payload;
+			this.delegate = delegate;
+			this.transformers = transformers;
+		}
+		
+		@Override
+		public void doWithMessage(WebServiceMessage message) throws IOException, TransformerException {
+			Transformer transformer = transformers.borrow();
+			try {
+				transformer.transform(new StreamSource(new ByteArrayInputStream(payload)), message.getPayloadResult());
+			}
+			finally {
+				transformers.release(transformer);
+			}
+			if (delegate != null) {
+				delegate.doWithMessage(message);
+			}
+		}
+	}
+	
+	/**
+	 * Encapsulates the outcome of submitting one or more case report documents to the HIE in a
+	 * single request, since the registry processes a request as a unit none of the documents is
+	 * registered if the submission is not a success.
+	 */
+	public static class SubmissionResult {
+		
+		private String error;
+		
+		private Map<CaseReport, String> rejected;
+		
+		private SubmissionResult(String error, Map<CaseReport, String> rejected) {
+			this.error = error;
+			this.rejected = Collections.unmodifiableMap(rejected);
+		}
+		
+		/**
+		 * @return true if all the documents were registered otherwise false
+		 */
+		public boolean isSuccess() {
+			return error == null;
+		}
+		
+		/**
+		 * @return all the errors returned by the registry or null if the submission was a success
+		 */
+		public String getError() {
+			return error;
+		}
+		
+		/**
+		 * @return a map of the case reports whose documents the returned errors reference and the
+		 *         errors, the other case reports in a failed submission were only rejected because
+		 *         they were submitted with these
+		 */
+		public Map<CaseReport, String> getRejected() {
+			return rejected;
+		}
+	}
+}
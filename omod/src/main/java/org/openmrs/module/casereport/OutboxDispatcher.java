@@ -0,0 +1,223 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ * 
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openmrs.api.APIException;
+import org.openmrs.api.context.Context;
+import org.openmrs.api.context.UserContext;
+import org.openmrs.module.casereport.api.CaseReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivers the documents of the pending outbox entries that are due to the HIE using a pool of
+ * worker threads, each worker opens its own session and sends the documents of up to
+ * {@link DocumentConstants#GP_OUTBOX_SUBMISSION_SIZE} entries of the same patient in a single
+ * request, the entries are updated in their own transactions. A failed delivery is retried with
+ * exponential backoff until the maximum number of attempts is reached after which the entry is
+ * moved to the dead letter state.
+ * When the registry rejects a batch and its errors reference specific documents, only the entries
+ * of those documents are marked as failed, the others are left due so that they are resent without
+ * them.
+ * 
+ * @see OutboxEntry
+ * @see OutboxDispatcherTask
+ */
+@Component("casereport-outboxDispatcher")
+public class OutboxDispatcher {
+	
+	protected final Log log = LogFactory.getLog(this.getClass());
+	
+	@Autowired
+	private HealthInfoExchangeSender sender;
+	
+	/**
+	 * Delivers the documents for all the pending outbox entries that are due, each entry is
+	 * attempted at most once per call.
+	 * 
+	 * @return the number of entries that were successfully delivered
+	 * @should send the documents for the due outbox entries
+	 * @should schedule a retry for a failed delivery
+	 * @should move an entry to the dead letter state after the maximum number of attempts
+	 * @should send the documents of multiple entries in a single request
+	 * @should send the documents of different patients in separate requests
+	 * @should only mark the entries of the rejected documents in a request as failed
+	 * @should not resend the entries that are still due after an attempt in the same call
+	 */
+	public synchronized int dispatch() {
+		CaseReportService service = Context.getService(CaseReportService.class);
+		DocumentConfig config = DocumentConfig.get();
+		int workerCount = config.getOutboxWorkerCount();
+		int maxAttempts = config.getOutboxMaxAttempts();
+		int submissionSize = config.getOutboxSubmissionSize();
+		
+		int sentCount = 0;
+		//The entries are paged by id so that the entries that are still due after an attempt in this
+		//run e.g. those that were only rejected because of other documents, aren't read again
+		Integer lastSeenId = null;
+		List<OutboxEntry> entries;
+		do {
+			entries = service.getDueOutboxEntries(new Date(), lastSeenId, DocumentConstants.OUTBOX_BATCH_SIZE);
+			if (entries.isEmpty()) {
+				break;
+			}
+			lastSeenId = entries.get(entries.size() - 1).getId();
+			//An XDS.b submission set has a single patient, so only entries of the same patient go together
+			Map<Integer, List<Integer>> patientIdsMap = new LinkedHashMap<>();
+			List<List<Integer>> submissions = new ArrayList<>();
+			for (OutboxEntry entry : entries) {
+				Integer patientId = entry.getCaseReport().getPatient().getPatientId();
+				List<Integer> ids = patientIdsMap.get(patientId);
+				if (ids == null || ids.size() == submissionSize) {
+					ids = new ArrayList<>(submissionSize);
+					patientIdsMap.put(patientId, ids);
+					submissions.add(ids);
+				}
+				ids.add(entry.getId());
+			}
+			sentCount += dispatch(submissions, workerCount, maxAttempts);
+		} while (entries.size() == DocumentConstants.OUTBOX_BATCH_SIZE);
+		
+		return sentCount;
+	}
+	
+	private int dispatch(List<List<Integer>> submissions, int workerCount, final int maxAttempts) {
+		int sentCount = 0;
+		if (submissions.isEmpty()) {
+			return sentCount;
+		}
+		
+		if (workerCount == 1 || submissions.size() == 1) {
+			for (List<Integer> ids : submissions) {
+				sentCount += deliver(ids, maxAttempts);
+			}
+			return sentCount;
+		}
+		
+		final UserContext userContext = Context.getUserContext();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(workerCount, submissions.size()));
+		Map<List<Integer>, Future<Integer>> idsFutureMap = new LinkedHashMap<>(submissions.size());
+		try {
+			for (final List<Integer> ids : submissions) {
+				idsFutureMap.put(ids, executor.submit(new Callable<Integer>() {
+					
+					@Override
+					public Integer call() throws Exception {
+						Context.openSession();
+						try {
+							Context.setUserContext(userContext);
+							return deliver(ids, maxAttempts);
+						}
+						finally {
+							Context.closeSession();
+						}
+					}
+				}));
+			}
+			
+			for (Map.Entry<List<Integer>, Future<Integer>> entry : idsFutureMap.entrySet()) {
+				try {
+					sentCount += entry.getValue().get();
+				}
+				catch (ExecutionException e) {
+					log.warn("Failed to process outbox entries with ids: " + entry.getKey(), e.getCause());
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new APIException("Interrupted while waiting for outbox entries to be delivered", e);
+				}
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		
+		return sentCount;
+	}
+	
+	/**
+	 * Sends the documents for the outbox entries with the specified ids in a single request and
+	 * records the outcome
+	 * 
+	 * @param outboxEntryIds the ids of the outbox entries
+	 * @param maxAttempts the maximum number of delivery attempts
+	 * @return the number of documents that were successfully sent
+	 */
+	private int deliver(List<Integer> outboxEntryIds, int maxAttempts) {
+		CaseReportService service = Context.getService(CaseReportService.class);
+		List<OutboxEntry> entries = new ArrayList<>(outboxEntryIds.size());
+		List<CaseReport> caseReports = new ArrayList<>(outboxEntryIds.size());
+		for (Integer id : outboxEntryIds) {
+			OutboxEntry entry = service.getOutboxEntry(id);
+			if (entry != null && entry.isPending()) {
+				entries.add(entry);
+				caseReports.add(entry.getCaseReport());
+			}
+		}
+		if (entries.isEmpty()) {
+			return 0;
+		}
+		
+		HealthInfoExchangeSender.SubmissionResult result = null;
+		String error = null;
+		try {
+			result = sender.send(caseReports);
+			if (!result.isSuccess()) {
+				error = result.getError();
+				log.warn("The HIE rejected the documents for the outbox entries with ids: " + outboxEntryIds);
+			}
+		}
+		catch (Exception e) {
+			log.warn("Failed to send the documents for the outbox entries with ids: " + outboxEntryIds, e);
+			error = StringUtils.isNotBlank(e.getMessage()) ? e.getMessage() : e.getClass().getName();
+		}
+		
+		int sentCount = 0;
+		for (OutboxEntry entry : entries) {
+			if (error == null) {
+				entry.markSent();
+				sentCount++;
+			} else {
+				String entryError = error;
+				if (result != null && !result.getRejected().isEmpty()) {
+					entryError = result.getRejected().get(entry.getCaseReport());
+					if (entryError == null) {
+						//Only rejected because of the other documents in the request
+						continue;
+					}
+				}
+				entry.markFailed(entryError, maxAttempts, DocumentConstants.OUTBOX_INITIAL_RETRY_DELAY,
+				    DocumentConstants.OUTBOX_MAX_RETRY_DELAY);
+				if (entry.isDeadLetter()) {
+					log.error(entry + " has been moved to the dead letter state after " + entry.getAttemptCount()
+					        + " failed attempt(s)");
+				}
+			}
+			
+			service.saveOutboxEntry(entry);
+		}
+		
+		return sentCount;
+	}
+}
@@ -0,0 +1,54 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ * 
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openmrs.api.context.Context;
+import org.openmrs.scheduler.tasks.AbstractTask;
+
+/**
+ * An instance of this task delivers the documents of the pending outbox entries that are due to
+ * the HIE, it delegates to the {@link OutboxDispatcher}
+ */
+public class OutboxDispatcherTask extends AbstractTask {
+	
+	protected Log log = LogFactory.getLog(getClass());
+	
+	/**
+	 * @see AbstractTask#execute()
+	 */
+	@Override
+	public void execute() {
+		if (!isExecuting) {
+			if (log.isDebugEnabled()) {
+				log.debug("Executing outbox dispatcher task...");
+			}
+			
+			startExecuting();
+			
+			try {
+				OutboxDispatcher dispatcher = Context.getRegisteredComponent("casereport-outboxDispatcher",
+				    OutboxDispatcher.class);
+				int sentCount = dispatcher.dispatch();
+				
+				if (log.isDebugEnabled()) {
+					log.debug("Outbox dispatcher task sent " + sentCount + " document(s)");
+				}
+			}
+			catch (Exception e) {
+				log.error("Error while running outbox dispatcher task: ", e);
+			}
+			finally {
+				stopExecuting();
+			}
+		}
+	}
+}
@@ -14,6 +14,7 @@ import static org.dcm4chee.xds2.infoset.ihe.ProvideAndRegisterDocumentSetRequest
 import java.io.ByteArrayOutputStream;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
@@ -40,20 +41,19 @@ import org.dcm4chee.xds2.infoset.rim.RegistryPackageType;
 import org.dcm4chee.xds2.infoset.rim.SubmitObjectsRequest;
 import org.dcm4chee.xds2.infoset.util.InfosetUtil;
 import org.marc.everest.datatypes.TS;
-import org.marc.everest.formatters.xml.datatypes.r1.DatatypeFormatter;
-import org.marc.everest.formatters.xml.datatypes.r1.R1FormatterCompatibilityMode;
 import org.marc.everest.formatters.xml.its1.XmlIts1Formatter;
 import org.marc.everest.rmim.uv.cdar2.pocd_mt000040uv.ClinicalDocument;
 import org.marc.everest.rmim.uv.cdar2.vocabulary.AdministrativeGender;
 import org.openmrs.PersonName;
 import org.openmrs.api.APIException;
-import org.openmrs.api.AdministrationService;
 import org.openmrs.api.context.Context;
 import org.openmrs.module.casereport.api.CaseReportService;
 import org.springframework.http.MediaType;
 
 /**
- * Generates an XDS.b ProvideAndRegisterDocumentSetRequestType object from a CaseReportForm
+ * Generates an XDS.b ProvideAndRegisterDocumentSetRequestType object from one or more
+ * CaseReportForms, each form is added as a separate document entry with a unique id and an
+ * association to the single submission set of the request.
  */
 public final class ProvideAndRegisterDocGenerator {
 	
@@ -63,51 +63,166 @@ public final class ProvideAndRegisterDocGenerator {
 	
 	private ObjectFactory objectFactory = new ObjectFactory();
 	
-	private CaseReportForm form;
+	private List<CaseReportForm> forms;
 	
 	/**
 	 * @param form the CaseReportForm from which to generate for a document set request
 	 */
 	ProvideAndRegisterDocGenerator(CaseReportForm form) {
-		this.form = form;
+		this(Collections.singletonList(form));
+	}
+	
+	/**
+	 * @param forms the CaseReportForms from which to generate a document set request, they must all
+	 *            belong to the same patient, the document entry for the form at position n
+	 *            (starting at 1) is assigned the id {@link #getDocumentId(int)}
+	 */
+	ProvideAndRegisterDocGenerator(List<CaseReportForm> forms) {
+		if (forms == null || forms.isEmpty()) {
+			throw new APIException("At least one case report form is required to generate a document set request");
+		}
+		this.forms = forms;
 	}
 	
 	/**
 	 * Generates a ProvideAndRegisterDocumentSetRequestType object from its backing CaseReportForm
-	 * object
+	 * objects
 	 * 
 	 * @return ProvideAndRegisterDocumentSetRequestType object
 	 * @throws Exception
+	 * @should generate a request with a document entry and association for each form
+	 * @should fail if the forms belong to different patients
 	 */
 	public ProvideAndRegisterDocumentSetRequestType generate() throws JAXBException, ParseException {
 		if (log.isDebugEnabled()) {
 			CaseReportService crs = Context.getService(CaseReportService.class);
-			CaseReport cr = crs.getCaseReportByUuid(form.getReportUuid());
-			log.debug("Generating ProvideAndRegisterDocumentSetRequest for: " + cr);
+			for (CaseReportForm form : forms) {
+				CaseReport cr = crs.getCaseReportByUuid(form.getReportUuid());
+				log.debug("Generating ProvideAndRegisterDocumentSetRequest for: " + cr);
+			}
 		}
 		
 		//reset in case this method is called multiple times on the same instance
 		idCounter = 0;
 		
-		//Create DocumentEntry/ExtrinsicObject
+		SubmitObjectsRequest registryRequest = new SubmitObjectsRequest();
+		registryRequest.setRegistryObjectList(new RegistryObjectListType());
+		ReferenceTerm term = DocumentUtil.getReferenceTerm(DocumentConstants.GP_CONCEPT_MAPPING_PUBLIC_HEALTH_CR);
+		String orgOID = DocumentUtil.getOrganisationOID();
+		
+		//An XDS.b submission set has a single patient id which all its documents must share
+		String patientId = getPatientId(forms.get(0));
+		for (CaseReportForm form : forms) {
+			if (!patientId.equals(getPatientId(form))) {
+				throw new APIException(
+				        "All the documents in a provide and register request must belong to the same patient");
+			}
+		}
+		
+		//Create a DocumentEntry/ExtrinsicObject for each form
+		int position = 1;
+		for (CaseReportForm form : forms) {
+			addObjectToRequest(registryRequest, createDocumentEntry(form, getDocumentId(position++), term, orgOID));
+		}
+		
+		//Create RegistryPackage/SubmissionSet
+		RegistryPackageType regPackage = new RegistryPackageType();
+		regPackage.setId(DocumentConstants.XDS_SUBSET_ID);
+		regPackage.setObjectType(DocumentConstants.XDS_SYMBOLIC_LINKS_PREFIX + DocumentConstants.XDS_REG_PACKAGE);
+		regPackage.setName(createName(DocumentConstants.TEXT_TITLE));
+		String dateSubmitted = DocumentUtil.createTS(new Date()).getValue();
+		InfosetUtil.addOrOverwriteSlot(regPackage, XDSConstants.SLOT_NAME_SUBMISSION_TIME, dateSubmitted);
+		addClassification(regPackage, term.getCode(), term.getCodeSystem(),
+		    XDSConstants.UUID_XDSSubmissionSet_contentTypeCode, term.getName());
+		
+		addExternalIdentifier(regPackage, patientId, XDSConstants.UUID_XDSSubmissionSet_patientId,
+		    DocumentConstants.TEXT_SUBSET_PATIENT_ID);
+		
+		String subUniqueId = generateOIDFromUuid(UUID.randomUUID());
+		addExternalIdentifier(regPackage, subUniqueId, XDSConstants.UUID_XDSSubmissionSet_uniqueId,
+		    DocumentConstants.TEXT_SUBSET_UNIQUE_ID);
+		
+		addExternalIdentifier(regPackage, orgOID, XDSConstants.UUID_XDSSubmissionSet_sourceId,
+		    DocumentConstants.TEXT_SUBSET_SOURCE_ID);
+		
+		addObjectToRequest(registryRequest, regPackage);
+		
+		//Create the classification of the TX
+		ClassificationType classification = new ClassificationType();
+		classification.setId(DocumentConstants.XDS_CLASSIFICATION_ID);
+		classification.setClassificationNode(XDSConstants.UUID_XDSSubmissionSet);
+		classification.setClassifiedObject(DocumentConstants.XDS_SUBSET_ID);
+		classification.setObjectType(DocumentConstants.XDS_SYMBOLIC_LINKS_PREFIX + DocumentConstants.XDS_CLASSIFICATION);
+		addObjectToRequest(registryRequest, classification);
+		
+		//Create the associations that link the DocumentEntries to the RegistryPackage
+		for (int i = 1; i <= forms.size(); i++) {
+			AssociationType1 assoc = new AssociationType1();
+			assoc.setId(DocumentConstants.XDS_ASSOCIATION_ID_PREFIX + i);
+			assoc.setAssociationType(XDSConstants.HAS_MEMBER);
+			assoc.setObjectType(DocumentConstants.XDS_SYMBOLIC_LINKS_PREFIX + DocumentConstants.XDS_ASSOCIATION);
+			assoc.setSourceObject(DocumentConstants.XDS_SUBSET_ID);
+			assoc.setTargetObject(getDocumentId(i));
+			InfosetUtil.addOrOverwriteSlot(assoc, XDSConstants.SLOT_NAME_SUBMISSIONSET_STATUS,
+			    DocumentConstants.TEXT_ORIGINAL);
+			addObjectToRequest(registryRequest, assoc);
+		}
+		
+		ProvideAndRegisterDocumentSetRequestType docRequest = new ProvideAndRegisterDocumentSetRequestType();
+		docRequest.setSubmitObjectsRequest(registryRequest);
+		
+		DocumentFormatters.Pool<XmlIts1Formatter> cdaFormatters = DocumentFormatters.getInstance().getCdaFormatters();
+		XmlIts1Formatter fmtr = cdaFormatters.borrow();
+		try {
+			position = 1;
+			for (CaseReportForm form : forms) {
+				ClinicalDocument cdaDocument = new ClinicalDocumentGenerator(form).generate();
+				//The cda is ~8KB, might as well initialize the
+				//byte array to a fairly larger size
+				ByteArrayOutputStream cdaOutput = new ByteArrayOutputStream(10240);
+				fmtr.graph(cdaOutput, cdaDocument);
+				
+				Document document = new Document();
+				document.setId(getDocumentId(position++));
+				document.setValue(cdaOutput.toByteArray());
+				docRequest.getDocument().add(document);
+			}
+		}
+		finally {
+			cdaFormatters.release(fmtr);
+		}
+		
+		return docRequest;
+	}
+	
+	/**
+	 * Creates the DocumentEntry/ExtrinsicObject for the specified form
+	 * 
+	 * @param form the CaseReportForm
+	 * @param documentId the id to assign to the document entry
+	 * @param term the reference term for the class and type codes
+	 * @param orgOID the OID of the organisation
+	 * @return the ExtrinsicObjectType object
+	 * @throws JAXBException
+	 * @throws ParseException
+	 */
+	private ExtrinsicObjectType createDocumentEntry(CaseReportForm form, String documentId, ReferenceTerm term,
+	                                                String orgOID) throws JAXBException, ParseException {
 		ExtrinsicObjectType extrinsicObj = new ExtrinsicObjectType();
-		extrinsicObj.setId(DocumentConstants.XDS_DOC_ID);
+		extrinsicObj.setId(documentId);
 		extrinsicObj.setMimeType(MediaType.TEXT_XML.toString());
 		extrinsicObj.setObjectType(XDSConstants.UUID_XDSDocumentEntry);
 		extrinsicObj.setName(createName(DocumentConstants.TEXT_TITLE));
 		String reportDate = DocumentUtil.createTS(form.getReportDate()).getValue();
 		InfosetUtil.addOrOverwriteSlot(extrinsicObj, XDSConstants.SLOT_NAME_CREATION_TIME, reportDate);
 		InfosetUtil.addOrOverwriteSlot(extrinsicObj, XDSConstants.SLOT_NAME_LANGUAGE_CODE, DocumentConstants.LANGUAGE_CODE);
-		AdministrationService as = Context.getAdministrationService();
-		String openHieId = DocumentUtil.getMappedHieIdentifier(form.getIdentifierType().getUuid());
-		String patientId = String.format(DocumentUtil.getPatientIdFormat(), openHieId, form.getPatientIdentifier()
-		        .getValue().toString());
+		DocumentConfig config = DocumentConfig.get();
+		String patientId = getPatientId(form);
 		InfosetUtil.addOrOverwriteSlot(extrinsicObj, XDSConstants.SLOT_NAME_SOURCE_PATIENT_ID, patientId);
 		
-		String[] sourcePatientInfo = createPatientInfo(patientId);
+		String[] sourcePatientInfo = createPatientInfo(form, patientId);
 		InfosetUtil.addOrOverwriteSlot(extrinsicObj, XDSConstants.SLOT_NAME_SOURCE_PATIENT_INFO, sourcePatientInfo);
 		
-		String orgOID = DocumentUtil.getOrganisationOID();
 		String providerId = form.getSubmitter().getValue().toString();
 		PersonName personName = DocumentUtil.getPersonNameForProvider(providerId);
 		String authorId = String.format(DocumentConstants.PROV_ID_FORMAT, orgOID, personName.getGivenName(),
@@ -120,18 +235,17 @@ public final class ProvideAndRegisterDocGenerator {
 		InfosetUtil.addOrOverwriteSlot(authorClassification, XDSConstants.SLOT_NAME_AUTHOR_PERSON, authorId);
 		extrinsicObj.getClassification().add(authorClassification);
 		
-		ReferenceTerm term = DocumentUtil.getReferenceTerm(DocumentConstants.GP_CONCEPT_MAPPING_PUBLIC_HEALTH_CR);
 		addClassification(extrinsicObj, term.getCode(), term.getCodeSystem(), XDSConstants.UUID_XDSDocumentEntry_classCode,
 		    term.getName());
 		
-		String confidentiality = DocumentUtil.getConfidentialityCode();
+		String confidentiality = config.getConfidentialityCode();
 		addClassification(extrinsicObj, confidentiality, DocumentConstants.CODE_SYSTEM_CONFIDENTIALITY,
 		    XDSConstants.UUID_XDSDocumentEntry_confidentialityCode,
 		    DocumentUtil.getConfidentialityCodeNameMap().get(confidentiality));
 		
-		String facilityTypeCode = as.getGlobalProperty(DocumentConstants.GP_FACILITY_TYPE_CODE);
-		String facilityTypeCodeScheme = as.getGlobalProperty(DocumentConstants.GP_FACILITY_TYPE_CODING_SCHEME);
-		String facilityTypeName = as.getGlobalProperty(DocumentConstants.GP_FACILITY_TYPE_NAME);
+		String facilityTypeCode = config.getGlobalProperty(DocumentConstants.GP_FACILITY_TYPE_CODE);
+		String facilityTypeCodeScheme = config.getGlobalProperty(DocumentConstants.GP_FACILITY_TYPE_CODING_SCHEME);
+		String facilityTypeName = config.getGlobalProperty(DocumentConstants.GP_FACILITY_TYPE_NAME);
 		addClassification(extrinsicObj, facilityTypeCode, facilityTypeCodeScheme,
 		    XDSConstants.UUID_XDSDocumentEntry_healthCareFacilityTypeCode, facilityTypeName);
 		
@@ -139,9 +253,9 @@ public final class ProvideAndRegisterDocGenerator {
 		    DocumentConstants.CODE_SYSTEM_FORMAT_CODE_SET, XDSConstants.UUID_XDSDocumentEntry_formatCode,
 		    DocumentConstants.TEXT_FORMAT);
 		
-		String practiceCode = as.getGlobalProperty(DocumentConstants.GP_PRACTICE_CODE);
-		String practiceCodingScheme = as.getGlobalProperty(DocumentConstants.GP_PRACTICE_CODING_SCHEME);
-		String practiceName = as.getGlobalProperty(DocumentConstants.GP_PRACTICE_NAME);
+		String practiceCode = config.getGlobalProperty(DocumentConstants.GP_PRACTICE_CODE);
+		String practiceCodingScheme = config.getGlobalProperty(DocumentConstants.GP_PRACTICE_CODING_SCHEME);
+		String practiceName = config.getGlobalProperty(DocumentConstants.GP_PRACTICE_NAME);
 		addClassification(extrinsicObj, practiceCode, practiceCodingScheme,
 		    XDSConstants.UUID_XDSDocumentEntry_practiceSettingCode, practiceName);
 		
@@ -151,83 +265,92 @@ public final class ProvideAndRegisterDocGenerator {
 		addExternalIdentifier(extrinsicObj, patientId, XDSConstants.UUID_XDSDocumentEntry_patientId,
 		    DocumentConstants.TEXT_DOC_PATIENT_ID);
 		
-		String docUniqueId = generateOIDFromUuid(UUID.fromString(form.getReportUuid()));
-		addExternalIdentifier(extrinsicObj, docUniqueId, XDSConstants.UUID_XDSDocumentEntry_uniqueId,
-		    DocumentConstants.TEXT_DOC_UNIQUE_ID);
+		addExternalIdentifier(extrinsicObj, getDocumentUniqueId(form.getReportUuid()),
+		    XDSConstants.UUID_XDSDocumentEntry_uniqueId, DocumentConstants.TEXT_DOC_UNIQUE_ID);
 		
+		return extrinsicObj;
+	}
+	
+	/**
+	 * Gets the formatted HIE patient id for the patient of the specified form
+	 * 
+	 * @param form the CaseReportForm
+	 * @return the patient id
+	 */
+	private String getPatientId(CaseReportForm form) {
+		String openHieId = DocumentUtil.getMappedHieIdentifier(form.getIdentifierType().getUuid());
+		return String.format(DocumentUtil.getPatientIdFormat(), openHieId, form.getPatientIdentifier().getValue()
+		        .toString());
+	}
+	
+	/**
+	 * Gets the id of the document entry and document at the specified position in a generated
+	 * request
+	 * 
+	 * @param position the position of the form starting at 1
+	 * @return the document id
+	 */
+	static String getDocumentId(int position) {
+		return DocumentConstants.XDS_DOC_ID_PREFIX + position;
+	}
+	
+	/**
+	 * Gets the XDS.b unique id of the document generated for the case report with the specified
+	 * uuid
+	 * 
+	 * @param reportUuid the uuid of the case report
+	 * @return the document unique id
+	 */
+	static String getDocumentUniqueId(String reportUuid) {
+		return generateOIDFromUuid(UUID.fromString(reportUuid));
+	}
+	
+	/**
+	 * Extracts a request containing only the document with the specified id and its registry
+	 * objects from the specified request, the submission set is shared with the original request.
+	 * 
+	 * @param docRequest the request to extract from
+	 * @param documentId the id of the document to extract
+	 * @return the extracted ProvideAndRegisterDocumentSetRequestType object
+	 * @should extract the document with the specified id
+	 */
+	static ProvideAndRegisterDocumentSetRequestType extractDocumentRequest(ProvideAndRegisterDocumentSetRequestType docRequest,
+	                                                                       String documentId) {
 		SubmitObjectsRequest registryRequest = new SubmitObjectsRequest();
 		registryRequest.setRegistryObjectList(new RegistryObjectListType());
-		addObjectToRequest(registryRequest, extrinsicObj);
-		
-		//Create RegistryPackage/SubmissionSet
-		RegistryPackageType regPackage = new RegistryPackageType();
-		regPackage.setId(DocumentConstants.XDS_SUBSET_ID);
-		regPackage.setObjectType(DocumentConstants.XDS_SYMBOLIC_LINKS_PREFIX + DocumentConstants.XDS_REG_PACKAGE);
-		regPackage.setName(createName(DocumentConstants.TEXT_TITLE));
-		String dateSubmitted = DocumentUtil.createTS(new Date()).getValue();
-		InfosetUtil.addOrOverwriteSlot(regPackage, XDSConstants.SLOT_NAME_SUBMISSION_TIME, dateSubmitted);
-		addClassification(regPackage, term.getCode(), term.getCodeSystem(),
-		    XDSConstants.UUID_XDSSubmissionSet_contentTypeCode, term.getName());
-		
-		addExternalIdentifier(regPackage, patientId, XDSConstants.UUID_XDSSubmissionSet_patientId,
-		    DocumentConstants.TEXT_SUBSET_PATIENT_ID);
-		
-		String subUniqueId = generateOIDFromUuid(UUID.randomUUID());
-		addExternalIdentifier(regPackage, subUniqueId, XDSConstants.UUID_XDSSubmissionSet_uniqueId,
-		    DocumentConstants.TEXT_SUBSET_UNIQUE_ID);
-		
-		addExternalIdentifier(regPackage, orgOID, XDSConstants.UUID_XDSSubmissionSet_sourceId,
-		    DocumentConstants.TEXT_SUBSET_SOURCE_ID);
-		
-		addObjectToRequest(registryRequest, regPackage);
-		
-		//Create the classification of the TX
-		ClassificationType classification = new ClassificationType();
-		classification.setId(DocumentConstants.XDS_CLASSIFICATION_ID);
-		classification.setClassificationNode(XDSConstants.UUID_XDSSubmissionSet);
-		classification.setClassifiedObject(DocumentConstants.XDS_SUBSET_ID);
-		classification.setObjectType(DocumentConstants.XDS_SYMBOLIC_LINKS_PREFIX + DocumentConstants.XDS_CLASSIFICATION);
-		addObjectToRequest(registryRequest, classification);
-		
-		//Create the association that links the DocumentEntry to the RegistryPackage
-		AssociationType1 assoc = new AssociationType1();
-		assoc.setId(DocumentConstants.XDS_ASSOCIATION_ID);
-		assoc.setAssociationType(XDSConstants.HAS_MEMBER);
-		assoc.setObjectType(DocumentConstants.XDS_SYMBOLIC_LINKS_PREFIX + DocumentConstants.XDS_ASSOCIATION);
-		assoc.setSourceObject(DocumentConstants.XDS_SUBSET_ID);
-		assoc.setTargetObject(DocumentConstants.XDS_DOC_ID);
-		InfosetUtil.addOrOverwriteSlot(assoc, XDSConstants.SLOT_NAME_SUBMISSIONSET_STATUS, DocumentConstants.TEXT_ORIGINAL);
-		addObjectToRequest(registryRequest, assoc);
-		
-		ProvideAndRegisterDocumentSetRequestType docRequest = new ProvideAndRegisterDocumentSetRequestType();
-		docRequest.setSubmitObjectsRequest(registryRequest);
-		ClinicalDocument cdaDocument = new ClinicalDocumentGenerator(form).generate();
-		
-		XmlIts1Formatter fmtr = new XmlIts1Formatter();
-		//This instructs the XML ITS1 Formatter we want to use CDA datatypes
-		fmtr.getGraphAides().add(new DatatypeFormatter(R1FormatterCompatibilityMode.ClinicalDocumentArchitecture));
-		//The cda is ~8KB, might as well initialize the
-		//byte array to a fairly larger size
-		ByteArrayOutputStream cdaOutput = new ByteArrayOutputStream(10240);
-		fmtr.graph(cdaOutput, cdaDocument);
+		for (JAXBElement<? extends IdentifiableType> element : docRequest.getSubmitObjectsRequest()
+		        .getRegistryObjectList().getIdentifiable()) {
+			IdentifiableType object = element.getValue();
+			if (object instanceof ExtrinsicObjectType && !documentId.equals(object.getId())) {
+				continue;
+			}
+			if (object instanceof AssociationType1 && !documentId.equals(((AssociationType1) object).getTargetObject())) {
+				continue;
+			}
+			registryRequest.getRegistryObjectList().getIdentifiable().add(element);
+		}
 		
-		Document document = new Document();
-		document.setId(DocumentConstants.XDS_DOC_ID);
-		document.setValue(cdaOutput.toByteArray());
-		docRequest.getDocument().add(document);
+		ProvideAndRegisterDocumentSetRequestType extracted = new ProvideAndRegisterDocumentSetRequestType();
+		extracted.setSubmitObjectsRequest(registryRequest);
+		for (Document document : docRequest.getDocument()) {
+			if (documentId.equals(document.getId())) {
+				extracted.getDocument().add(document);
+			}
+		}
 		
-		return docRequest;
+		return extracted;
 	}
 	
 	/**
 	 * Creates the source patient info that goes in the sourcePatientInfo slot of the provide and
 	 * register request
 	 * 
+	 * @param form the CaseReportForm
 	 * @param patientId the patient Id
 	 * @return an array of the patient info
 	 * @throws ParseException
 	 */
-	private String[] createPatientInfo(String patientId) throws ParseException {
+	private String[] createPatientInfo(CaseReportForm form, String patientId) throws ParseException {
 		List<String> patientInfoList = new ArrayList<>(4);
 		patientInfoList.add(String.format(DocumentConstants.PID_3_PATTERN, patientId));
 		String gName = "";
@@ -244,7 +367,7 @@ public final class ProvideAndRegisterDocGenerator {
 		}
 		patientInfoList.add(String.format(DocumentConstants.PID_5_PATTERN, fName, gName, mName));
 		if (form.getBirthdate() != null) {
-			Date bDate = CaseReportConstants.DATE_FORMATTER.parse(form.getBirthdate());
+			Date bDate = form.getParsedBirthdate();
 			//The XDS repository expects birth date set to day precision
 			patientInfoList.add(String.format(DocumentConstants.PID_7_PATTERN, DocumentUtil.createTS(bDate, TS.DAY)));
 		}
@@ -357,7 +480,7 @@ public final class ProvideAndRegisterDocGenerator {
 	 * @param uuid the uuid object
 	 * @return the generated OID
 	 */
-	private String generateOIDFromUuid(UUID uuid) {
+	private static String generateOIDFromUuid(UUID uuid) {
 		return DocumentConstants.OID_PREFIX + DocumentUtil.convertToDecimal(uuid);
 	}
 }
@@ -19,4 +19,24 @@ public class CaseReportRestConstants {
 	
 	public static final String PARAM_STATUS = "status";
 	
+	public static final String PARAM_ORDER_BY = "orderBy";
+	
+	public static final String PARAM_ORDER = "order";
+	
+	public static final String ORDER_ASC = "asc";
+	
+	public static final String ORDER_DESC = "desc";
+	
+	public static final String PARAM_TOTAL_COUNT = "totalCount";
+	
+	public static final String PARAM_TRIGGER = "trigger";
+	
+	public static final String PARAM_FROM_DATE_CREATED = "fromDateCreated";
+	
+	public static final String PARAM_TO_DATE_CREATED = "toDateCreated";
+	
+	public static final String PARAM_FROM_RESOLUTION_DATE = "fromResolutionDate";
+	
+	public static final String PARAM_TO_RESOLUTION_DATE = "toResolutionDate";
+	
 }
@@ -0,0 +1,48 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport.rest;
+
+import java.util.List;
+
+import org.openmrs.module.webservices.rest.SimpleObject;
+import org.openmrs.module.webservices.rest.web.RequestContext;
+import org.openmrs.module.webservices.rest.web.resource.api.Converter;
+import org.openmrs.module.webservices.rest.web.resource.impl.AlreadyPaged;
+import org.openmrs.module.webservices.rest.web.response.ResponseException;
+
+/**
+ * An {@link AlreadyPaged} result that also includes the total number of matches in the response so
+ * that clients can display the page count without fetching all the results.
+ */
+public class CountedPage<T> extends AlreadyPaged<T> {
+	
+	public static final String PROPERTY_TOTAL_COUNT = "totalCount";
+	
+	private Long totalCount;
+	
+	public CountedPage(RequestContext context, List<T> results, boolean hasMoreResults, Long totalCount) {
+		super(context, results, hasMoreResults);
+		this.totalCount = totalCount;
+	}
+	
+	public Long getTotalCount() {
+		return totalCount;
+	}
+	
+	/**
+	 * @see AlreadyPaged#toSimpleObject(Converter)
+	 */
+	@Override
+	public SimpleObject toSimpleObject(Converter preferredConverter) throws ResponseException {
+		SimpleObject ret = super.toSimpleObject(preferredConverter);
+		ret.add(PROPERTY_TOTAL_COUNT, totalCount);
+		return ret;
+	}
+}
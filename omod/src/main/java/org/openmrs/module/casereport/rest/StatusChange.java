@@ -24,6 +24,8 @@ public class StatusChange {
 	
 	private CaseReportForm reportForm;
 	
+	private Integer version;
+	
 	public CaseReport getCaseReport() {
 		return caseReport;
 	}
@@ -47,4 +49,12 @@ public class StatusChange {
 	public void setReportForm(CaseReportForm reportForm) {
 		this.reportForm = reportForm;
 	}
+	
+	public Integer getVersion() {
+		return version;
+	}
+	
+	public void setVersion(Integer version) {
+		this.version = version;
+	}
 }
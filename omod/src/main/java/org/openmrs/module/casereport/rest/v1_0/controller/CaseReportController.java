@@ -12,21 +12,19 @@ package org.openmrs.module.casereport.rest.v1_0.controller;
 import java.io.ByteArrayInputStream;
 
 import javax.xml.bind.JAXBElement;
+import javax.xml.bind.Unmarshaller;
 import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.apache.xml.serializer.OutputPropertiesFactory;
 import org.dcm4chee.xds2.infoset.ihe.ProvideAndRegisterDocumentSetRequestType;
 import org.openmrs.api.APIException;
 import org.openmrs.module.casereport.CaseReport;
 import org.openmrs.module.casereport.CaseReportConstants;
+import org.openmrs.module.casereport.DocumentFormatters;
 import org.openmrs.module.casereport.DocumentUtil;
 import org.openmrs.module.casereport.api.CaseReportService;
 import org.openmrs.module.casereport.rest.CaseReportRestConstants;
@@ -39,7 +37,6 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.ResponseBody;
-import org.springframework.ws.client.core.WebServiceTemplate;
 import org.springframework.xml.transform.StringResult;
 import org.springframework.xml.transform.StringSource;
 import org.w3c.dom.Document;
@@ -54,7 +51,7 @@ public class CaseReportController extends MainResourceController {
 	private CaseReportService service;
 	
 	@Autowired
-	private WebServiceTemplate webServiceTemplate;
+	private DocumentFormatters formatters;
 	
 	/**
 	 * @see MainResourceController#getNamespace()
@@ -78,20 +75,32 @@ public class CaseReportController extends MainResourceController {
 		Exception e = null;
 		if (StringUtils.isNotBlank(pnrDoc)) {
 			try {
-				Object o = webServiceTemplate.getUnmarshaller().unmarshal(new StringSource(pnrDoc));
+				Unmarshaller unmarshaller = formatters.getXdsUnmarshallers().borrow();
+				Object o;
+				try {
+					o = unmarshaller.unmarshal(new StringSource(pnrDoc));
+				}
+				finally {
+					formatters.getXdsUnmarshallers().release(unmarshaller);
+				}
 				byte[] bytes = ((JAXBElement<ProvideAndRegisterDocumentSetRequestType>) o).getValue().getDocument().get(0)
 				        .getValue();
-				DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-				factory.setNamespaceAware(true);
-				DocumentBuilder db = factory.newDocumentBuilder();
-				Transformer transformer = TransformerFactory.newInstance().newTransformer();
-				transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-				transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-				transformer.setOutputProperty(OutputPropertiesFactory.S_KEY_INDENT_AMOUNT, "2");
-				transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
-				Document cdaDoc = db.parse(new ByteArrayInputStream(bytes));
+				DocumentBuilder builder = formatters.getDocumentBuilders().borrow();
+				Document cdaDoc;
+				try {
+					cdaDoc = builder.parse(new ByteArrayInputStream(bytes));
+				}
+				finally {
+					formatters.getDocumentBuilders().release(builder);
+				}
 				StringResult result = new StringResult();
-				transformer.transform(new DOMSource(cdaDoc), result);
+				Transformer prettyPrinter = formatters.getPrettyPrinters().borrow();
+				try {
+					prettyPrinter.transform(new DOMSource(cdaDoc), result);
+				}
+				finally {
+					formatters.getPrettyPrinters().release(prettyPrinter);
+				}
 				so.add("contents", result.toString());
 				
 				return so;
@@ -12,9 +12,10 @@ package org.openmrs.module.casereport.rest.v1_0.resource;
 import static org.openmrs.module.casereport.CaseReport.Status;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
-import org.codehaus.jackson.map.ObjectMapper;
 import org.openmrs.Patient;
 import org.openmrs.api.context.Context;
 import org.openmrs.module.casereport.CaseReport;
@@ -22,9 +23,12 @@ import org.openmrs.module.casereport.CaseReportConstants;
 import org.openmrs.module.casereport.CaseReportForm;
 import org.openmrs.module.casereport.CaseReportTrigger;
 import org.openmrs.module.casereport.CaseReportUtil;
+import org.openmrs.module.casereport.JsonUtil;
+import org.openmrs.module.casereport.api.CaseReportSearchCriteria;
 import org.openmrs.module.casereport.api.CaseReportService;
 import org.openmrs.module.casereport.rest.CaseReportRestConstants;
 import org.openmrs.module.casereport.rest.CaseReportRestException;
+import org.openmrs.module.casereport.rest.CountedPage;
 import org.openmrs.module.webservices.rest.SimpleObject;
 import org.openmrs.module.webservices.rest.web.ConversionUtil;
 import org.openmrs.module.webservices.rest.web.RequestContext;
@@ -37,9 +41,9 @@ import org.openmrs.module.webservices.rest.web.representation.DefaultRepresentat
 import org.openmrs.module.webservices.rest.web.representation.FullRepresentation;
 import org.openmrs.module.webservices.rest.web.representation.Representation;
 import org.openmrs.module.webservices.rest.web.resource.api.PageableResult;
+import org.openmrs.module.webservices.rest.web.resource.impl.AlreadyPaged;
 import org.openmrs.module.webservices.rest.web.resource.impl.DataDelegatingCrudResource;
 import org.openmrs.module.webservices.rest.web.resource.impl.DelegatingResourceDescription;
-import org.openmrs.module.webservices.rest.web.resource.impl.NeedsPaging;
 import org.openmrs.module.webservices.rest.web.response.GenericRestException;
 import org.openmrs.module.webservices.rest.web.response.ResourceDoesNotSupportOperationException;
 import org.openmrs.module.webservices.rest.web.response.ResponseException;
@@ -48,6 +52,8 @@ import org.openmrs.module.webservices.rest.web.v1_0.resource.openmrs1_9.PatientR
 @Resource(name = CaseReportRestConstants.REST_NAMESPACE + "/casereport", supportedClass = CaseReport.class, supportedOpenmrsVersions = { "1.11.*,1.12.*" })
 public class CaseReportResource extends DataDelegatingCrudResource<CaseReport> {
 	
+	private static final List<String> SORTABLE_PROPERTIES = Arrays.asList("dateCreated", "resolutionDate", "status");
+	
 	/**
 	 * @see DataDelegatingCrudResource#getRepresentationDescription(Representation)
 	 */
@@ -62,6 +68,7 @@ public class CaseReportResource extends DataDelegatingCrudResource<CaseReport> {
 			description.addProperty("resolutionDate");
 			description.addProperty("reportTriggers", Representation.DEFAULT);
 			description.addProperty("voided");
+			description.addProperty("version");
 			description.addSelfLink();
 			description.addLink("full", ".?v=" + RestConstants.REPRESENTATION_FULL);
 			return description;
@@ -75,6 +82,7 @@ public class CaseReportResource extends DataDelegatingCrudResource<CaseReport> {
 			description.addProperty("reportForm");
 			description.addProperty("reportTriggers", Representation.DEFAULT);
 			description.addProperty("voided");
+			description.addProperty("version");
 			description.addProperty("auditInfo");
 			description.addSelfLink();
 			return description;
@@ -121,7 +129,7 @@ public class CaseReportResource extends DataDelegatingCrudResource<CaseReport> {
 			form = new CaseReportForm(delegate);
 		} else {
 			try {
-				form = new ObjectMapper().readValue(delegate.getReportForm(), CaseReportForm.class);
+				form = JsonUtil.readReportForm(delegate.getReportForm());
 			}
 			catch (IOException e) {
 				throw new GenericRestException("Failed to parse report form data", e);
@@ -179,23 +187,13 @@ public class CaseReportResource extends DataDelegatingCrudResource<CaseReport> {
 	@Override
 	protected PageableResult doSearch(RequestContext context) {
 		Patient patient = null;
-		Status[] statuses = null;
-		if (StringUtils.isNotBlank(context.getParameter(CaseReportRestConstants.PARAM_STATUS))) {
-			String[] values = StringUtils.split(context.getParameter(CaseReportRestConstants.PARAM_STATUS).trim(), ",");
-			statuses = new Status[values.length];
-			for (int i = 0; i < statuses.length; i++) {
-				statuses[i] = Status.valueOf(values[i]);
-			}
-		}
-		
-		CaseReportService service = Context.getService(CaseReportService.class);
 		RestService rs = Context.getService(RestService.class);
 		if (StringUtils.isNotBlank(context.getParameter(CaseReportRestConstants.PARAM_PATIENT))) {
 			String uuid = context.getParameter(CaseReportRestConstants.PARAM_PATIENT);
 			patient = ((PatientResource1_9) rs.getResourceBySupportedClass(Patient.class)).getByUniqueId(uuid);
 		}
 		
-		return new NeedsPaging<>(service.getCaseReports(patient, context.getIncludeAll(), null, null, statuses), context);
+		return getPage(new CaseReportSearchCriteria(patient, context.getIncludeAll(), getStatuses(context)), context);
 	}
 	
 	/**
@@ -205,9 +203,68 @@ public class CaseReportResource extends DataDelegatingCrudResource<CaseReport> {
 	protected PageableResult doGetAll(RequestContext context) throws ResponseException {
 		//This actually returns the case report queue and should never return all
 		Status[] statuses = new Status[] { Status.NEW, Status.DRAFT };
+		
+		return getPage(new CaseReportSearchCriteria(null, context.getIncludeAll(), statuses), context);
+	}
+	
+	/**
+	 * Parses the comma separated statuses specified with the status parameter in the request
+	 * context
+	 *
+	 * @param context the request context
+	 * @return the statuses or null if none is specified
+	 */
+	public static Status[] getStatuses(RequestContext context) {
+		Status[] statuses = null;
+		if (StringUtils.isNotBlank(context.getParameter(CaseReportRestConstants.PARAM_STATUS))) {
+			String[] values = StringUtils.split(context.getParameter(CaseReportRestConstants.PARAM_STATUS).trim(), ",");
+			statuses = new Status[values.length];
+			for (int i = 0; i < statuses.length; i++) {
+				statuses[i] = Status.valueOf(values[i]);
+			}
+		}
+		
+		return statuses;
+	}
+	
+	/**
+	 * Fetches the page of case reports that match the specified search criteria, the page is
+	 * specified by the start index and limit in the request context, the filtering, paging and
+	 * sorting are done by the database so that only the case reports in the page are loaded. The
+	 * results are ordered by date created unless another property is specified with the orderBy
+	 * parameter, the total number of matches is included in the response if the totalCount
+	 * parameter is set to true.
+	 *
+	 * @param searchCriteria the search criteria to match against
+	 * @param context the request context
+	 * @return the page of case reports
+	 */
+	public PageableResult getPage(CaseReportSearchCriteria searchCriteria, RequestContext context) {
+		String orderBy = context.getParameter(CaseReportRestConstants.PARAM_ORDER_BY);
+		if (StringUtils.isBlank(orderBy)) {
+			orderBy = "dateCreated";
+		} else if (!SORTABLE_PROPERTIES.contains(orderBy)) {
+			throw new CaseReportRestException("Case reports can't be sorted by " + orderBy);
+		}
+		boolean asc = !CaseReportRestConstants.ORDER_DESC.equalsIgnoreCase(context
+		        .getParameter(CaseReportRestConstants.PARAM_ORDER));
+		
 		CaseReportService service = Context.getService(CaseReportService.class);
+		List<CaseReport> caseReports = service.getCaseReports(searchCriteria, orderBy, asc, context.getStartIndex(),
+		    context.getLimit());
+		boolean includeTotalCount = Boolean.valueOf(context.getParameter(CaseReportRestConstants.PARAM_TOTAL_COUNT));
+		Long count = null;
+		boolean hasMore = false;
+		if (includeTotalCount || caseReports.size() == context.getLimit()) {
+			count = service.getCaseReportCount(searchCriteria);
+			hasMore = context.getStartIndex() + caseReports.size() < count;
+		}
+		
+		if (includeTotalCount) {
+			return new CountedPage<>(context, caseReports, hasMore, count);
+		}
 		
-		return new NeedsPaging(service.getCaseReports(null, context.getIncludeAll(), "dateCreated", true, statuses), context);
+		return new AlreadyPaged<>(context, caseReports, hasMore);
 	}
 	
 	/**
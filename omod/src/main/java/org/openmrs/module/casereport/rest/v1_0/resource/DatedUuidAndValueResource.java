@@ -51,6 +51,6 @@ public class DatedUuidAndValueResource extends UuidAndValueResource {
 	 */
 	@Override
 	public DatedUuidAndValue getByUniqueId(String uniqueId) {
-		return new DatedUuidAndValue(uniqueId, null, null);
+		return new DatedUuidAndValue(uniqueId, null, (String) null);
 	}
 }
@@ -0,0 +1,154 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ * 
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport.rest.v1_0.resource;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.casereport.OutboxEntry;
+import org.openmrs.module.casereport.api.CaseReportService;
+import org.openmrs.module.casereport.rest.CaseReportRestConstants;
+import org.openmrs.module.webservices.rest.web.RequestContext;
+import org.openmrs.module.webservices.rest.web.RestConstants;
+import org.openmrs.module.webservices.rest.web.annotation.PropertyGetter;
+import org.openmrs.module.webservices.rest.web.annotation.PropertySetter;
+import org.openmrs.module.webservices.rest.web.annotation.Resource;
+import org.openmrs.module.webservices.rest.web.representation.DefaultRepresentation;
+import org.openmrs.module.webservices.rest.web.representation.FullRepresentation;
+import org.openmrs.module.webservices.rest.web.representation.Representation;
+import org.openmrs.module.webservices.rest.web.resource.api.PageableResult;
+import org.openmrs.module.webservices.rest.web.resource.impl.DelegatingCrudResource;
+import org.openmrs.module.webservices.rest.web.resource.impl.DelegatingResourceDescription;
+import org.openmrs.module.webservices.rest.web.resource.impl.NeedsPaging;
+import org.openmrs.module.webservices.rest.web.response.GenericRestException;
+import org.openmrs.module.webservices.rest.web.response.ResourceDoesNotSupportOperationException;
+import org.openmrs.module.webservices.rest.web.response.ResponseException;
+
+/**
+ * Exposes the outbox entries, a dead letter entry can be requeued by posting a status of PENDING
+ */
+@Resource(name = CaseReportRestConstants.REST_NAMESPACE + "/outboxentry", supportedClass = OutboxEntry.class, supportedOpenmrsVersions = { "1.11.*,1.12.*" })
+public class OutboxEntryResource extends DelegatingCrudResource<OutboxEntry> {
+	
+	/**
+	 * @see DelegatingCrudResource#getRepresentationDescription(Representation)
+	 */
+	@Override
+	public DelegatingResourceDescription getRepresentationDescription(Representation representation) {
+		if (representation instanceof DefaultRepresentation || representation instanceof FullRepresentation) {
+			DelegatingResourceDescription description = new DelegatingResourceDescription();
+			description.addProperty("uuid");
+			description.addProperty("display");
+			description.addProperty("caseReport", Representation.REF);
+			description.addProperty("status");
+			description.addProperty("attemptCount");
+			description.addProperty("nextAttemptDate");
+			description.addProperty("lastError");
+			description.addProperty("dateCreated");
+			description.addProperty("dateSent");
+			description.addSelfLink();
+			if (representation instanceof DefaultRepresentation) {
+				description.addLink("full", ".?v=" + RestConstants.REPRESENTATION_FULL);
+			}
+			return description;
+		}
+		return null;
+	}
+	
+	/**
+	 * @see DelegatingCrudResource#getUpdatableProperties()
+	 */
+	@Override
+	public DelegatingResourceDescription getUpdatableProperties() throws ResourceDoesNotSupportOperationException {
+		DelegatingResourceDescription description = new DelegatingResourceDescription();
+		description.addRequiredProperty("status");
+		return description;
+	}
+	
+	@PropertySetter("status")
+	public void setStatus(OutboxEntry instance, String status) {
+		if (!OutboxEntry.Status.PENDING.name().equals(status)) {
+			throw new GenericRestException("A dead letter outbox entry can only be requeued by setting its status to "
+			        + OutboxEntry.Status.PENDING);
+		}
+		instance.requeue();
+	}
+	
+	@PropertyGetter("display")
+	public String getDisplayString(OutboxEntry delegate) {
+		return delegate.toString();
+	}
+	
+	/**
+	 * @see DelegatingCrudResource#getByUniqueId(String)
+	 */
+	@Override
+	public OutboxEntry getByUniqueId(String uniqueId) {
+		return Context.getService(CaseReportService.class).getOutboxEntryByUuid(uniqueId);
+	}
+	
+	/**
+	 * @see DelegatingCrudResource#doGetAll(RequestContext)
+	 */
+	@Override
+	protected PageableResult doGetAll(RequestContext context) throws ResponseException {
+		//Returns the entries that are yet to be delivered
+		return new NeedsPaging<>(Context.getService(CaseReportService.class).getOutboxEntries(
+		    OutboxEntry.Status.PENDING, OutboxEntry.Status.DEAD_LETTER), context);
+	}
+	
+	/**
+	 * @see DelegatingCrudResource#doSearch(RequestContext)
+	 */
+	@Override
+	protected PageableResult doSearch(RequestContext context) {
+		OutboxEntry.Status[] statuses = null;
+		if (StringUtils.isNotBlank(context.getParameter(CaseReportRestConstants.PARAM_STATUS))) {
+			String[] values = StringUtils.split(context.getParameter(CaseReportRestConstants.PARAM_STATUS).trim(), ",");
+			statuses = new OutboxEntry.Status[values.length];
+			for (int i = 0; i < statuses.length; i++) {
+				statuses[i] = OutboxEntry.Status.valueOf(values[i]);
+			}
+		}
+		
+		return new NeedsPaging<>(Context.getService(CaseReportService.class).getOutboxEntries(statuses), context);
+	}
+	
+	/**
+	 * @see DelegatingCrudResource#newDelegate()
+	 */
+	@Override
+	public OutboxEntry newDelegate() {
+		throw new ResourceDoesNotSupportOperationException("Outbox entries are created when case reports are submitted");
+	}
+	
+	/**
+	 * @see DelegatingCrudResource#save(Object)
+	 */
+	@Override
+	public OutboxEntry save(OutboxEntry outboxEntry) {
+		return Context.getService(CaseReportService.class).saveOutboxEntry(outboxEntry);
+	}
+	
+	/**
+	 * @see DelegatingCrudResource#delete(Object, String, RequestContext)
+	 */
+	@Override
+	protected void delete(OutboxEntry outboxEntry, String reason, RequestContext context) throws ResponseException {
+		throw new ResourceDoesNotSupportOperationException();
+	}
+	
+	/**
+	 * @see DelegatingCrudResource#purge(Object, RequestContext)
+	 */
+	@Override
+	public void purge(OutboxEntry outboxEntry, RequestContext context) throws ResponseException {
+		throw new ResourceDoesNotSupportOperationException();
+	}
+}
@@ -11,11 +11,13 @@ package org.openmrs.module.casereport.rest.v1_0.resource;
 
 import java.io.IOException;
 
-import org.codehaus.jackson.map.ObjectMapper;
 import org.openmrs.api.APIException;
 import org.openmrs.api.context.Context;
 import org.openmrs.module.casereport.CaseReport;
+import org.openmrs.module.casereport.CaseReportConstants;
+import org.openmrs.module.casereport.JsonUtil;
 import org.openmrs.module.casereport.api.CaseReportService;
+import org.openmrs.module.casereport.rest.CaseReportRestException;
 import org.openmrs.module.casereport.rest.StatusChange;
 import org.openmrs.module.webservices.rest.web.RequestContext;
 import org.openmrs.module.webservices.rest.web.annotation.SubResource;
@@ -38,6 +40,7 @@ public class StatusChangeResource extends DelegatingSubResource<StatusChange, Ca
 		DelegatingResourceDescription description = new DelegatingResourceDescription();
 		description.addRequiredProperty("action");
 		description.addProperty("reportForm");
+		description.addProperty("version");
 		return description;
 	}
 	
@@ -54,10 +57,18 @@ public class StatusChangeResource extends DelegatingSubResource<StatusChange, Ca
 	 */
 	@Override
 	public StatusChange save(StatusChange delegate) {
+		//The version is the one the client loaded, if the case report has since been updated e.g. a
+		//trigger was added to it, the client has to reload it to see the changes
+		CaseReport parent = getParent(delegate);
+		if (delegate.getVersion() != null && !delegate.getVersion().equals(parent.getVersion())) {
+			throw new CaseReportRestException(CaseReportConstants.MODULE_ID + ".error.casereport.modified",
+			        new Object[] { parent.getPatient().getPersonName() });
+		}
+		
 		if (StatusChange.Action.SUBMIT == delegate.getAction()) {
 			CaseReport caseReport = getParent(delegate);
 			try {
-				caseReport.setReportForm(new ObjectMapper().writeValueAsString(delegate.getReportForm()));
+				caseReport.setReportForm(JsonUtil.writeReportForm(delegate.getReportForm()));
 			}
 			catch (IOException e) {
 				throw new APIException("Failed to serialize case report form data", e);
@@ -0,0 +1,162 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport.rest.v1_0.resource;
+
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.casereport.CaseReport;
+import org.openmrs.module.casereport.CaseReportListItem;
+import org.openmrs.module.casereport.api.CaseReportSearchCriteria;
+import org.openmrs.module.casereport.api.CaseReportService;
+import org.openmrs.module.casereport.rest.CaseReportRestConstants;
+import org.openmrs.module.casereport.rest.CountedPage;
+import org.openmrs.module.webservices.rest.web.ConversionUtil;
+import org.openmrs.module.webservices.rest.web.RequestContext;
+import org.openmrs.module.webservices.rest.web.RestConstants;
+import org.openmrs.module.webservices.rest.web.annotation.PropertyGetter;
+import org.openmrs.module.webservices.rest.web.annotation.Resource;
+import org.openmrs.module.webservices.rest.web.representation.Representation;
+import org.openmrs.module.webservices.rest.web.resource.api.PageableResult;
+import org.openmrs.module.webservices.rest.web.resource.impl.AlreadyPaged;
+import org.openmrs.module.webservices.rest.web.resource.impl.DelegatingCrudResource;
+import org.openmrs.module.webservices.rest.web.resource.impl.DelegatingResourceDescription;
+import org.openmrs.module.webservices.rest.web.response.ResourceDoesNotSupportOperationException;
+import org.openmrs.module.webservices.rest.web.response.ResponseException;
+import org.openmrs.util.OpenmrsUtil;
+
+/**
+ * Read only resource for listing submitted case reports, it exposes lightweight summaries of the
+ * case reports which are read with scalar queries so that the report forms and the patients are
+ * never loaded. The results are ordered by resolution date with the most recent coming first
+ * unless the order parameter is set to asc.
+ */
+@Resource(name = CaseReportRestConstants.REST_NAMESPACE + "/submittedcasereport", supportedClass = CaseReportListItem.class, supportedOpenmrsVersions = { "1.11.*,1.12.*" })
+public class SubmittedCaseReportResource extends DelegatingCrudResource<CaseReportListItem> {
+	
+	/**
+	 * @see DelegatingCrudResource#getRepresentationDescription(Representation)
+	 */
+	@Override
+	public DelegatingResourceDescription getRepresentationDescription(Representation representation) {
+		DelegatingResourceDescription description = new DelegatingResourceDescription();
+		description.addProperty("uuid");
+		description.addProperty("display");
+		description.addProperty("resolutionDate");
+		description.addProperty("patientUuid");
+		description.addProperty("identifier");
+		description.addProperty("personName");
+		description.addProperty("gender");
+		description.addProperty("age");
+		description.addProperty("triggers");
+		return description;
+	}
+	
+	@PropertyGetter("display")
+	public String getDisplayString(CaseReportListItem delegate) {
+		return delegate.toString();
+	}
+	
+	/**
+	 * @see DelegatingCrudResource#doGetAll(RequestContext)
+	 */
+	@Override
+	protected PageableResult doGetAll(RequestContext context) throws ResponseException {
+		return getPage(new CaseReportSearchCriteria(null, false, CaseReport.Status.SUBMITTED), context);
+	}
+	
+	/**
+	 * @see DelegatingCrudResource#doSearch(RequestContext)
+	 */
+	@Override
+	protected PageableResult doSearch(RequestContext context) {
+		CaseReportSearchCriteria criteria = new CaseReportSearchCriteria(null, false, CaseReport.Status.SUBMITTED);
+		String patientUuid = context.getParameter(CaseReportRestConstants.PARAM_PATIENT);
+		if (StringUtils.isNotBlank(patientUuid)) {
+			criteria.setPatient(Context.getPatientService().getPatientByUuid(patientUuid));
+		}
+		criteria.setPatientQuery(context.getParameter(RestConstants.REQUEST_PROPERTY_FOR_QUERY));
+		criteria.setTriggerName(context.getParameter(CaseReportRestConstants.PARAM_TRIGGER));
+		String fromDate = context.getParameter(CaseReportRestConstants.PARAM_FROM_RESOLUTION_DATE);
+		if (StringUtils.isNotBlank(fromDate)) {
+			Date date = (Date) ConversionUtil.convert(fromDate.trim(), Date.class);
+			criteria.setFromResolutionDate(OpenmrsUtil.firstSecondOfDay(date));
+		}
+		String toDate = context.getParameter(CaseReportRestConstants.PARAM_TO_RESOLUTION_DATE);
+		if (StringUtils.isNotBlank(toDate)) {
+			Date date = (Date) ConversionUtil.convert(toDate.trim(), Date.class);
+			criteria.setToResolutionDate(OpenmrsUtil.getLastMomentOfDay(date));
+		}
+		
+		return getPage(criteria, context);
+	}
+	
+	private PageableResult getPage(CaseReportSearchCriteria searchCriteria, RequestContext context) {
+		boolean asc = CaseReportRestConstants.ORDER_ASC.equalsIgnoreCase(context.getParameter(CaseReportRestConstants.PARAM_ORDER));
+		CaseReportService service = Context.getService(CaseReportService.class);
+		List<CaseReportListItem> items = service.getCaseReportListItems(searchCriteria, "resolutionDate", asc,
+		    context.getStartIndex(), context.getLimit());
+		boolean includeTotalCount = Boolean.valueOf(context.getParameter(CaseReportRestConstants.PARAM_TOTAL_COUNT));
+		Long count = null;
+		boolean hasMore = false;
+		if (includeTotalCount || items.size() == context.getLimit()) {
+			count = service.getCaseReportCount(searchCriteria);
+			hasMore = context.getStartIndex() + items.size() < count;
+		}
+		
+		if (includeTotalCount) {
+			return new CountedPage<>(context, items, hasMore, count);
+		}
+		
+		return new AlreadyPaged<>(context, items, hasMore);
+	}
+	
+	/**
+	 * @see DelegatingCrudResource#getByUniqueId(String)
+	 */
+	@Override
+	public CaseReportListItem getByUniqueId(String uniqueId) {
+		throw new ResourceDoesNotSupportOperationException();
+	}
+	
+	/**
+	 * @see DelegatingCrudResource#newDelegate()
+	 */
+	@Override
+	public CaseReportListItem newDelegate() {
+		throw new ResourceDoesNotSupportOperationException("read-only resource");
+	}
+	
+	/**
+	 * @see DelegatingCrudResource#save(Object)
+	 */
+	@Override
+	public CaseReportListItem save(CaseReportListItem item) {
+		throw new ResourceDoesNotSupportOperationException("read-only resource");
+	}
+	
+	/**
+	 * @see DelegatingCrudResource#delete(Object, String, RequestContext)
+	 */
+	@Override
+	protected void delete(CaseReportListItem item, String reason, RequestContext context) throws ResponseException {
+		throw new ResourceDoesNotSupportOperationException("read-only resource");
+	}
+	
+	/**
+	 * @see DelegatingCrudResource#purge(Object, RequestContext)
+	 */
+	@Override
+	public void purge(CaseReportListItem item, RequestContext context) throws ResponseException {
+		throw new ResourceDoesNotSupportOperationException("read-only resource");
+	}
+}
@@ -0,0 +1,112 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport.rest.v1_0.search;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openmrs.api.PatientService;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.casereport.CaseReport;
+import org.openmrs.module.casereport.api.CaseReportSearchCriteria;
+import org.openmrs.module.casereport.rest.CaseReportRestConstants;
+import org.openmrs.module.casereport.rest.v1_0.resource.CaseReportResource;
+import org.openmrs.module.webservices.rest.web.ConversionUtil;
+import org.openmrs.module.webservices.rest.web.RequestContext;
+import org.openmrs.module.webservices.rest.web.RestConstants;
+import org.openmrs.module.webservices.rest.web.api.RestService;
+import org.openmrs.module.webservices.rest.web.resource.api.PageableResult;
+import org.openmrs.module.webservices.rest.web.resource.api.SearchConfig;
+import org.openmrs.module.webservices.rest.web.resource.api.SearchHandler;
+import org.openmrs.module.webservices.rest.web.resource.api.SearchQuery;
+import org.openmrs.module.webservices.rest.web.response.ResponseException;
+import org.openmrs.util.OpenmrsUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Allows filtering case reports by patient name or identifier, trigger name, status, date created
+ * and resolution date, the filters are applied by the database and only the requested page is
+ * loaded. The dates are matched by day i.e. the to dates include the entire day.
+ */
+@Component
+public class CaseReportFilterSearchHandler implements SearchHandler {
+	
+	@Autowired
+	@Qualifier("patientService")
+	private PatientService pService;
+	
+	private SearchQuery query = new SearchQuery.Builder(
+	        "Allows filtering case reports by patient, trigger name, status, date created and resolution date")
+	        .withOptionalParameters(RestConstants.REQUEST_PROPERTY_FOR_QUERY, CaseReportRestConstants.PARAM_PATIENT,
+	            CaseReportRestConstants.PARAM_TRIGGER, CaseReportRestConstants.PARAM_STATUS,
+	            CaseReportRestConstants.PARAM_FROM_DATE_CREATED, CaseReportRestConstants.PARAM_TO_DATE_CREATED,
+	            CaseReportRestConstants.PARAM_FROM_RESOLUTION_DATE, CaseReportRestConstants.PARAM_TO_RESOLUTION_DATE)
+	        .build();
+	
+	private static final List<String> SUPPORTED_VERSIONS = Arrays.asList("1.11.*", "1.12.*");
+	
+	/**
+	 * @see SearchHandler#getSearchConfig()
+	 */
+	@Override
+	public SearchConfig getSearchConfig() {
+		return new SearchConfig("filter", CaseReportRestConstants.REST_NAMESPACE + "/casereport", SUPPORTED_VERSIONS,
+		        query);
+	}
+	
+	/**
+	 * @see SearchHandler#search(RequestContext)
+	 */
+	@Override
+	public PageableResult search(RequestContext requestContext) throws ResponseException {
+		CaseReportSearchCriteria criteria = new CaseReportSearchCriteria();
+		String patientUuid = requestContext.getParameter(CaseReportRestConstants.PARAM_PATIENT);
+		if (StringUtils.isNotBlank(patientUuid)) {
+			criteria.setPatient(pService.getPatientByUuid(patientUuid));
+		}
+		criteria.setPatientQuery(requestContext.getParameter(RestConstants.REQUEST_PROPERTY_FOR_QUERY));
+		criteria.setTriggerName(requestContext.getParameter(CaseReportRestConstants.PARAM_TRIGGER));
+		criteria.setStatuses(CaseReportResource.getStatuses(requestContext));
+		criteria.setIncludeVoided(requestContext.getIncludeAll());
+		
+		Date date = getDate(requestContext, CaseReportRestConstants.PARAM_FROM_DATE_CREATED);
+		if (date != null) {
+			criteria.setFromDateCreated(OpenmrsUtil.firstSecondOfDay(date));
+		}
+		date = getDate(requestContext, CaseReportRestConstants.PARAM_TO_DATE_CREATED);
+		if (date != null) {
+			criteria.setToDateCreated(OpenmrsUtil.getLastMomentOfDay(date));
+		}
+		date = getDate(requestContext, CaseReportRestConstants.PARAM_FROM_RESOLUTION_DATE);
+		if (date != null) {
+			criteria.setFromResolutionDate(OpenmrsUtil.firstSecondOfDay(date));
+		}
+		date = getDate(requestContext, CaseReportRestConstants.PARAM_TO_RESOLUTION_DATE);
+		if (date != null) {
+			criteria.setToResolutionDate(OpenmrsUtil.getLastMomentOfDay(date));
+		}
+		
+		RestService rs = Context.getService(RestService.class);
+		return ((CaseReportResource) rs.getResourceBySupportedClass(CaseReport.class)).getPage(criteria, requestContext);
+	}
+	
+	private Date getDate(RequestContext requestContext, String parameter) {
+		String value = requestContext.getParameter(parameter);
+		if (StringUtils.isBlank(value)) {
+			return null;
+		}
+		
+		return (Date) ConversionUtil.convert(value.trim(), Date.class);
+	}
+}
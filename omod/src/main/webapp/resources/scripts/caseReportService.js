@@ -19,6 +19,13 @@ angular.module('caseReportService', ['ngResource', 'uicommons.common'])
         });
     })
 
+    .factory('SubmittedCaseReport', function($resource) {
+
+        return $resource("/" + OPENMRS_CONTEXT_PATH  + "/ws/rest/v1/casereport/submittedcasereport", {},{
+            query: { method:'GET' }
+        });
+    })
+
     .factory('StatusChange', function($resource) {
 
         return $resource("/" + OPENMRS_CONTEXT_PATH  + "/ws/rest/v1/casereport/casereport/:uuid/statuschange", {
@@ -59,13 +66,38 @@ angular.module('caseReportService', ['ngResource', 'uicommons.common'])
         $httpProvider.defaults.transformRequest.push(defaultTransformer);
     })
 
-    .factory("CaseReportService", function(RestService, CaseReport, Trigger, SubmittedDocument) {
+    .factory("CaseReportService", function(RestService, CaseReport, SubmittedCaseReport, Trigger, SubmittedDocument) {
+
+        function getPage(resource, parameters, page, itemsPerPage) {
+            var params = _.clone(parameters);
+            params['startIndex'] = (page - 1) * itemsPerPage;
+            params['limit'] = itemsPerPage;
+            params['totalCount'] = true;
+
+            return resource.query(params).$promise.then(function(response){
+                return {
+                    results: response.results,
+                    totalCount: response.totalCount
+                };
+            });
+        }
 
         return {
             getCaseReports: function(parameters) {
                 return RestService.getAllResults(CaseReport, parameters);
             },
 
+            searchCaseReports: function(parameters, page, itemsPerPage) {
+                var params = _.clone(parameters);
+                params['s'] = 'filter';
+
+                return getPage(CaseReport, params, page, itemsPerPage);
+            },
+
+            searchSubmittedCaseReports: function(parameters, page, itemsPerPage) {
+                return getPage(SubmittedCaseReport, parameters, page, itemsPerPage);
+            },
+
             getSubmittedCaseReports: function(parameters) {
                 var params = _.clone(parameters);
                 params['status'] = 'SUBMITTED';
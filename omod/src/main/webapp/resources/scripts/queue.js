@@ -11,7 +11,6 @@
 angular.module("casereports.queue", [
         "caseReportService",
         "personService",
-        "casereport.filters",
         "ui.router",
         "ngDialog",
         "uicommons.filters",
@@ -78,9 +77,9 @@ angular.module("casereports.queue", [
             })
     }])
 
-    .controller("ViewQueueController", [ "$scope", "orderByFilter", "ngDialog", "StatusChange", "CaseReportService",
+    .controller("ViewQueueController", [ "$scope", "ngDialog", "StatusChange", "CaseReportService",
 
-        function($scope, orderBy, ngDialog, StatusChange, CaseReportService) {
+        function($scope, ngDialog, StatusChange, CaseReportService) {
             $scope.caseReports = [];
             $scope.patientSearchText = null;
             $scope.triggerSearchText = null;
@@ -88,25 +87,57 @@ angular.module("casereports.queue", [
             $scope.reverse = false;
             $scope.currentPage = 1;
             $scope.itemsPerPage = 10;
+            $scope.effectiveCount = 0;
             $scope.start = 0;
             $scope.end = 0;
 
-            var customRep = 'custom:(dateCreated,uuid,status,patient:(patientIdentifier:(identifier),' +
+            var customRep = 'custom:(dateCreated,uuid,status,version,patient:(patientIdentifier:(identifier),' +
                 'person:(uuid,gender,age,personName:(display))),reportTriggers:(display,auditInfo))';
 
+            //Only the current page is fetched, the filtering, sorting and paging are done by the server
             function loadCaseReports() {
-                CaseReportService.getCaseReports({v: customRep}).then(function(results) {
-                    $scope.caseReports = results;
-                    $scope.effectiveCount = $scope.caseReports.length;
+                var params = {
+                    v: customRep,
+                    status: 'NEW,DRAFT',
+                    orderBy: $scope.propertyName,
+                    order: $scope.reverse ? 'desc' : 'asc'
+                };
+                if($scope.patientSearchText){
+                    params['q'] = $scope.patientSearchText;
+                }
+                if($scope.triggerSearchText){
+                    params['trigger'] = $scope.triggerSearchText;
+                }
+
+                CaseReportService.searchCaseReports(params, $scope.currentPage, $scope.itemsPerPage).then(function(page) {
+                    $scope.caseReports = page.results;
+                    $scope.effectiveCount = page.totalCount;
+                    $scope.start = ($scope.currentPage - 1) * $scope.itemsPerPage;
+                    $scope.end = $scope.start + $scope.caseReports.length;
                 });
             }
 
             $scope.sort = function(propertyName){
                 $scope.reverse = ($scope.propertyName == propertyName) ? !$scope.reverse : false;
                 $scope.propertyName = propertyName;
-                $scope.caseReports = orderBy($scope.caseReports, $scope.propertyName, $scope.reverse);
+                loadCaseReports();
+            }
+
+            $scope.search = function(){
+                if($scope.currentPage != 1){
+                    //Changing the page triggers the reload
+                    $scope.currentPage = 1;
+                }else{
+                    loadCaseReports();
+                }
             }
 
+            $scope.$watch('currentPage', function(newValue, oldValue){
+                if(newValue != oldValue){
+                    loadCaseReports();
+                }
+            });
+
             $scope.openNewItemForm = function(){
                 emr.navigateTo({
                     provider: "coreapps",
@@ -127,7 +158,8 @@ angular.module("casereports.queue", [
                 }).then(function() {
                     StatusChange.save({
                         uuid: caseReport.uuid,
-                        action: "DISMISS"
+                        action: "DISMISS",
+                        version: caseReport.version
                     }).$promise.then(function() {
                         loadCaseReports();
                         emr.successMessage("casereport.dismissed");
@@ -217,7 +249,8 @@ angular.module("casereports.queue", [
                 StatusChange.save({
                     uuid: caseReport.uuid,
                     action: "SUBMIT",
-                    reportForm: $scope.caseReport.reportForm
+                    reportForm: $scope.caseReport.reportForm,
+                    version: caseReport.version
                 }).$promise.then(function() {
                     $state.go("list");
                     emr.successMessage("casereport.submitted");
@@ -230,53 +263,6 @@ angular.module("casereports.queue", [
         }
     ])
 
-    .filter('mainFilter', function ($filter) {
-
-        return function (caseReports, $scope) {
-
-            var matches = [];
-            if(!$scope.patientSearchText && !$scope.triggerSearchText){
-                matches = caseReports;
-            }else {
-                if (!$scope.triggerSearchText) {
-                    matches = $filter('searchReportsByPatient')(caseReports, $scope.patientSearchText);
-                } else {
-                    matches = $filter('searchReportsByTrigger')(caseReports, $scope.triggerSearchText);
-                }
-            }
-
-            $scope.effectiveCount = matches.length;
-            //apply paging so that we only see a single page of results
-            return $filter('pagination')(matches, $scope);
-        }
-
-    })
-
-    .filter('searchReportsByTrigger', function () {
-
-        return function (caseReports, searchText) {
-            if(!searchText) {
-                return caseReports;
-            }
-
-            var matches = [];
-            var regex = new RegExp(searchText, 'i');
-            for (var i = 0; i < caseReports.length; i++) {
-                var caseReport = caseReports[i];
-                for (var j = 0; j < caseReport.reportTriggers.length; j++) {
-                    var trigger = caseReport.reportTriggers[j];
-                    if (regex.test(trigger.display)) {
-                        matches.push(caseReport);
-                        break;
-                    }
-                }
-            }
-
-            return matches;
-        }
-
-    })
-
     .filter('searchTriggers', function () {
 
         return function (caseReportTriggers, searchText) {
@@ -11,7 +11,6 @@
 angular.module("casereports.submitted", [
         "ngSanitize",
         "caseReportService",
-        "casereport.filters",
         "ui.router",
         "ngDialog",
         "uicommons.filters",
@@ -53,17 +52,43 @@ angular.module("casereports.submitted", [
             $scope.searchText = null;
             $scope.currentPage = 1;
             $scope.itemsPerPage = 10;
+            $scope.effectiveCount = 0;
             $scope.start = 0;
             $scope.end = 0;
 
-            var customRep = 'custom:(resolutionDate,uuid,patient:(patientIdentifier:(identifier),' +
-                'person:(gender,age,personName:(display))),reportForm)';
+            //Only the current page is fetched, the filtering, sorting and paging are done by the server
+            //and the list items are lightweight summaries without the report forms
+            function loadCaseReports() {
+                var params = {};
+                if($scope.searchText){
+                    params['q'] = $scope.searchText;
+                }
 
-            CaseReportService.getSubmittedCaseReports({v: customRep}).then(function(results) {
-                $scope.caseReports = results;
-                $scope.effectiveCount = $scope.caseReports.length;
+                CaseReportService.searchSubmittedCaseReports(params, $scope.currentPage, $scope.itemsPerPage).then(function(page) {
+                    $scope.caseReports = page.results;
+                    $scope.effectiveCount = page.totalCount;
+                    $scope.start = ($scope.currentPage - 1) * $scope.itemsPerPage;
+                    $scope.end = $scope.start + $scope.caseReports.length;
+                });
+            }
+
+            $scope.search = function(){
+                if($scope.currentPage != 1){
+                    //Changing the page triggers the reload
+                    $scope.currentPage = 1;
+                }else{
+                    loadCaseReports();
+                }
+            }
+
+            $scope.$watch('currentPage', function(newValue, oldValue){
+                if(newValue != oldValue){
+                    loadCaseReports();
+                }
             });
 
+            loadCaseReports();
+
             $scope.showSubmittedDocument = function(caseReport){
                 $state.go('document', {
                     uuid: caseReport.uuid
@@ -189,22 +214,4 @@ angular.module("casereports.submitted", [
 
         }
         
-    ])
-
-    .filter('mainFilter', function ($filter) {
-
-        return function (caseReports, $scope) {
-
-            var matches = [];
-            if(!$scope.searchText){
-                matches = caseReports;
-            }else {
-                matches = $filter('searchReportsByPatient')(caseReports, $scope.searchText);
-            }
-
-            $scope.effectiveCount = matches.length;
-            //apply paging so that we only see a single page of results
-            return $filter('pagination')(matches, $scope);
-        }
-
-    });
\ No newline at end of file
+    ]);
\ No newline at end of file
@@ -23,6 +23,7 @@ import java.io.ByteArrayOutputStream;
 
 import javax.xml.parsers.DocumentBuilderFactory;
 
+import org.junit.Before;
 import org.junit.Test;
 import org.marc.everest.formatters.xml.datatypes.r1.DatatypeFormatter;
 import org.marc.everest.formatters.xml.datatypes.r1.R1FormatterCompatibilityMode;
@@ -42,6 +43,12 @@ import org.w3c.dom.Document;
 
 public class ClinicalDocumentGeneratorTest extends BaseModuleWebContextSensitiveTest {
 	
+	@Before
+	public void setup() throws Exception {
+		//The test data sets are inserted without notifying the global property listeners
+		DocumentConfig.clear();
+	}
+	
 	/**
 	 * @see ClinicalDocumentGenerator#generate()
 	 * @verifies generate a CDA document
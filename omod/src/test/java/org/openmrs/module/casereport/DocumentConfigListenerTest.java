@@ -0,0 +1,49 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.GlobalProperty;
+import org.openmrs.web.test.BaseModuleWebContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class DocumentConfigListenerTest extends BaseModuleWebContextSensitiveTest {
+	
+	@Autowired
+	private DocumentConfigListener listener;
+	
+	@Before
+	public void setup() throws Exception {
+		executeDataSet("moduleTestData-initial.xml");
+		executeDataSet("moduleTestData-HIE.xml");
+		//The test data sets are inserted without notifying the global property listeners
+		DocumentConfig.clear();
+	}
+	
+	/**
+	 * @see DocumentConfigListener#globalPropertyChanged(GlobalProperty)
+	 * @verifies clear the snapshot when a global property is changed
+	 */
+	@Test
+	public void globalPropertyChanged_shouldClearTheSnapshotWhenAGlobalPropertyIsChanged() throws Exception {
+		DocumentConfig config = DocumentConfig.get();
+		assertTrue(listener.supportsPropertyName(DocumentConstants.GP_ORG_NAME));
+		assertFalse(listener.supportsPropertyName("some.other.property"));
+		
+		listener.globalPropertyChanged(new GlobalProperty(DocumentConstants.GP_ORG_NAME, "New Clinic"));
+		
+		assertNotSame(config, DocumentConfig.get());
+	}
+}
@@ -0,0 +1,60 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.GlobalProperty;
+import org.openmrs.api.AdministrationService;
+import org.openmrs.api.context.Context;
+import org.openmrs.web.test.BaseModuleWebContextSensitiveTest;
+
+public class DocumentConfigTest extends BaseModuleWebContextSensitiveTest {
+	
+	@Before
+	public void setup() throws Exception {
+		executeDataSet("moduleTestData-initial.xml");
+		executeDataSet("moduleTestData-HIE.xml");
+		//The test data sets are inserted without notifying the global property listeners
+		DocumentConfig.clear();
+	}
+	
+	/**
+	 * @see DocumentConfig#get()
+	 * @verifies reload the values after the snapshot is cleared
+	 */
+	@Test
+	public void get_shouldReloadTheValuesAfterTheSnapshotIsCleared() throws Exception {
+		DocumentConfig config = DocumentConfig.get();
+		assertEquals("Dev Clinic", config.getOrganisationName());
+		assertEquals("2.16.840.1.113883.1.3", config.getMappedHieIdentifier("1A339FE9-38BC-4AB3-B180-320988C0B968"));
+		assertEquals("LOINC", config.getReferenceTerm(DocumentConstants.GP_CONCEPT_MAPPING_PUBLIC_HEALTH_CR)
+		        .getCodeSystemName());
+		assertEquals(DocumentConstants.DEFAULT_OUTBOX_SUBMISSION_SIZE, config.getOutboxSubmissionSize());
+		assertFalse(config.isCorsEnabled());
+		assertSame(config, DocumentConfig.get());
+		AdministrationService as = Context.getAdministrationService();
+		GlobalProperty gp = as.getGlobalPropertyObject(DocumentConstants.GP_ORG_NAME);
+		gp.setPropertyValue("New Clinic");
+		as.saveGlobalProperty(gp);
+		as.saveGlobalProperty(new GlobalProperty(CaseReportWebConstants.GP_ENABLE_CORS, "true"));
+		
+		DocumentConfig.clear();
+		
+		config = DocumentConfig.get();
+		assertEquals("New Clinic", config.getOrganisationName());
+		assertTrue(config.isCorsEnabled());
+	}
+}
@@ -0,0 +1,144 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import java.io.ByteArrayOutputStream;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.Marshaller;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.dcm4chee.xds2.infoset.ihe.ObjectFactory;
+import org.dcm4chee.xds2.infoset.ihe.ProvideAndRegisterDocumentSetRequestType;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.marc.everest.formatters.xml.datatypes.r1.DatatypeFormatter;
+import org.marc.everest.formatters.xml.datatypes.r1.R1FormatterCompatibilityMode;
+import org.marc.everest.formatters.xml.its1.XmlIts1Formatter;
+import org.marc.everest.rmim.uv.cdar2.pocd_mt000040uv.ClinicalDocument;
+import org.openmrs.Provider;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.casereport.api.CaseReportService;
+import org.openmrs.web.test.BaseModuleWebContextSensitiveTest;
+import org.springframework.oxm.jaxb.Jaxb2Marshaller;
+import org.springframework.xml.transform.StringResult;
+
+/**
+ * Compares the number of documents formatted per second when a new XmlIts1Formatter and
+ * marshaller are set up for each document against reusing the ones from
+ * {@link DocumentFormatters}. It is ignored by default since it only logs the numbers, the number
+ * of iterations can be set with the casereport.benchmark.iterations system property.
+ */
+@Ignore
+public class DocumentFormattersBenchmarkTest extends BaseModuleWebContextSensitiveTest {
+	
+	private static final Log log = LogFactory.getLog(DocumentFormattersBenchmarkTest.class);
+	
+	private static final int ITERATIONS = Integer.getInteger("casereport.benchmark.iterations", 500);
+	
+	private ClinicalDocument cdaDocument;
+	
+	private JAXBElement<ProvideAndRegisterDocumentSetRequestType> docElement;
+	
+	private interface Formatting {
+		
+		void run() throws Exception;
+	}
+	
+	@Before
+	public void setup() throws Exception {
+		executeDataSet("moduleTestData-initial.xml");
+		executeDataSet("moduleTestData-other.xml");
+		executeDataSet("moduleTestData-HIE.xml");
+		//The test data sets are inserted without notifying the global property listeners
+		DocumentConfig.clear();
+		
+		CaseReport caseReport = Context.getService(CaseReportService.class).getCaseReport(1);
+		CaseReportForm form = new CaseReportForm(caseReport);
+		Provider provider = Context.getProviderService().getProvider(1);
+		form.setSubmitter(new UuidAndValue(provider.getUuid(), provider.getIdentifier()));
+		cdaDocument = new ClinicalDocumentGenerator(form).generate();
+		docElement = new ObjectFactory().createProvideAndRegisterDocumentSetRequest(new ProvideAndRegisterDocGenerator(
+		        form).generate());
+	}
+	
+	private void measure(String label, Formatting formatting) throws Exception {
+		//warm up
+		for (int i = 0; i < ITERATIONS; i++) {
+			formatting.run();
+		}
+		
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			formatting.run();
+		}
+		long elapsed = System.nanoTime() - start;
+		
+		log.info(String.format("%s: %.1f documents per second", label, ITERATIONS * 1e9 / elapsed));
+	}
+	
+	@Test
+	public void benchmarkTheCdaFormatting() throws Exception {
+		measure("new CDA formatter per document", new Formatting() {
+			
+			@Override
+			public void run() throws Exception {
+				XmlIts1Formatter fmtr = new XmlIts1Formatter();
+				fmtr.getGraphAides().add(new DatatypeFormatter(R1FormatterCompatibilityMode.ClinicalDocumentArchitecture));
+				fmtr.graph(new ByteArrayOutputStream(10240), cdaDocument);
+			}
+		});
+		
+		measure("reused CDA formatter", new Formatting() {
+			
+			@Override
+			public void run() throws Exception {
+				DocumentFormatters.Pool<XmlIts1Formatter> pool = DocumentFormatters.getInstance().getCdaFormatters();
+				XmlIts1Formatter fmtr = pool.borrow();
+				try {
+					fmtr.graph(new ByteArrayOutputStream(10240), cdaDocument);
+				}
+				finally {
+					pool.release(fmtr);
+				}
+			}
+		});
+	}
+	
+	@Test
+	public void benchmarkTheXdsMarshalling() throws Exception {
+		final Jaxb2Marshaller jaxb2Marshaller = Context.getRegisteredComponent(DocumentFormatters.MARSHALLER_BEAN_NAME,
+		    Jaxb2Marshaller.class);
+		measure("new XDS marshaller per document", new Formatting() {
+			
+			@Override
+			public void run() throws Exception {
+				jaxb2Marshaller.marshal(docElement, new StringResult());
+			}
+		});
+		
+		measure("reused XDS marshaller", new Formatting() {
+			
+			@Override
+			public void run() throws Exception {
+				DocumentFormatters.Pool<Marshaller> pool = DocumentFormatters.getInstance().getXdsMarshallers();
+				Marshaller marshaller = pool.borrow();
+				try {
+					marshaller.marshal(docElement, new StringResult());
+				}
+				finally {
+					pool.release(marshaller);
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,93 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.marc.everest.formatters.xml.its1.XmlIts1Formatter;
+
+public class DocumentFormattersTest {
+	
+	/**
+	 * @see DocumentFormatters.Pool#borrow()
+	 * @verifies return a released instance
+	 */
+	@Test
+	public void borrow_shouldReturnAReleasedInstance() throws Exception {
+		DocumentFormatters.Pool<XmlIts1Formatter> pool = new DocumentFormatters().getCdaFormatters();
+		XmlIts1Formatter fmtr = pool.borrow();
+		assertNotNull(fmtr);
+		pool.release(fmtr);
+		
+		assertSame(fmtr, pool.borrow());
+	}
+	
+	/**
+	 * @see DocumentFormatters.Pool#borrow()
+	 * @verifies create a new instance if there is no idle one
+	 */
+	@Test
+	public void borrow_shouldCreateANewInstanceIfThereIsNoIdleOne() throws Exception {
+		DocumentFormatters.Pool<XmlIts1Formatter> pool = new DocumentFormatters().getCdaFormatters();
+		XmlIts1Formatter fmtr = pool.borrow();
+		
+		XmlIts1Formatter other = pool.borrow();
+		
+		assertNotNull(other);
+		assertNotSame(fmtr, other);
+	}
+	
+	/**
+	 * @see DocumentFormatters.Pool#release(Object)
+	 * @verifies not keep more than the maximum number of idle instances
+	 */
+	@Test
+	public void release_shouldNotKeepMoreThanTheMaximumNumberOfIdleInstances() throws Exception {
+		DocumentFormatters.Pool<XmlIts1Formatter> pool = new DocumentFormatters().getCdaFormatters();
+		List<XmlIts1Formatter> borrowed = new ArrayList<>();
+		for (int i = 0; i < DocumentFormatters.MAX_IDLE + 1; i++) {
+			borrowed.add(pool.borrow());
+		}
+		for (XmlIts1Formatter fmtr : borrowed) {
+			pool.release(fmtr);
+		}
+		
+		List<XmlIts1Formatter> reused = new ArrayList<>();
+		for (int i = 0; i < DocumentFormatters.MAX_IDLE + 1; i++) {
+			XmlIts1Formatter fmtr = pool.borrow();
+			if (borrowed.contains(fmtr)) {
+				reused.add(fmtr);
+			}
+		}
+		assertEquals(DocumentFormatters.MAX_IDLE, reused.size());
+	}
+	
+	/**
+	 * @see DocumentFormatters#destroy()
+	 * @verifies discard the idle instances
+	 */
+	@Test
+	public void destroy_shouldDiscardTheIdleInstances() throws Exception {
+		DocumentFormatters formatters = new DocumentFormatters();
+		XmlIts1Formatter fmtr = formatters.getCdaFormatters().borrow();
+		formatters.getCdaFormatters().release(fmtr);
+		
+		formatters.destroy();
+		
+		assertNotSame(fmtr, formatters.getCdaFormatters().borrow());
+	}
+}
@@ -21,6 +21,7 @@ import java.util.UUID;
 
 import org.apache.commons.lang3.SystemUtils;
 import org.hamcrest.CoreMatchers;
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -33,6 +34,12 @@ public class DocumentUtilTest extends BaseModuleWebContextSensitiveTest {
 	@Rule
 	public ExpectedException expectedException = ExpectedException.none();
 	
+	@Before
+	public void setup() throws Exception {
+		//The test data sets are inserted without notifying the global property listeners
+		DocumentConfig.clear();
+	}
+	
 	@Test
 	public void convertToDecimalString_shouldReturnTheStringifiedDecimalFormOfTheSpecifiedUuid() {
 		assertEquals("165886298145228458464681453875973269261",
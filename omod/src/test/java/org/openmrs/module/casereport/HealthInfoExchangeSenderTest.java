@@ -0,0 +1,194 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang.StringUtils;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.hamcrest.Matchers;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.openmrs.Provider;
+import org.openmrs.api.APIException;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.casereport.api.CaseReportService;
+import org.openmrs.web.test.BaseModuleWebContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+
+public class HealthInfoExchangeSenderTest extends BaseModuleWebContextSensitiveTest {
+	
+	private static final DateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd");
+	
+	private static final Integer OpenHIM_PORT = TestUtils.getAvailablePort();
+	
+	@Autowired
+	private HealthInfoExchangeSender sender;
+	
+	@Rule
+	public WireMockRule wireMockRule = new WireMockRule(OpenHIM_PORT);
+	
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+	
+	@Before
+	public void setup() throws Exception {
+		executeDataSet("moduleTestData-initial.xml");
+		executeDataSet("moduleTestData-other.xml");
+		executeDataSet("moduleTestData-HIE.xml");
+		//The test data sets are inserted without notifying the global property listeners
+		DocumentConfig.clear();
+	}
+	
+	/**
+	 * @see HealthInfoExchangeSender#send(CaseReport)
+	 * @verifies submit the document successfully to the configured url
+	 */
+	@Test
+	public void send_shouldSubmitTheDocumentSuccessfullyToTheConfiguredUrl() throws Exception {
+		
+		CaseReportService service = Context.getService(CaseReportService.class);
+		CaseReport caseReport = service.getCaseReport(1);
+		CaseReportForm form = new CaseReportForm(caseReport);
+		Provider p = Context.getProviderService().getProvider(1);
+		form.setSubmitter(new UuidAndValue(p.getUuid(), p.getIdentifier()));
+		caseReport.setReportForm(new ObjectMapper().writeValueAsString(form));
+		Date resolutionDate = DATE_FORMAT.parse("2017-04-26");
+		caseReport.setResolutionDate(resolutionDate);
+		caseReport.setStatus(CaseReport.Status.SUBMITTED);
+		TestUtils.createPostStub(true);
+		TestUtils.setOpenHIMPort(OpenHIM_PORT);
+		
+		sender.send(caseReport);
+		
+		final String path = "/xdsrepository";
+		String expectedUrl = "http://localhost:" + OpenHIM_PORT + path;
+		WireMock.verify(1,
+		    WireMock.postRequestedFor(WireMock.urlEqualTo(path)).withRequestBody(WireMock.containing(expectedUrl)));
+		
+		//Should have saved a copy to the filesystem
+		String docContents = DocumentUtil.getSubmittedDocumentContents(caseReport);
+		assertTrue(StringUtils.isNotBlank(docContents));
+		assertTrue(docContents.indexOf("ProvideAndRegisterDocumentSetRequest") > -1);
+	}
+	
+	/**
+	 * @see HealthInfoExchangeSender#send(CaseReport)
+	 * @verifies send the same request that is saved to the file system
+	 */
+	@Test
+	public void send_shouldSendTheSameRequestThatIsSavedToTheFileSystem() throws Exception {
+		CaseReport caseReport = prepareCaseReport(1);
+		TestUtils.createPostStub(true);
+		TestUtils.setOpenHIMPort(OpenHIM_PORT);
+		
+		sender.send(caseReport);
+		
+		String docContents = DocumentUtil.getSubmittedDocumentContents(caseReport);
+		Matcher matcher = Pattern.compile("<(?:\\w+:)?Document\\b[^>]*>([^<]+)<").matcher(docContents);
+		assertTrue(matcher.find());
+		WireMock.verify(1, WireMock.postRequestedFor(WireMock.urlEqualTo("/xdsrepository")).withRequestBody(
+		    WireMock.containing(matcher.group(1))));
+	}
+	
+	/**
+	 * @see HealthInfoExchangeSender#send(CaseReport)
+	 * @verifies fail for a response that is not a success
+	 */
+	@Test
+	public void send_shouldFailForAResponseThatIsNotASuccess() throws Exception {
+		
+		CaseReportService service = Context.getService(CaseReportService.class);
+		CaseReport caseReport = service.getCaseReport(1);
+		CaseReportForm form = new CaseReportForm(caseReport);
+		Provider p = Context.getProviderService().getProvider(1);
+		form.setSubmitter(new UuidAndValue(p.getUuid(), p.getIdentifier()));
+		caseReport.setReportForm(new ObjectMapper().writeValueAsString(form));
+		Date resolutionDate = DATE_FORMAT.parse("2017-04-26");
+		caseReport.setResolutionDate(resolutionDate);
+		TestUtils.createPostStub(false);
+		TestUtils.setOpenHIMPort(OpenHIM_PORT);
+		
+		expectedException.expect(APIException.class);
+		String errorMsg = "Severity: Error, Code: XDSDocumentUniqueIdError, Message: Document id 2.25.123 is duplicate"
+		        + System.getProperty("line.separator");
+		expectedException.expectMessage(Matchers.equalTo(errorMsg));
+		
+		sender.send(caseReport);
+	}
+	
+	private CaseReport prepareCaseReport(Integer caseReportId) throws Exception {
+		CaseReport caseReport = Context.getService(CaseReportService.class).getCaseReport(caseReportId);
+		CaseReportForm form = new CaseReportForm(caseReport);
+		Provider p = Context.getProviderService().getProvider(1);
+		form.setSubmitter(new UuidAndValue(p.getUuid(), p.getIdentifier()));
+		caseReport.setReportForm(new ObjectMapper().writeValueAsString(form));
+		caseReport.setResolutionDate(DATE_FORMAT.parse("2017-04-26"));
+		caseReport.setStatus(CaseReport.Status.SUBMITTED);
+		return caseReport;
+	}
+	
+	/**
+	 * @see HealthInfoExchangeSender#send(java.util.List)
+	 * @verifies submit the documents in a single request
+	 */
+	@Test
+	public void send_shouldSubmitTheDocumentsInASingleRequest() throws Exception {
+		CaseReport caseReport1 = prepareCaseReport(1);
+		CaseReport caseReport2 = prepareCaseReport(200);
+		TestUtils.createPostStub(true);
+		TestUtils.setOpenHIMPort(OpenHIM_PORT);
+		
+		HealthInfoExchangeSender.SubmissionResult result = sender.send(Arrays.asList(caseReport1, caseReport2));
+		
+		assertTrue(result.isSuccess());
+		assertTrue(result.getRejected().isEmpty());
+		WireMock.verify(1, WireMock.postRequestedFor(WireMock.urlEqualTo("/xdsrepository")));
+		//Should have saved a copy of each report's document to the filesystem
+		for (CaseReport caseReport : Arrays.asList(caseReport1, caseReport2)) {
+			String docContents = DocumentUtil.getSubmittedDocumentContents(caseReport);
+			assertTrue(docContents.indexOf("ProvideAndRegisterDocumentSetRequest") > -1);
+			assertTrue(docContents.indexOf(ProvideAndRegisterDocGenerator.getDocumentUniqueId(caseReport.getUuid())) > -1);
+		}
+	}
+	
+	/**
+	 * @see HealthInfoExchangeSender#send(java.util.List)
+	 * @verifies map the registry errors to the case reports whose documents they reference
+	 */
+	@Test
+	public void send_shouldMapTheRegistryErrorsToTheCaseReportsWhoseDocumentsTheyReference() throws Exception {
+		CaseReport caseReport1 = prepareCaseReport(1);
+		CaseReport caseReport2 = prepareCaseReport(200);
+		TestUtils.createFailurePostStub("batch_failure_response.xml");
+		TestUtils.setOpenHIMPort(OpenHIM_PORT);
+		
+		HealthInfoExchangeSender.SubmissionResult result = sender.send(Arrays.asList(caseReport1, caseReport2));
+		
+		assertFalse(result.isSuccess());
+		assertEquals(1, result.getRejected().size());
+		assertTrue(result.getRejected().get(caseReport2).indexOf("XDSPatientIdDoesNotMatch") > -1);
+		assertEquals(result.getError(), result.getRejected().get(caseReport2));
+	}
+}
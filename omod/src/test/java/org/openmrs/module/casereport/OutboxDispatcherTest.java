@@ -0,0 +1,242 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ * 
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.openmrs.GlobalProperty;
+import org.openmrs.Provider;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.casereport.api.CaseReportService;
+import org.openmrs.web.test.BaseModuleWebContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+
+public class OutboxDispatcherTest extends BaseModuleWebContextSensitiveTest {
+	
+	private static final DateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd");
+	
+	private static final Integer OpenHIM_PORT = TestUtils.getAvailablePort();
+	
+	@Autowired
+	private OutboxDispatcher dispatcher;
+	
+	@Autowired
+	private CaseReportService service;
+	
+	@Rule
+	public WireMockRule wireMockRule = new WireMockRule(OpenHIM_PORT);
+	
+	@Before
+	public void setup() throws Exception {
+		executeDataSet("moduleTestData-initial.xml");
+		executeDataSet("moduleTestData-other.xml");
+		executeDataSet("moduleTestData-HIE.xml");
+		//The test data sets are inserted without notifying the global property listeners
+		DocumentConfig.clear();
+		TestUtils.setOpenHIMPort(OpenHIM_PORT);
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(DocumentConstants.GP_OUTBOX_WORKER_COUNT, "1"));
+	}
+	
+	private OutboxEntry createDueEntry() throws Exception {
+		markDueEntriesAsSent();
+		return createEntry(1);
+	}
+	
+	private void markDueEntriesAsSent() {
+		//Only keep the new entries due
+		for (OutboxEntry entry : service.getDueOutboxEntries(new Date(), null, null)) {
+			entry.markSent();
+			service.saveOutboxEntry(entry);
+		}
+	}
+	
+	private OutboxEntry createEntry(Integer caseReportId) throws Exception {
+		CaseReport caseReport = service.getCaseReport(caseReportId);
+		CaseReportForm form = new CaseReportForm(caseReport);
+		Provider p = Context.getProviderService().getProvider(1);
+		form.setSubmitter(new UuidAndValue(p.getUuid(), p.getIdentifier()));
+		caseReport.setReportForm(new ObjectMapper().writeValueAsString(form));
+		caseReport.setResolutionDate(DATE_FORMAT.parse("2017-04-26"));
+		caseReport.setStatus(CaseReport.Status.SUBMITTED);
+		
+		return service.saveOutboxEntry(new OutboxEntry(caseReport));
+	}
+	
+	/**
+	 * @see OutboxDispatcher#dispatch()
+	 * @verifies send the documents for the due outbox entries
+	 */
+	@Test
+	public void dispatch_shouldSendTheDocumentsForTheDueOutboxEntries() throws Exception {
+		OutboxEntry entry = createDueEntry();
+		TestUtils.createPostStub(true);
+		
+		assertEquals(1, dispatcher.dispatch());
+		
+		entry = service.getOutboxEntry(entry.getId());
+		assertEquals(OutboxEntry.Status.SENT, entry.getStatus());
+		assertNotNull(entry.getDateSent());
+		assertNull(entry.getLastError());
+	}
+	
+	/**
+	 * @see OutboxDispatcher#dispatch()
+	 * @verifies schedule a retry for a failed delivery
+	 */
+	@Test
+	public void dispatch_shouldScheduleARetryForAFailedDelivery() throws Exception {
+		OutboxEntry entry = createDueEntry();
+		TestUtils.createPostStub(false);
+		
+		assertEquals(0, dispatcher.dispatch());
+		
+		entry = service.getOutboxEntry(entry.getId());
+		assertTrue(entry.isPending());
+		assertEquals(1, entry.getAttemptCount());
+		assertNotNull(entry.getLastError());
+		assertTrue(entry.getNextAttemptDate().after(new Date()));
+	}
+	
+	/**
+	 * @see OutboxDispatcher#dispatch()
+	 * @verifies move an entry to the dead letter state after the maximum number of attempts
+	 */
+	@Test
+	public void dispatch_shouldMoveAnEntryToTheDeadLetterStateAfterTheMaximumNumberOfAttempts() throws Exception {
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(DocumentConstants.GP_OUTBOX_MAX_ATTEMPTS, "1"));
+		OutboxEntry entry = createDueEntry();
+		TestUtils.createPostStub(false);
+		
+		dispatcher.dispatch();
+		
+		entry = service.getOutboxEntry(entry.getId());
+		assertTrue(entry.isDeadLetter());
+		assertEquals(1, entry.getAttemptCount());
+		assertNull(entry.getNextAttemptDate());
+	}
+	
+	/**
+	 * @see OutboxDispatcher#dispatch()
+	 * @verifies send the documents of multiple entries in a single request
+	 */
+	@Test
+	public void dispatch_shouldSendTheDocumentsOfMultipleEntriesInASingleRequest() throws Exception {
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(DocumentConstants.GP_OUTBOX_SUBMISSION_SIZE, "2"));
+		markDueEntriesAsSent();
+		OutboxEntry entry1 = createEntry(1);
+		OutboxEntry entry2 = createEntry(200);
+		TestUtils.createPostStub(true);
+		
+		assertEquals(2, dispatcher.dispatch());
+		
+		WireMock.verify(1, WireMock.postRequestedFor(WireMock.urlEqualTo("/xdsrepository")));
+		assertEquals(OutboxEntry.Status.SENT, service.getOutboxEntry(entry1.getId()).getStatus());
+		assertEquals(OutboxEntry.Status.SENT, service.getOutboxEntry(entry2.getId()).getStatus());
+	}
+	
+	/**
+	 * @see OutboxDispatcher#dispatch()
+	 * @verifies send the documents of different patients in separate requests
+	 */
+	@Test
+	public void dispatch_shouldSendTheDocumentsOfDifferentPatientsInSeparateRequests() throws Exception {
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(DocumentConstants.GP_OUTBOX_SUBMISSION_SIZE, "3"));
+		//Map both identifier types in the standard test data set
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(DocumentConstants.GP_ID_MAPPINGS, "1a339fe9-38bc-4ab3-b180-320988c0b968:2.16.840.1.113883.1.3,"
+		            + "2f470aa8-1d73-43b7-81b5-01f0c0dfa53c:2.16.840.1.113883.1.4"));
+		markDueEntriesAsSent();
+		OutboxEntry entry1 = createEntry(1);
+		OutboxEntry entry2 = createEntry(4);
+		OutboxEntry entry3 = createEntry(200);
+		TestUtils.createPostStub(true);
+		
+		assertEquals(3, dispatcher.dispatch());
+		
+		//Case reports 1 and 200 belong to the same patient
+		WireMock.verify(2, WireMock.postRequestedFor(WireMock.urlEqualTo("/xdsrepository")));
+		assertEquals(OutboxEntry.Status.SENT, service.getOutboxEntry(entry1.getId()).getStatus());
+		assertEquals(OutboxEntry.Status.SENT, service.getOutboxEntry(entry2.getId()).getStatus());
+		assertEquals(OutboxEntry.Status.SENT, service.getOutboxEntry(entry3.getId()).getStatus());
+	}
+	
+	/**
+	 * @see OutboxDispatcher#dispatch()
+	 * @verifies only mark the entries of the rejected documents in a request as failed
+	 */
+	@Test
+	public void dispatch_shouldOnlyMarkTheEntriesOfTheRejectedDocumentsInARequestAsFailed() throws Exception {
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(DocumentConstants.GP_OUTBOX_SUBMISSION_SIZE, "2"));
+		markDueEntriesAsSent();
+		OutboxEntry entry1 = createEntry(1);
+		OutboxEntry entry2 = createEntry(200);
+		TestUtils.createFailurePostStub("batch_failure_response.xml");
+		
+		assertEquals(0, dispatcher.dispatch());
+		
+		entry1 = service.getOutboxEntry(entry1.getId());
+		assertTrue(entry1.isPending());
+		assertEquals(0, entry1.getAttemptCount());
+		assertNull(entry1.getLastError());
+		entry2 = service.getOutboxEntry(entry2.getId());
+		assertTrue(entry2.isPending());
+		assertEquals(1, entry2.getAttemptCount());
+		assertTrue(entry2.getLastError().indexOf("XDSPatientIdDoesNotMatch") > -1);
+	}
+	
+	/**
+	 * @see OutboxDispatcher#dispatch()
+	 * @verifies not resend the entries that are still due after an attempt in the same call
+	 */
+	@Test
+	public void dispatch_shouldNotResendTheEntriesThatAreStillDueAfterAnAttemptInTheSameCall() throws Exception {
+		final int submissionSize = 20;
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(DocumentConstants.GP_OUTBOX_SUBMISSION_SIZE, String.valueOf(submissionSize)));
+		markDueEntriesAsSent();
+		//The entries of case report 1 are left due, they are more than a page of due entries
+		final int entryCount = 2 * DocumentConstants.OUTBOX_BATCH_SIZE;
+		List<OutboxEntry> entries = new ArrayList<>(entryCount);
+		for (int i = 0; i < entryCount; i++) {
+			entries.add(createEntry(i % 2 == 0 ? 1 : 200));
+		}
+		TestUtils.createFailurePostStub("batch_failure_response.xml");
+		
+		assertEquals(0, dispatcher.dispatch());
+		
+		WireMock.verify(entryCount / submissionSize, WireMock.postRequestedFor(WireMock.urlEqualTo("/xdsrepository")));
+		for (OutboxEntry entry : entries) {
+			entry = service.getOutboxEntry(entry.getId());
+			assertTrue(entry.isPending());
+			assertEquals(entry.getCaseReport().getId() == 1 ? 0 : 1, entry.getAttemptCount());
+		}
+	}
+}
@@ -15,10 +15,14 @@ import static org.openmrs.module.casereport.TestUtils.attributeContainsText;
 import static org.openmrs.module.casereport.TestUtils.elementExists;
 import static org.openmrs.module.casereport.TestUtils.elementHasText;
 import static org.openmrs.module.casereport.TestUtils.getAttribute;
+import static org.openmrs.module.casereport.TestUtils.getAttributes;
+import static org.openmrs.module.casereport.TestUtils.getCount;
 import static org.openmrs.module.casereport.TestUtils.getElement;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.UUID;
 
 import javax.xml.bind.JAXBContext;
@@ -29,8 +33,13 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import org.dcm4chee.xds2.common.XDSConstants;
 import org.dcm4chee.xds2.infoset.ihe.ObjectFactory;
 import org.dcm4chee.xds2.infoset.ihe.ProvideAndRegisterDocumentSetRequestType;
+import org.hamcrest.Matchers;
+import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.openmrs.Provider;
+import org.openmrs.api.APIException;
 import org.openmrs.api.context.Context;
 import org.openmrs.module.casereport.api.CaseReportService;
 import org.openmrs.web.test.BaseModuleWebContextSensitiveTest;
@@ -40,6 +49,15 @@ public class ProvideAndRegisterDocGeneratorTest extends BaseModuleWebContextSens
 	
 	private ObjectFactory objectFactory = new ObjectFactory();
 	
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+	
+	@Before
+	public void setup() throws Exception {
+		//The test data sets are inserted without notifying the global property listeners
+		DocumentConfig.clear();
+	}
+	
 	/**
 	 * @see ProvideAndRegisterDocGenerator#generate()
 	 */
@@ -131,4 +149,101 @@ public class ProvideAndRegisterDocGeneratorTest extends BaseModuleWebContextSens
 		assertTrue(elementExists(doc, "//Association"));
 		assertTrue(elementHasText(doc, "//*[local-name() = 'Document']"));
 	}
+	
+	private CaseReportForm createForm(Integer caseReportId) throws Exception {
+		CaseReport caseReport = Context.getService(CaseReportService.class).getCaseReport(caseReportId);
+		CaseReportForm form = new CaseReportForm(caseReport);
+		Provider provider = Context.getProviderService().getProvider(1);
+		form.setSubmitter(new UuidAndValue(provider.getUuid(), provider.getIdentifier()));
+		return form;
+	}
+	
+	private Document toDocument(ProvideAndRegisterDocumentSetRequestType docRequest) throws Exception {
+		JAXBElement docRequestElement = objectFactory.createProvideAndRegisterDocumentSetRequest(docRequest);
+		Marshaller marshaller = JAXBContext.newInstance(ProvideAndRegisterDocumentSetRequestType.class).createMarshaller();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		marshaller.marshal(docRequestElement, out);
+		return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new ByteArrayInputStream(out.toByteArray()));
+	}
+	
+	/**
+	 * @see ProvideAndRegisterDocGenerator#generate()
+	 * @verifies generate a request with a document entry and association for each form
+	 */
+	@Test
+	public void generate_shouldGenerateARequestWithADocumentEntryAndAssociationForEachForm() throws Exception {
+		executeDataSet("moduleTestData-initial.xml");
+		executeDataSet("moduleTestData-other.xml");
+		executeDataSet("moduleTestData-HIE.xml");
+		CaseReportForm form1 = createForm(1);
+		CaseReportForm form2 = createForm(200);
+		
+		ProvideAndRegisterDocumentSetRequestType docRequest = new ProvideAndRegisterDocGenerator(Arrays.asList(form1,
+		    form2)).generate();
+		
+		assertEquals(2, docRequest.getDocument().size());
+		assertEquals("Document1", docRequest.getDocument().get(0).getId());
+		assertEquals("Document2", docRequest.getDocument().get(1).getId());
+		Document doc = toDocument(docRequest);
+		assertEquals(2, getCount(doc, "//ExtrinsicObject"));
+		assertEquals(1, getCount(doc, "//RegistryPackage"));
+		assertEquals(2, getCount(doc, "//Association"));
+		assertEquals("SubSet1", getAttribute(doc, "//Association[@id='Assoc2']", "sourceObject"));
+		assertEquals("Document2", getAttribute(doc, "//Association[@id='Assoc2']", "targetObject"));
+		final String idScheme = "identificationScheme";
+		final String uniqueIdPath = "//ExtrinsicObject[@id='%s']/ExternalIdentifier[@" + idScheme + "='"
+		        + XDSConstants.UUID_XDSDocumentEntry_uniqueId + "']";
+		assertEquals(ProvideAndRegisterDocGenerator.getDocumentUniqueId(form1.getReportUuid()),
+		    getAttribute(doc, String.format(uniqueIdPath, "Document1"), "value"));
+		assertEquals(ProvideAndRegisterDocGenerator.getDocumentUniqueId(form2.getReportUuid()),
+		    getAttribute(doc, String.format(uniqueIdPath, "Document2"), "value"));
+		//The ids of the classifications and external identifiers should be unique across documents
+		assertEquals(getCount(doc, "//*[@id]"), new HashSet<>(getAttributes(doc, "//*[@id]", "id")).size());
+	}
+	
+	/**
+	 * @see ProvideAndRegisterDocGenerator#extractDocumentRequest(ProvideAndRegisterDocumentSetRequestType,
+	 *      String)
+	 * @verifies extract the document with the specified id
+	 */
+	@Test
+	public void extractDocumentRequest_shouldExtractTheDocumentWithTheSpecifiedId() throws Exception {
+		executeDataSet("moduleTestData-initial.xml");
+		executeDataSet("moduleTestData-other.xml");
+		executeDataSet("moduleTestData-HIE.xml");
+		ProvideAndRegisterDocumentSetRequestType docRequest = new ProvideAndRegisterDocGenerator(Arrays.asList(
+		    createForm(1), createForm(200))).generate();
+		
+		ProvideAndRegisterDocumentSetRequestType extracted = ProvideAndRegisterDocGenerator.extractDocumentRequest(
+		    docRequest, "Document2");
+		
+		assertEquals(1, extracted.getDocument().size());
+		assertEquals("Document2", extracted.getDocument().get(0).getId());
+		Document doc = toDocument(extracted);
+		assertEquals(1, getCount(doc, "//ExtrinsicObject"));
+		assertEquals("Document2", getAttribute(doc, "//ExtrinsicObject", "id"));
+		assertEquals(1, getCount(doc, "//RegistryPackage"));
+		assertEquals(1, getCount(doc, "//Association"));
+		assertEquals("Document2", getAttribute(doc, "//Association", "targetObject"));
+	}
+	
+	/**
+	 * @see ProvideAndRegisterDocGenerator#generate()
+	 * @verifies fail if the forms belong to different patients
+	 */
+	@Test
+	public void generate_shouldFailIfTheFormsBelongToDifferentPatients() throws Exception {
+		executeDataSet("moduleTestData-initial.xml");
+		executeDataSet("moduleTestData-other.xml");
+		executeDataSet("moduleTestData-HIE.xml");
+		CaseReportForm form1 = createForm(1);
+		CaseReportForm form2 = createForm(200);
+		UuidAndValue identifier = form1.getPatientIdentifier();
+		form2.setPatientIdentifier(new UuidAndValue(identifier.getUuid(), identifier.getValue() + "-other"));
+		expectedException.expect(APIException.class);
+		expectedException.expectMessage(Matchers
+		        .equalTo("All the documents in a provide and register request must belong to the same patient"));
+		
+		new ProvideAndRegisterDocGenerator(Arrays.asList(form1, form2)).generate();
+	}
 }
@@ -11,8 +11,11 @@ package org.openmrs.module.casereport;
 
 import java.io.IOException;
 import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
@@ -25,6 +28,7 @@ import org.openmrs.api.AdministrationService;
 import org.openmrs.api.context.Context;
 import org.openmrs.util.OpenmrsClassLoader;
 import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
 
 import com.github.tomakehurst.wiremock.client.WireMock;
 
@@ -46,6 +50,15 @@ public class TestUtils {
 	public static void createPostStub(boolean withSuccessResponse) throws IOException {
 		
 		final int sc = withSuccessResponse ? HttpStatus.SC_OK : HttpStatus.SC_INTERNAL_SERVER_ERROR;
+		createPostStub(sc, getResponse(withSuccessResponse));
+	}
+	
+	public static void createFailurePostStub(String responseFilename) throws IOException {
+		createPostStub(HttpStatus.SC_INTERNAL_SERVER_ERROR,
+		    IOUtils.toString(OpenmrsClassLoader.getInstance().getResourceAsStream(responseFilename)));
+	}
+	
+	private static void createPostStub(int sc, String responseBody) {
 		
 		WireMock.stubFor(WireMock
 		        .post(WireMock.urlEqualTo("/xdsrepository"))
@@ -53,7 +66,7 @@ public class TestUtils {
 		        .withBasicAuth("fake user", "fake password")
 		        .willReturn(
 		            WireMock.aResponse().withStatus(sc).withHeader("Content-Type", CONTENT_TYPE)
-		                    .withBody(getResponse(withSuccessResponse))));
+		                    .withBody(responseBody)));
 	}
 	
 	public static String getElement(Document doc, String path) throws XPathExpressionException {
@@ -81,6 +94,16 @@ public class TestUtils {
 		return xpath.compile(path + "/@" + attribute).evaluate(doc);
 	}
 	
+	public static List<String> getAttributes(Document doc, String path, String attribute)
+	    throws XPathExpressionException {
+		NodeList nodes = (NodeList) xpath.compile(path + "/@" + attribute).evaluate(doc, XPathConstants.NODESET);
+		List<String> values = new ArrayList<>(nodes.getLength());
+		for (int i = 0; i < nodes.getLength(); i++) {
+			values.add(nodes.item(i).getNodeValue());
+		}
+		return values;
+	}
+	
 	public static boolean elementHasText(Document doc, String path) throws XPathExpressionException {
 		return StringUtils.isNotBlank(getElement(doc, path));
 	}
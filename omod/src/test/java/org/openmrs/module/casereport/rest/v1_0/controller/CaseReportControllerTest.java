@@ -34,6 +34,8 @@ import org.openmrs.module.casereport.DocumentConstants;
 import org.openmrs.module.casereport.DocumentUtil;
 import org.openmrs.module.casereport.api.CaseReportService;
 import org.openmrs.module.casereport.rest.CaseReportRestConstants;
+import org.openmrs.module.casereport.rest.CaseReportRestException;
+import org.openmrs.module.casereport.rest.CountedPage;
 import org.openmrs.module.casereport.rest.v1_0.resource.CaseReportResourceTest;
 import org.openmrs.module.webservices.rest.SimpleObject;
 import org.openmrs.module.webservices.rest.test.Util;
@@ -155,6 +157,38 @@ public class CaseReportControllerTest extends BaseCaseReportRestControllerTest {
 		assertEquals(getAllCount(), Util.getResultsSize(result));
 	}
 	
+	@Test
+	public void shouldGetTheSpecifiedPageOfTheCaseReportQueue() throws Exception {
+		Parameter[] params = new Parameter[] { new Parameter(RestConstants.REQUEST_PROPERTY_FOR_START_INDEX, "1"),
+		        new Parameter(RestConstants.REQUEST_PROPERTY_FOR_LIMIT, "1") };
+		SimpleObject result = deserialize(handle(newGetRequest(getURI(), params)));
+		
+		assertEquals(1, Util.getResultsSize(result));
+		CaseReport expected = service.getCaseReports(null, false, "dateCreated", true, 1, 1, CaseReport.Status.NEW,
+		    CaseReport.Status.DRAFT).get(0);
+		assertEquals(expected.getUuid(), Util.getByPath(Util.getResultsList(result).get(0), "uuid"));
+		assertTrue(getAllCount() > 2);
+		assertNotNull(result.get("links"));
+	}
+	
+	@Test
+	public void shouldSortTheCaseReportsByTheSpecifiedProperty() throws Exception {
+		Parameter[] params = new Parameter[] { new Parameter(CaseReportRestConstants.PARAM_ORDER_BY, "dateCreated"),
+		        new Parameter(CaseReportRestConstants.PARAM_ORDER, CaseReportRestConstants.ORDER_DESC) };
+		SimpleObject result = deserialize(handle(newGetRequest(getURI(), params)));
+		
+		List<CaseReport> expected = service.getCaseReports();
+		Collections.reverse(expected);
+		assertEquals(expected.size(), Util.getResultsSize(result));
+		assertEquals(expected.get(0).getUuid(), Util.getByPath(Util.getResultsList(result).get(0), "uuid"));
+	}
+	
+	@Test
+	public void shouldFailToSortTheCaseReportsByAnUnsupportedProperty() throws Exception {
+		expectedException.expect(CaseReportRestException.class);
+		handle(newGetRequest(getURI(), new Parameter(CaseReportRestConstants.PARAM_ORDER_BY, "reportForm")));
+	}
+	
 	@Test
 	public void shouldFetchAllUnvoidedSubmittedCaseReports() throws Exception {
 		SimpleObject responseData = deserialize(handle(newGetRequest(getURI(), new Parameter(
@@ -199,6 +233,42 @@ public class CaseReportControllerTest extends BaseCaseReportRestControllerTest {
 		    Util.getByPath(Util.getResultsList(responseData).get(0), "uuid"));
 	}
 	
+	@Test
+	public void shouldFilterTheCaseReportsByTriggerName() throws Exception {
+		Parameter[] params = new Parameter[] { new Parameter(RestConstants.REQUEST_PROPERTY_FOR_SEARCH_ID, "filter"),
+		        new Parameter(CaseReportRestConstants.PARAM_TRIGGER, "follow") };
+		SimpleObject responseData = deserialize(handle(newGetRequest(getURI(), params)));
+		assertEquals(1, Util.getResultsSize(responseData));
+		assertEquals("7u7d57f0-9077-11e1-aaa4-00248140a5ec",
+		    Util.getByPath(Util.getResultsList(responseData).get(0), "uuid"));
+	}
+	
+	@Test
+	public void shouldFilterTheCaseReportsByPatientAndResolutionDate() throws Exception {
+		Parameter[] params = new Parameter[] { new Parameter(RestConstants.REQUEST_PROPERTY_FOR_SEARCH_ID, "filter"),
+		        new Parameter(RestConstants.REQUEST_PROPERTY_FOR_QUERY, "Collet"),
+		        new Parameter(CaseReportRestConstants.PARAM_STATUS, CaseReport.Status.SUBMITTED.name()),
+		        new Parameter(CaseReportRestConstants.PARAM_FROM_RESOLUTION_DATE, "2016-04-01"),
+		        new Parameter(CaseReportRestConstants.PARAM_TO_RESOLUTION_DATE, "2016-04-01") };
+		SimpleObject responseData = deserialize(handle(newGetRequest(getURI(), params)));
+		assertEquals(2, Util.getResultsSize(responseData));
+		
+		params[4] = new Parameter(CaseReportRestConstants.PARAM_TO_RESOLUTION_DATE, "2016-03-31");
+		responseData = deserialize(handle(newGetRequest(getURI(), params)));
+		assertEquals(0, Util.getResultsSize(responseData));
+	}
+	
+	@Test
+	public void shouldIncludeTheTotalCountWhenRequested() throws Exception {
+		Parameter[] params = new Parameter[] { new Parameter(RestConstants.REQUEST_PROPERTY_FOR_SEARCH_ID, "filter"),
+		        new Parameter(CaseReportRestConstants.PARAM_STATUS, "NEW,DRAFT"),
+		        new Parameter(RestConstants.REQUEST_PROPERTY_FOR_LIMIT, "1"),
+		        new Parameter(CaseReportRestConstants.PARAM_TOTAL_COUNT, "true") };
+		SimpleObject responseData = deserialize(handle(newGetRequest(getURI(), params)));
+		assertEquals(1, Util.getResultsSize(responseData));
+		assertEquals(getAllCount(), ((Number) responseData.get(CountedPage.PROPERTY_TOTAL_COUNT)).longValue());
+	}
+	
 	@Test
 	public void shouldFetchTheSavedDocumentOfAGivenCaseReport() throws Exception {
 		final String uuid = "5e7d57f0-9077-11e1-aaa4-00248140a5ec";
@@ -0,0 +1,70 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ * 
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport.rest.v1_0.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.module.casereport.OutboxEntry;
+import org.openmrs.module.casereport.api.CaseReportService;
+import org.openmrs.module.casereport.rest.CaseReportRestConstants;
+import org.openmrs.module.webservices.rest.SimpleObject;
+import org.openmrs.module.webservices.rest.test.Util;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+public class OutboxEntryControllerTest extends BaseCaseReportRestControllerTest {
+	
+	@Autowired
+	private CaseReportService service;
+	
+	@Before
+	public void setup() throws Exception {
+		executeDataSet("moduleTestData-initial.xml");
+	}
+	
+	@Override
+	public String getURI() {
+		return "outboxentry";
+	}
+	
+	@Override
+	public String getUuid() {
+		return "0a8ddc1d-7c5f-4e2e-9e0e-2f4b3c6a1b03";
+	}
+	
+	@Override
+	public long getAllCount() {
+		return service.getOutboxEntries(OutboxEntry.Status.PENDING, OutboxEntry.Status.DEAD_LETTER).size();
+	}
+	
+	@Test
+	public void shouldSearchOutboxEntriesByStatus() throws Exception {
+		MockHttpServletRequest req = newGetRequest(getURI(), new Parameter(CaseReportRestConstants.PARAM_STATUS,
+		        OutboxEntry.Status.DEAD_LETTER.name()));
+		SimpleObject responseData = deserialize(handle(req));
+		assertEquals(1, Util.getResultsSize(responseData));
+		assertEquals(getUuid(), Util.getByPath(responseData, "results[0]/uuid"));
+	}
+	
+	@Test
+	public void shouldRequeueADeadLetterOutboxEntry() throws Exception {
+		OutboxEntry entry = service.getOutboxEntryByUuid(getUuid());
+		assertTrue(entry.isDeadLetter());
+		
+		handle(newPostRequest(getURI() + "/" + getUuid(), "{\"status\":\"" + OutboxEntry.Status.PENDING + "\"}"));
+		
+		entry = service.getOutboxEntryByUuid(getUuid());
+		assertTrue(entry.isPending());
+		assertEquals(0, entry.getAttemptCount());
+	}
+}
@@ -19,11 +19,13 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.openmrs.api.context.Context;
 import org.openmrs.module.casereport.CaseReport;
 import org.openmrs.module.casereport.CaseReportForm;
 import org.openmrs.module.casereport.CaseReportUtil;
 import org.openmrs.module.casereport.TestUtils;
 import org.openmrs.module.casereport.api.CaseReportService;
+import org.openmrs.module.casereport.rest.CaseReportRestException;
 import org.openmrs.module.casereport.rest.StatusChange;
 import org.openmrs.module.casereport.rest.v1_0.resource.CaseReportResourceTest;
 import org.openmrs.module.webservices.rest.web.response.ResourceDoesNotSupportOperationException;
@@ -129,4 +131,36 @@ public class StatusChangeControllerTest extends BaseCaseReportRestControllerTest
 		handle(newPostRequest(getURI(), "{\"action\":\"" + StatusChange.Action.DISMISS + "\"}"));
 		assertTrue(cr.isDismissed());
 	}
+	
+	@Test
+	public void shouldFailToDismissACaseReportThatWasModifiedSinceItWasLoaded() throws Exception {
+		CaseReport cr = service.getCaseReportByUuid(getParentUuid());
+		Integer staleVersion = cr.getVersion() - 1;
+		expectedException.expect(CaseReportRestException.class);
+		
+		handle(newPostRequest(getURI(), "{\"action\":\"" + StatusChange.Action.DISMISS + "\",\"version\":" + staleVersion
+		        + "}"));
+	}
+	
+	@Test
+	public void shouldFailToDismissACaseReportWhoseDraftWasSavedSinceItWasLoaded() throws Exception {
+		CaseReport cr = service.getCaseReportByUuid(getParentUuid());
+		Integer loadedVersion = cr.getVersion();
+		cr.setReportForm("{\"fullName\":\"Horatio Test Hornblower\"}");
+		service.saveCaseReport(cr);
+		Context.flushSession();
+		expectedException.expect(CaseReportRestException.class);
+		
+		handle(newPostRequest(getURI(), "{\"action\":\"" + StatusChange.Action.DISMISS + "\",\"version\":" + loadedVersion
+		        + "}"));
+	}
+	
+	@Test
+	public void shouldDismissTheCaseReportIfTheVersionMatches() throws Exception {
+		CaseReport cr = service.getCaseReportByUuid(getParentUuid());
+		assertFalse(cr.isDismissed());
+		handle(newPostRequest(getURI(), "{\"action\":\"" + StatusChange.Action.DISMISS + "\",\"version\":"
+		        + cr.getVersion() + "}"));
+		assertTrue(cr.isDismissed());
+	}
 }
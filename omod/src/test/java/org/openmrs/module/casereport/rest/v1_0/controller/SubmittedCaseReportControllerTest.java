@@ -0,0 +1,99 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.casereport.rest.v1_0.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.openmrs.module.casereport.CaseReport;
+import org.openmrs.module.casereport.api.CaseReportSearchCriteria;
+import org.openmrs.module.casereport.api.CaseReportService;
+import org.openmrs.module.webservices.rest.SimpleObject;
+import org.openmrs.module.webservices.rest.test.Util;
+import org.openmrs.module.webservices.rest.web.RestConstants;
+import org.openmrs.module.webservices.rest.web.response.ResourceDoesNotSupportOperationException;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class SubmittedCaseReportControllerTest extends BaseCaseReportRestControllerTest {
+	
+	@Autowired
+	private CaseReportService service;
+	
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+	
+	@Before
+	public void setup() throws Exception {
+		executeDataSet("moduleTestData-initial.xml");
+	}
+	
+	@Override
+	public String getURI() {
+		return "submittedcasereport";
+	}
+	
+	@Override
+	public String getUuid() {
+		return null;
+	}
+	
+	@Override
+	public long getAllCount() {
+		return service.getCaseReportCount(new CaseReportSearchCriteria(null, false, CaseReport.Status.SUBMITTED));
+	}
+	
+	@Override
+	public void shouldGetDefaultByUuid() throws Exception {
+		expectedException.expect(ResourceDoesNotSupportOperationException.class);
+		super.shouldGetRefByUuid();
+	}
+	
+	@Override
+	public void shouldGetFullByUuid() throws Exception {
+		expectedException.expect(ResourceDoesNotSupportOperationException.class);
+		super.shouldGetRefByUuid();
+	}
+	
+	@Override
+	public void shouldGetRefByUuid() throws Exception {
+		expectedException.expect(ResourceDoesNotSupportOperationException.class);
+		super.shouldGetRefByUuid();
+	}
+	
+	@Test
+	public void shouldGetTheSubmittedCaseReportsWithTheMostRecentFirst() throws Exception {
+		SimpleObject result = deserialize(handle(newGetRequest(getURI())));
+		List<Object> items = Util.getResultsList(result);
+		assertEquals(2, items.size());
+		assertEquals("917d57f0-9088-11e1-aaa4-00248140a5ec", Util.getByPath(items.get(0), "uuid"));
+		assertEquals("5e7d57f0-9077-11e1-aaa4-00248140a5ec", Util.getByPath(items.get(1), "uuid"));
+		assertEquals(Arrays.asList("HIV Switched To Second Line"), Util.getByPath(items.get(0), "triggers"));
+		assertFalse(((Map) items.get(0)).containsKey("reportForm"));
+	}
+	
+	@Test
+	public void shouldFilterTheSubmittedCaseReportsByPatient() throws Exception {
+		SimpleObject result = deserialize(handle(newGetRequest(getURI(), new Parameter(
+		        RestConstants.REQUEST_PROPERTY_FOR_QUERY, "Collet"))));
+		assertEquals(2, Util.getResultsSize(result));
+		
+		result = deserialize(handle(newGetRequest(getURI(), new Parameter(RestConstants.REQUEST_PROPERTY_FOR_QUERY,
+		        "Hornblower"))));
+		assertEquals(0, Util.getResultsSize(result));
+	}
+}
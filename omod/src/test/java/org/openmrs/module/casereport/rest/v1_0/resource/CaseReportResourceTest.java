@@ -49,6 +49,7 @@ public class CaseReportResourceTest extends BaseDelegatingResourceTest<CaseRepor
 		assertPropPresent("patient");
 		assertPropEquals("status", getObject().getStatus());
 		assertPropEquals("voided", getObject().getVoided());
+		assertPropEquals("version", getObject().getVersion());
 		assertPropPresent("patient");
 		assertPropPresent("resolutionDate");
 		assertPropPresent("reportTriggers");
@@ -61,6 +62,7 @@ public class CaseReportResourceTest extends BaseDelegatingResourceTest<CaseRepor
 		super.validateFullRepresentation();
 		assertPropEquals("status", getObject().getStatus());
 		assertPropEquals("voided", getObject().getVoided());
+		assertPropEquals("version", getObject().getVersion());
 		assertPropPresent("reportForm");
 		assertPropPresent("patient");
 		assertPropPresent("resolutionDate");